@@ -0,0 +1,94 @@
+package main.bench;
+
+import jakarta.servlet.FilterChain;
+import main.config.JwtAuthenticationFilter;
+import main.config.VerifiedTokenCache;
+import main.model.User;
+import main.util.AuthPrincipal;
+import main.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auth filter throughput with 8 request threads, with and without the per-request console lines
+ * the filter used to print.
+ *
+ *   legacyPrintln  the cached filter plus the "Request Path" and "Authenticated user" lines,
+ *                  through a PrintStream like System.out (synchronized, autoflush) into a
+ *                  null stream, so only the formatting and lock contention are measured
+ *   slf4j          the filter as it is now: its only log line is at DEBUG, which is off
+ *
+ * A real console is slower than the null stream, so the legacy numbers are a lower bound.
+ *
+ *   ./gradlew jmh -PjmhIncludes=AuthFilterLoggingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class AuthFilterLoggingBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String authHeader;
+    private JwtAuthenticationFilter filter;
+    private PrintStream console;
+
+    @Setup
+    public void setup() throws Exception {
+        User user = new User();
+        user.setId("bench-user-id");
+        user.setEmail("bench@example.com");
+        user.setName("Bench");
+        user.setRole("m");
+        authHeader = "Bearer " + JwtUtil.generateToken(user);
+
+        filter = new JwtAuthenticationFilter(new VerifiedTokenCache(null, 10_000, 300));
+        console = new PrintStream(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8);
+        slf4j(); // warm the cache entry
+    }
+
+    @Benchmark
+    public Object legacyPrintln() throws Exception {
+        MockHttpServletRequest request = request();
+        console.println("🔍 Request Path: " + request.getRequestURI());
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            AuthPrincipal principal = (AuthPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            console.println("✅ Authenticated user: " + principal.getEmail() + " with role " + principal.getRole());
+            return principal;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public Object slf4j() throws Exception {
+        try {
+            filter.doFilter(request(), new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        request.addHeader("Authorization", authHeader);
+        return request;
+    }
+}
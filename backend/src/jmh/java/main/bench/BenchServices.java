@@ -0,0 +1,22 @@
+package main.bench;
+
+import main.repository.ChatRepository;
+import main.repository.FeedbackRepository;
+import main.service.FirestoreService;
+
+/**
+ * Builds a FirestoreService over in-memory repositories for benchmarks that go through the
+ * service. Only the repositories a benchmark reads are passed in; the rest stay null.
+ */
+final class BenchServices {
+
+    static final int UNPAGED_CAP = 1000; // listing.unpaged-cap default
+
+    private BenchServices() {
+    }
+
+    static FirestoreService firestoreService(FeedbackRepository feedback, ChatRepository chats) {
+        return new FirestoreService(null, null, null, null, null, null, null, feedback, chats,
+                null, null, null, null, null, 50, 200, UNPAGED_CAP);
+    }
+}
@@ -0,0 +1,92 @@
+package main.bench;
+
+import com.google.cloud.Timestamp;
+import main.dto.Page;
+import main.model.ChatMessage;
+import main.repository.ChatRepository;
+import main.repository.ChatRepository.MessageWrite;
+import main.repository.memory.MemoryChatRepository;
+import main.service.FirestoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the history of one conversation.
+ *
+ *   legacyMergeSort  what getMessagesBetweenUsers used to do: concatenate the sent and received
+ *                    query results and sort them by their ISO timestamp strings
+ *   latest           getMessagesBetweenUsers: the newest messages up to the unpaged cap, oldest first
+ *   firstPage        getMessageHistory: the newest page of 50
+ *
+ *   ./gradlew jmh -PjmhIncludes=ChatHistoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatHistoryBenchmark {
+
+    private static final String ALICE = "user-alice";
+    private static final String BOB = "user-bob";
+
+    @Param({"200", "2000"})
+    public int messageCount;
+
+    private List<ChatMessage> sent;
+    private List<ChatMessage> received;
+    private FirestoreService firestoreService;
+
+    @Setup
+    public void setup() throws Exception {
+        sent = new ArrayList<>();
+        received = new ArrayList<>();
+        MemoryChatRepository chats = new MemoryChatRepository();
+        String pairId = ChatRepository.conversationId(ALICE, BOB);
+
+        long start = Instant.parse("2025-05-20T12:00:00Z").toEpochMilli();
+        List<MessageWrite> writes = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            // Bursts from one side, then the other, like a real conversation
+            boolean fromAlice = (i / 3) % 2 == 0;
+            long sentAtMillis = start + i * 7_000L;
+            ChatMessage message = new ChatMessage(fromAlice ? ALICE : BOB, fromAlice ? BOB : ALICE,
+                    "Message " + i, Instant.ofEpochMilli(sentAtMillis).toString());
+            message.setId(chats.newMessageId(pairId));
+            (fromAlice ? sent : received).add(message);
+            writes.add(new MessageWrite(pairId, message, Timestamp.ofTimeMicroseconds(sentAtMillis * 1000)));
+        }
+        chats.append(writes, Map.of(ALICE, "Alice", BOB, "Bob"));
+        firestoreService = BenchServices.firestoreService(null, chats);
+    }
+
+    @Benchmark
+    public List<ChatMessage> legacyMergeSort() {
+        List<ChatMessage> result = new ArrayList<>(sent.size() + received.size());
+        result.addAll(sent);
+        result.addAll(received);
+        result.sort(Comparator.comparing(ChatMessage::getTimestamp));
+        return result;
+    }
+
+    @Benchmark
+    public List<ChatMessage> latest() throws Exception {
+        return firestoreService.getMessagesBetweenUsers(ALICE, BOB);
+    }
+
+    @Benchmark
+    public Page<ChatMessage> firstPage() throws Exception {
+        return firestoreService.getMessageHistory(ALICE, BOB, 50, null);
+    }
+}
@@ -0,0 +1,75 @@
+package main.bench;
+
+import main.dto.Page;
+import main.repository.memory.MemoryFeedbackRepository;
+import main.service.FirestoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping feedback replies under their threads, read from the in-memory store (whose
+ * copy-on-read stands in for Firestore's document decoding).
+ *
+ *   withReplies  getFeedbackWithReplies: every entry up to the unpaged cap, grouped in one pass
+ *   firstPage    getFeedbackPage: one page of threads plus a replies query for just those threads
+ *
+ *   ./gradlew jmh -PjmhIncludes=FeedbackBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeedbackBenchmark {
+
+    @Param({"50", "250"})
+    public int threads;
+
+    @Param({"3"})
+    public int repliesPerThread;
+
+    private FirestoreService firestoreService;
+
+    @Setup
+    public void setup() {
+        MemoryFeedbackRepository feedback = new MemoryFeedbackRepository();
+        for (int i = 0; i < threads; i++) {
+            feedback.add(entry("client-" + i, "Great work on the album, thanks!", null));
+        }
+        for (Map<String, Object> thread : feedback.findAll(threads)) {
+            for (int r = 0; r < repliesPerThread; r++) {
+                feedback.add(entry("manager-1", "Thank you for the kind words", (String) thread.get("id")));
+            }
+        }
+        firestoreService = BenchServices.firestoreService(feedback, null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> withReplies() throws Exception {
+        return firestoreService.getFeedbackWithReplies();
+    }
+
+    @Benchmark
+    public Page<Map<String, Object>> firstPage() throws Exception {
+        return firestoreService.getFeedbackPage(50, null);
+    }
+
+    private static Map<String, Object> entry(String userId, String message, String parentId) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("userId", userId);
+        entry.put("message", message);
+        entry.put("rating", 5);
+        entry.put("timestamp", "2025-05-20T12:00:00Z");
+        if (parentId != null) entry.put("parentId", parentId);
+        return entry;
+    }
+}
@@ -0,0 +1,94 @@
+package main.bench;
+
+import jakarta.servlet.FilterChain;
+import main.config.JwtAuthenticationFilter;
+import main.config.VerifiedTokenCache;
+import main.model.User;
+import main.util.AuthPrincipal;
+import main.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication.
+ *
+ *   legacyFourParses  what the filter used to do: validate, then extract email, role and ID separately
+ *   singleParse       one JwtUtil.parse
+ *   filterUncached    the filter with the verified-token cache turned off
+ *   filterCached      the filter when the token was seen before (the common case)
+ *
+ *   ./gradlew jmh -PjmhIncludes=JwtFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private String authHeader;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+
+    @Setup
+    public void setup() throws Exception {
+        User user = new User();
+        user.setId("bench-user-id");
+        user.setEmail("bench@example.com");
+        user.setName("Bench");
+        user.setRole("m");
+        token = JwtUtil.generateToken(user);
+        authHeader = "Bearer " + token;
+
+        // The bench token carries every claim, so no user lookup (and no FirestoreService) is needed
+        uncachedFilter = new JwtAuthenticationFilter(new VerifiedTokenCache(null, 0, 300));
+        cachedFilter = new JwtAuthenticationFilter(new VerifiedTokenCache(null, 10_000, 300));
+        filter(cachedFilter); // warm the cache entry
+    }
+
+    @Benchmark
+    public void legacyFourParses(Blackhole bh) {
+        bh.consume(JwtUtil.validateToken(token));
+        bh.consume(JwtUtil.extractEmail(token));
+        bh.consume(JwtUtil.extractRole(token));
+        bh.consume(JwtUtil.extractUserId(token));
+    }
+
+    @Benchmark
+    public AuthPrincipal singleParse() {
+        return JwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public Object filterUncached() throws Exception {
+        return filter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCached() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    private Object filter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        request.addHeader("Authorization", authHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
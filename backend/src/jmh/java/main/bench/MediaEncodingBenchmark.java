@@ -0,0 +1,96 @@
+package main.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.model.MediaRef;
+import main.service.MediaStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Storing one uploaded media file.
+ *
+ *   legacyBase64    what attachFinalMediaToProject used to do: Base64 the bytes into the project document
+ *   storeNew        the chunk store with content it has not seen (hash, write chunks and manifest)
+ *   storeDuplicate  the chunk store with content it already holds (hash only)
+ *
+ * The store writes to a temp directory that is wiped after each iteration.
+ *
+ *   ./gradlew jmh -PjmhIncludes=MediaEncodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MediaEncodingBenchmark {
+
+    private static final int CHUNK_SIZE = 1_048_576; // media.chunk-size default
+
+    @Param({"262144", "4194304"})
+    public int fileSize;
+
+    private byte[] content;
+    private long counter;
+    private Path uploadDir;
+    private MediaStorageService mediaStorage;
+
+    @Setup
+    public void setup() {
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStore() throws IOException {
+        uploadDir = Files.createTempDirectory("media-bench");
+        mediaStorage = new MediaStorageService(uploadDir.toString(), CHUNK_SIZE, new SimpleMeterRegistry());
+        mediaStorage.store(new ByteArrayInputStream(content), "IMG_0001.jpg", "image/jpeg");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteStore() throws IOException {
+        try (Stream<Path> paths = Files.walk(uploadDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String legacyBase64() {
+        return Base64.getEncoder().encodeToString(content);
+    }
+
+    @Benchmark
+    public MediaRef storeNew() throws IOException {
+        // Stamp every chunk so none of them is already in the store
+        byte[] upload = content.clone();
+        long stamp = ++counter;
+        for (int offset = 0; offset + Long.BYTES <= upload.length; offset += CHUNK_SIZE) {
+            ByteBuffer.wrap(upload, offset, Long.BYTES).putLong(stamp);
+        }
+        return mediaStorage.store(new ByteArrayInputStream(upload), "IMG_0001.jpg", "image/jpeg");
+    }
+
+    @Benchmark
+    public MediaRef storeDuplicate() throws IOException {
+        return mediaStorage.store(new ByteArrayInputStream(content), "IMG_0001.jpg", "image/jpeg");
+    }
+}
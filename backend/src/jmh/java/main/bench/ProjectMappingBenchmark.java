@@ -0,0 +1,134 @@
+package main.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.dto.ProjectResponse;
+import main.model.MediaRef;
+import main.model.Project;
+import main.model.ProjectSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a listing's worth of projects into API responses.
+ *
+ *   fromProject        full Project documents, each carrying media and final media refs
+ *   fromSummary        the media-free summaries the list endpoints read
+ *   serializeProject   the JSON body a list endpoint sent before summaries
+ *   serializeSummary   the JSON body it sends now
+ *
+ * Setup prints the serialized bytes of one listing for each side, so a run reports payload
+ * size next to the time per listing.
+ *
+ *   ./gradlew jmh -PjmhIncludes=ProjectMappingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectMappingBenchmark {
+
+    @Param({"50", "1000"})
+    public int projectCount;
+
+    @Param({"20"})
+    public int mediaPerProject;
+
+    private List<Project> projects;
+    private List<ProjectSummary> summaries;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        projects = new ArrayList<>(projectCount);
+        summaries = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            Project project = new Project();
+            project.setId("project-" + i);
+            project.setTitle("Wedding shoot " + i);
+            project.setDescription("Full-day coverage with two photographers and an editor");
+            project.setRequirements("RAW and edited JPEG delivery");
+            project.setCreationDate("2025-05-01T10:00:00Z");
+            project.setEndDate("2025-06-01");
+            project.setPrice("1500");
+            project.setStatus("active");
+            project.setType("wedding");
+            project.setmanagerId("manager-1");
+            project.setProjectTeamId("team-" + (i % 10));
+            project.setState(1);
+            project.setPhotographers(List.of("photographer-1", "photographer-2"));
+            project.setEditors(List.of("editor-1"));
+            project.setAssignedAt("2025-05-02T09:00:00Z");
+            project.setMedia(media(i, mediaPerProject));
+            project.setFinalMedia(media(i, mediaPerProject));
+            projects.add(project);
+
+            ProjectSummary summary = new ProjectSummary();
+            summary.setId(project.getId());
+            summary.setTitle(project.getTitle());
+            summary.setDescription(project.getDescription());
+            summary.setRequirements(project.getRequirements());
+            summary.setCreationDate(project.getCreationDate());
+            summary.setEndDate(project.getEndDate());
+            summary.setPrice(project.getPrice());
+            summary.setStatus(project.getStatus());
+            summary.setType(project.getType());
+            summary.setManagerId(project.getmanagerId());
+            summary.setProjectTeamId(project.getProjectTeamId());
+            summary.setState(project.getState());
+            summary.setPhotographers(project.getPhotographers());
+            summary.setEditors(project.getEditors());
+            summary.setAssignedAt(project.getAssignedAt());
+            summaries.add(summary);
+        }
+        System.out.printf("payload bytes per listing of %d: project=%d summary=%d%n",
+                projectCount, serializeProject().length, serializeSummary().length);
+    }
+
+    @Benchmark
+    public List<ProjectResponse> fromProject() {
+        List<ProjectResponse> responses = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            responses.add(new ProjectResponse(project));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<ProjectResponse> fromSummary() {
+        List<ProjectResponse> responses = new ArrayList<>(summaries.size());
+        for (ProjectSummary summary : summaries) {
+            responses.add(new ProjectResponse(summary));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializeProject() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(fromProject());
+    }
+
+    @Benchmark
+    public byte[] serializeSummary() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(fromSummary());
+    }
+
+    private static List<MediaRef> media(int project, int count) {
+        List<MediaRef> refs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = String.format("%064x", (long) project * 1000 + i);
+            refs.add(new MediaRef(id, "IMG_" + i + ".jpg", "image/jpeg", 4_500_000, "2025-05-20T12:00:00Z"));
+        }
+        return refs;
+    }
+}
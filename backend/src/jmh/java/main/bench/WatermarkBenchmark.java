@@ -0,0 +1,86 @@
+package main.bench;
+
+import main.util.ImageWatermark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watermarking one final-media upload: decode, draw the text, re-encode. The source image is
+ * a gradient with noise so the encoders do realistic work.
+ *
+ *   watermark          bytes in, bytes out
+ *   watermarkFromFile  decode from a file and encode into a stream, as MediaProcessingService does
+ *
+ *   ./gradlew jmh -PjmhIncludes=WatermarkBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WatermarkBenchmark {
+
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String size;
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    private byte[] image;
+    private Path imageFile;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] dims = size.split("x");
+        int width = Integer.parseInt(dims[0]);
+        int height = Integer.parseInt(dims[1]);
+
+        BufferedImage source = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(16)) & 0xff;
+                int g = (y * 255 / height + random.nextInt(16)) & 0xff;
+                int b = ((x + y) * 255 / (width + height) + random.nextInt(16)) & 0xff;
+                source.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(source, format, out);
+        image = out.toByteArray();
+        imageFile = Files.createTempFile("watermark-bench", "." + format);
+        Files.write(imageFile, image);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(imageFile);
+    }
+
+    @Benchmark
+    public byte[] watermark() throws Exception {
+        return ImageWatermark.apply(image, "Studio21", format);
+    }
+
+    @Benchmark
+    public OutputStream watermarkFromFile() throws Exception {
+        OutputStream out = OutputStream.nullOutputStream();
+        ImageWatermark.apply(imageFile, "Studio21", format, out);
+        return out;
+    }
+}
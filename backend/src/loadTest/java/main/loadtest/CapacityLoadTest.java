@@ -0,0 +1,127 @@
+package main.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop capacity test for one endpoint.
+ *
+ * For each concurrency level it keeps that many clients busy for a fixed duration and reports
+ * throughput, latency percentiles and errors. Run it once against the default server and once
+ * against the "virtual" profile, then compare at which level throughput stops growing.
+ *
+ *   ./gradlew bootRun                                   (platform threads, default)
+ *   SPRING_PROFILES_ACTIVE=virtual ./gradlew bootRun    (virtual threads)
+ *   ./gradlew loadTest -PbaseUrl=http://localhost:8080 -Ppath=/api/portfolio -Ptoken=... -Plevels=50,200,400,800
+ */
+public class CapacityLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+        String path = System.getProperty("path", "/api/portfolio");
+        String token = System.getProperty("token", "");
+        int seconds = Integer.parseInt(System.getProperty("seconds", "20"));
+        int[] levels = Arrays.stream(System.getProperty("levels", "50,100,200,400,800").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        URI target = URI.create(baseUrl + path);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("Target %s, %ds per level%n", target, seconds);
+        System.out.printf("%8s %10s %10s %10s %10s %10s %8s%n",
+                "clients", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+
+        for (int level : levels) {
+            Result result = runLevel(client, target, token, level, Duration.ofSeconds(seconds));
+            System.out.printf("%8d %10d %10.1f %10.1f %10.1f %10.1f %8d%n",
+                    level,
+                    result.latenciesNanos.length,
+                    result.latenciesNanos.length / (double) seconds,
+                    result.percentileMillis(50),
+                    result.percentileMillis(95),
+                    result.percentileMillis(99),
+                    result.errors);
+        }
+    }
+
+    private static Result runLevel(HttpClient client, URI target, String token, int clients, Duration duration)
+            throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (!token.isEmpty()) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> workers = new ArrayList<>();
+
+        // The client side uses virtual threads too, so it never caps the concurrency it is measuring
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.add(pool.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+
+            List<long[]> all = new ArrayList<>();
+            for (Future<long[]> worker : workers) {
+                all.add(worker.get());
+            }
+            long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(merged, errors.get());
+        }
+    }
+
+    private static final class Result {
+        final long[] latenciesNanos;
+        final int errors;
+
+        Result(long[] latenciesNanos, int errors) {
+            this.latenciesNanos = latenciesNanos;
+            this.errors = errors;
+        }
+
+        double percentileMillis(int p) {
+            if (latenciesNanos.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
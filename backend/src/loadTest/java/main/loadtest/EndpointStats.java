@@ -0,0 +1,62 @@
+package main.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies and errors for one endpoint over the measured window.
+ */
+final class EndpointStats {
+
+    private final String endpoint;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private int errors;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void success(long nanos) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = nanos;
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Percentiles, throughput and error rate over {@code seconds} of measurement.
+     */
+    synchronized Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        int requests = count + errors;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", endpoint);
+        summary.put("requests", requests);
+        summary.put("throughput", requests / seconds);
+        summary.put("errors", errors);
+        summary.put("errorRate", requests == 0 ? 0.0 : errors / (double) requests);
+        summary.put("p50Ms", percentileMillis(sorted, 50));
+        summary.put("p95Ms", percentileMillis(sorted, 95));
+        summary.put("p99Ms", percentileMillis(sorted, 99));
+        summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package main.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Just enough STOMP over a raw WebSocket ({@code /ws/websocket}, the SockJS endpoint's native
+ * transport) to measure chat round trips the way the frontend sees them.
+ *
+ * The server echoes every chat message to the sender's own {@code /user/queue/messages}, so
+ * {@link #send} returns once its own message comes back: queueing, persistence hand-off and
+ * broker delivery all included.
+ */
+final class StompChatSession implements WebSocket.Listener {
+
+    private static final String NONCE_PREFIX = "lt:";
+    private static final AtomicLong NONCES = new AtomicLong();
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+    private final StringBuilder buffer = new StringBuilder();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private WebSocket socket;
+
+    static StompChatSession connect(HttpClient client, URI uri, String origin, String token, Duration timeout)
+            throws Exception {
+        StompChatSession session = new StompChatSession();
+        session.socket = client.newWebSocketBuilder()
+                .header("Origin", origin)
+                .connectTimeout(timeout)
+                .buildAsync(uri, session)
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        session.sendFrame("CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n");
+        session.connected.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        session.sendFrame("SUBSCRIBE\nid:sub-0\ndestination:/user/queue/messages\n\n");
+        return session;
+    }
+
+    /**
+     * Sends a chat message and waits until the server delivers it back to this session.
+     */
+    void send(String receiverId, Duration timeout) throws Exception {
+        String nonce = Long.toString(NONCES.incrementAndGet());
+        CompletableFuture<Void> echo = new CompletableFuture<>();
+        pending.put(nonce, echo);
+        try {
+            String body = "{\"receiverId\":\"" + receiverId + "\",\"content\":\"" + NONCE_PREFIX + nonce
+                    + "\",\"timestamp\":\"" + Instant.now() + "\"}";
+            sendFrame("SEND\ndestination:/app/chat.send\ncontent-type:application/json\n\n" + body);
+            echo.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            pending.remove(nonce);
+        }
+    }
+
+    void close() {
+        try {
+            sendFrame("DISCONNECT\n\n");
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            socket.abort();
+        }
+    }
+
+    // WebSocket allows one outstanding send at a time. Not synchronized: waiting inside it pins the
+    // virtual thread's carrier, and on a small machine the send can then never complete
+    private void sendFrame(String frame) throws Exception {
+        sendLock.lock();
+        try {
+            socket.sendText(frame + "\0", true).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        synchronized (buffer) {
+            buffer.append(data);
+            int end;
+            while ((end = buffer.indexOf("\0")) >= 0) {
+                String frame = buffer.substring(0, end);
+                buffer.delete(0, end + 1);
+                handleFrame(frame.stripLeading()); // leading newlines are heartbeats
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        fail(new IllegalStateException("WebSocket closed: " + statusCode + " " + reason));
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        fail(error);
+    }
+
+    private void handleFrame(String frame) {
+        if (frame.startsWith("CONNECTED")) {
+            connected.complete(null);
+        } else if (frame.startsWith("MESSAGE")) {
+            int start = frame.indexOf(NONCE_PREFIX);
+            if (start < 0) return;
+            start += NONCE_PREFIX.length();
+            int end = start;
+            while (end < frame.length() && Character.isDigit(frame.charAt(end))) end++;
+            CompletableFuture<Void> echo = pending.get(frame.substring(start, end));
+            if (echo != null) echo.complete(null);
+        } else if (frame.startsWith("ERROR")) {
+            fail(new IllegalStateException(frame));
+        }
+    }
+
+    private void fail(Throwable error) {
+        connected.completeExceptionally(error);
+        pending.values().forEach(echo -> echo.completeExceptionally(error));
+    }
+}
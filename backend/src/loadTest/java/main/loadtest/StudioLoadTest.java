@@ -0,0 +1,211 @@
+package main.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mixed studio workload against a server running the "loadtest" profile (in-memory datastore
+ * seeded by MemoryDataSeeder).
+ *
+ * Each virtual user logs in as a seeded account of its role and then loops over that role's
+ * weighted actions (see VirtualUser) with think time in between: clients read notifications and
+ * chat, managers also list projects and tasks, photographers upload media, editors read their
+ * assignments. Chat goes over STOMP on /ws. After a warm-up, it reports requests, throughput,
+ * error rate and p50/p95/p99 latency per endpoint, and writes the same numbers as JSON.
+ *
+ *   SPRING_PROFILES_ACTIVE=loadtest ./gradlew bootRun
+ *   ./gradlew studioLoadTest -Pusers=200 -Pmix=client:70,manager:10,photographer:15,editor:5 -Pseconds=120
+ *
+ * Virtual user n of a role logs in as {role}-{n}@loadtest.local, so seed at least as many
+ * accounts of each role as the mix asks for (app.seed.* on the server).
+ */
+public class StudioLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        List<VirtualUser> users = new ArrayList<>();
+        config.roleCounts().forEach((role, count) -> {
+            for (int i = 0; i < count; i++) {
+                users.add(new VirtualUser(config, client, role, i));
+            }
+        });
+        System.out.printf("Target %s, %d users %s, %ds warm-up + %ds measured, think time ~%dms%n",
+                config.baseUrl, users.size(), config.roleCounts(), config.warmupSeconds, config.seconds, config.thinkMillis);
+
+        List<VirtualUser> ready = prepare(users);
+        if (ready.isEmpty()) {
+            System.err.println("No virtual user could log in; is the server running with the loadtest profile?");
+            System.exit(1);
+        }
+
+        Recorder recorder = new Recorder();
+        long deadline = System.nanoTime() + Duration.ofSeconds(config.warmupSeconds + config.seconds).toNanos();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (VirtualUser user : ready) {
+                workers.add(pool.submit(() -> {
+                    user.run(deadline, recorder);
+                    return null;
+                }));
+            }
+            Thread.sleep(config.warmupSeconds * 1000L);
+            recorder.measuring = true;
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        report(config, ready.size(), recorder);
+    }
+
+    private static List<VirtualUser> prepare(List<VirtualUser> users) throws Exception {
+        List<VirtualUser> ready = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> logins = new ArrayList<>();
+            for (VirtualUser user : users) {
+                logins.add(pool.submit(() -> {
+                    user.prepare();
+                    return null;
+                }));
+            }
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    logins.get(i).get();
+                    ready.add(users.get(i));
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("⚠️ Skipping " + users.get(i).getEmail() + ": " + cause.getMessage());
+                }
+            }
+        }
+        return ready;
+    }
+
+    private static void report(Config config, int activeUsers, Recorder recorder) throws Exception {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        recorder.stats.values().stream()
+                .sorted(Comparator.comparing(EndpointStats::getEndpoint))
+                .forEach(stats -> endpoints.add(stats.summary(config.seconds)));
+
+        System.out.printf("%n%-52s %9s %9s %7s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "err %", "p50 ms", "p95 ms", "p99 ms");
+        for (Map<String, Object> e : endpoints) {
+            System.out.printf("%-52s %9d %9.1f %7.2f %9.1f %9.1f %9.1f%n",
+                    e.get("endpoint"), e.get("requests"), e.get("throughput"), (double) e.get("errorRate") * 100,
+                    e.get("p50Ms"), e.get("p95Ms"), e.get("p99Ms"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", config.startedAt.toString());
+        report.put("baseUrl", config.baseUrl);
+        report.put("users", activeUsers);
+        report.put("mix", config.roleCounts());
+        report.put("warmupSeconds", config.warmupSeconds);
+        report.put("seconds", config.seconds);
+        report.put("thinkMs", config.thinkMillis);
+        report.put("uploadKb", config.uploadKb);
+        report.put("endpoints", endpoints);
+
+        Path out = Paths.get(config.report);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("\nReport written to " + out.toAbsolutePath());
+    }
+
+    /**
+     * Collects samples per endpoint once the warm-up is over.
+     */
+    static final class Recorder {
+        final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        volatile boolean measuring;
+
+        void success(String endpoint, long nanos) {
+            if (measuring) stats.computeIfAbsent(endpoint, EndpointStats::new).success(nanos);
+        }
+
+        void error(String endpoint) {
+            if (measuring) stats.computeIfAbsent(endpoint, EndpointStats::new).error();
+        }
+    }
+
+    static final class Config {
+        final Instant startedAt = Instant.now();
+        String baseUrl;
+        String origin;
+        int users;
+        String mix;
+        int seconds;
+        int warmupSeconds;
+        long thinkMillis;
+        int uploadKb;
+        String password;
+        String deviceId;
+        String report;
+
+        static Config fromSystemProperties() {
+            Config config = new Config();
+            config.baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+            config.origin = System.getProperty("origin", "http://localhost:5173");
+            config.users = Integer.parseInt(System.getProperty("users", "100"));
+            config.mix = System.getProperty("mix", "client:70,manager:10,photographer:15,editor:5");
+            config.seconds = Integer.parseInt(System.getProperty("seconds", "60"));
+            config.warmupSeconds = Integer.parseInt(System.getProperty("warmup", "10"));
+            config.thinkMillis = Long.parseLong(System.getProperty("thinkMs", "500"));
+            config.uploadKb = Integer.parseInt(System.getProperty("uploadKb", "512"));
+            config.password = System.getProperty("password", "loadtest");
+            config.deviceId = System.getProperty("deviceId", "loadtest");
+            config.report = System.getProperty("report",
+                    "build/reports/loadtest/studio-" + config.startedAt.toEpochMilli() + ".json");
+            return config;
+        }
+
+        URI webSocketUri() {
+            return URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws/websocket");
+        }
+
+        /**
+         * Splits {@code users} across roles in proportion to {@code mix}; rounding leftovers go to the first role.
+         */
+        Map<String, Integer> roleCounts() {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String part : mix.split(",")) {
+                String[] roleAndWeight = part.trim().split(":");
+                weights.put(roleAndWeight[0], Integer.parseInt(roleAndWeight[1]));
+            }
+            int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            int assigned = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                int count = users * entry.getValue() / totalWeight;
+                counts.put(entry.getKey(), count);
+                assigned += count;
+            }
+            String first = weights.keySet().iterator().next();
+            counts.merge(first, users - assigned, Integer::sum);
+            return counts;
+        }
+    }
+}
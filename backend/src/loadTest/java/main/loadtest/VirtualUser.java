@@ -0,0 +1,246 @@
+package main.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One simulated studio user: logs in as a seeded account, finds its own project and chat
+ * contact through the API, then keeps picking actions from its role's workload until the
+ * test ends.
+ */
+final class VirtualUser {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final StudioLoadTest.Config config;
+    private final HttpClient client;
+    private final String role;
+    private final String email;
+    private final List<Action> actions = new ArrayList<>();
+    private int totalWeight;
+
+    private String token;
+    private String userId;
+    private String contactId;
+    private String projectId;
+    private StompChatSession chat;
+
+    VirtualUser(StudioLoadTest.Config config, HttpClient client, String role, int index) {
+        this.config = config;
+        this.client = client;
+        this.role = role;
+        this.email = role + "-" + index + "@loadtest.local";
+    }
+
+    String getRole() {
+        return role;
+    }
+
+    String getEmail() {
+        return email;
+    }
+
+    /**
+     * Logs in and discovers what the workload needs. Not measured.
+     */
+    void prepare() throws Exception {
+        String body = JSON.writeValueAsString(Map.of(
+                "email", email, "password", config.password, "deviceId", config.deviceId));
+        HttpResponse<String> login = client.send(request("/api/users/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200 || login.body().isEmpty()) {
+            throw new IllegalStateException("Login failed for " + email + ": HTTP " + login.statusCode());
+        }
+        token = JSON.readTree(login.body()).path("token").asText();
+        String payload = new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+        userId = JSON.readTree(payload).path("id").asText();
+
+        // A conversation's id is the other participant's user ID
+        JsonNode conversations = getJson("/api/messages/conversations/" + userId + "?limit=20").path("items");
+        for (JsonNode conversation : conversations) {
+            String id = conversation.path("id").asText(null);
+            if (contactId == null && id != null && !id.equals(userId)) contactId = id;
+        }
+        JsonNode projects = getJson("/api/active_projects");
+        if (projects.size() > 0) {
+            projectId = projects.get(0).path("id").asText();
+        }
+
+        switch (role) {
+            case "client" -> {
+                add("GET /api/notifications", 30, () -> get("/api/notifications?limit=50"));
+                add("GET /api/notifications/unread-count", 20, () -> get("/api/notifications/unread-count"));
+                add("GET /api/messages/conversations/{userId}", 15, this::conversations);
+                add("GET /api/messages/{senderId}/{receiverId}/history", 20, this::history);
+                add("STOMP /app/chat.send", 15, this::chat);
+            }
+            case "manager" -> {
+                add("GET /api/active_projects", 25, () -> get("/api/active_projects"));
+                add("GET /api/tasks/all", 10, () -> get("/api/tasks/all?limit=50"));
+                add("GET /api/tasks", 10, () -> get("/api/tasks"));
+                add("GET /api/notifications", 20, () -> get("/api/notifications?limit=50"));
+                add("GET /api/messages/conversations/{userId}", 10, this::conversations);
+                add("GET /api/messages/{senderId}/{receiverId}/history", 10, this::history);
+                add("STOMP /app/chat.send", 15, this::chat);
+            }
+            case "photographer" -> {
+                add("GET /api/active_projects", 30, () -> get("/api/active_projects"));
+                add("GET /api/tasks/assigned", 25, () -> get("/api/tasks/assigned"));
+                add("GET /api/notifications", 25, () -> get("/api/notifications?limit=50"));
+                add("POST /api/upload_media", 20, this::upload);
+            }
+            case "editor" -> {
+                add("GET /api/active_projects", 35, () -> get("/api/active_projects"));
+                add("GET /api/tasks/assigned", 35, () -> get("/api/tasks/assigned"));
+                add("GET /api/notifications", 30, () -> get("/api/notifications?limit=50"));
+            }
+            default -> throw new IllegalArgumentException("Unknown role " + role);
+        }
+    }
+
+    /**
+     * Runs weighted-random actions until {@code deadline}, with think time in between.
+     */
+    void run(long deadline, StudioLoadTest.Recorder recorder) throws InterruptedException {
+        try {
+            while (System.nanoTime() < deadline) {
+                Action action = pickAction();
+                long start = System.nanoTime();
+                try {
+                    action.step.run();
+                    recorder.success(action.endpoint, System.nanoTime() - start);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    recorder.error(action.endpoint);
+                }
+                if (config.thinkMillis > 0) {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(config.thinkMillis * 2 + 1));
+                }
+            }
+        } finally {
+            if (chat != null) chat.close();
+        }
+    }
+
+    // ----------------- Actions -----------------
+
+    private void conversations() throws Exception {
+        get("/api/messages/conversations/" + userId + "?limit=20");
+    }
+
+    private void history() throws Exception {
+        if (contactId == null) throw new IllegalStateException("No chat contact for " + email);
+        get("/api/messages/" + userId + "/" + contactId + "/history?limit=50");
+    }
+
+    private void chat() throws Exception {
+        if (contactId == null) throw new IllegalStateException("No chat contact for " + email);
+        if (chat == null) {
+            // The handshake is part of the first send, like a user opening the chat page
+            chat = StompChatSession.connect(client, config.webSocketUri(), config.origin, token, REQUEST_TIMEOUT);
+        }
+        chat.send(contactId, REQUEST_TIMEOUT);
+    }
+
+    private void upload() throws Exception {
+        if (projectId == null) throw new IllegalStateException("No active project for " + email);
+
+        byte[] image = new byte[config.uploadKb * 1024];
+        ThreadLocalRandom.current().nextBytes(image); // fresh content each time, so nothing deduplicates
+        String boundary = "----loadtest" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(image.length + 512);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"projectId\"\r\n\r\n"
+                + projectId + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"IMG_0001.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        send(request("/api/upload_media")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    // ----------------- HTTP -----------------
+
+    private void get(String path) throws Exception {
+        send(request(path).GET().build());
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        HttpResponse<String> response = client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("GET " + path + " returned HTTP " + response.statusCode());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private void send(HttpRequest request) throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned HTTP " + response.statusCode());
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    // ----------------- Workload -----------------
+
+    private void add(String endpoint, int weight, Step step) {
+        actions.add(new Action(endpoint, weight, step));
+        totalWeight += weight;
+    }
+
+    private Action pickAction() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Action action : actions) {
+            roll -= action.weight;
+            if (roll < 0) return action;
+        }
+        return actions.get(actions.size() - 1);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static final class Action {
+        final String endpoint;
+        final int weight;
+        final Step step;
+
+        Action(String endpoint, int weight, Step step) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+            this.step = step;
+        }
+    }
+}
@@ -3,15 +3,21 @@ package main;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 
 @SpringBootApplication
+@EnableAsync
 public class Application {
 
+    private static final Logger log = LoggerFactory.getLogger(Application.class);
+
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
         initializeFirebase();
@@ -29,9 +35,9 @@ public class Application {
                 FirebaseApp.initializeApp(options);
             }
 
-            System.out.println("✅ Firebase initialized successfully!");
+            log.info("Firebase initialized successfully!");
         } catch (IOException e) {
-            System.err.println("❌ Failed to initialize Firebase: " + e.getMessage());
+            log.error("Failed to initialize Firebase", e);
         }
     }
 }
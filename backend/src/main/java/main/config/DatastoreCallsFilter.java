@@ -0,0 +1,73 @@
+package main.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the datastore calls each HTTP request makes (see {@link DatastoreInstrumentation}) and
+ * records them in the {@code http.server.datastore.calls} summary per method and URI pattern.
+ * An endpoint whose count grows with the size of its result is an N+1; requests above
+ * {@code datastore.calls-per-request.warn-threshold} are also logged.
+ */
+@Component
+public class DatastoreCallsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DatastoreCallsFilter.class);
+
+    private static final ThreadLocal<int[]> CALLS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public DatastoreCallsFilter(MeterRegistry meterRegistry,
+                                @Value("${datastore.calls-per-request.warn-threshold:25}") int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    /**
+     * Called for every datastore call; a no-op outside of an HTTP request.
+     */
+    static void countCall() {
+        int[] calls = CALLS.get();
+        if (calls != null) calls[0]++;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        int[] calls = new int[1];
+        CALLS.set(calls);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CALLS.remove();
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.datastore.calls")
+                    .description("Datastore calls made while handling one HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(calls[0]);
+
+            if (calls[0] > warnThreshold) {
+                log.warn("{} {} made {} datastore calls", request.getMethod(), uri, calls[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package main.config;
+
+import com.google.api.core.ApiFuture;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import main.dto.Page;
+import main.model.ProjectStage;
+import main.repository.ChatRepository;
+import main.repository.CredentialRepository;
+import main.repository.FeedbackRepository;
+import main.repository.InvoiceRepository;
+import main.repository.MeetingRepository;
+import main.repository.NotificationRepository;
+import main.repository.ProjectRepository;
+import main.repository.TaskRepository;
+import main.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Wraps every repository bean so each datastore call becomes a Micrometer observation: a
+ * {@code datastore.operation} timer (with histogram buckets, see application.properties) and a
+ * trace span that is a child of the HTTP request's span. Calls returning an {@code ApiFuture}
+ * are timed until the future completes.
+ *
+ * Tags: {@code collection} (the project stage's collection when the call takes a
+ * {@link ProjectStage}, otherwise the repository's main collection), {@code operation} (the
+ * repository method) and {@code type} (read or write). The number of documents each call read
+ * or wrote goes to the {@code datastore.documents} summary, counted from the result for reads
+ * and from the arguments for writes; count queries are aggregations and record none.
+ */
+@Component
+public class DatastoreInstrumentation implements BeanPostProcessor {
+
+    private static final Map<Class<?>, String> COLLECTIONS = Map.of(
+            UserRepository.class, "users",
+            CredentialRepository.class, "credentials",
+            ProjectRepository.class, "projects",
+            TaskRepository.class, "tasks",
+            InvoiceRepository.class, "invoices",
+            NotificationRepository.class, "notifications",
+            MeetingRepository.class, "meetings",
+            FeedbackRepository.class, "feedback",
+            ChatRepository.class, "conversations"
+    );
+
+    // No I/O behind these
+    private static final Set<String> LOCAL_METHODS = Set.of("newId", "newMessageId");
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, DistributionSummary> documentSummaries = new ConcurrentHashMap<>();
+
+    // Post-processors are created before the registries exist, so resolve them on first use
+    public DatastoreInstrumentation(ObjectProvider<ObservationRegistry> observationRegistry,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> repository = null;
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(bean.getClass())) {
+            if (COLLECTIONS.containsKey(type)) {
+                repository = type;
+                break;
+            }
+        }
+        if (repository == null) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                new ObservedRepository(bean, COLLECTIONS.get(repository)));
+    }
+
+    private final class ObservedRepository implements InvocationHandler {
+        private final Object target;
+        private final String defaultCollection;
+
+        ObservedRepository(Object target, String defaultCollection) {
+            this.target = target;
+            this.defaultCollection = defaultCollection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class || LOCAL_METHODS.contains(method.getName())) {
+                return invokeTarget(method, args);
+            }
+
+            String collection = collection(args);
+            String operation = method.getName();
+            boolean read = isRead(operation);
+            DatastoreCallsFilter.countCall();
+
+            Observation observation = Observation.createNotStarted("datastore.operation", observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                    .contextualName(collection + " " + operation)
+                    .lowCardinalityKeyValue("collection", collection)
+                    .lowCardinalityKeyValue("operation", operation)
+                    .lowCardinalityKeyValue("type", read ? "read" : "write")
+                    .start();
+
+            Object result;
+            try (Observation.Scope scope = observation.openScope()) {
+                result = invokeTarget(method, args);
+            } catch (Throwable e) {
+                observation.error(e);
+                observation.stop();
+                throw e;
+            }
+
+            if (result instanceof ApiFuture<?> future) {
+                future.addListener(() -> {
+                    try {
+                        recordDocuments(collection, operation, read, future.get(), args);
+                    } catch (ExecutionException e) {
+                        observation.error(e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt(); // can't happen, the future is done
+                    }
+                    observation.stop();
+                }, Runnable::run);
+            } else {
+                recordDocuments(collection, operation, read, result, args);
+                observation.stop();
+            }
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private String collection(Object[] args) {
+            if (args != null) {
+                for (Object arg : args) {
+                    if (arg instanceof ProjectStage stage) return stage.getCollection();
+                }
+            }
+            return defaultCollection;
+        }
+    }
+
+    private void recordDocuments(String collection, String operation, boolean read, Object result, Object[] args) {
+        if (operation.startsWith("count")) return;
+
+        long documents = read ? countResult(result) : countWritten(result, args);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) return;
+
+        documentSummaries.computeIfAbsent(collection + "/" + operation, key -> DistributionSummary.builder("datastore.documents")
+                .description("Documents read or written per datastore call")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .tag("type", read ? "read" : "write")
+                .register(registry)).record(documents);
+    }
+
+    private static boolean isRead(String operation) {
+        return operation.startsWith("find") || operation.startsWith("exists") || operation.startsWith("count");
+    }
+
+    private static long countResult(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> items) return items.size();
+        if (result instanceof Map<?, ?> entries) return entries.size();
+        if (result instanceof Page<?> page) return page.getItems() != null ? page.getItems().size() : 0;
+        return 1; // a single document, or an existence check that still read one
+    }
+
+    private static long countWritten(Object result, Object[] args) {
+        if (result instanceof Number migrated) return migrated.longValue(); // migrations report what they copied
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof List<?> batch) return batch.size();
+            }
+        }
+        return 1;
+    }
+}
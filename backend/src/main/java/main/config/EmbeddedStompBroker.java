@@ -0,0 +1,70 @@
+package main.config;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.security.CheckType;
+import org.apache.activemq.artemis.core.security.Role;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * In-process Artemis broker with a STOMP acceptor, for running {@code chat.broker.mode=relay}
+ * on one machine without installing a broker. Several local instances can share it by enabling
+ * it on one and pointing the others at its port; production points the relay at a real broker.
+ *
+ * Browsers never talk to the broker: they connect to the application, where
+ * StompAuthChannelInterceptor checks every frame. So the broker only listens on loopback by
+ * default and accepts nothing but the relay's own login, which keeps other local processes
+ * from reading or publishing into user destinations behind the application's back.
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(name = "chat.broker.embedded.enabled", havingValue = "true")
+public class EmbeddedStompBroker {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ artemisBroker(@Value("${chat.broker.embedded.host:127.0.0.1}") String host,
+                                          @Value("${chat.broker.embedded.port:61613}") int port,
+                                          @Value("${chat.broker.relay.login:guest}") String login,
+                                          @Value("${chat.broker.relay.passcode:guest}") String passcode) throws Exception {
+        Configuration config = new ConfigurationImpl()
+                .setPersistenceEnabled(false) // chat is persisted in Firestore; the broker only routes
+                .setSecurityEnabled(true)
+                .setJournalDirectory("build/artemis/journal");
+        // /topic/... fans out to every subscriber, /queue/... goes to one
+        config.addAcceptorConfiguration("stomp",
+                "tcp://" + host + ":" + port + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(config);
+        broker.setSecurityManager(new RelayLogin(login, passcode));
+        return broker;
+    }
+
+    /**
+     * Lets the relay's login do everything and nobody else do anything.
+     */
+    private record RelayLogin(String login, String passcode) implements ActiveMQSecurityManager {
+
+        @Override
+        public boolean validateUser(String user, String password) {
+            return matches(login, user) && matches(passcode, password);
+        }
+
+        @Override
+        public boolean validateUserAndRole(String user, String password, Set<Role> roles, CheckType checkType) {
+            return validateUser(user, password);
+        }
+
+        private static boolean matches(String expected, String actual) {
+            return actual != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                    actual.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
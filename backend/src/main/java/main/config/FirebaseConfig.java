@@ -1,15 +1,23 @@
 package main.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Connects to Firebase. Skipped entirely with {@code app.datastore=memory}, so local runs,
+ * tests and benchmarks need no credentials.
+ */
 @Configuration
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
 public class FirebaseConfig {
 
     @Bean
@@ -25,4 +33,9 @@ public class FirebaseConfig {
         }
         return FirebaseApp.getInstance();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public Firestore firestore(FirebaseApp firebaseApp) {
+        return FirestoreClient.getFirestore(firebaseApp);
+    }
+}
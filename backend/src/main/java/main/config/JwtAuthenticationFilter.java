@@ -4,11 +4,12 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -17,19 +18,62 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+/**
+ * Verifies the bearer token once per request (through {@link VerifiedTokenCache}) and puts an
+ * {@link AuthPrincipal} into the security context.
+ *
+ * Public paths never fail on a bad or missing token, but still get a principal when a valid
+ * one is sent, so their controllers can use {@code @AuthenticationPrincipal} as well.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final VerifiedTokenCache tokenCache;
+
+    public JwtAuthenticationFilter(VerifiedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String requestPath = URLDecoder.decode(request.getRequestURI(), StandardCharsets.UTF_8);
-        System.out.println("🔍 Request Path: " + requestPath);
+        boolean publicPath = isPublic(requestPath);
+
+        // 🔒 Extract and validate the JWT token
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            AuthPrincipal principal = tokenCache.verify(authHeader.substring(7));
+
+            if (principal == null) {
+                if (!publicPath) {
+                    log.debug("Invalid or expired JWT");
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    return;
+                }
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                SecurityContextHolder.getContext().setAuthentication(toAuthentication(principal));
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    static UsernamePasswordAuthenticationToken toAuthentication(AuthPrincipal principal) {
+        String role = principal.getRole();
+        List<SimpleGrantedAuthority> authorities = List.of(
+                new SimpleGrantedAuthority("ROLE_" + (role != null ? role.toUpperCase() : "C"))
+        );
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
 
-        // Skip JWT check for public paths
-        if (requestPath != null && (
+    private static boolean isPublic(String requestPath) {
+        return requestPath != null && (
                 requestPath.startsWith("/api/portfolios") ||
                         requestPath.startsWith("/api/files") ||
                         requestPath.equals("/api/users/signup") ||
@@ -40,45 +84,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         requestPath.startsWith("/api/users/email/") ||
                         requestPath.startsWith("/api/notifications/") ||
                         requestPath.startsWith("/ws") ||
+                        requestPath.equals("/actuator/health") ||
                         requestPath.startsWith("/google/") // <-- This skips Google OAuth init, NOT the /api/google/events
-        )) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        // 🔒 Extract and validate the JWT token
-        String authHeader = request.getHeader("Authorization");
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-
-            if (!JwtUtil.validateToken(token)) {
-                System.out.println("❌ Invalid or expired JWT");
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                return;
-            }
-
-            String email = JwtUtil.extractEmail(token);
-            String role = JwtUtil.extractRole(token);
-            String userId = JwtUtil.extractUserId(token);
-
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                List<SimpleGrantedAuthority> authorities = List.of(
-                        new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())
-                );
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userId, null, authorities);
-
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                System.out.println("✅ Authenticated user: " + email + " with role " + role);
-            }
-        } else {
-            System.out.println("⚠️ Missing or malformed Authorization header");
-        }
-
-        filterChain.doFilter(request, response);
+        );
     }
 }
@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -18,6 +19,7 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity // @PreAuthorize on controllers, checked against the JWT role authorities (ROLE_A, ROLE_M, ...)
 public class SecurityConfig {
 
     @Bean
@@ -30,6 +32,8 @@ public class SecurityConfig {
                         .requestMatchers("/google/**").permitAll()
                         .requestMatchers("/google/oauth2callback").permitAll()
                         .requestMatchers("/ws/**", "/app/**", "/topic/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("A")
                         .requestMatchers("/api/portfolios/**").permitAll()
                         .requestMatchers("/api/files/**").permitAll()
                         .requestMatchers("/api/users/signup", "/api/users/login",
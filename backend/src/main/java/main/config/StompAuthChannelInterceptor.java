@@ -0,0 +1,50 @@
+package main.config;
+
+import main.util.AuthPrincipal;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions from the JWT sent in the CONNECT frame's {@code Authorization} header.
+ *
+ * The session principal is the user ID, which is what {@code /user/queue/...} destinations are
+ * resolved against. Connections without a token stay anonymous: they only receive {@code /topic} broadcasts
+ * and can't send chat messages.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final VerifiedTokenCache tokenCache;
+
+    public StompAuthChannelInterceptor(VerifiedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || authHeader.isBlank()) {
+            return message;
+        }
+
+        String token = authHeader.startsWith("Bearer ") ? authHeader.substring(7) : authHeader;
+        AuthPrincipal principal = tokenCache.verify(token);
+        if (principal == null) {
+            throw new MessagingException("Invalid or expired JWT");
+        }
+
+        accessor.setUser(JwtAuthenticationFilter.toAuthentication(principal));
+        return message;
+    }
+}
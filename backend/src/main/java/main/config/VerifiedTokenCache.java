@@ -0,0 +1,191 @@
+package main.config;
+
+import main.model.User;
+import main.service.FirestoreService;
+import main.util.AuthPrincipal;
+import main.util.JwtUtil;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recently verified JWTs so a client sending the same token on every request pays for
+ * signature verification and claim parsing once, not on each call.
+ *
+ * Entries are keyed by the SHA-256 of the token, so raw tokens are never held in memory, and
+ * live until the token's own expiry or the configured TTL, whichever comes first. The cache is
+ * an LRU capped at {@code auth.token-cache.max-entries}; 0 turns it off. Failed verifications
+ * are never cached.
+ *
+ * Authorization runs on the token's {@code id} and {@code role} claims. The user record is only
+ * read when a claim is missing, or when the user's role changed or the user was deleted after
+ * the token was issued (see {@link #userChanged}); the resolved principal is then cached like
+ * any other, so that lookup happens once per token rather than once per request.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final long TOKEN_LIFETIME_MILLIS = 86_400_000; // matches JwtUtil
+
+    // Resolved on first use: FirestoreService reaches this cache again through the STOMP interceptor
+    private final ObjectProvider<FirestoreService> firestoreService;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    public VerifiedTokenCache(ObjectProvider<FirestoreService> firestoreService,
+                              @Value("${auth.token-cache.max-entries:10000}") int maxEntries,
+                              @Value("${auth.token-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.firestoreService = firestoreService;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the principal for a valid token, or null if it is malformed, forged or expired.
+     */
+    public AuthPrincipal verify(String token) {
+        if (token == null || token.isBlank()) return null;
+        if (maxEntries <= 0) return parse(token);
+
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.validUntil > now) {
+                    hits.incrementAndGet();
+                    return entry.principal;
+                }
+                entries.remove(key);
+            }
+        }
+
+        misses.incrementAndGet();
+        AuthPrincipal principal = parse(token);
+        if (principal == null) return null;
+
+        long validUntil = now + ttlMillis;
+        if (principal.getExpiresAt() != null) {
+            validUntil = Math.min(validUntil, principal.getExpiresAt().toEpochMilli());
+        }
+        synchronized (entries) {
+            // userChanged during parse may have come too late for parse to see it; such a principal
+            // is used for this request only. Checked under the lock userChanged evicts with.
+            Long changed = principal.getUserId() != null ? changedAt.get(principal.getUserId()) : null;
+            if (changed == null || changed < now) {
+                entries.put(key, new Entry(principal, validUntil));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Call after a user's role changes or the user is deleted: their tokens issued before now
+     * are re-checked against the user record instead of trusting the role claim.
+     */
+    public void userChanged(String userId) {
+        if (userId == null) return;
+        long now = System.currentTimeMillis();
+        changedAt.put(userId, now);
+        changedAt.values().removeIf(at -> at < now - TOKEN_LIFETIME_MILLIS); // older tokens have expired anyway
+        synchronized (entries) {
+            entries.values().removeIf(entry -> userId.equals(entry.principal.getUserId()));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("rejected", rejected.get());
+        stats.put("userLookups", lookups.get());
+        return stats;
+    }
+
+    private AuthPrincipal parse(String token) {
+        try {
+            AuthPrincipal principal = JwtUtil.parse(token);
+            if (principal.isExpired()) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (needsLookup(principal)) {
+                principal = resolveFromUser(principal);
+                if (principal == null) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            }
+            return principal;
+        } catch (Exception e) {
+            rejected.incrementAndGet();
+            return null;
+        }
+    }
+
+    private boolean needsLookup(AuthPrincipal principal) {
+        if (principal.getUserId() == null || principal.getRole() == null) return true;
+        Long changed = changedAt.get(principal.getUserId());
+        return changed != null
+                && (principal.getIssuedAt() == null || principal.getIssuedAt().toEpochMilli() < changed);
+    }
+
+    private AuthPrincipal resolveFromUser(AuthPrincipal principal) throws Exception {
+        FirestoreService users = firestoreService != null ? firestoreService.getIfAvailable() : null;
+        if (users == null) return null;
+        lookups.incrementAndGet();
+
+        User user = principal.getUserId() != null
+                ? users.getUserById(principal.getUserId())
+                : users.getUserByEmail(principal.getEmail());
+        if (user == null) return null; // deleted since the token was issued
+
+        String userId = user.getId() != null ? user.getId() : principal.getUserId();
+        return principal.withAccount(userId, user.getRole());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // required on every JVM
+        }
+    }
+
+    private static final class Entry {
+        final AuthPrincipal principal;
+        final long validUntil;
+
+        Entry(AuthPrincipal principal, long validUntil) {
+            this.principal = principal;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -1,19 +1,71 @@
 package main.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP over SockJS on {@code /ws}.
+ *
+ * With {@code chat.broker.mode=simple} (default) subscriptions live in this instance's
+ * in-memory broker. With {@code relay} they are relayed to an external STOMP broker
+ * (Artemis, RabbitMQ, ...), and user destinations plus the user registry are broadcast
+ * through it, so a message for a user reaches them whichever instance holds their session.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor authInterceptor;
+    private final boolean virtualThreads;
+    private final int inboundMaxConcurrency;
+    private final String brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+
+    public WebSocketConfig(StompAuthChannelInterceptor authInterceptor,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${websocket.inbound.max-concurrency:1000}") int inboundMaxConcurrency,
+                           @Value("${chat.broker.mode:simple}") String brokerMode,
+                           @Value("${chat.broker.relay.host:127.0.0.1}") String relayHost,
+                           @Value("${chat.broker.relay.port:61613}") int relayPort,
+                           @Value("${chat.broker.relay.login:guest}") String relayLogin,
+                           @Value("${chat.broker.relay.passcode:guest}") String relayPasscode) {
+        this.authInterceptor = authInterceptor;
+        this.virtualThreads = virtualThreads;
+        this.inboundMaxConcurrency = inboundMaxConcurrency;
+        this.brokerMode = brokerMode;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // for subscribing
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Lets instances deliver /user/... messages for sessions connected elsewhere
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue"); // for subscribing
+        }
         config.setApplicationDestinationPrefixes("/app"); // for sending
+        config.setUserDestinationPrefix("/user"); // per-user queues, e.g. /user/queue/notifications
     }
 
     @Override
@@ -22,4 +74,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:5173")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authInterceptor);
+
+        if (!virtualThreads) {
+            return; // keep Spring's default platform-thread pool
+        }
+
+        // @MessageMapping handlers block on Firestore, so run each inbound message on its own virtual thread.
+        // Virtual threads aren't pooled; the concurrency limit makes senders wait once it is reached.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-inbound-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(inboundMaxConcurrency);
+        registration.executor(executor);
+    }
 }
@@ -1,18 +1,19 @@
 package main.controller;
 
 import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.WriteResult;
 import com.stripe.model.checkout.Session;
 import main.dto.AssignmentRequest;
 import main.dto.ProjectResponse;
+import main.model.MediaRef;
 import main.model.Project;
-import main.model.User;
+import main.model.ProjectStage;
 import main.service.FirestoreService;
 import main.service.StripeService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,6 +23,8 @@ import java.util.Map;
 @RequestMapping("/api/active_projects")
 public class ActiveProjectController {
 
+    private static final Logger log = LoggerFactory.getLogger(ActiveProjectController.class);
+
     private final FirestoreService firestoreService;
     private final StripeService stripeService;
 
@@ -44,18 +47,12 @@ public class ActiveProjectController {
                 return ResponseEntity.status(500).body("Failed to update project.");
             }
 
-            DocumentSnapshot snapshot = firestoreService.getDb()
-                    .collection("pending_projects")
-                    .document(request.getProjectId())
-                    .get()
-                    .get();
-            if (!snapshot.exists()) {
+            Project project = firestoreService.getProject(ProjectStage.PENDING, request.getProjectId());
+            if (project == null) {
                 return ResponseEntity.status(404).body("Project not found.");
             }
 
-            Map<String, Object> projectData = snapshot.getData();
-            DocumentReference clientRef = (DocumentReference) projectData.get("clientId");
-            String clientId = clientRef.getId();
+            String clientId = firestoreService.getProjectClientId(ProjectStage.PENDING, request.getProjectId());
             String clientEmail = firestoreService.getUserEmailById(clientId);
             if (clientEmail == null) {
                 return ResponseEntity.status(404).body("Client email not found.");
@@ -72,24 +69,20 @@ public class ActiveProjectController {
                     paymentUrl
             );
 
-            String title = (String) projectData.getOrDefault("title", "a project");
+            String title = project.getTitle() != null ? project.getTitle() : "a project";
 
             // notify photographers
-            for (String uid : request.getPhotographers()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "You have been assigned to photograph project \"" + title + "\"",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    request.getPhotographers(),
+                    "You have been assigned to photograph project \"" + title + "\"",
+                    "project_update"
+            );
             // notify editors
-            for (String uid : request.getEditors()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "You have been assigned to edit project \"" + title + "\"",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    request.getEditors(),
+                    "You have been assigned to edit project \"" + title + "\"",
+                    "project_update"
+            );
             // notify client
             firestoreService.sendGeneralNotification(
                     clientId,
@@ -97,34 +90,26 @@ public class ActiveProjectController {
                     "project_update"
             );
             // notify all managers
-            for (User u : firestoreService.getAllUsers()) {
-                if ("m".equals(u.getRole())) {
-                    firestoreService.sendGeneralNotification(
-                            u.getId(),
-                            "Project \"" + title + "\" was updated and team assigned.",
-                            "project_update"
-                    );
-                }
-            }
+            firestoreService.sendGeneralNotifications(
+                    firestoreService.getManagerIds(),
+                    "Project \"" + title + "\" was updated and team assigned.",
+                    "project_update"
+            );
 
             return ResponseEntity.ok("Project updated and notifications sent.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error during assignment", e);
             return ResponseEntity.status(500).body("Error during assignment.");
         }
     }
 
     @GetMapping
-    public ResponseEntity<List<ProjectResponse>> getActiveProjects(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<ProjectResponse>> getActiveProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String cleanToken = token.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(cleanToken);
-            String role = JwtUtil.extractRole(cleanToken);
-
-            List<ProjectResponse> projects = firestoreService.getActiveProjectsForUser(userId, role);
+            List<ProjectResponse> projects = firestoreService.getActiveProjectsForUser(principal.getUserId(), principal.getRole());
             return ResponseEntity.ok(projects);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getActiveProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -135,53 +120,40 @@ public class ActiveProjectController {
             String projectId = (String) payload.get("id");
             int newState = (int) payload.get("state");
 
-            DocumentReference projectRef = firestoreService.getDb()
-                    .collection("active_projects")
-                    .document(projectId);
-            projectRef.update("state", newState).get();
+            firestoreService.updateActiveProjectState(projectId, newState);
 
-            DocumentSnapshot snapshot = projectRef.get().get();
-            Project project = snapshot.toObject(Project.class);
+            Project project = firestoreService.getProject(ProjectStage.ACTIVE, projectId);
             String title = project != null ? project.getTitle() : "a project";
 
             // notify photographers
-            for (String uid : project.getPhotographers()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "Project \"" + title + "\" moved to a new stage.",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    project.getPhotographers(),
+                    "Project \"" + title + "\" moved to a new stage.",
+                    "project_update"
+            );
             // notify editors
-            for (String uid : project.getEditors()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "Project \"" + title + "\" moved to a new stage.",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    project.getEditors(),
+                    "Project \"" + title + "\" moved to a new stage.",
+                    "project_update"
+            );
             // notify client
-            DocumentReference clientRef = (DocumentReference) project.getClientId();
-            String clientId = clientRef.getId();
+            String clientId = firestoreService.getProjectClientId(ProjectStage.ACTIVE, projectId);
             firestoreService.sendGeneralNotification(
                     clientId,
                     "Your project \"" + title + "\" has been updated to state " + newState + ".",
                     "project_update"
             );
             // notify managers
-            for (User u : firestoreService.getAllUsers()) {
-                if ("m".equals(u.getRole())) {
-                    firestoreService.sendGeneralNotification(
-                            u.getId(),
-                            "Project \"" + title + "\" changed to state " + newState + ".",
-                            "project_update"
-                    );
-                }
-            }
+            firestoreService.sendGeneralNotifications(
+                    firestoreService.getManagerIds(),
+                    "Project \"" + title + "\" changed to state " + newState + ".",
+                    "project_update"
+            );
 
             return ResponseEntity.ok("Project state updated successfully.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error updating project state", e);
             return ResponseEntity.status(500).body("Error updating project state.");
         }
     }
@@ -192,63 +164,49 @@ public class ActiveProjectController {
             String projectId = payload.get("id");
             firestoreService.revertProjectToPhotographing(projectId);
 
-            DocumentSnapshot snapshot = firestoreService.getDb()
-                    .collection("active_projects")
-                    .document(projectId)
-                    .get()
-                    .get();
-            Project project = snapshot.toObject(Project.class);
+            Project project = firestoreService.getProject(ProjectStage.ACTIVE, projectId);
             String title = project != null ? project.getTitle() : "a project";
 
             // notify photographers
-            for (String uid : project.getPhotographers()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "Project \"" + title + "\" was reverted to photographing.",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    project.getPhotographers(),
+                    "Project \"" + title + "\" was reverted to photographing.",
+                    "project_update"
+            );
             // notify editors
-            for (String uid : project.getEditors()) {
-                firestoreService.sendGeneralNotification(
-                        uid,
-                        "Project \"" + title + "\" was reverted to photographing.",
-                        "project_update"
-                );
-            }
+            firestoreService.sendGeneralNotifications(
+                    project.getEditors(),
+                    "Project \"" + title + "\" was reverted to photographing.",
+                    "project_update"
+            );
             // notify client
-            DocumentReference clientRef = (DocumentReference) project.getClientId();
-            String clientId = clientRef.getId();
+            String clientId = firestoreService.getProjectClientId(ProjectStage.ACTIVE, projectId);
             firestoreService.sendGeneralNotification(
                     clientId,
                     "Your project \"" + title + "\" was reverted to photographing.",
                     "project_update"
             );
             // notify managers
-            for (User u : firestoreService.getAllUsers()) {
-                if ("m".equals(u.getRole())) {
-                    firestoreService.sendGeneralNotification(
-                            u.getId(),
-                            "Project \"" + title + "\" was reverted to photographing.",
-                            "project_update"
-                    );
-                }
-            }
+            firestoreService.sendGeneralNotifications(
+                    firestoreService.getManagerIds(),
+                    "Project \"" + title + "\" was reverted to photographing.",
+                    "project_update"
+            );
 
             return ResponseEntity.ok("Project state reverted to photographing.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error updating project state", e);
             return ResponseEntity.status(500).body("Error updating project state.");
         }
     }
 
     @GetMapping("/download_media")
-    public ResponseEntity<List<Map<String, String>>> downloadMedia(
+    public ResponseEntity<List<MediaRef>> downloadMedia(
             @RequestParam String projectId,
             @RequestHeader("Authorization") String auth
     ) throws Exception {
         // (1) Optionally check the JWT / role from `auth` here
-        List<Map<String,String>> media = firestoreService.getMediaForProject(projectId);
+        List<MediaRef> media = firestoreService.getMediaForProject(projectId);
         return ResponseEntity.ok(media);
     }
 
@@ -1,11 +1,16 @@
 package main.controller;
 
+import main.config.VerifiedTokenCache;
 import main.dto.SystemStatsResponse;
 import main.dto.UserRoleUpdateRequest;
 import main.model.User;
+import main.service.ChatMessageBuffer;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.service.NotificationDispatcher;
+import main.service.StatsService;
+import main.service.UserDirectory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,54 +19,51 @@ import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api/admin")
+@PreAuthorize("hasRole('A')")
 public class AdminController {
-
     private final FirestoreService firestoreService;
+    private final UserDirectory userDirectory;
+    private final NotificationDispatcher notificationDispatcher;
+    private final StatsService statsService;
+    private final ChatMessageBuffer chatMessageBuffer;
+    private final VerifiedTokenCache tokenCache;
 
-    public AdminController(FirestoreService firestoreService) {
+    public AdminController(FirestoreService firestoreService, UserDirectory userDirectory,
+                           NotificationDispatcher notificationDispatcher, StatsService statsService,
+                           ChatMessageBuffer chatMessageBuffer, VerifiedTokenCache tokenCache) {
         this.firestoreService = firestoreService;
-    }
-
-    // Middleware to check if user is admin
-    private boolean isAdmin(String authHeader) throws ExecutionException, InterruptedException {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return false;
-        }
-
-        String token = authHeader.substring(7);
-        String email = JwtUtil.extractEmail(token);
-        User user = firestoreService.getUserByEmail(email);
-
-        return user != null && "a".equals(user.getRole());
+        this.userDirectory = userDirectory;
+        this.notificationDispatcher = notificationDispatcher;
+        this.statsService = statsService;
+        this.chatMessageBuffer = chatMessageBuffer;
+        this.tokenCache = tokenCache;
     }
 
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers(@RequestHeader("Authorization") String authHeader) 
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String startAfter)
             throws ExecutionException, InterruptedException {
-        
-        if (!isAdmin(authHeader)) {
-            return ResponseEntity.status(403).body("Access denied");
+
+        // Without paging parameters, keep returning a plain (capped) list for older clients
+        if (limit == null && startAfter == null) {
+            List<User> users = firestoreService.getAllUsers();
+            return ResponseEntity.ok(users);
         }
-        
-        List<User> users = firestoreService.getAllUsers();
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(firestoreService.getUsersPage(limit, startAfter));
     }
 
     @PutMapping("/users/{userId}/role")
     public ResponseEntity<?> updateUserRole(
             @PathVariable String userId,
-            @RequestBody UserRoleUpdateRequest request,
-            @RequestHeader("Authorization") String authHeader) 
+            @RequestBody UserRoleUpdateRequest request)
             throws ExecutionException, InterruptedException {
-        
-        if (!isAdmin(authHeader)) {
-            return ResponseEntity.status(403).body("Access denied");
-        }
-        
+
         String newRole = request.getRole();
         
         boolean updated = firestoreService.updateUserRole(userId, newRole);
         if (updated) {
+            tokenCache.userChanged(userId); // their existing tokens still carry the old role claim
+            statsService.invalidate(); // admin sees the change on the next refresh
             return ResponseEntity.ok("User role updated successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -70,16 +72,13 @@ public class AdminController {
 
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<?> deleteUser(
-            @PathVariable String userId,
-            @RequestHeader("Authorization") String authHeader) 
+            @PathVariable String userId)
             throws ExecutionException, InterruptedException {
-        
-        if (!isAdmin(authHeader)) {
-            return ResponseEntity.status(403).body("Access denied");
-        }
-        
+
         boolean deleted = firestoreService.deleteUser(userId);
         if (deleted) {
+            tokenCache.userChanged(userId); // reject their still-valid tokens
+            statsService.invalidate(); // admin sees the change on the next refresh
             return ResponseEntity.ok("User deleted successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -87,14 +86,10 @@ public class AdminController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<SystemStatsResponse> getSystemStats(@RequestHeader("Authorization") String authHeader) 
+    public ResponseEntity<SystemStatsResponse> getSystemStats()
             throws ExecutionException, InterruptedException {
-        
-        if (!isAdmin(authHeader)) {
-            return ResponseEntity.status(403).build();
-        }
-        
-        Map<String, Object> statsMap = firestoreService.getSystemStats();
+
+        Map<String, Object> statsMap = statsService.getSystemStats();
         
         SystemStatsResponse stats = new SystemStatsResponse(
             (Long) statsMap.get("totalUsers"),
@@ -104,4 +99,49 @@ public class AdminController {
         
         return ResponseEntity.ok(stats);
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/stats/overview")
+    public ResponseEntity<?> getStatsOverview()
+            throws ExecutionException, InterruptedException {
+
+        return ResponseEntity.ok(statsService.getOverview());
+    }
+
+    @GetMapping("/user-directory/stats")
+    public ResponseEntity<?> getUserDirectoryStats() {
+        return ResponseEntity.ok(userDirectory.getStats());
+    }
+
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<?> getNotificationStats() {
+        return ResponseEntity.ok(notificationDispatcher.getStats());
+    }
+
+    @GetMapping("/chat/stats")
+    public ResponseEntity<?> getChatStats() {
+        return ResponseEntity.ok(chatMessageBuffer.getStats());
+    }
+
+    @GetMapping("/token-cache/stats")
+    public ResponseEntity<?> getTokenCacheStats() {
+        return ResponseEntity.ok(tokenCache.getStats());
+    }
+
+    // One-off: copies the old flat messages collection into per-conversation storage
+    @PostMapping("/migrations/chat-conversations")
+    public ResponseEntity<?> migrateChatConversations()
+            throws Exception {
+
+        int migrated = firestoreService.migrateLegacyMessages();
+        return ResponseEntity.ok(Map.of("migratedMessages", migrated));
+    }
+
+    // Moves pending/active/finished_projects into the shared projects collection and inline media into the blob store
+    @PostMapping("/migrations/project-stages")
+    public ResponseEntity<?> migrateProjectStages()
+            throws Exception {
+
+        int migrated = firestoreService.migrateProjectStages();
+        return ResponseEntity.ok(Map.of("migratedProjects", migrated));
+    }
+}
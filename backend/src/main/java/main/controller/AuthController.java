@@ -1,12 +1,16 @@
 package main.controller;
 
-import com.google.cloud.firestore.DocumentSnapshot;
 import main.dto.LoginRequest;
 import main.model.User;
+import main.model.VerificationCode;
 import main.service.EmailService;
 import main.service.FirestoreService;
+import main.util.AuthPrincipal;
 import main.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +24,7 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/users")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
     private final FirestoreService firestoreService;
     private final PasswordEncoder passwordEncoder;
@@ -38,7 +43,7 @@ public class AuthController {
             String password = payload.get("password");
             String deviceId = payload.get("deviceId");
 
-            System.out.println("➡️ Login attempt for: " + email);
+            log.debug("Login attempt for: {}", email);
 
             User user = firestoreService.getUserByEmail(email);
             if (user == null || !firestoreService.validateUser(email, password)) {
@@ -73,14 +78,11 @@ public class AuthController {
         boolean remember = Boolean.parseBoolean(payload.getOrDefault("remember", "false"));
 
         try {
-            DocumentSnapshot doc = firestoreService.getTwoFactorCode(email);
-            if (doc == null || !doc.exists()) return ResponseEntity.badRequest().body("No code found");
+            VerificationCode stored = firestoreService.getTwoFactorCode(email);
+            if (stored == null) return ResponseEntity.badRequest().body("No code found");
 
-            String storedCode = doc.getString("code");
-            Long expiresAt = doc.getLong("expiresAt");
-
-            if (!code.equals(storedCode)) return ResponseEntity.badRequest().body("Invalid code");
-            if (System.currentTimeMillis() > expiresAt) return ResponseEntity.badRequest().body("Code expired");
+            if (!stored.matches(code)) return ResponseEntity.badRequest().body("Invalid code");
+            if (stored.isExpiredAt(System.currentTimeMillis())) return ResponseEntity.badRequest().body("Code expired");
 
             firestoreService.deleteTwoFactorCode(email);
             User user = firestoreService.getUserByEmail(email);
@@ -106,16 +108,13 @@ public class AuthController {
         String newPassword = payload.get("newPassword");
 
         try {
-            DocumentSnapshot doc = firestoreService.getResetCode(email);
-            if (doc == null || !doc.exists()) {
+            VerificationCode stored = firestoreService.getResetCode(email);
+            if (stored == null) {
                 return ResponseEntity.badRequest().body("No code found for this email.");
             }
 
-            String storedCode = doc.getString("code");
-            Long expiresAt = doc.getLong("expiresAt");
-
-            if (!code.equals(storedCode)) return ResponseEntity.badRequest().body("Incorrect code");
-            if (System.currentTimeMillis() > expiresAt) return ResponseEntity.badRequest().body("Code expired");
+            if (!stored.matches(code)) return ResponseEntity.badRequest().body("Incorrect code");
+            if (stored.isExpiredAt(System.currentTimeMillis())) return ResponseEntity.badRequest().body("Code expired");
 
             String hashedPassword = passwordEncoder.encode(newPassword);
             firestoreService.updateUserPassword(email, hashedPassword);
@@ -123,7 +122,7 @@ public class AuthController {
 
             return ResponseEntity.ok("Password successfully reset.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error resetting password", e);
             return ResponseEntity.status(500).body("Error resetting password");
         }
     }
@@ -135,16 +134,13 @@ public class AuthController {
         String email = payload.get("email");
         String code = payload.get("code");
 
-        DocumentSnapshot doc = firestoreService.getResetCode(email);
-        if (doc == null || !doc.exists()) {
+        VerificationCode stored = firestoreService.getResetCode(email);
+        if (stored == null) {
             return ResponseEntity.badRequest().body("Invalid request");
         }
 
-        String storedCode = doc.getString("code");
-        Long expiresAt = doc.getLong("expiresAt");
-
-        if (!code.equals(storedCode)) return ResponseEntity.badRequest().body("Incorrect code");
-        if (System.currentTimeMillis() > expiresAt) return ResponseEntity.badRequest().body("Code expired");
+        if (!stored.matches(code)) return ResponseEntity.badRequest().body("Incorrect code");
+        if (stored.isExpiredAt(System.currentTimeMillis())) return ResponseEntity.badRequest().body("Code expired");
 
         return ResponseEntity.ok("Code valid");
     }
@@ -169,20 +165,18 @@ public class AuthController {
 
             return ResponseEntity.ok("Code sent to email");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to process reset request", e);
             return ResponseEntity.status(500).body("Failed to process reset request");
         }
     }
 
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser(@RequestHeader("Authorization") String authHeader) throws Exception {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal AuthPrincipal principal) throws Exception {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        String token = authHeader.substring(7); // Strip "Bearer "
-        String email = JwtUtil.extractEmail(token);
-        User user = firestoreService.getUserByEmail(email);
+        User user = firestoreService.getUserByEmail(principal.getEmail());
 
         if (user == null) {
             return ResponseEntity.notFound().build();
@@ -193,8 +187,8 @@ public class AuthController {
 
     @PutMapping("/update")
     public ResponseEntity<String> updateUser(@RequestBody User updatedUser,
-                                             @RequestHeader("Authorization") String token) {
-        String email = JwtUtil.extractEmail(token.replace("Bearer ", ""));
+                                             @AuthenticationPrincipal AuthPrincipal principal) {
+        String email = principal.getEmail();
         try {
             firestoreService.updateUserFields(email, updatedUser);
         } catch (ExecutionException | InterruptedException e) {
@@ -1,12 +1,19 @@
 package main.controller;
 
+import main.dto.Page;
 import main.model.ChatMessage;
 import main.service.FirestoreService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -14,28 +21,104 @@ import java.util.concurrent.ExecutionException;
 @RestController
 public class ChatController {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+
+    private static final String USER_QUEUE = "/queue/messages";
+
     private final FirestoreService firestoreService;
+    private final SimpMessageSendingOperations messaging;
 
-    public ChatController(FirestoreService firestoreService) {
+    public ChatController(FirestoreService firestoreService, SimpMessageSendingOperations messaging) {
         this.firestoreService = firestoreService;
+        this.messaging = messaging;
     }
 
+    // Delivered only to the two participants' /user/queue/messages, never broadcast
     @MessageMapping("/chat.send")
-    @SendTo("/topic/messages")
-    public ChatMessage sendMessage(@Payload ChatMessage chatMessage) throws ExecutionException, InterruptedException {
+    public void sendMessage(@Payload ChatMessage chatMessage, Principal principal) throws InterruptedException {
+        if (principal == null) {
+            log.warn("Dropped chat message from a session that didn't authenticate on CONNECT");
+            return;
+        }
+        chatMessage.setSenderId(principal.getName()); // the sender is always the session's user
+        if (chatMessage.getReceiverId() == null) {
+            return;
+        }
+
         firestoreService.saveMessage(chatMessage);
-        return chatMessage;
+        messaging.convertAndSendToUser(chatMessage.getReceiverId(), USER_QUEUE, chatMessage);
+        if (!chatMessage.getReceiverId().equals(chatMessage.getSenderId())) {
+            messaging.convertAndSendToUser(chatMessage.getSenderId(), USER_QUEUE, chatMessage); // sender's other tabs
+        }
     }
 
-    // Get all contacts (WhatsApp sidebar)
+    // Get all contacts (WhatsApp sidebar), most recent conversation first
     @GetMapping("/api/messages/conversations/{userId}")
-    public List<Map<String, Object>> getConversations(@PathVariable String userId) throws ExecutionException, InterruptedException {
-        return firestoreService.getUserConversations(userId);
+    public ResponseEntity<?> getConversations(@AuthenticationPrincipal AuthPrincipal principal,
+                                              @PathVariable String userId,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String startAfter) throws ExecutionException, InterruptedException {
+        ResponseEntity<?> denied = unlessCallerIsOneOf(principal, userId);
+        if (denied != null) return denied;
+
+        if (limit == null && startAfter == null) {
+            return ResponseEntity.ok(firestoreService.getUserConversations(userId));
+        }
+        return ResponseEntity.ok(firestoreService.getConversationsPage(userId, limit, startAfter));
+    }
+
+    @PutMapping("/api/messages/conversations/{userId}/{contactId}/read")
+    public ResponseEntity<?> markConversationRead(@AuthenticationPrincipal AuthPrincipal principal,
+                                                  @PathVariable String userId, @PathVariable String contactId) {
+        ResponseEntity<?> denied = unlessCallerIsOneOf(principal, userId);
+        if (denied != null) return denied;
+
+        try {
+            firestoreService.markConversationRead(userId, contactId);
+            return ResponseEntity.ok(Map.of("message", "Conversation marked as read"));
+        } catch (Exception e) {
+            log.error("Failed to mark conversation as read", e);
+            return ResponseEntity.status(500).body("Failed to mark conversation as read");
+        }
+    }
+
+    // Newest first; pass the returned nextCursor as startAfter to load earlier messages
+    @GetMapping("/api/messages/{senderId}/{receiverId}/history")
+    public ResponseEntity<?> getMessageHistory(@AuthenticationPrincipal AuthPrincipal principal,
+                                               @PathVariable String senderId, @PathVariable String receiverId,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String startAfter) throws ExecutionException, InterruptedException {
+        ResponseEntity<?> denied = unlessCallerIsOneOf(principal, senderId, receiverId);
+        if (denied != null) return denied;
+
+        Page<ChatMessage> page = firestoreService.getMessageHistory(senderId, receiverId, limit, startAfter);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/api/messages/{senderId}/{receiverId}")
-    public List<ChatMessage> getMessagesBetweenUsers(@PathVariable String senderId, @PathVariable String receiverId) throws ExecutionException, InterruptedException {
-        return firestoreService.getMessagesBetweenUsers(senderId, receiverId);
+    public ResponseEntity<?> getMessagesBetweenUsers(@AuthenticationPrincipal AuthPrincipal principal,
+                                                     @PathVariable String senderId, @PathVariable String receiverId) throws ExecutionException, InterruptedException {
+        ResponseEntity<?> denied = unlessCallerIsOneOf(principal, senderId, receiverId);
+        if (denied != null) return denied;
+
+        List<ChatMessage> messages = firestoreService.getMessagesBetweenUsers(senderId, receiverId);
+        return ResponseEntity.ok(messages);
+    }
+
+    /**
+     * A conversation can only be read or marked by its own participants: 401 without a
+     * caller, 403 if the caller isn't one of {@code userIds}, null to go ahead.
+     */
+    private static ResponseEntity<?> unlessCallerIsOneOf(AuthPrincipal principal, String... userIds) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        for (String userId : userIds) {
+            if (userId.equals(principal.getUserId())) {
+                return null;
+            }
+        }
+        return ResponseEntity.status(403).build();
     }
 
 }
@@ -1,10 +1,13 @@
 package main.controller;
 
 import main.dto.ProjectResponse;
-import main.model.Project;
+import main.model.ProjectSummary;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,6 +17,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/client-projects")
 public class ClientController {
 
+    private static final Logger log = LoggerFactory.getLogger(ClientController.class);
+
     private final FirestoreService firestoreService;
 
     public ClientController(FirestoreService firestoreService) {
@@ -21,55 +26,52 @@ public class ClientController {
     }
 
     @GetMapping("/pending")
-    public ResponseEntity<List<ProjectResponse>> getClientPendingProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getClientPendingProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollection("pending_projects", userId);
+            List<ProjectSummary> projects = firestoreService.getProjectSummariesByClient("pending_projects", userId);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getClientPendingProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<ProjectResponse>> getClientActiveProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getClientActiveProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollection("active_projects", userId);
+            List<ProjectSummary> projects = firestoreService.getProjectSummariesByClient("active_projects", userId);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getClientActiveProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @GetMapping("/finished")
-    public ResponseEntity<List<ProjectResponse>> getClientFinishedProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getClientFinishedProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollection("finished_projects", userId);
+            List<ProjectSummary> projects = firestoreService.getProjectSummariesByClient("finished_projects", userId);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getClientFinishedProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -21,9 +21,16 @@ import java.util.concurrent.ExecutionException;
         }
 
         @GetMapping
-        public ResponseEntity<List<Map<String, Object>>> getFeedbackWithReplies() throws ExecutionException, InterruptedException {
-            List<Map<String, Object>> feedbacks = firestoreService.getFeedbackWithReplies();
-            return ResponseEntity.ok(feedbacks);
+        public ResponseEntity<?> getFeedbackWithReplies(
+                @RequestParam(required = false) Integer limit,
+                @RequestParam(required = false) String startAfter
+        ) throws ExecutionException, InterruptedException {
+            // Without paging parameters, keep returning a plain (capped) list for older clients
+            if (limit == null && startAfter == null) {
+                List<Map<String, Object>> feedbacks = firestoreService.getFeedbackWithReplies();
+                return ResponseEntity.ok(feedbacks);
+            }
+            return ResponseEntity.ok(firestoreService.getFeedbackPage(limit, startAfter));
         }
 
         @PostMapping
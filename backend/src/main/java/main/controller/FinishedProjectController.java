@@ -1,11 +1,19 @@
 package main.controller;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import main.model.Project;
-import main.model.User;
+import main.model.ProjectStage;
+import main.service.DownloadService;
 import main.service.FirestoreService;
+import main.service.ProjectArchiveService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -15,10 +23,17 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/finished_projects")
 public class FinishedProjectController {
 
+    private static final Logger log = LoggerFactory.getLogger(FinishedProjectController.class);
+
     private final FirestoreService firestoreService;
+    private final ProjectArchiveService archives;
+    private final DownloadService downloads;
 
-    public FinishedProjectController(FirestoreService firestoreService) {
+    public FinishedProjectController(FirestoreService firestoreService, ProjectArchiveService archives,
+                                     DownloadService downloads) {
         this.firestoreService = firestoreService;
+        this.archives = archives;
+        this.downloads = downloads;
     }
 
     @PostMapping
@@ -26,57 +41,100 @@ public class FinishedProjectController {
         try {
             boolean success = firestoreService.moveActiveProjectToFinished(projectId);
             if (success) {
+                // Deliverables are downloaded as one ZIP, which needs their CRC-32s
+                archives.prepare(projectId);
+
                 // Fetch the now‐finished project
-                DocumentSnapshot snap = firestoreService.getDb()
-                        .collection("finished_projects")
-                        .document(projectId)
-                        .get()
-                        .get();
-                Project project = snap.toObject(Project.class);
+                Project project = firestoreService.getProject(ProjectStage.FINISHED, projectId);
                 String title = project != null ? project.getTitle() : "a project";
 
                 // Notify photographers
-                for (String uid : project.getPhotographers()) {
-                    firestoreService.sendGeneralNotification(
-                            uid,
-                            "Project \"" + title + "\" is now finished.",
-                            "project_update"
-                    );
-                }
+                firestoreService.sendGeneralNotifications(
+                        project.getPhotographers(),
+                        "Project \"" + title + "\" is now finished.",
+                        "project_update"
+                );
                 // Notify editors
-                for (String uid : project.getEditors()) {
-                    firestoreService.sendGeneralNotification(
-                            uid,
-                            "Project \"" + title + "\" is now finished.",
-                            "project_update"
-                    );
-                }
+                firestoreService.sendGeneralNotifications(
+                        project.getEditors(),
+                        "Project \"" + title + "\" is now finished.",
+                        "project_update"
+                );
                 // Notify the client
-                DocumentReference clientRef = (DocumentReference) project.getClientId();
-                String clientId = clientRef.getId();
+                String clientId = firestoreService.getProjectClientId(ProjectStage.FINISHED, projectId);
                 firestoreService.sendGeneralNotification(
                         clientId,
                         "Your project \"" + title + "\" has been completed.",
                         "project_update"
                 );
                 // Notify all managers
-                for (User u : firestoreService.getAllUsers()) {
-                    if ("m".equals(u.getRole())) {
-                        firestoreService.sendGeneralNotification(
-                                u.getId(),
-                                "Project \"" + title + "\" has been completed.",
-                                "project_update"
-                        );
-                    }
-                }
+                firestoreService.sendGeneralNotifications(
+                        firestoreService.getManagerIds(),
+                        "Project \"" + title + "\" has been completed.",
+                        "project_update"
+                );
 
                 return ResponseEntity.ok("Project moved to finished successfully.");
             } else {
                 return ResponseEntity.status(500).body("Failed to move project to finished.");
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error occurred while finishing project", e);
             return ResponseEntity.status(500).body("Error occurred while finishing project.");
         }
     }
+
+    /**
+     * Streams all final media of a finished project as one ZIP (see ProjectArchiveService).
+     * Supports Range requests, so an interrupted download can resume. Admins can download
+     * any project, everyone else only the projects they are the client, manager or crew of.
+     * A project without final media gets 404.
+     */
+    @GetMapping("/{projectId}/archive.zip")
+    public void downloadArchive(
+            @AuthenticationPrincipal AuthPrincipal principal,
+            @PathVariable String projectId,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        try {
+            Project project = firestoreService.getProject(ProjectStage.FINISHED, projectId);
+            if (project == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (!isMember(principal, project)) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            if (project.getFinalMedia() == null || project.getFinalMedia().isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            DownloadService.Download archive = archives.finalMediaArchive(projectId, project.getTitle());
+            if (archive == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            downloads.send(archive, true, request, response);
+        } catch (Exception e) {
+            log.error("Error streaming archive of project {}", projectId, e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    private static boolean isMember(AuthPrincipal principal, Project project) {
+        String userId = principal.getUserId();
+        if (principal.getRole() == null) return false;
+        return switch (principal.getRole()) {
+            case "a" -> true;
+            case "m" -> userId.equals(project.getmanagerId());
+            case "p" -> project.getPhotographers() != null && project.getPhotographers().contains(userId);
+            case "e" -> project.getEditors() != null && project.getEditors().contains(userId);
+            case "c" -> userId.equals(project.getClientId());
+            default -> false;
+        };
+    }
 }
@@ -4,11 +4,13 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.services.calendar.model.Event;
 import main.service.FirestoreService;
 import main.service.GoogleCalendarService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -18,6 +20,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/google")
 public class GoogleCalendarController {
 
+    private static final Logger log = LoggerFactory.getLogger(GoogleCalendarController.class);
+
     @Autowired
     private FirestoreService firestoreService;
 
@@ -25,10 +29,9 @@ public class GoogleCalendarController {
     private GoogleCalendarService calendarService;
 
     @GetMapping("/events")
-    public ResponseEntity<?> getEvents() {
+    public ResponseEntity<?> getEvents(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String email = (String) auth.getPrincipal(); // Now the JWT principal is the email
+            String email = principal.getEmail();
 
             String refreshToken = firestoreService.getGoogleRefreshToken(email);
             if (refreshToken == null) {
@@ -50,7 +53,7 @@ public class GoogleCalendarController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to fetch events", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to fetch events");
         }
     }
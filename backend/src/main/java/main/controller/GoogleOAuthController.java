@@ -7,6 +7,8 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import jakarta.servlet.http.HttpServletResponse;
 import main.service.FirestoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,6 +22,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/google")
 public class GoogleOAuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(GoogleOAuthController.class);
+
     @Autowired
     private GoogleAuthorizationCodeFlow flow;
 
@@ -54,7 +58,7 @@ public class GoogleOAuthController {
                 firestoreService.attachGoogleCalendarToken(email, refreshToken);
             }
         } else {
-            System.out.println("⚠️ No ID token returned by Google. Cannot determine user email.");
+            log.warn("No ID token returned by Google. Cannot determine user email.");
         }
 
         response.sendRedirect("http://localhost:5173/usersettings?calendar=success");
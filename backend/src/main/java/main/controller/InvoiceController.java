@@ -4,12 +4,15 @@ import main.model.Invoice;
 import main.service.FirestoreService;
 import main.service.StripeService;
 import main.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -18,6 +21,7 @@ import java.util.*;
 @RequestMapping("/api/invoices")
 public class InvoiceController {
 
+    private static final Logger log = LoggerFactory.getLogger(InvoiceController.class);
 
     @Autowired
     private StripeService stripeService;
@@ -30,12 +34,19 @@ public class InvoiceController {
 
 
     @GetMapping
-    public ResponseEntity<?> getAllInvoices() {
+    public ResponseEntity<?> getAllInvoices(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String startAfter) {
         try {
-            List<Map<String, Object>> invoices = firestoreService.getAllInvoices();
-            return ResponseEntity.ok(invoices);
+            // Without paging parameters, keep returning a plain (capped) list for older clients
+            if (limit == null && startAfter == null) {
+                List<Map<String, Object>> invoices = firestoreService.getAllInvoices();
+                return ResponseEntity.ok(invoices);
+            }
+            return ResponseEntity.ok(firestoreService.getInvoicesPage(limit, startAfter));
+        } catch (ResponseStatusException e) {
+            throw e; // bad cursor → 400
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getAllInvoices failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
@@ -46,7 +57,7 @@ public class InvoiceController {
             List<Map<String, Object>> invoices = firestoreService.getInvoicesByClientId(clientId);
             return ResponseEntity.ok(invoices);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getInvoicesByClientId failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
@@ -62,7 +73,7 @@ public class InvoiceController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not found with ID: " + id);
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getInvoiceById failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
@@ -77,7 +88,7 @@ public class InvoiceController {
             String invoiceId = firestoreService.saveInvoice(invoiceData);
             return ResponseEntity.status(HttpStatus.CREATED).body(invoiceId);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error creating invoice", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating invoice: " + e.getMessage());
         }
     }
@@ -92,7 +103,7 @@ public class InvoiceController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not found with ID: " + id);
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error updating invoice", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating invoice: " + e.getMessage());
         }
     }
@@ -107,7 +118,7 @@ public class InvoiceController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not found with ID: " + id);
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error deleting invoice", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error deleting invoice: " + e.getMessage());
         }
     }
@@ -125,7 +136,7 @@ public class InvoiceController {
                     .contentType(MediaType.APPLICATION_PDF)
                     .body(pdf);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getReport failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
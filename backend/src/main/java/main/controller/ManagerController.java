@@ -1,13 +1,13 @@
 package main.controller;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import main.dto.AssignmentRequest;
 import main.dto.ProjectResponse;
-import main.model.Project;
+import main.model.ProjectSummary;
 import main.model.User;
 import main.service.FirestoreService;
 import main.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +18,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/pending-projects")
 public class ManagerController {
 
+    private static final Logger log = LoggerFactory.getLogger(ManagerController.class);
+
     private final FirestoreService firestoreService;
 
     public ManagerController(FirestoreService firestoreService) {
@@ -26,7 +28,7 @@ public class ManagerController {
 
     @GetMapping
     public ResponseEntity<List<ProjectResponse>> getPendingProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = firestoreService.getAllPendingProjects();
+        List<ProjectSummary> projects = firestoreService.getAllPendingProjects();
         List<ProjectResponse> response = projects.stream()
                 .map(ProjectResponse::new)
                 .toList();
@@ -44,7 +46,7 @@ public class ManagerController {
                 return ResponseEntity.notFound().build(); // 404
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("deletePendingProject failed", e);
             return ResponseEntity.status(500).build(); // 500
         }
     }
@@ -52,20 +54,20 @@ public class ManagerController {
     @GetMapping("/active")
     public ResponseEntity<List<ProjectResponse>> getAllActiveProjectsForManager() {
         try {
-            List<Project> projects = firestoreService.getAllActiveProjects();
+            List<ProjectSummary> projects = firestoreService.getAllActiveProjects();
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getAllActiveProjectsForManager failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @GetMapping("/all-finished")
     public ResponseEntity<List<ProjectResponse>> getAllFinishedProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = firestoreService.getAllFinishedProjects();
+        List<ProjectSummary> projects = firestoreService.getAllFinishedProjects();
         List<ProjectResponse> response = projects.stream()
                 .map(ProjectResponse::new)
                 .toList();
@@ -74,19 +76,13 @@ public class ManagerController {
 
     @GetMapping("/photographers")
     public ResponseEntity<List<User>> getPhotographers() throws ExecutionException, InterruptedException {
-        List<User> users = firestoreService.getAllUsers();
-        List<User> photographers = users.stream()
-                .filter(user -> "p".equalsIgnoreCase(user.getRole()))
-                .toList();
+        List<User> photographers = firestoreService.getUsersByRole("p");
         return ResponseEntity.ok(photographers);
     }
 
     @GetMapping("/editors")
     public ResponseEntity<List<User>> getEditors() throws ExecutionException, InterruptedException {
-        List<User> users = firestoreService.getAllUsers();
-        List<User> editors = users.stream()
-                .filter(user -> "e".equalsIgnoreCase(user.getRole()))
-                .toList();
+        List<User> editors = firestoreService.getUsersByRole("e");
         return ResponseEntity.ok(editors);
     }
 
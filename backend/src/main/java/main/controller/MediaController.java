@@ -1,22 +1,48 @@
 package main.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import main.dto.MediaJob;
+import main.model.MediaRef;
+import main.model.Rendition;
+import main.service.DownloadService;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.service.MediaProcessingService;
+import main.service.MediaStorageService;
+import main.service.RenditionService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api")
 public class MediaController {
 
+    private static final Logger log = LoggerFactory.getLogger(MediaController.class);
+
     private final FirestoreService firestoreService;
+    private final MediaStorageService mediaStorage;
+    private final MediaProcessingService mediaProcessing;
+    private final RenditionService renditions;
+    private final DownloadService downloads;
 
-    public MediaController(FirestoreService firestoreService) {
+    public MediaController(FirestoreService firestoreService, MediaStorageService mediaStorage,
+                           MediaProcessingService mediaProcessing, RenditionService renditions,
+                           DownloadService downloads) {
         this.firestoreService = firestoreService;
+        this.mediaStorage = mediaStorage;
+        this.mediaProcessing = mediaProcessing;
+        this.renditions = renditions;
+        this.downloads = downloads;
     }
 
     @PostMapping("/upload_media")
@@ -25,51 +51,135 @@ public class MediaController {
             @RequestParam("files") List<MultipartFile> files
     ) {
         try {
-            firestoreService.attachMediaToProject(projectId, files);
+            firestoreService.attachMediaToProject(projectId, files).forEach(renditions::generateAsync);
             return ResponseEntity.ok("Media uploaded and attached successfully.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error uploading media", e);
             return ResponseEntity.status(500).body("Error uploading media: " + e.getMessage());
         }
     }
 
+    /**
+     * Accepts the files and processes them in the background (see MediaProcessingService).
+     * Answers 202 with the job; poll {@code /api/media_jobs/{jobId}} for progress.
+     */
     @PostMapping("/upload_final_media")
-    public ResponseEntity<String> uploadFinalMedia(
+    public ResponseEntity<?> uploadFinalMedia(
+            @AuthenticationPrincipal AuthPrincipal principal,
             @RequestParam("projectId") String projectId,
             @RequestParam("files") List<MultipartFile> files,
             @RequestParam(value = "watermark", required = false, defaultValue = "false") boolean applyWatermark
     ) {
         try {
-            firestoreService.attachFinalMediaToProject(projectId, files, applyWatermark);
-            return ResponseEntity.ok("Final media uploaded and attached successfully.");
+            MediaJob job = mediaProcessing.submit(projectId, files, applyWatermark, principal.getUserId());
+            return ResponseEntity.accepted().body(job);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error uploading final media", e);
             return ResponseEntity.status(500).body("Error uploading final media: " + e.getMessage());
         }
     }
 
+    @GetMapping("/media_jobs/{jobId}")
+    public ResponseEntity<MediaJob> getMediaJob(
+            @AuthenticationPrincipal AuthPrincipal principal,
+            @PathVariable String jobId
+    ) {
+        MediaJob job = mediaProcessing.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean staff = "a".equals(principal.getRole()) || "m".equals(principal.getRole());
+        if (!staff && !job.getOwnerId().equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(job);
+    }
 
-    @GetMapping("/download_media")
-    public ResponseEntity<List<Map<String, String>>> downloadMedia(
-            @RequestHeader("Authorization") String token,
+    /**
+     * Lists the media references of a project. Fetch the bytes of each one with
+     * {@code /api/download_media?projectId=...&mediaId=...}.
+     */
+    @GetMapping(value = "/download_media", params = "!mediaId")
+    public ResponseEntity<List<MediaRef>> downloadMedia(
+            @AuthenticationPrincipal AuthPrincipal principal,
             @RequestParam String projectId
     ) {
-        System.out.println("Token received: " + token);
-        String cleanToken = token.replace("Bearer ", "");
-        String userId = JwtUtil.extractUserId(cleanToken);
-        String role = JwtUtil.extractRole(cleanToken);
+        String userId = principal.getUserId();
+        String role = principal.getRole();
 
-        System.out.println("✅ Request from userId: " + userId + ", role: " + role);
+        log.debug("Request from userId: {}, role: {}", userId, role);
 
         try {
-            List<Map<String, String>> mediaList = firestoreService.getMediaForProject(projectId);
+            List<MediaRef> mediaList = firestoreService.getMediaForProject(projectId);
             return ResponseEntity.ok(mediaList);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("downloadMedia failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
+    /**
+     * Sends one media file straight from the blob store (see DownloadService: ETag/304,
+     * single and multi-range requests). The media ID is the file's SHA-256, so the response
+     * is cacheable for good. {@code size=thumb} (320 px wide) or {@code size=preview}
+     * (1600 px) returns a JPEG rendition of an image instead; {@code size=original} is the default.
+     */
+    @GetMapping(value = "/download_media", params = "mediaId")
+    public void streamMedia(
+            @RequestParam String projectId,
+            @RequestParam String mediaId,
+            @RequestParam(required = false, defaultValue = "original") String size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        try {
+            MediaRef ref = firestoreService.findProjectMedia(projectId, mediaId);
+            if (ref == null || !mediaStorage.exists(mediaId)) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (!size.equals("original")) {
+                sendRendition(ref, Rendition.fromName(size), request, response);
+                return;
+            }
+
+            DownloadService.Download download = new DownloadService.Download(
+                    ref.getFileName() != null ? ref.getFileName() : mediaId,
+                    ref.getContentType(),
+                    mediaStorage.size(mediaId),
+                    mediaStorage.lastModified(mediaId),
+                    "\"" + mediaId + "\"",
+                    true,
+                    null,
+                    (start, length, out) -> mediaStorage.transferRange(mediaId, start, length, out));
+            downloads.send(download, false, request, response);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("streamMedia failed", e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    private void sendRendition(MediaRef ref, Rendition rendition,
+                               HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (!RenditionService.isImage(ref)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file;
+        try {
+            file = renditions.get(ref.getId(), rendition);
+        } catch (ExecutionException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND); // not decodable as an image
+            return;
+        }
 
+        String baseName = ref.getFileName() != null ? ref.getFileName().replaceFirst("\\.[^.]*$", "") : ref.getId();
+        downloads.send(downloads.immutableFile(file, baseName + "-" + rendition.getName() + ".jpg",
+                "image/jpeg", "\"" + ref.getId() + "-" + rendition.getName() + "\""), false, request, response);
+    }
 
 }
@@ -1,10 +1,12 @@
 package main.controller;
 
+import com.google.api.core.ApiFuture;
 import main.model.Meeting;
 import main.model.User;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -30,25 +32,16 @@ public class MeetingController {
     @PostMapping
     public ResponseEntity<Meeting> create(
             @RequestBody Meeting m,
-            @RequestHeader("Authorization") String authHeader
+            @AuthenticationPrincipal AuthPrincipal principal
     ) throws Exception {
-        // 1) pull the JWT out of the header
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // 1-2) the caller was verified by the JWT filter
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
-        String token = authHeader.substring(7);
+        String clientId = principal.getUserId();
 
-        // 2) extract the userId (the “sub” claim) from the token
-        String clientId = JwtUtil.extractUserId(token);
-        if (clientId == null) {
-            return ResponseEntity.status(401).build();
-        }
-
-        // 3a) load the user so we can get their name
-        User client = firestore.getUserById(clientId);
-        String fullName = (client != null)
-                ? (client.getName() + " " + client.getSurname()).trim()
-                : "Someone";
+        // 3a) start loading the user (for the managers' notification) while the meeting is saved
+        ApiFuture<User> clientFuture = firestore.getUserByIdAsync(clientId);
 
         // 3b) parse & prettify the meetingDate
         LocalDate ld = LocalDate.parse(m.getMeetingDate());
@@ -62,9 +55,10 @@ public class MeetingController {
 
         // 4) persist
         Meeting saved = firestore.saveMeeting(m);
+        User client = clientFuture.get();
 
         // 5) notify all managers (using your helper)
-        firestore.sendMeetingRequestNotifications(saved);
+        firestore.sendMeetingRequestNotifications(saved, client);
 
         return ResponseEntity.ok(saved);
     }
@@ -73,9 +67,16 @@ public class MeetingController {
      * Manager fetches all meetings (pending, accepted, rejected).
      */
     @GetMapping
-    public ResponseEntity<List<Meeting>> all() throws Exception {
-        List<Meeting> list = firestore.getAllMeetings();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> all(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String startAfter
+    ) throws Exception {
+        // Without paging parameters, keep returning a plain (capped) list for older clients
+        if (limit == null && startAfter == null) {
+            List<Meeting> list = firestore.getAllMeetings();
+            return ResponseEntity.ok(list);
+        }
+        return ResponseEntity.ok(firestore.getMeetingsPage(limit, startAfter));
     }
 
     /**
@@ -92,18 +93,13 @@ public class MeetingController {
      */
     @GetMapping("/mine")
     public ResponseEntity<List<Meeting>> myAll(
-            @RequestHeader("Authorization") String authHeader
+            @AuthenticationPrincipal AuthPrincipal principal
     ) throws Exception {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).build();
-        }
-        String token    = authHeader.substring(7);
-        String clientId = JwtUtil.extractUserId(token);
-        if (clientId == null) {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        List<Meeting> mine = firestore.getMeetingsForUser(clientId);
+        List<Meeting> mine = firestore.getMeetingsForUser(principal.getUserId());
         return ResponseEntity.ok(mine);
     }
 
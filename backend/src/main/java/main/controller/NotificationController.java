@@ -2,15 +2,21 @@ package main.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.Timestamp;
 import jakarta.servlet.http.HttpServletRequest;
 import main.model.Notification;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.service.StatsService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -19,24 +25,60 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationController.class);
+
     private final FirestoreService firestoreService;
+    private final StatsService statsService;
     private final ObjectMapper objectMapper;
 
-    public NotificationController(FirestoreService firestoreService) {
+    public NotificationController(FirestoreService firestoreService, StatsService statsService) {
         this.firestoreService = firestoreService;
+        this.statsService = statsService;
         this.objectMapper = new ObjectMapper();
     }
 
     @GetMapping
-    public ResponseEntity<List<Notification>> getUserNotifications(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserNotifications(@AuthenticationPrincipal AuthPrincipal principal,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String startAfter,
+                                                  @RequestParam(required = false) String since) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
+
+            // Delta sync after a (re)connect: only what arrived after the newest notification the client has
+            if (since != null) {
+                Timestamp sinceTs = parseSince(since);
+                if (sinceTs == null) {
+                    return ResponseEntity.badRequest().body("since must be epoch milliseconds or an ISO-8601 instant");
+                }
+                return ResponseEntity.ok(firestoreService.getNotificationsSince(userId, sinceTs));
+            }
 
-            List<Notification> notifications = firestoreService.getNotificationsForUser(userId);
-            return ResponseEntity.ok(notifications);
+            // Without paging parameters, keep returning a plain (capped) list for older clients
+            if (limit == null && startAfter == null) {
+                List<Notification> notifications = firestoreService.getNotificationsForUser(userId);
+                return ResponseEntity.ok(notifications);
+            }
+            return ResponseEntity.ok(firestoreService.getNotificationsPage(userId, limit, startAfter));
         } catch (ExecutionException | InterruptedException e) {
-            e.printStackTrace();
+            log.error("getUserNotifications failed", e);
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@AuthenticationPrincipal AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            long unread = statsService.getUnreadNotificationCount(principal.getUserId());
+            return ResponseEntity.ok(Map.of("unread", unread));
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("getUnreadCount failed", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -47,7 +89,7 @@ public class NotificationController {
             firestoreService.markNotificationAsRead(notificationId);
             return ResponseEntity.ok("Notification marked as read.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to mark notification as read", e);
             return ResponseEntity.status(500).body("Failed to mark notification as read.");
         }
     }
@@ -58,7 +100,7 @@ public class NotificationController {
             firestoreService.deleteNotification(notificationId);
             return ResponseEntity.ok("Notification deleted.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to delete notification", e);
             return ResponseEntity.status(500).body("Failed to delete notification.");
         }
     }
@@ -84,7 +126,7 @@ public class NotificationController {
 
             return ResponseEntity.ok("Notification sent successfully.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to send notification", e);
             return ResponseEntity.status(500).body("Failed to send notification.");
         }
     }
@@ -104,7 +146,7 @@ public class NotificationController {
 
             return ResponseEntity.ok("Client notified of acceptance.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error processing acceptance", e);
             return ResponseEntity.status(500).body("Error processing acceptance.");
         }
     }
@@ -124,12 +166,22 @@ public class NotificationController {
 
             return ResponseEntity.ok("Client notified of rejection.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error processing rejection", e);
             return ResponseEntity.status(500).body("Error processing rejection.");
         }
     }
 
-
-
-
+    private static Timestamp parseSince(String since) {
+        try {
+            return Timestamp.of(new Date(Long.parseLong(since)));
+        } catch (NumberFormatException ignored) {
+            // not epoch millis, try ISO-8601 below
+        }
+        try {
+            Instant instant = Instant.parse(since);
+            return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
@@ -1,14 +1,16 @@
 package main.controller;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.ApiResource;
 import com.stripe.net.Webhook;
+import main.model.Project;
+import main.model.ProjectStage;
 import main.service.FirestoreService;
 import main.service.StripeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +22,8 @@ import java.util.Map;
 @RequestMapping("/api/payment")
 public class PaymentController {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+
     private final FirestoreService firestoreService;
 
     @Autowired
@@ -62,43 +66,38 @@ public class PaymentController {
 
             if ("checkout.session.completed".equals(event.getType())) {
                 try {
-                    System.out.println("✅ Stripe event received: " + event.getType());
+                    log.debug("Stripe event received: {}", event.getType());
 
                     // ✅ FIXED DESERIALIZATION FROM RAW JSON
                     com.google.gson.JsonObject root = new com.google.gson.JsonParser().parse(payload).getAsJsonObject();
                     com.google.gson.JsonObject sessionJson = root.getAsJsonObject("data").getAsJsonObject("object");
 
-                    System.out.println("📦 Raw session JSON: " + sessionJson);
+                    log.debug("Raw session JSON: {}", sessionJson);
 
                     Session session = ApiResource.GSON.fromJson(sessionJson, Session.class);
-                    System.out.println("✅ Deserialized session ID: " + session.getId());
-                    System.out.println("✅ Client Reference ID: " + session.getClientReferenceId());
+                    log.debug("Deserialized session ID: {}", session.getId());
+                    log.debug("Client Reference ID: {}", session.getClientReferenceId());
 
                     String projectId = session.getClientReferenceId();
                     if (projectId == null) {
-                        System.err.println("❌ Missing projectId in session.");
+                        log.error("Missing projectId in session.");
                         return ResponseEntity.badRequest().body("Missing projectId in session.");
                     }
 
                     boolean moved = firestoreService.movePendingProjectToActive(projectId);
                     if (!moved) {
-                        System.err.println("❌ Could not move project to active: " + projectId);
+                        log.error("Could not move project to active: {}", projectId);
                         return ResponseEntity.status(500).body("Failed to move project to active.");
                     }
 
-                    DocumentSnapshot snapshot = firestoreService.getDb()
-                            .collection("active_projects")
-                            .document(projectId)
-                            .get()
-                            .get();
+                    Project project = firestoreService.getProject(ProjectStage.ACTIVE, projectId);
 
-                    if (snapshot.exists()) {
-                        DocumentReference clientRef = snapshot.get("clientId", DocumentReference.class);
-                        String clientId = clientRef != null ? clientRef.getId() : null;
-                        String priceStr = snapshot.getString("price");
+                    if (project != null) {
+                        String clientId = firestoreService.getProjectClientId(ProjectStage.ACTIVE, projectId);
+                        String priceStr = project.getPrice();
 
                         if (priceStr == null || priceStr.isBlank()) {
-                            System.err.println("❌ Price field is missing or empty for project: " + projectId);
+                            log.error("Price field is missing or empty for project: {}", projectId);
                             return ResponseEntity.status(500).body("Missing price for project.");
                         }
 
@@ -106,19 +105,19 @@ public class PaymentController {
 
                         if (clientId != null) {
                             firestoreService.createInvoice(clientId, projectId, price);
-                            System.out.println("✅ Invoice created for project: " + projectId);
+                            log.info("Invoice created for project: {}", projectId);
                         } else {
-                            System.err.println("❌ Client ID is null for project: " + projectId);
+                            log.error("Client ID is null for project: {}", projectId);
                             return ResponseEntity.status(500).body("Missing clientId in active project.");
                         }
                     } else {
-                        System.err.println("❌ Active project not found for ID: " + projectId);
+                        log.error("Active project not found for ID: {}", projectId);
                         return ResponseEntity.status(404).body("Active project not found.");
                     }
 
                     return ResponseEntity.ok("Webhook handled successfully.");
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    log.error("Failed to handle checkout session", e);
                     return ResponseEntity.badRequest().body("Webhook error: " + e.getMessage());
                 }
             }
@@ -126,7 +125,7 @@ public class PaymentController {
             return ResponseEntity.ok("Event received: " + event.getType());
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Webhook error", e);
             return ResponseEntity.badRequest().body("Webhook error: " + e.getMessage());
         }
     }
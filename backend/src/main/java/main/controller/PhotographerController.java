@@ -3,10 +3,10 @@ package main.controller;
 import main.dto.ProjectResponse;
 import main.model.Project;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -25,11 +25,10 @@ public class PhotographerController {
 
     @GetMapping("/my-active-projects")
     public ResponseEntity<List<ProjectResponse>> getMyActiveProjects(
-            @RequestHeader("Authorization") String token
+            @AuthenticationPrincipal AuthPrincipal principal
     ) throws ExecutionException, InterruptedException {
-        String cleanToken = token.replace("Bearer ", "");
-        String userId = JwtUtil.extractUserId(cleanToken);
-        String role = JwtUtil.extractRole(cleanToken);
+        String userId = principal.getUserId();
+        String role = principal.getRole();
 
         List<ProjectResponse> projects = firestoreService.getActiveProjectsForUser(userId, role);
 
@@ -38,11 +37,10 @@ public class PhotographerController {
 
     @GetMapping("/finished_projects")
     public ResponseEntity<List<ProjectResponse>> getMyFinishedProjects(
-            @RequestHeader("Authorization") String token
+            @AuthenticationPrincipal AuthPrincipal principal
     ) throws ExecutionException, InterruptedException {
-        String cleanToken = token.replace("Bearer ", "");
-        String userId = JwtUtil.extractUserId(cleanToken);
-        String role = JwtUtil.extractRole(cleanToken);
+        String userId = principal.getUserId();
+        String role = principal.getRole();
 
         List<ProjectResponse> projects = firestoreService.getFinishedProjectsForUser(userId, role);
         return ResponseEntity.ok(projects);
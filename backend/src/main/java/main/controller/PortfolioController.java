@@ -1,11 +1,16 @@
 package main.controller;
 
 import main.model.Project;
+import main.dto.Page;
 import main.dto.ProjectResponse;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -13,6 +18,8 @@ import java.util.List;
 @RequestMapping("/api/portfolio")
 public class PortfolioController {
 
+    private static final Logger log = LoggerFactory.getLogger(PortfolioController.class);
+
     private final FirestoreService firestoreService;
 
     public PortfolioController(FirestoreService firestoreService) {
@@ -20,10 +27,19 @@ public class PortfolioController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ProjectResponse>> getClientFinishedPortfolio(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getClientFinishedPortfolio(@AuthenticationPrincipal AuthPrincipal principal,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        @RequestParam(required = false) String startAfter) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
+
+            if (limit != null || startAfter != null) {
+                Page<Project> page = firestoreService.getProjectsPageByClient("finished_projects", userId, limit, startAfter);
+                List<ProjectResponse> items = page.getItems().stream()
+                        .map(ProjectResponse::new)
+                        .toList();
+                return ResponseEntity.ok(new Page<>(items, page.getNextCursor()));
+            }
 
             List<Project> projects = firestoreService.getProjectsByUserFromCollection("finished_projects", userId);
             List<ProjectResponse> response = projects.stream()
@@ -31,8 +47,10 @@ public class PortfolioController {
                     .toList();
 
             return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            throw e; // bad cursor → 400
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getClientFinishedPortfolio failed", e);
             return ResponseEntity.status(500).build();
         }
     }
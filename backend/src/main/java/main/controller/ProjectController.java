@@ -2,10 +2,12 @@ package main.controller;
 
 import main.dto.ProjectResponse;
 import main.model.Project;
-import main.model.User;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,6 +17,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/projects")
 public class ProjectController {
 
+    private static final Logger log = LoggerFactory.getLogger(ProjectController.class);
+
     private final FirestoreService firestoreService;
 
     public ProjectController(FirestoreService firestoreService) {
@@ -22,43 +26,39 @@ public class ProjectController {
     }
 
     @GetMapping
-    public List<ProjectResponse> getUserProjects(@RequestHeader("Authorization") String token) throws ExecutionException, InterruptedException {
-        String clientId = JwtUtil.extractUserId(token.replace("Bearer ", ""));
+    public List<ProjectResponse> getUserProjects(@AuthenticationPrincipal AuthPrincipal principal) throws ExecutionException, InterruptedException {
+        String clientId = principal.getUserId();
         List<Project> projects = firestoreService.getProjectsByUserId(clientId);
         return projects.stream().map(ProjectResponse::new).toList();
     }
 
     @PostMapping
     public ResponseEntity<String> createProject(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal AuthPrincipal principal,
             @RequestBody Project project
     ) throws ExecutionException, InterruptedException {
-        String clientId = JwtUtil.extractUserId(token.replace("Bearer ", ""));
+        String clientId = principal.getUserId();
         firestoreService.createProject(project, clientId);
 
         // 🔔 Notify all managers about the new project request
         try {
             String title = project.getTitle() != null ? project.getTitle() : "Untitled";
-            for (User u : firestoreService.getAllUsers()) {
-                if ("m".equals(u.getRole())) {
-                    firestoreService.sendGeneralNotification(
-                            u.getId(),
-                            "A new project request was submitted: \"" + title + "\"",
-                            "project_request"
-                    );
-                }
-            }
+            firestoreService.sendGeneralNotifications(
+                    firestoreService.getManagerIds(),
+                    "A new project request was submitted: \"" + title + "\"",
+                    "project_request"
+            );
         } catch (Exception e) {
             // log but don't fail the request
-            e.printStackTrace();
+            log.error("createProject failed", e);
         }
 
         return ResponseEntity.ok("Project created successfully.");
     }
 
     @PutMapping("/activate")
-    public ResponseEntity<String> activateProject(@RequestHeader("Authorization") String token, @RequestBody Project incomingProject) throws ExecutionException, InterruptedException {
-        String managerId = JwtUtil.extractUserId(token.replace("Bearer ", ""));
+    public ResponseEntity<String> activateProject(@AuthenticationPrincipal AuthPrincipal principal, @RequestBody Project incomingProject) throws ExecutionException, InterruptedException {
+        String managerId = principal.getUserId();
 
         incomingProject.setmanagerId(managerId);
         incomingProject.setStatus("active");
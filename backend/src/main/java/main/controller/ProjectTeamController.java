@@ -2,8 +2,9 @@ package main.controller;
 
 import main.model.ProjectTeam;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.concurrent.ExecutionException;
@@ -19,9 +20,9 @@ public class ProjectTeamController {
     }
 
     @PostMapping
-    public ResponseEntity<String> createProjectTeam(@RequestHeader("Authorization") String token,
+    public ResponseEntity<String> createProjectTeam(@AuthenticationPrincipal AuthPrincipal principal,
                                                     @RequestBody ProjectTeam projectTeam) throws ExecutionException, InterruptedException {
-        String managerId = JwtUtil.extractUserId(token.replace("Bearer ", ""));
+        String managerId = principal.getUserId();
         projectTeam.setManagerId(managerId); // ✅ Manager is always the authenticated user
 
         String savedId = firestoreService.createProjectTeam(projectTeam);
@@ -1,10 +1,13 @@
 package main.controller;
 
 import main.dto.ProjectResponse;
-import main.model.Project;
+import main.model.ProjectSummary;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,6 +17,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/staff-projects")
 public class StaffController {
 
+    private static final Logger log = LoggerFactory.getLogger(StaffController.class);
+
     private final FirestoreService firestoreService;
 
     public StaffController(FirestoreService firestoreService) {
@@ -21,58 +26,55 @@ public class StaffController {
     }
 
     @GetMapping("/pending")
-    public ResponseEntity<List<ProjectResponse>> getStaffPendingProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getStaffPendingProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String role = JwtUtil.extractRole(token);
-            String userId = JwtUtil.extractUserId(token);
+            String role = principal.getRole();
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollectionS("pending_projects", userId, role);
+            List<ProjectSummary> projects = firestoreService.getProjectsByUserFromCollectionS("pending_projects", userId, role);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getStaffPendingProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<ProjectResponse>> getStaffActiveProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getStaffActiveProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String role = JwtUtil.extractRole(token);
-            String userId = JwtUtil.extractUserId(token);
+            String role = principal.getRole();
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollectionS("active_projects", userId, role);
+            List<ProjectSummary> projects = firestoreService.getProjectsByUserFromCollectionS("active_projects", userId, role);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getStaffActiveProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @GetMapping("/finished")
-    public ResponseEntity<List<ProjectResponse>> getStaffFinishedProjects(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProjectResponse>> getStaffFinishedProjects(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String role = JwtUtil.extractRole(token);
-            String userId = JwtUtil.extractUserId(token);
+            String role = principal.getRole();
+            String userId = principal.getUserId();
 
-            List<Project> projects = firestoreService.getProjectsByUserFromCollectionS("finished_projects", userId, role);
+            List<ProjectSummary> projects = firestoreService.getProjectsByUserFromCollectionS("finished_projects", userId, role);
             List<ProjectResponse> response = projects.stream()
                     .map(ProjectResponse::new)
                     .toList();
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getStaffFinishedProjects failed", e);
             return ResponseEntity.status(500).build();
         }
     }
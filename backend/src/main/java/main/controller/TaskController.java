@@ -3,8 +3,10 @@ package main.controller;
 import main.model.Task;
 import main.model.User;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,51 +23,45 @@ public class TaskController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<?> getAllTasks(@RequestHeader("Authorization") String authHeader)
+    @PreAuthorize("hasAnyRole('A', 'M')")
+    public ResponseEntity<?> getAllTasks(@RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String startAfter)
             throws ExecutionException, InterruptedException {
 
-        if (!isManagerOrAdmin(authHeader)) {
-            return ResponseEntity.status(403).body("Access denied");
+        // Without paging parameters, keep returning a plain (capped) list for older clients
+        if (limit == null && startAfter == null) {
+            List<Task> tasks = firestoreService.getAllTasks();
+            return ResponseEntity.ok(tasks);
         }
-
-        List<Task> tasks = firestoreService.getAllTasks();
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(firestoreService.getTasksPage(limit, startAfter));
     }
 
     @GetMapping
-    public ResponseEntity<?> getUserTasks(@RequestHeader("Authorization") String authHeader)
+    public ResponseEntity<?> getUserTasks(@AuthenticationPrincipal AuthPrincipal principal)
             throws ExecutionException, InterruptedException {
 
-        String email = getUserEmailFromToken(authHeader);
-        if (email == null) return ResponseEntity.status(401).body("Unauthorized");
-
-        User user = firestoreService.getUserByEmail(email);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
+        if (principal == null) return ResponseEntity.status(401).body("Unauthorized");
 
-        List<Task> tasks = firestoreService.getTasksByUser(user.getId());
+        List<Task> tasks = firestoreService.getTasksByUser(principal.getUserId());
         return ResponseEntity.ok(tasks);
     }
 
     @GetMapping("/assigned")
-    public ResponseEntity<?> getAssignedTasks(@RequestHeader("Authorization") String authHeader)
+    public ResponseEntity<?> getAssignedTasks(@AuthenticationPrincipal AuthPrincipal principal)
             throws ExecutionException, InterruptedException {
 
-        String email = getUserEmailFromToken(authHeader);
-        if (email == null) return ResponseEntity.status(401).body("Unauthorized");
-
-        User user = firestoreService.getUserByEmail(email);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
+        if (principal == null) return ResponseEntity.status(401).body("Unauthorized");
 
-        List<Task> tasks = firestoreService.getTasksAssignedToUser(user.getId());
+        List<Task> tasks = firestoreService.getTasksAssignedToUser(principal.getUserId());
         return ResponseEntity.ok(tasks);
     }
 
     @GetMapping("/project/{projectId}")
     public ResponseEntity<?> getProjectTasks(@PathVariable String projectId,
-                                             @RequestHeader("Authorization") String authHeader)
+                                             @AuthenticationPrincipal AuthPrincipal principal)
             throws ExecutionException, InterruptedException {
 
-        String email = getUserEmailFromToken(authHeader);
+        String email = getUserEmailFromToken(principal);
         if (email == null) return ResponseEntity.status(401).body("Unauthorized");
 
         List<Task> tasks = firestoreService.getTasksByProject(projectId);
@@ -74,10 +70,10 @@ public class TaskController {
 
     @GetMapping("/{taskId}")
     public ResponseEntity<?> getTask(@PathVariable String taskId,
-                                     @RequestHeader("Authorization") String authHeader)
+                                     @AuthenticationPrincipal AuthPrincipal principal)
             throws ExecutionException, InterruptedException {
 
-        String email = getUserEmailFromToken(authHeader);
+        String email = getUserEmailFromToken(principal);
         if (email == null) return ResponseEntity.status(401).body("Unauthorized");
 
         Task task = firestoreService.getTaskById(taskId);
@@ -88,16 +84,12 @@ public class TaskController {
 
     @PostMapping
     public ResponseEntity<?> createTask(@RequestBody Task task,
-                                        @RequestHeader("Authorization") String authHeader)
+                                        @AuthenticationPrincipal AuthPrincipal principal)
             throws Exception {
 
-        String email = getUserEmailFromToken(authHeader);
-        if (email == null) return ResponseEntity.status(401).body("Unauthorized");
-
-        User user = firestoreService.getUserByEmail(email);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
+        if (principal == null) return ResponseEntity.status(401).body("Unauthorized");
 
-        task.setUserId(user.getId());
+        task.setUserId(principal.getUserId());
 
         String taskId = firestoreService.createTask(task);
 
@@ -112,10 +104,10 @@ public class TaskController {
     @PutMapping("/{taskId}")
     public ResponseEntity<?> updateTask(@PathVariable String taskId,
                                         @RequestBody Task task,
-                                        @RequestHeader("Authorization") String authHeader)
+                                        @AuthenticationPrincipal AuthPrincipal principal)
             throws Exception {
 
-        String email = getUserEmailFromToken(authHeader);
+        String email = getUserEmailFromToken(principal);
         if (email == null) return ResponseEntity.status(401).body("Unauthorized");
 
         task.setId(taskId);
@@ -148,10 +140,10 @@ public class TaskController {
 
     @DeleteMapping("/{taskId}")
     public ResponseEntity<?> deleteTask(@PathVariable String taskId,
-                                        @RequestHeader("Authorization") String authHeader)
+                                        @AuthenticationPrincipal AuthPrincipal principal)
             throws ExecutionException, InterruptedException {
 
-        String email = getUserEmailFromToken(authHeader);
+        String email = getUserEmailFromToken(principal);
         if (email == null) return ResponseEntity.status(401).body("Unauthorized");
 
         Task task = firestoreService.getTaskById(taskId);
@@ -165,17 +157,7 @@ public class TaskController {
 
     // --- Helper Methods ---
 
-    private String getUserEmailFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) return null;
-        String token = authHeader.substring(7);
-        return JwtUtil.extractEmail(token);
-    }
-
-    private boolean isManagerOrAdmin(String authHeader) throws ExecutionException, InterruptedException {
-        String email = getUserEmailFromToken(authHeader);
-        if (email == null) return false;
-
-        User user = firestoreService.getUserByEmail(email);
-        return user != null && ("a".equals(user.getRole()) || "m".equals(user.getRole()));
+    private String getUserEmailFromToken(AuthPrincipal principal) {
+        return principal != null ? principal.getEmail() : null;
     }
 }
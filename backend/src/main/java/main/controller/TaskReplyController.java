@@ -1,11 +1,15 @@
 package main.controller;
 
+import com.google.api.core.ApiFuture;
 import main.model.TaskReply;
 import main.model.Task;
 import main.model.User;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.Map;
 @RequestMapping("/api/tasks/{taskId}/replies")
 public class TaskReplyController {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskReplyController.class);
+
     private final FirestoreService firestoreService;
 
     public TaskReplyController(FirestoreService firestoreService) {
@@ -27,7 +33,7 @@ public class TaskReplyController {
             List<TaskReply> replies = firestoreService.getRepliesForTask(taskId);
             return ResponseEntity.ok(replies);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("getReplies failed", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -36,23 +42,25 @@ public class TaskReplyController {
     public ResponseEntity<Void> postReply(
             @PathVariable String taskId,
             @RequestBody Map<String, String> body,
-            @RequestHeader("Authorization") String authHeader
+            @AuthenticationPrincipal AuthPrincipal principal
     ) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            String userId = JwtUtil.extractUserId(token);
+            String userId = principal.getUserId();
             String message = body.get("message");
 
-            // 1) save the reply
-            firestoreService.addReply(taskId, userId, message);
+            // 1) save the reply while loading the sender and the task; none depends on the others
+            ApiFuture<String> saved = firestoreService.addReplyAsync(taskId, userId, message);
+            ApiFuture<User> senderFuture = firestoreService.getUserByIdAsync(userId);
+            ApiFuture<Task> taskFuture = firestoreService.getTaskByIdAsync(taskId);
+            saved.get();
+            User sender = senderFuture.get();
+            Task task = taskFuture.get();
 
             // 2) notification logic
-            User sender = firestoreService.getUserById(userId);
             String senderName = sender.getName() + " " + sender.getSurname();
 
             if ("m".equals(sender.getRole())) {
                 // manager replied → notify the one staff assigned to this task
-                Task task = firestoreService.getTaskById(taskId);
                 String staffId = task.getAssignedToId();
                 if (staffId != null && !staffId.isEmpty()) {
                     String notif = String.format(
@@ -65,23 +73,18 @@ public class TaskReplyController {
                 }
             } else {
                 // staff asked → notify all managers
-                Task task = firestoreService.getTaskById(taskId);
                 String notif = String.format(
                         "%s asked about \"%s\": %s",
                         senderName, task.getTitle(), message
                 );
-                for (User u : firestoreService.getAllUsers()) {
-                    if ("m".equals(u.getRole())) {
-                        firestoreService.sendGeneralNotification(
-                                u.getId(), notif, "task_reply"
-                        );
-                    }
-                }
+                firestoreService.sendGeneralNotifications(
+                        firestoreService.getManagerIds(), notif, "task_reply"
+                );
             }
 
             return ResponseEntity.ok().build();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("postReply failed", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -0,0 +1,141 @@
+package main.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import main.dto.UploadSession;
+import main.model.MediaRef;
+import main.service.ResumableUploadService;
+import main.util.AuthPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable uploads, for files too large to send in one multipart request:
+ *
+ *   POST   /api/uploads                      {target, projectId, fileName, contentType, size, ...} → session
+ *   PUT    /api/uploads/{id}/chunks/{index}  raw chunk bytes; any order, in parallel, retries are safe
+ *   GET    /api/uploads/{id}                 session with the received chunks and the resume offset
+ *   POST   /api/uploads/{id}/commit          assembles the file and attaches it
+ *   DELETE /api/uploads/{id}                 abandons the upload
+ *
+ * Target "media" and "final" append to the active project's media or finalMedia (final media
+ * can ask for a watermark); "files" stores it like /api/files/upload.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadSessionController {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionController.class);
+
+    private final ResumableUploadService uploads;
+
+    public UploadSessionController(ResumableUploadService uploads) {
+        this.uploads = uploads;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createSession(@AuthenticationPrincipal AuthPrincipal principal,
+                                           @RequestBody UploadSession request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploads.create(request, principal.getUserId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to create upload session", e);
+            return ResponseEntity.status(500).body("Failed to create upload session: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<?> getSession(@AuthenticationPrincipal AuthPrincipal principal,
+                                        @PathVariable String sessionId) {
+        try {
+            UploadSession session = uploads.find(sessionId, principal.getUserId());
+            return session != null ? ResponseEntity.ok(session) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Failed to read upload session", e);
+            return ResponseEntity.status(500).body("Failed to read upload session");
+        }
+    }
+
+    /**
+     * The body is streamed to disk as it arrives, so chunks are never held in memory.
+     */
+    @PutMapping("/{sessionId}/chunks/{index}")
+    public ResponseEntity<?> putChunk(@AuthenticationPrincipal AuthPrincipal principal,
+                                      @PathVariable String sessionId,
+                                      @PathVariable int index,
+                                      HttpServletRequest request) {
+        try {
+            UploadSession session = uploads.find(sessionId, principal.getUserId());
+            if (session == null) {
+                return ResponseEntity.notFound().build();
+            }
+            try (InputStream body = request.getInputStream()) {
+                uploads.putChunk(session, index, body);
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to store chunk {} of upload {}", index, sessionId, e);
+            return ResponseEntity.status(500).body("Failed to store chunk");
+        }
+    }
+
+    @PostMapping("/{sessionId}/commit")
+    public ResponseEntity<?> commit(@AuthenticationPrincipal AuthPrincipal principal,
+                                    @PathVariable String sessionId) {
+        try {
+            UploadSession session = uploads.find(sessionId, principal.getUserId());
+            if (session == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            if (session.getTarget().equals("files")) {
+                String fileName = uploads.commitFile(session);
+                Map<String, Object> response = new HashMap<>();
+                response.put("fileName", fileName);
+                response.put("fileDownloadUri", ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/files/download/")
+                        .path(fileName)
+                        .toUriString());
+                response.put("fileType", session.getContentType());
+                response.put("size", session.getSize());
+                return ResponseEntity.ok(response);
+            }
+
+            MediaRef ref = uploads.commitMedia(session);
+            return ResponseEntity.ok(ref);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage()); // chunks missing or checksum mismatch
+        } catch (Exception e) {
+            log.error("Failed to commit upload {}", sessionId, e);
+            return ResponseEntity.status(500).body("Failed to commit upload: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<?> deleteSession(@AuthenticationPrincipal AuthPrincipal principal,
+                                           @PathVariable String sessionId) {
+        try {
+            UploadSession session = uploads.find(sessionId, principal.getUserId());
+            if (session == null) {
+                return ResponseEntity.notFound().build();
+            }
+            uploads.delete(session);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.error("Failed to delete upload session", e);
+            return ResponseEntity.status(500).body("Failed to delete upload session");
+        }
+    }
+}
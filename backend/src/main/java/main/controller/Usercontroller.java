@@ -3,11 +3,14 @@ package main.controller;
 import main.dto.UserDTO;
 import main.model.User;
 import main.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import main.service.FirestoreService;
-import main.util.JwtUtil;
+import main.util.AuthPrincipal;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -16,6 +19,8 @@ import java.util.concurrent.ExecutionException;
 @RequestMapping("/api/users")
 public class Usercontroller {
 
+    private static final Logger log = LoggerFactory.getLogger(Usercontroller.class);
+
     @Autowired
     private EmailService emailService;
     private final FirestoreService firestoreService;
@@ -26,42 +31,43 @@ public class Usercontroller {
 
     @PostMapping("/signup")
     public String signup(@RequestBody User user) {
-        System.out.println("Received user: " + user.getEmail()); // 👈 Log input
+        log.debug("Received user: {}", user.getEmail());
 
         try {
             String result = firestoreService.saveUser(user);
-            System.out.println("Signup result: " + result); // 👈 Log output
+            log.debug("Signup result: {}", result);
 
             // Send greeting email after successful signup
             emailService.sendWelcomeEmail(user.getEmail(), user.getName());
 
             return result;
         } catch (ExecutionException | InterruptedException e) {
-            e.printStackTrace(); // 👈 Log the error
+            log.error("signup failed", e);
             return "Error: " + e.getMessage();
         }
     }
     
     @GetMapping
-    public ResponseEntity<?> getAllUsers(@RequestHeader("Authorization") String authHeader) 
+    public ResponseEntity<?> getAllUsers(@AuthenticationPrincipal AuthPrincipal principal,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String startAfter)
             throws ExecutionException, InterruptedException {
         
-        String email = getUserEmailFromToken(authHeader);
+        String email = getUserEmailFromToken(principal);
         if (email == null) {
             return ResponseEntity.status(401).body("Unauthorized");
         }
         
-        List<User> users = firestoreService.getAllUsers();
-        return ResponseEntity.ok(users);
+        // Without paging parameters, keep returning a plain (capped) list for older clients
+        if (limit == null && startAfter == null) {
+            List<User> users = firestoreService.getAllUsers();
+            return ResponseEntity.ok(users);
+        }
+        return ResponseEntity.ok(firestoreService.getUsersPage(limit, startAfter));
     }
     
-    private String getUserEmailFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
-        }
-        
-        String token = authHeader.substring(7);
-        return JwtUtil.extractEmail(token);
+    private String getUserEmailFromToken(AuthPrincipal principal) {
+        return principal != null ? principal.getEmail() : null;
     }
 
     @GetMapping("/by-email/{email}")
@@ -0,0 +1,97 @@
+package main.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a background media upload. {@code status} goes from "queued" to "running" to
+ * "completed" or "failed"; files that could not be stored are counted in {@code failed} and
+ * listed in {@code errors}, the rest are still attached.
+ */
+public class MediaJob {
+    private final String id;
+    private final String projectId;
+    private final String ownerId;
+    private final int total;
+    private final String createdAt;
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile String status = "queued";
+    private volatile String finishedAt;
+
+    public MediaJob(String id, String projectId, String ownerId, int total) {
+        this.id = id;
+        this.projectId = projectId;
+        this.ownerId = ownerId;
+        this.total = total;
+        this.createdAt = Instant.now().toString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void start() {
+        status = "running";
+    }
+
+    public void fileProcessed() {
+        processed.incrementAndGet();
+    }
+
+    public void fileFailed(String error) {
+        failed.incrementAndGet();
+        errors.add(error);
+    }
+
+    public void finish(String finalStatus) {
+        finishedAt = Instant.now().toString();
+        status = finalStatus;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+}
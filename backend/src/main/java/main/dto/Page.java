@@ -0,0 +1,39 @@
+package main.dto;
+
+import java.util.List;
+
+/**
+ * One page of a listing. Pass {@code nextCursor} back as {@code startAfter} to get the next page;
+ * it is null on the last page. The cursor is opaque to clients.
+ */
+public class Page<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public Page() {}
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -1,8 +1,9 @@
 package main.dto;
 
+import main.model.MediaRef;
 import main.model.Project;
+import main.model.ProjectSummary;
 import java.util.List;
-import java.util.Map;
 
 public class ProjectResponse {
     private String id;
@@ -14,15 +15,15 @@ public class ProjectResponse {
     private String price;
     private String status;
     private String type;
-    private String clientId; // converted from DocumentReference to String
+    private String clientId;
     private String userId;
     private String projectTeamId;
     private int state;
     private List<String> photographers;
     private List<String> editors;
     private String assignedAt;
-    private List<Map<String, String>> media;
-    private List<Map<String, String>> finalMedia;
+    private List<MediaRef> media;
+    private List<MediaRef> finalMedia;
 
 
     // Constructor from Project model:
@@ -36,7 +37,7 @@ public class ProjectResponse {
         this.price = project.getPrice();
         this.status = project.getStatus();
         this.type = project.getType();
-        this.clientId = project.getClientId() != null ? project.getClientId().getId() : null;
+        this.clientId = project.getClientId();
         this.userId = project.getmanagerId();
         this.projectTeamId = project.getProjectTeamId();
         this.state = project.getState();
@@ -47,6 +48,26 @@ public class ProjectResponse {
         this.finalMedia = project.getFinalMedia();
     }
 
+    // Constructor from the media-free summary used by list endpoints:
+    public ProjectResponse(ProjectSummary summary) {
+        this.id = summary.getId();
+        this.title = summary.getTitle();
+        this.description = summary.getDescription();
+        this.requirements = summary.getRequirements();
+        this.creationDate = summary.getCreationDate();
+        this.endDate = summary.getEndDate();
+        this.price = summary.getPrice();
+        this.status = summary.getStatus();
+        this.type = summary.getType();
+        this.clientId = summary.getClientId();
+        this.userId = summary.getManagerId();
+        this.projectTeamId = summary.getProjectTeamId();
+        this.state = summary.getState();
+        this.photographers = summary.getPhotographers();
+        this.editors = summary.getEditors();
+        this.assignedAt = summary.getAssignedAt();
+    }
+
     // Getters and setters (generated)
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -95,10 +116,10 @@ public class ProjectResponse {
 
     public String getAssignedAt() { return assignedAt; }
     public void setAssignedAt(String assignedAt) { this.assignedAt = assignedAt; }
-    public List<Map<String, String>> getMedia() { return media; }
-    public void setMedia(List<Map<String, String>> media) { this.media = media; }
+    public List<MediaRef> getMedia() { return media; }
+    public void setMedia(List<MediaRef> media) { this.media = media; }
 
-    public List<Map<String, String>> getFinalMedia() { return finalMedia; }
-    public void setFinalMedia(List<Map<String, String>> finalMedia) { this.finalMedia = finalMedia; }
+    public List<MediaRef> getFinalMedia() { return finalMedia; }
+    public void setFinalMedia(List<MediaRef> finalMedia) { this.finalMedia = finalMedia; }
 
 }
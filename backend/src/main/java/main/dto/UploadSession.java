@@ -0,0 +1,138 @@
+package main.dto;
+
+import java.util.List;
+
+/**
+ * A resumable upload. Clients create it with target, projectId (for media), fileName,
+ * contentType, size and optionally chunkSize, sha256 and watermark; the server fills in the
+ * rest. {@code received} lists the chunks already stored and {@code offset} is how many bytes
+ * from the start are complete, so a client that only uploads in order can resume from there.
+ */
+public class UploadSession {
+    private String id;
+    private String ownerId;
+    private String target;      // "media", "final" (final media) or "files" (/api/files)
+    private String projectId;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    private String sha256;      // optional, checked on commit
+    private boolean watermark;
+    private String createdAt;
+    private List<Integer> received;
+    private long offset;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public boolean isWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(boolean watermark) {
+        this.watermark = watermark;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<Integer> getReceived() {
+        return received;
+    }
+
+    public void setReceived(List<Integer> received) {
+        this.received = received;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+}
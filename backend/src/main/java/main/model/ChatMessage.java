@@ -1,6 +1,10 @@
 package main.model;
 
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+@IgnoreExtraProperties
 public class ChatMessage {
+    private String id;
     private String senderId;
     private String receiverId;
     private String content;
@@ -15,6 +19,14 @@ public class ChatMessage {
         this.timestamp = timestamp;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getSenderId() {
         return senderId;
     }
@@ -0,0 +1,43 @@
+package main.model;
+
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+/**
+ * Small metadata reference to a media file held in the chunked blob store.
+ * This is what gets stored in a project's media / finalMedia arrays instead of the bytes.
+ */
+@IgnoreExtraProperties
+public class MediaRef {
+    private String id;          // SHA-256 of the whole file, doubles as the blob key
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String uploadedAt;
+
+    public MediaRef() {
+        // Required empty constructor for Firestore
+    }
+
+    public MediaRef(String id, String fileName, String contentType, long size, String uploadedAt) {
+        this.id = id;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.uploadedAt = uploadedAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(String uploadedAt) { this.uploadedAt = uploadedAt; }
+}
@@ -1,9 +1,8 @@
 package main.model;
 
-import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.annotation.Exclude;
 
 import java.util.List;
-import java.util.Map;
 
 public class Project {
     private String id;
@@ -15,22 +14,23 @@ public class Project {
     private String price;
     private String status;
     private String type;
-    private DocumentReference clientId;
+    private String clientId;
     private String managerId;
     private String projectTeamId;
     private int state;
     private List<String> photographers;
     private List<String> editors;
     private String assignedAt;
-    private List<Map<String, String>> media;
-    private List<Map<String, String>> finalMedia;
+    private ProjectStage stage;
+    private List<MediaRef> media;
+    private List<MediaRef> finalMedia;
 
 
 
 
     public Project() {
     }
-    public Project(String id, String title, String description, String requirements, String creationDate, String endDate, Float price, String status, String type, DocumentReference clientId, String userId, String projectTeamId)
+    public Project(String id, String title, String description, String requirements, String creationDate, String endDate, Float price, String status, String type, String clientId, String userId, String projectTeamId)
     {
         this.id = id;
         this.title = title;
@@ -118,11 +118,17 @@ public class Project {
         this.type = type;
     }
 
-    public DocumentReference getClientId() {
+    /**
+     * The client's user ID. Firestore stores it as a reference to the user document, which the
+     * repository converts, so Firestore's own mapping leaves it out.
+     */
+    @Exclude
+    public String getClientId() {
         return clientId;
     }
 
-    public void setClientId(DocumentReference clientId) {
+    @Exclude
+    public void setClientId(String clientId) {
         this.clientId = clientId;
     }
 
@@ -155,10 +161,13 @@ public class Project {
     public void setAssignedAt(String assignedAt) {
         this.assignedAt = assignedAt;
     }
-    public List<Map<String, String>> getMedia() { return media; }
-    public void setMedia(List<Map<String, String>> media) { this.media = media; }
+    public ProjectStage getStage() { return stage; }
+    public void setStage(ProjectStage stage) { this.stage = stage; }
 
-    public List<Map<String, String>> getFinalMedia() { return finalMedia; }
-    public void setFinalMedia(List<Map<String, String>> finalMedia) { this.finalMedia = finalMedia; }
+    public List<MediaRef> getMedia() { return media; }
+    public void setMedia(List<MediaRef> media) { this.media = media; }
+
+    public List<MediaRef> getFinalMedia() { return finalMedia; }
+    public void setFinalMedia(List<MediaRef> finalMedia) { this.finalMedia = finalMedia; }
 
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package main.model;
+
+/**
+ * Lifecycle stage of a project, stored in the project's {@code stage} field. Projects only move
+ * forward, pending → active → finished; {@link #canMoveTo} is the whole state machine.
+ *
+ * The collection name is where the stage was kept before all projects shared one collection.
+ * It still names the stage in the API and the datastore metrics, and is where the migration
+ * reads old documents from.
+ */
+public enum ProjectStage {
+    PENDING("pending_projects"),
+    ACTIVE("active_projects"),
+    FINISHED("finished_projects");
+
+    private final String collection;
+
+    ProjectStage(String collection) {
+        this.collection = collection;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public boolean canMoveTo(ProjectStage next) {
+        return switch (this) {
+            case PENDING -> next == ACTIVE;
+            case ACTIVE -> next == FINISHED;
+            case FINISHED -> false;
+        };
+    }
+
+    /**
+     * @throws IllegalStateException if the state machine doesn't allow moving from {@code from} to {@code to}
+     */
+    public static void checkTransition(ProjectStage from, ProjectStage to) {
+        if (!from.canMoveTo(to)) {
+            throw new IllegalStateException("A project can't move from " + from + " to " + to);
+        }
+    }
+
+    public static ProjectStage fromCollection(String collection) {
+        for (ProjectStage stage : values()) {
+            if (stage.collection.equals(collection)) {
+                return stage;
+            }
+        }
+        throw new IllegalArgumentException("Unknown project collection: " + collection);
+    }
+}
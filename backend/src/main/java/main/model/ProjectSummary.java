@@ -0,0 +1,83 @@
+package main.model;
+
+import com.google.cloud.firestore.annotation.Exclude;
+
+import java.util.List;
+
+/**
+ * Read-only view of a project without its media arrays.
+ * Filled from field-mask (select) queries, so list endpoints never pull media metadata.
+ */
+public class ProjectSummary {
+    private String id;
+    private String title;
+    private String description;
+    private String requirements;
+    private String creationDate;
+    private String endDate;
+    private String price;
+    private String status;
+    private String type;
+    private String clientId;
+    private String managerId;
+    private String projectTeamId;
+    private int state;
+    private List<String> photographers;
+    private List<String> editors;
+    private String assignedAt;
+
+    public ProjectSummary() {
+        // Required empty constructor for Firestore
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getRequirements() { return requirements; }
+    public void setRequirements(String requirements) { this.requirements = requirements; }
+
+    public String getCreationDate() { return creationDate; }
+    public void setCreationDate(String creationDate) { this.creationDate = creationDate; }
+
+    public String getEndDate() { return endDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+
+    public String getPrice() { return price; }
+    public void setPrice(String price) { this.price = price; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    // Stored as a user reference in Firestore; the repository converts it, as for Project
+    @Exclude
+    public String getClientId() { return clientId; }
+    @Exclude
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    public String getManagerId() { return managerId; }
+    public void setManagerId(String managerId) { this.managerId = managerId; }
+
+    public String getProjectTeamId() { return projectTeamId; }
+    public void setProjectTeamId(String projectTeamId) { this.projectTeamId = projectTeamId; }
+
+    public int getState() { return state; }
+    public void setState(int state) { this.state = state; }
+
+    public List<String> getPhotographers() { return photographers; }
+    public void setPhotographers(List<String> photographers) { this.photographers = photographers; }
+
+    public List<String> getEditors() { return editors; }
+    public void setEditors(List<String> editors) { this.editors = editors; }
+
+    public String getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(String assignedAt) { this.assignedAt = assignedAt; }
+}
@@ -0,0 +1,35 @@
+package main.model;
+
+/**
+ * Downscaled JPEG copy of an image in the blob store, requested with {@code ?size=} on
+ * {@code /api/download_media}. Images narrower than the width are only re-encoded.
+ */
+public enum Rendition {
+    THUMB("thumb", 320),
+    PREVIEW("preview", 1600);
+
+    private final String name;
+    private final int width;
+
+    Rendition(String name, int width) {
+        this.name = name;
+        this.width = width;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public static Rendition fromName(String name) {
+        for (Rendition rendition : values()) {
+            if (rendition.name.equals(name)) {
+                return rendition;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rendition: " + name);
+    }
+}
@@ -0,0 +1,32 @@
+package main.model;
+
+/**
+ * A one-time code sent by email, for password resets and two-factor login.
+ */
+public class VerificationCode {
+    private String code;
+    private long expiresAt; // epoch millis
+
+    public VerificationCode() {
+        // Required empty constructor for Firestore
+    }
+
+    public VerificationCode(String code, long expiresAt) {
+        this.code = code;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+
+    public boolean matches(String candidate) {
+        return code != null && code.equals(candidate);
+    }
+
+    public boolean isExpiredAt(long now) {
+        return now > expiresAt;
+    }
+}
@@ -0,0 +1,81 @@
+package main.repository;
+
+import com.google.cloud.Timestamp;
+import main.dto.Page;
+import main.model.ChatMessage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Chat messages grouped by conversation, one conversation per pair of users.
+ *
+ * Each conversation has a summary (participants, their names, the last message, unread counts
+ * per user and {@code updatedAt}) so listing a user's conversations never reads messages.
+ */
+public interface ChatRepository {
+
+    static String conversationId(String userA, String userB) {
+        return userA.compareTo(userB) <= 0 ? userA + "_" + userB : userB + "_" + userA;
+    }
+
+    /**
+     * A fresh message ID within the conversation; nothing is written.
+     */
+    String newMessageId(String conversationId);
+
+    /**
+     * Stores the messages and brings each conversation's summary up to date, incrementing the
+     * receiver's unread count once per message. {@code names} fills in participant names.
+     */
+    void append(List<MessageWrite> messages, Map<String, String> names) throws ExecutionException, InterruptedException;
+
+    /**
+     * Newest-first page of one conversation.
+     */
+    Page<ChatMessage> findHistory(String conversationId, int size, String cursor) throws ExecutionException, InterruptedException;
+
+    /**
+     * The newest {@code limit} messages, oldest first.
+     */
+    List<ChatMessage> findLatest(String conversationId, int limit) throws ExecutionException, InterruptedException;
+
+    /**
+     * The user's conversation summaries, most recently active first.
+     */
+    Page<Map<String, Object>> findConversations(String userId, int size, String cursor) throws ExecutionException, InterruptedException;
+
+    void markRead(String conversationId, String userId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Copies messages from the old flat {@code messages} collection into conversations, keeping
+     * their IDs, and returns how many were copied. Stores that never had that layout return 0.
+     */
+    int migrateLegacyMessages(NameLookup names) throws Exception;
+
+    @FunctionalInterface
+    interface NameLookup {
+        Map<String, String> getNames(Collection<String> userIds) throws Exception;
+    }
+
+    /**
+     * A message ready to store: its ID is set and {@code sentAt} is its position in the conversation.
+     */
+    final class MessageWrite {
+        private final String conversationId;
+        private final ChatMessage message;
+        private final Timestamp sentAt;
+
+        public MessageWrite(String conversationId, ChatMessage message, Timestamp sentAt) {
+            this.conversationId = conversationId;
+            this.message = message;
+            this.sentAt = sentAt;
+        }
+
+        public String getConversationId() { return conversationId; }
+        public ChatMessage getMessage() { return message; }
+        public Timestamp getSentAt() { return sentAt; }
+    }
+}
@@ -0,0 +1,34 @@
+package main.repository;
+
+import main.model.VerificationCode;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Short-lived login state keyed by email: password reset codes, two-factor codes and
+ * devices that may skip two-factor.
+ */
+public interface CredentialRepository {
+
+    void saveResetCode(String email, VerificationCode code) throws ExecutionException, InterruptedException;
+
+    VerificationCode findResetCode(String email) throws ExecutionException, InterruptedException;
+
+    void deleteResetCode(String email) throws ExecutionException, InterruptedException;
+
+    /**
+     * Does not wait for the write; the code is emailed at the same time.
+     */
+    void saveTwoFactorCode(String email, VerificationCode code);
+
+    VerificationCode findTwoFactorCode(String email) throws ExecutionException, InterruptedException;
+
+    void deleteTwoFactorCode(String email);
+
+    /**
+     * Epoch millis until which the device is remembered, or null if it never was.
+     */
+    Long findDeviceExpiry(String email, String deviceId) throws ExecutionException, InterruptedException;
+
+    void rememberDevice(String email, String deviceId, long expiresAt);
+}
@@ -0,0 +1,29 @@
+package main.repository;
+
+import main.dto.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Client feedback and the replies to it, as plain field maps with the ID in {@code id}.
+ * A reply is a feedback entry whose {@code parentId} is set.
+ */
+public interface FeedbackRepository {
+
+    List<Map<String, Object>> findAll(int limit) throws ExecutionException, InterruptedException;
+
+    /**
+     * One page in ID order, with replies left out; a page may therefore hold fewer than {@code size} entries.
+     */
+    Page<Map<String, Object>> findTopLevelPage(int size, String cursor) throws ExecutionException, InterruptedException;
+
+    List<Map<String, Object>> findReplies(Collection<String> parentIds) throws ExecutionException, InterruptedException;
+
+    /**
+     * Does not wait for the write.
+     */
+    void add(Map<String, Object> feedback);
+}
@@ -0,0 +1,33 @@
+package main.repository;
+
+import main.dto.Page;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Invoices, kept as plain field maps. Every invoice returned carries its ID in {@code invoiceId}.
+ */
+public interface InvoiceRepository {
+
+    /**
+     * Stores a new invoice with its generated ID already in {@code invoiceId}, in a single write.
+     */
+    String create(Map<String, Object> invoice) throws ExecutionException, InterruptedException;
+
+    /**
+     * Replaces the whole invoice. Returns false if it doesn't exist.
+     */
+    boolean replace(String invoiceId, Map<String, Object> invoice) throws ExecutionException, InterruptedException;
+
+    boolean delete(String invoiceId) throws ExecutionException, InterruptedException;
+
+    Map<String, Object> findById(String invoiceId) throws ExecutionException, InterruptedException;
+
+    List<Map<String, Object>> findAll(int limit) throws ExecutionException, InterruptedException;
+
+    Page<Map<String, Object>> findPage(int size, String cursor) throws ExecutionException, InterruptedException;
+
+    List<Map<String, Object>> findByClient(String clientId) throws ExecutionException, InterruptedException;
+}
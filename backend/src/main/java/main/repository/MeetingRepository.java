@@ -0,0 +1,39 @@
+package main.repository;
+
+import com.google.api.core.ApiFuture;
+import main.dto.Page;
+import main.model.Meeting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Meeting requests between clients and managers.
+ */
+public interface MeetingRepository {
+
+    /**
+     * Stores a new meeting, sets its generated ID and completes with the same object.
+     */
+    ApiFuture<Meeting> createAsync(Meeting meeting);
+
+    Meeting findById(String meetingId) throws ExecutionException, InterruptedException;
+
+    List<Meeting> findAll(int limit) throws ExecutionException, InterruptedException;
+
+    Page<Meeting> findPage(int size, String cursor) throws ExecutionException, InterruptedException;
+
+    List<Meeting> findByStatus(String status) throws ExecutionException, InterruptedException;
+
+    List<Meeting> findByUser(String userId) throws ExecutionException, InterruptedException;
+
+    List<Meeting> findByDateAndStatus(String meetingDate, String status) throws ExecutionException, InterruptedException;
+
+    /**
+     * Overwrites the given fields. Fails if the meeting doesn't exist.
+     */
+    void update(String meetingId, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    void delete(String meetingId) throws ExecutionException, InterruptedException;
+}
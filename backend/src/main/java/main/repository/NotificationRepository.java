@@ -0,0 +1,47 @@
+package main.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import main.dto.Page;
+import main.model.Notification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Notifications. Writes come from {@link main.service.NotificationDispatcher}, which assigns
+ * IDs up front and stores them in batches.
+ */
+public interface NotificationRepository {
+
+    /**
+     * A fresh ID; nothing is written.
+     */
+    String newId();
+
+    /**
+     * Stores every notification under the ID in its {@code id} field, all or nothing where the store allows it.
+     */
+    void saveAll(List<Map<String, Object>> notifications) throws ExecutionException, InterruptedException;
+
+    List<Notification> findByRecipient(String recipientId, int limit) throws ExecutionException, InterruptedException;
+
+    /**
+     * Notifications created after {@code since}, oldest first.
+     */
+    List<Notification> findByRecipientSince(String recipientId, Timestamp since, int limit) throws ExecutionException, InterruptedException;
+
+    Page<Notification> findPageByRecipient(String recipientId, int size, String cursor) throws ExecutionException, InterruptedException;
+
+    /**
+     * Fails if the notification doesn't exist.
+     */
+    void updateStatus(String notificationId, String status) throws ExecutionException, InterruptedException;
+
+    void delete(String notificationId) throws ExecutionException, InterruptedException;
+
+    ApiFuture<Long> countByStatusAsync(String status);
+
+    ApiFuture<Long> countByRecipientAndStatusAsync(String recipientId, String status);
+}
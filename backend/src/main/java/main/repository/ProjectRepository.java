@@ -0,0 +1,117 @@
+package main.repository;
+
+import com.google.api.core.ApiFuture;
+import main.dto.Page;
+import main.model.MediaRef;
+import main.model.Project;
+import main.model.ProjectStage;
+import main.model.ProjectSummary;
+import main.model.ProjectTeam;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Projects in each {@link ProjectStage}, plus the project teams. Clients are always passed
+ * and returned as user IDs, whatever the store keeps internally.
+ *
+ * All projects live in one collection with their stage in the {@link #STAGE} field. Methods
+ * taking a stage only see projects currently in it, and their writes check the stage in the
+ * same transaction, so a write aimed at an active project never lands on one that has just
+ * been finished.
+ */
+public interface ProjectRepository {
+
+    String STAGE = "stage";
+    String MEDIA = "media";
+    String FINAL_MEDIA = "finalMedia";
+
+    Project findById(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException;
+
+    boolean exists(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException;
+
+    /**
+     * The stage the project is in, or null if it doesn't exist.
+     */
+    ProjectStage findStage(String projectId) throws ExecutionException, InterruptedException;
+
+    /**
+     * The client's user ID, or null if the project doesn't exist or has no client.
+     */
+    String findClientId(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Summaries carry no media, so these never read media metadata.
+     */
+    List<ProjectSummary> findSummaries(ProjectStage stage) throws ExecutionException, InterruptedException;
+
+    List<ProjectSummary> findSummariesByClient(ProjectStage stage, String clientId) throws ExecutionException, InterruptedException;
+
+    List<ProjectSummary> findSummariesByManager(ProjectStage stage, String managerId) throws ExecutionException, InterruptedException;
+
+    List<ProjectSummary> findSummariesByPhotographer(ProjectStage stage, String userId) throws ExecutionException, InterruptedException;
+
+    List<ProjectSummary> findSummariesByEditor(ProjectStage stage, String userId) throws ExecutionException, InterruptedException;
+
+    List<Project> findByClient(ProjectStage stage, String clientId, int limit) throws ExecutionException, InterruptedException;
+
+    Page<Project> findPageByClient(ProjectStage stage, String clientId, int size, String cursor) throws ExecutionException, InterruptedException;
+
+    /**
+     * Stores a new project for the client and sets its generated ID.
+     */
+    String create(ProjectStage stage, Project project, String clientId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Overwrites the given fields. Returns false if the project doesn't exist.
+     */
+    boolean update(ProjectStage stage, String projectId, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    boolean delete(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Moves the project from {@code from} to {@code to} in one transactional update of the
+     * document: the stage and {@code changes} are written together, and when {@code keepFields}
+     * is not null every other field is removed. Nothing is copied, media included.
+     * Returns false if the project isn't in {@code from}.
+     *
+     * @throws IllegalStateException if {@link ProjectStage#canMoveTo} doesn't allow the move
+     */
+    boolean transition(String projectId, ProjectStage from, ProjectStage to,
+                       Map<String, Object> changes, Set<String> keepFields) throws ExecutionException, InterruptedException;
+
+    /**
+     * The media list in {@code field} ({@link #MEDIA} or {@link #FINAL_MEDIA}), or null if the
+     * project or the field doesn't exist.
+     */
+    List<MediaRef> findMedia(ProjectStage stage, String projectId, String field) throws Exception;
+
+    /**
+     * Adds to the media list in {@code field} without rewriting what is already there, so
+     * concurrent uploads don't overwrite each other. Returns false if the project doesn't exist.
+     */
+    boolean appendMedia(ProjectStage stage, String projectId, String field, List<MediaRef> media) throws ExecutionException, InterruptedException;
+
+    ApiFuture<Long> countAsync(ProjectStage stage);
+
+    /**
+     * Moves projects from the old per-stage collections ({@link ProjectStage#getCollection})
+     * into the shared one, with legacy inline Base64 media moved into the blob store, and
+     * returns how many were moved. Stores that never had that layout return 0.
+     */
+    int migrateStageCollections() throws Exception;
+
+    /**
+     * Projects in the original flat {@code projects} collection, where the client is a plain user ID.
+     */
+    List<Project> findLegacyByClient(String clientId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Replaces a project in the flat {@code projects} collection. Returns false if it doesn't exist.
+     */
+    boolean replaceLegacy(Project project) throws ExecutionException, InterruptedException;
+
+    String createTeam(ProjectTeam team) throws ExecutionException, InterruptedException;
+}
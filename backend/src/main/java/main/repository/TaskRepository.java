@@ -0,0 +1,55 @@
+package main.repository;
+
+import com.google.api.core.ApiFuture;
+import main.dto.Page;
+import main.model.Task;
+import main.model.TaskReply;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tasks and their reply threads.
+ */
+public interface TaskRepository {
+
+    Task findById(String taskId) throws ExecutionException, InterruptedException;
+
+    ApiFuture<Task> findByIdAsync(String taskId);
+
+    List<Task> findAll(int limit) throws ExecutionException, InterruptedException;
+
+    Page<Task> findPage(int size, String cursor) throws ExecutionException, InterruptedException;
+
+    List<Task> findByUser(String userId) throws ExecutionException, InterruptedException;
+
+    List<Task> findByProject(String projectId) throws ExecutionException, InterruptedException;
+
+    List<Task> findByAssignee(String assignedToId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Stores a new task and sets its generated ID.
+     */
+    String create(Task task) throws ExecutionException, InterruptedException;
+
+    /**
+     * Replaces the whole task. Returns false if it doesn't exist.
+     */
+    boolean replace(Task task) throws ExecutionException, InterruptedException;
+
+    boolean delete(String taskId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Replies in the order they were posted.
+     */
+    List<TaskReply> findReplies(String taskId) throws ExecutionException, InterruptedException;
+
+    /**
+     * Stores the reply and completes with its generated ID.
+     */
+    ApiFuture<String> addReplyAsync(TaskReply reply);
+
+    ApiFuture<Long> countAsync();
+
+    ApiFuture<Long> countByStatusAsync(String status);
+}
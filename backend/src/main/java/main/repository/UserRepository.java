@@ -0,0 +1,57 @@
+package main.repository;
+
+import com.google.api.core.ApiFuture;
+import main.dto.Page;
+import main.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * User accounts. Listing methods return users with their password hash removed.
+ */
+public interface UserRepository {
+
+    User findById(String userId) throws ExecutionException, InterruptedException;
+
+    ApiFuture<User> findByIdAsync(String userId);
+
+    /**
+     * The full record, password hash included, or null if no user has this email.
+     */
+    User findByEmail(String email) throws ExecutionException, InterruptedException;
+
+    /**
+     * Stores a new user and sets its generated ID.
+     */
+    String create(User user) throws ExecutionException, InterruptedException;
+
+    /**
+     * Overwrites the given fields. Returns false if the user doesn't exist.
+     */
+    boolean update(String userId, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    /**
+     * Deletes the user and returns the record as it was, or null if there was none.
+     */
+    User delete(String userId) throws ExecutionException, InterruptedException;
+
+    List<User> findAll(int limit) throws ExecutionException, InterruptedException;
+
+    Page<User> findPage(int size, String cursor) throws ExecutionException, InterruptedException;
+
+    List<User> findByRole(String role) throws ExecutionException, InterruptedException;
+
+    List<String> findIdsByRole(String role) throws ExecutionException, InterruptedException;
+
+    /**
+     * id → name for every ID that belongs to an existing user; the name is null when the user has none.
+     */
+    Map<String, String> findNames(Collection<String> userIds) throws ExecutionException, InterruptedException;
+
+    ApiFuture<Long> countAsync();
+
+    ApiFuture<Long> countByRoleAsync(String role);
+}
@@ -0,0 +1,235 @@
+package main.repository.firestore;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import main.dto.Page;
+import main.model.ChatMessage;
+import main.repository.ChatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * conversations/{pairId}               summary: participants, participantNames, lastMessage, unread, updatedAt
+ * conversations/{pairId}/messages/{id} one message, ordered by sentAt
+ */
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreChatRepository implements ChatRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreChatRepository.class);
+
+    private static final String CONVERSATIONS = "conversations";
+    private static final String MESSAGES = "messages";
+    private static final int MAX_WRITES = 500; // Firestore limit per batch
+    private static final int MIGRATION_PAGE = 200;
+
+    private final Firestore db;
+
+    public FirestoreChatRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public String newMessageId(String conversationId) {
+        return messages(conversationId).document().getId();
+    }
+
+    /**
+     * Commits everything as one {@link WriteBatch}: a write per message plus a merged summary write
+     * per conversation, so callers must keep it within Firestore's 500 writes.
+     */
+    @Override
+    public void append(List<MessageWrite> writes, Map<String, String> names) throws ExecutionException, InterruptedException {
+        WriteBatch batch = db.batch();
+        Map<String, List<MessageWrite>> byConversation = new LinkedHashMap<>();
+
+        for (MessageWrite w : writes) {
+            batch.set(messages(w.getConversationId()).document(w.getMessage().getId()), toData(w.getMessage(), w.getSentAt()));
+            byConversation.computeIfAbsent(w.getConversationId(), k -> new ArrayList<>()).add(w);
+        }
+
+        for (Map.Entry<String, List<MessageWrite>> entry : byConversation.entrySet()) {
+            List<MessageWrite> group = entry.getValue();
+            MessageWrite last = group.get(group.size() - 1);
+
+            Map<String, Object> unread = new HashMap<>();
+            for (MessageWrite w : group) {
+                unread.merge(w.getMessage().getReceiverId(), 1L, (a, b) -> (Long) a + (Long) b);
+            }
+            unread.replaceAll((userId, count) -> FieldValue.increment((Long) count));
+
+            Map<String, Object> summary = summary(last.getMessage(), last.getSentAt(), names);
+            summary.put("unread", unread);
+            batch.set(db.collection(CONVERSATIONS).document(entry.getKey()), summary, SetOptions.merge());
+        }
+        batch.commit().get();
+    }
+
+    @Override
+    public Page<ChatMessage> findHistory(String conversationId, int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference messages = messages(conversationId);
+        return FirestoreQueries.ordered(messages, messages.orderBy("sentAt", Query.Direction.DESCENDING), size, cursor, this::toChatMessage);
+    }
+
+    @Override
+    public List<ChatMessage> findLatest(String conversationId, int limit) throws ExecutionException, InterruptedException {
+        List<QueryDocumentSnapshot> docs = messages(conversationId)
+                .orderBy("sentAt", Query.Direction.DESCENDING)
+                .limit(limit)
+                .get().get()
+                .getDocuments();
+
+        List<ChatMessage> result = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            result.add(toChatMessage(doc));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findConversations(String userId, int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference conversations = db.collection(CONVERSATIONS);
+        Query query = conversations
+                .whereArrayContains("participants", userId)
+                .orderBy("updatedAt", Query.Direction.DESCENDING);
+        return FirestoreQueries.ordered(conversations, query, size, cursor, DocumentSnapshot::getData);
+    }
+
+    @Override
+    public void markRead(String conversationId, String userId) throws ExecutionException, InterruptedException {
+        db.collection(CONVERSATIONS).document(conversationId)
+                .set(Map.of("unread", Map.of(userId, 0)), SetOptions.merge())
+                .get();
+    }
+
+    /**
+     * Safe to re-run: legacy documents keep their IDs, so repeated runs overwrite instead of
+     * duplicating. Unread counters are left at zero for migrated history.
+     */
+    @Override
+    public int migrateLegacyMessages(NameLookup names) throws Exception {
+        CollectionReference legacy = db.collection(MESSAGES);
+        Map<String, MessageWrite> lastByPair = new HashMap<>();
+        int migrated = 0;
+        String cursor = null;
+
+        do {
+            Page<QueryDocumentSnapshot> page = FirestoreQueries.byId(legacy, legacy, MIGRATION_PAGE, cursor, doc -> doc);
+            WriteBatch batch = db.batch();
+            for (QueryDocumentSnapshot doc : page.getItems()) {
+                ChatMessage m = doc.toObject(ChatMessage.class);
+                if (m.getSenderId() == null || m.getReceiverId() == null) continue;
+                m.setId(doc.getId());
+
+                String pairId = ChatRepository.conversationId(m.getSenderId(), m.getReceiverId());
+                Timestamp sentAt = legacySentAt(m.getTimestamp(), doc);
+                batch.set(messages(pairId).document(doc.getId()), toData(m, sentAt));
+
+                MessageWrite last = lastByPair.get(pairId);
+                if (last == null || sentAt.compareTo(last.getSentAt()) > 0) {
+                    lastByPair.put(pairId, new MessageWrite(pairId, m, sentAt));
+                }
+                migrated++;
+            }
+            batch.commit().get();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        WriteBatch summaries = db.batch();
+        int pending = 0;
+        for (MessageWrite last : lastByPair.values()) {
+            ChatMessage m = last.getMessage();
+            Map<String, String> participantNames = new HashMap<>();
+            names.getNames(List.of(m.getSenderId(), m.getReceiverId()))
+                    .forEach((id, name) -> participantNames.put(id, name != null ? name : "Unknown"));
+
+            summaries.set(db.collection(CONVERSATIONS).document(last.getConversationId()),
+                    summary(m, last.getSentAt(), participantNames), SetOptions.merge());
+
+            if (++pending == MAX_WRITES) {
+                summaries.commit().get();
+                summaries = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            summaries.commit().get();
+        }
+
+        log.info("Migrated {} messages into {} conversations", migrated, lastByPair.size());
+        return migrated;
+    }
+
+    private CollectionReference messages(String conversationId) {
+        return db.collection(CONVERSATIONS).document(conversationId).collection(MESSAGES);
+    }
+
+    private static Map<String, Object> toData(ChatMessage message, Timestamp sentAt) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("senderId", message.getSenderId());
+        data.put("receiverId", message.getReceiverId());
+        data.put("content", message.getContent());
+        data.put("timestamp", message.getTimestamp());
+        data.put("sentAt", sentAt);
+        return data;
+    }
+
+    /**
+     * Summary fields for a merged write; names missing from {@code names} are left as they are.
+     */
+    private static Map<String, Object> summary(ChatMessage last, Timestamp sentAt, Map<String, String> names) {
+        Map<String, Object> participantNames = new HashMap<>();
+        for (String id : List.of(last.getSenderId(), last.getReceiverId())) {
+            String name = names.get(id);
+            if (name != null) participantNames.put(id, name);
+        }
+
+        Map<String, Object> lastMessage = new HashMap<>();
+        lastMessage.put("senderId", last.getSenderId());
+        lastMessage.put("content", last.getContent());
+        lastMessage.put("timestamp", last.getTimestamp());
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("participants", List.of(last.getSenderId(), last.getReceiverId()));
+        summary.put("participantNames", participantNames);
+        summary.put("lastMessage", lastMessage);
+        summary.put("updatedAt", sentAt);
+        return summary;
+    }
+
+    private static Timestamp legacySentAt(String isoTimestamp, DocumentSnapshot doc) {
+        try {
+            Instant instant = Instant.parse(isoTimestamp);
+            return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+        } catch (Exception e) {
+            return doc.getCreateTime() != null ? doc.getCreateTime() : Timestamp.now();
+        }
+    }
+
+    private ChatMessage toChatMessage(DocumentSnapshot doc) {
+        ChatMessage m = doc.toObject(ChatMessage.class);
+        if (m != null) {
+            m.setId(doc.getId());
+        }
+        return m;
+    }
+}
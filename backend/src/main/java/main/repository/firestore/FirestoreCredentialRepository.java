@@ -0,0 +1,90 @@
+package main.repository.firestore;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import main.model.VerificationCode;
+import main.repository.CredentialRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreCredentialRepository implements CredentialRepository {
+
+    private static final String RESET_CODES = "reset_codes";
+    private static final String TWO_FACTOR_CODES = "two_factor_codes";
+    private static final String REMEMBERED_DEVICES = "remembered_devices";
+
+    private final Firestore db;
+
+    public FirestoreCredentialRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public void saveResetCode(String email, VerificationCode code) throws ExecutionException, InterruptedException {
+        Map<String, Object> data = Map.of(
+                "email", email,
+                "code", code.getCode(),
+                "expiresAt", code.getExpiresAt()
+        );
+        db.collection(RESET_CODES).document(email).set(data).get();
+    }
+
+    @Override
+    public VerificationCode findResetCode(String email) throws ExecutionException, InterruptedException {
+        return toCode(db.collection(RESET_CODES).document(email).get().get());
+    }
+
+    @Override
+    public void deleteResetCode(String email) throws ExecutionException, InterruptedException {
+        db.collection(RESET_CODES).document(email).delete().get();
+    }
+
+    @Override
+    public void saveTwoFactorCode(String email, VerificationCode code) {
+        Map<String, Object> data = Map.of("code", code.getCode(), "expiresAt", code.getExpiresAt());
+        db.collection(TWO_FACTOR_CODES).document(email).set(data);
+    }
+
+    @Override
+    public VerificationCode findTwoFactorCode(String email) throws ExecutionException, InterruptedException {
+        return toCode(db.collection(TWO_FACTOR_CODES).document(email).get().get());
+    }
+
+    @Override
+    public void deleteTwoFactorCode(String email) {
+        db.collection(TWO_FACTOR_CODES).document(email).delete();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Long findDeviceExpiry(String email, String deviceId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(REMEMBERED_DEVICES).document(email).get().get();
+        if (!doc.exists()) return null;
+
+        Map<String, Object> devices = (Map<String, Object>) doc.get("devices");
+        Object expiry = devices != null ? devices.get(deviceId) : null;
+        return expiry instanceof Number n ? n.longValue() : null;
+    }
+
+    @Override
+    public void rememberDevice(String email, String deviceId, long expiresAt) {
+        Map<String, Object> update = new HashMap<>();
+        update.put("devices", Map.of(deviceId, expiresAt));
+        db.collection(REMEMBERED_DEVICES)
+                .document(email)
+                .set(update, SetOptions.merge());
+    }
+
+    private VerificationCode toCode(DocumentSnapshot doc) {
+        if (!doc.exists()) return null;
+        Long expiresAt = doc.getLong("expiresAt");
+        return new VerificationCode(doc.getString("code"), expiresAt != null ? expiresAt : 0);
+    }
+}
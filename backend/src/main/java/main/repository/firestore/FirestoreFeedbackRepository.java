@@ -0,0 +1,80 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import main.dto.Page;
+import main.repository.FeedbackRepository;
+import main.util.FirestoreFutures;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreFeedbackRepository implements FeedbackRepository {
+
+    private static final String FEEDBACK = "feedback";
+    private static final int MAX_IN_VALUES = 30; // Firestore limit for "in" filters
+
+    private final Firestore db;
+
+    public FirestoreFeedbackRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAll(int limit) throws ExecutionException, InterruptedException {
+        List<Map<String, Object>> feedback = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : db.collection(FEEDBACK).limit(limit).get().get().getDocuments()) {
+            feedback.add(toFeedback(doc));
+        }
+        return feedback;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findTopLevelPage(int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference ref = db.collection(FEEDBACK);
+        return FirestoreQueries.byId(ref, ref, size, cursor,
+                doc -> doc.getString("parentId") != null ? null : toFeedback(doc));
+    }
+
+    @Override
+    public List<Map<String, Object>> findReplies(Collection<String> parentIds) throws ExecutionException, InterruptedException {
+        List<String> ids = new ArrayList<>(parentIds);
+        CollectionReference ref = db.collection(FEEDBACK);
+
+        // Load the replies in chunks, all chunks at once
+        List<ApiFuture<QuerySnapshot>> futures = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IN_VALUES) {
+            futures.add(ref.whereIn("parentId", new ArrayList<>(ids.subList(i, Math.min(i + MAX_IN_VALUES, ids.size())))).get());
+        }
+
+        List<Map<String, Object>> replies = new ArrayList<>();
+        for (QuerySnapshot snapshot : FirestoreFutures.awaitAll(futures)) {
+            for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                replies.add(toFeedback(doc));
+            }
+        }
+        return replies;
+    }
+
+    @Override
+    public void add(Map<String, Object> feedback) {
+        db.collection(FEEDBACK).add(feedback);
+    }
+
+    private Map<String, Object> toFeedback(DocumentSnapshot doc) {
+        Map<String, Object> data = doc.getData();
+        data.put("id", doc.getId());
+        return data;
+    }
+}
@@ -0,0 +1,100 @@
+package main.repository.firestore;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import main.dto.Page;
+import main.repository.InvoiceRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreInvoiceRepository implements InvoiceRepository {
+
+    private static final String INVOICES = "invoices";
+
+    private final Firestore db;
+
+    public FirestoreInvoiceRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public String create(Map<String, Object> invoice) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(INVOICES).document();
+        Map<String, Object> data = new HashMap<>(invoice);
+        data.put("invoiceId", docRef.getId());
+        docRef.set(data).get();
+        return docRef.getId();
+    }
+
+    @Override
+    public boolean replace(String invoiceId, Map<String, Object> invoice) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(INVOICES).document(invoiceId);
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        docRef.set(invoice).get();
+        return true;
+    }
+
+    @Override
+    public boolean delete(String invoiceId) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(INVOICES).document(invoiceId);
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        docRef.delete().get();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> findById(String invoiceId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = db.collection(INVOICES).document(invoiceId).get().get();
+        return snapshot.exists() ? toInvoice(snapshot) : null;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAll(int limit) throws ExecutionException, InterruptedException {
+        return toInvoices(db.collection(INVOICES).limit(limit));
+    }
+
+    @Override
+    public Page<Map<String, Object>> findPage(int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference invoices = db.collection(INVOICES);
+        return FirestoreQueries.byId(invoices, invoices, size, cursor, this::toInvoice);
+    }
+
+    @Override
+    public List<Map<String, Object>> findByClient(String clientId) throws ExecutionException, InterruptedException {
+        return toInvoices(db.collection(INVOICES).whereEqualTo("clientId", clientId));
+    }
+
+    private List<Map<String, Object>> toInvoices(Query query) throws ExecutionException, InterruptedException {
+        List<Map<String, Object>> invoices = new ArrayList<>();
+        for (DocumentSnapshot doc : query.get().get().getDocuments()) {
+            Map<String, Object> invoice = toInvoice(doc);
+            if (invoice != null) {
+                invoices.add(invoice);
+            }
+        }
+        return invoices;
+    }
+
+    private Map<String, Object> toInvoice(DocumentSnapshot doc) {
+        Map<String, Object> invoice = doc.getData();
+        if (invoice != null) {
+            invoice.put("invoiceId", doc.getId());
+        }
+        return invoice;
+    }
+}
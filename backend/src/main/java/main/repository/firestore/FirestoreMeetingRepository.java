@@ -0,0 +1,102 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import main.dto.Page;
+import main.model.Meeting;
+import main.repository.MeetingRepository;
+import main.util.FirestoreFutures;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreMeetingRepository implements MeetingRepository {
+
+    private static final String MEETINGS = "meetings";
+
+    private final Firestore db;
+
+    public FirestoreMeetingRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public ApiFuture<Meeting> createAsync(Meeting meeting) {
+        DocumentReference ref = db.collection(MEETINGS).document();
+        meeting.setId(ref.getId());
+        return FirestoreFutures.map(ref.set(meeting), result -> meeting);
+    }
+
+    @Override
+    public Meeting findById(String meetingId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snap = db.collection(MEETINGS).document(meetingId).get().get();
+        return snap.exists() ? toMeeting(snap) : null;
+    }
+
+    @Override
+    public List<Meeting> findAll(int limit) throws ExecutionException, InterruptedException {
+        return toMeetings(db.collection(MEETINGS).limit(limit));
+    }
+
+    @Override
+    public Page<Meeting> findPage(int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference meetings = db.collection(MEETINGS);
+        return FirestoreQueries.byId(meetings, meetings, size, cursor, this::toMeeting);
+    }
+
+    @Override
+    public List<Meeting> findByStatus(String status) throws ExecutionException, InterruptedException {
+        return toMeetings(db.collection(MEETINGS).whereEqualTo("status", status));
+    }
+
+    @Override
+    public List<Meeting> findByUser(String userId) throws ExecutionException, InterruptedException {
+        return toMeetings(db.collection(MEETINGS).whereEqualTo("userId", userId));
+    }
+
+    @Override
+    public List<Meeting> findByDateAndStatus(String meetingDate, String status) throws ExecutionException, InterruptedException {
+        return toMeetings(db.collection(MEETINGS)
+                .whereEqualTo("meetingDate", meetingDate)
+                .whereEqualTo("status", status));
+    }
+
+    @Override
+    public void update(String meetingId, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        db.collection(MEETINGS).document(meetingId).update(fields).get();
+    }
+
+    @Override
+    public void delete(String meetingId) throws ExecutionException, InterruptedException {
+        db.collection(MEETINGS).document(meetingId).delete().get();
+    }
+
+    private List<Meeting> toMeetings(Query query) throws ExecutionException, InterruptedException {
+        List<Meeting> out = new ArrayList<>();
+        for (DocumentSnapshot doc : query.get().get().getDocuments()) {
+            Meeting m = toMeeting(doc);
+            if (m != null) {
+                out.add(m);
+            }
+        }
+        return out;
+    }
+
+    private Meeting toMeeting(DocumentSnapshot doc) {
+        Meeting m = doc.toObject(Meeting.class);
+        if (m != null) {
+            m.setId(doc.getId());
+        }
+        return m;
+    }
+}
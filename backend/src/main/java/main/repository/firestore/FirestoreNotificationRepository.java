@@ -0,0 +1,113 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import main.dto.Page;
+import main.model.Notification;
+import main.repository.NotificationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreNotificationRepository implements NotificationRepository {
+
+    private static final String NOTIFICATIONS = "notifications";
+
+    private final Firestore db;
+
+    public FirestoreNotificationRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public String newId() {
+        // IDs are generated client-side, so this doesn't touch the network
+        return db.collection(NOTIFICATIONS).document().getId();
+    }
+
+    /**
+     * One {@link WriteBatch}, so callers must stay within Firestore's 500 writes per batch.
+     */
+    @Override
+    public void saveAll(List<Map<String, Object>> notifications) throws ExecutionException, InterruptedException {
+        WriteBatch batch = db.batch();
+        for (Map<String, Object> notification : notifications) {
+            batch.set(db.collection(NOTIFICATIONS).document((String) notification.get("id")), notification);
+        }
+        batch.commit().get();
+    }
+
+    @Override
+    public List<Notification> findByRecipient(String recipientId, int limit) throws ExecutionException, InterruptedException {
+        return toNotifications(db.collection(NOTIFICATIONS)
+                .whereEqualTo("recipientId", recipientId)
+                .limit(limit));
+    }
+
+    /**
+     * Uses the (recipientId, timestamp) composite index from firestore.indexes.json.
+     */
+    @Override
+    public List<Notification> findByRecipientSince(String recipientId, Timestamp since, int limit) throws ExecutionException, InterruptedException {
+        return toNotifications(db.collection(NOTIFICATIONS)
+                .whereEqualTo("recipientId", recipientId)
+                .whereGreaterThan("timestamp", since)
+                .orderBy("timestamp")
+                .limit(limit));
+    }
+
+    @Override
+    public Page<Notification> findPageByRecipient(String recipientId, int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference notifications = db.collection(NOTIFICATIONS);
+        return FirestoreQueries.byId(notifications, notifications.whereEqualTo("recipientId", recipientId),
+                size, cursor, this::toNotification);
+    }
+
+    @Override
+    public void updateStatus(String notificationId, String status) throws ExecutionException, InterruptedException {
+        db.collection(NOTIFICATIONS).document(notificationId).update("status", status).get();
+    }
+
+    @Override
+    public void delete(String notificationId) throws ExecutionException, InterruptedException {
+        db.collection(NOTIFICATIONS).document(notificationId).delete().get();
+    }
+
+    @Override
+    public ApiFuture<Long> countByStatusAsync(String status) {
+        return FirestoreQueries.count(db.collection(NOTIFICATIONS).whereEqualTo("status", status));
+    }
+
+    @Override
+    public ApiFuture<Long> countByRecipientAndStatusAsync(String recipientId, String status) {
+        return FirestoreQueries.count(db.collection(NOTIFICATIONS)
+                .whereEqualTo("recipientId", recipientId)
+                .whereEqualTo("status", status));
+    }
+
+    private List<Notification> toNotifications(Query query) throws ExecutionException, InterruptedException {
+        List<Notification> results = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : query.get().get().getDocuments()) {
+            results.add(toNotification(doc));
+        }
+        return results;
+    }
+
+    private Notification toNotification(DocumentSnapshot doc) {
+        Notification notification = doc.toObject(Notification.class);
+        notification.setId(doc.getId()); // older documents have no id field
+        return notification;
+    }
+}
@@ -0,0 +1,550 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import jakarta.annotation.PostConstruct;
+import main.dto.Page;
+import main.model.MediaRef;
+import main.model.Project;
+import main.model.ProjectStage;
+import main.model.ProjectSummary;
+import main.model.ProjectTeam;
+import main.repository.ProjectRepository;
+import main.service.MediaStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * All projects share the {@code lifecycle_projects} collection, with the stage in a field; stage
+ * queries are served by the composite indexes in firestore.indexes.json. The client is stored
+ * as a reference to the user document. Writes that depend on the stage read it and write in
+ * one transaction, so a project changes stage with a single update and is never copied.
+ *
+ * Projects still in the old per-stage collections are only visible once the stage migration
+ * has moved them (POST /api/admin/migrations/project-stages, or in the background at startup
+ * with projects.migrate-on-startup).
+ */
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreProjectRepository implements ProjectRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreProjectRepository.class);
+
+    private static final String USERS = "users";
+    private static final String PROJECTS = "lifecycle_projects";
+    private static final String LEGACY_PROJECTS = "projects";
+    private static final String PROJECT_TEAMS = "project_teams";
+
+    // Everything a project list needs; media arrays are deliberately left out
+    private static final String[] SUMMARY_FIELDS = {
+            "title", "description", "requirements", "creationDate", "endDate", "price", "status", "type",
+            "clientId", "managerId", "projectTeamId", "state", "photographers", "editors", "assignedAt"
+    };
+
+    // Legacy documents can be close to 1 MiB of inline Base64 media, so pages stay small
+    private static final int MIGRATION_PAGE = 25;
+    private static final long MIGRATION_BATCH_BYTES = 4L * 1024 * 1024; // Firestore takes up to 10 MiB per commit
+    private static final int MIGRATION_BATCH_WRITES = 500;
+
+    private final Firestore db;
+    private final MediaStorageService mediaStorage;
+    private final boolean migrateOnStartup;
+
+    public FirestoreProjectRepository(Firestore db, MediaStorageService mediaStorage,
+                                      @Value("${projects.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.db = db;
+        this.mediaStorage = mediaStorage;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    /**
+     * Runs the stage migration in the background when {@code projects.migrate-on-startup} is
+     * set; a failure is logged and leaves the admin endpoint to rerun it.
+     */
+    @PostConstruct
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) return;
+        Thread thread = new Thread(() -> {
+            try {
+                migrateStageCollections();
+            } catch (Exception e) {
+                log.error("Project stage migration at startup failed; rerun it with POST /api/admin/migrations/project-stages", e);
+            }
+        }, "project-stage-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Project findById(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = projects().document(projectId).get().get();
+        return inStage(doc, stage) ? toProject(doc) : null;
+    }
+
+    @Override
+    public boolean exists(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        // Masked down to one small field so media arrays aren't read just to check existence
+        return inStage(projects().document(projectId).get(FieldMask.of(STAGE)).get(), stage);
+    }
+
+    @Override
+    public ProjectStage findStage(String projectId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = projects().document(projectId).get(FieldMask.of(STAGE)).get();
+        return doc.exists() && doc.getString(STAGE) != null ? ProjectStage.valueOf(doc.getString(STAGE)) : null;
+    }
+
+    @Override
+    public String findClientId(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = projects().document(projectId).get(FieldMask.of("clientId", STAGE)).get();
+        return inStage(doc, stage) ? clientId(doc) : null;
+    }
+
+    @Override
+    public List<ProjectSummary> findSummaries(ProjectStage stage) throws ExecutionException, InterruptedException {
+        return summaries(inStage(stage));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByClient(ProjectStage stage, String clientId) throws ExecutionException, InterruptedException {
+        return summaries(inStage(stage).whereEqualTo("clientId", clientRef(clientId)));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByManager(ProjectStage stage, String managerId) throws ExecutionException, InterruptedException {
+        return summaries(inStage(stage).whereEqualTo("managerId", managerId));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByPhotographer(ProjectStage stage, String userId) throws ExecutionException, InterruptedException {
+        return summaries(inStage(stage).whereArrayContains("photographers", userId));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByEditor(ProjectStage stage, String userId) throws ExecutionException, InterruptedException {
+        return summaries(inStage(stage).whereArrayContains("editors", userId));
+    }
+
+    @Override
+    public List<Project> findByClient(ProjectStage stage, String clientId, int limit) throws ExecutionException, InterruptedException {
+        QuerySnapshot snapshot = inStage(stage)
+                .whereEqualTo("clientId", clientRef(clientId))
+                .limit(limit)
+                .get().get();
+        List<Project> projects = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            projects.add(toProject(doc));
+        }
+        return projects;
+    }
+
+    @Override
+    public Page<Project> findPageByClient(ProjectStage stage, String clientId, int size, String cursor) throws ExecutionException, InterruptedException {
+        Query query = inStage(stage).whereEqualTo("clientId", clientRef(clientId));
+        return FirestoreQueries.byId(projects(), query, size, cursor, this::toProject);
+    }
+
+    @Override
+    public String create(ProjectStage stage, Project project, String clientId) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = projects().document();
+        project.setId(docRef.getId());
+        project.setClientId(clientId);
+        project.setStage(stage);
+        WriteBatch batch = db.batch();
+        batch.set(docRef, project);
+        batch.update(docRef, "clientId", clientRef(clientId));
+        batch.commit().get();
+        return project.getId();
+    }
+
+    @Override
+    public boolean update(ProjectStage stage, String projectId, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        return writeInStage(stage, projectId, FieldMask.of(STAGE), (tx, doc) -> tx.update(doc.getReference(), fields));
+    }
+
+    @Override
+    public boolean delete(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        return writeInStage(stage, projectId, FieldMask.of(STAGE), (tx, doc) -> tx.delete(doc.getReference()));
+    }
+
+    @Override
+    public boolean transition(String projectId, ProjectStage from, ProjectStage to,
+                              Map<String, Object> changes, Set<String> keepFields) throws ExecutionException, InterruptedException {
+        ProjectStage.checkTransition(from, to);
+
+        // Dropping fields needs their names, so only then is the whole document read
+        return writeInStage(from, projectId, keepFields == null ? FieldMask.of(STAGE) : null, (tx, doc) -> {
+            Map<String, Object> updates = new HashMap<>();
+            if (keepFields != null && doc.getData() != null) {
+                for (String field : doc.getData().keySet()) {
+                    if (!keepFields.contains(field)) {
+                        updates.put(field, FieldValue.delete());
+                    }
+                }
+            }
+            updates.putAll(changes);
+            updates.put(STAGE, to.name());
+            tx.update(doc.getReference(), updates);
+        });
+    }
+
+    @Override
+    public List<MediaRef> findMedia(ProjectStage stage, String projectId, String field) throws Exception {
+        DocumentSnapshot doc = projects().document(projectId).get().get();
+        if (!inStage(doc, stage) || !doc.contains(field)) {
+            return null;
+        }
+        return readMediaRefs(doc, field);
+    }
+
+    @Override
+    public boolean appendMedia(ProjectStage stage, String projectId, String field, List<MediaRef> media) throws ExecutionException, InterruptedException {
+        return writeInStage(stage, projectId, FieldMask.of(STAGE),
+                (tx, doc) -> tx.update(doc.getReference(), field, FieldValue.arrayUnion(media.toArray())));
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync(ProjectStage stage) {
+        return FirestoreQueries.count(inStage(stage));
+    }
+
+    /**
+     * Moves every document out of the per-stage collections, keeping its ID, with the stage
+     * set and any inline Base64 media moved into the blob store first, so the copies are
+     * small. A document's write and the delete of its old copy always share one batch, and
+     * batches are cut by size, so the migration can be stopped and rerun at any point. Later
+     * stages go first: when an interrupted move left a project in two collections, the
+     * further one wins and the other copy is dropped.
+     *
+     * Projects moved before inline media was converted here are converted afterwards, each
+     * in a transaction that gives up if the project's media changed in the meantime.
+     */
+    @Override
+    public int migrateStageCollections() throws Exception {
+        int migrated = 0;
+        List<ProjectStage> stages = new ArrayList<>(List.of(ProjectStage.values()));
+        Collections.reverse(stages);
+
+        for (ProjectStage stage : stages) {
+            CollectionReference legacy = db.collection(stage.getCollection());
+            String cursor = null;
+            do {
+                Page<QueryDocumentSnapshot> page = FirestoreQueries.byId(legacy, legacy, MIGRATION_PAGE, cursor, doc -> doc);
+                if (page.getItems().isEmpty()) break;
+
+                DocumentReference[] targets = page.getItems().stream()
+                        .map(doc -> projects().document(doc.getId()))
+                        .toArray(DocumentReference[]::new);
+                List<DocumentSnapshot> existing = db.getAll(targets, FieldMask.of(STAGE)).get();
+
+                SizedBatch batch = new SizedBatch();
+                for (int i = 0; i < targets.length; i++) {
+                    QueryDocumentSnapshot doc = page.getItems().get(i);
+                    DocumentReference target = targets[i];
+                    if (existing.get(i).exists()) {
+                        log.warn("Project {} is already {}; dropping its copy in {}",
+                                doc.getId(), existing.get(i).getString(STAGE), stage.getCollection());
+                        batch.add(0, 1, writes -> writes.delete(doc.getReference()));
+                    } else {
+                        Map<String, Object> data = new HashMap<>(doc.getData());
+                        storeInlineMedia(data);
+                        data.put(STAGE, stage.name());
+                        batch.add(storedSize(data), 2, writes -> writes.set(target, data).delete(doc.getReference()));
+                        migrated++;
+                    }
+                }
+                batch.commit();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        }
+
+        int converted = storeInlineMediaOfMovedProjects();
+        log.info("Migrated {} projects into {}, moved the inline media of {} more to the blob store",
+                migrated, PROJECTS, converted);
+        return migrated;
+    }
+
+    private int storeInlineMediaOfMovedProjects() throws Exception {
+        int converted = 0;
+        String cursor = null;
+        do {
+            Page<QueryDocumentSnapshot> page = FirestoreQueries.byId(projects(), projects().select(MEDIA, FINAL_MEDIA),
+                    MIGRATION_PAGE, cursor, doc -> doc);
+            for (QueryDocumentSnapshot doc : page.getItems()) {
+                Map<String, Object> fields = new HashMap<>(doc.getData());
+                if (!storeInlineMedia(fields)) continue;
+
+                DocumentReference docRef = doc.getReference();
+                boolean rewritten = db.runTransaction(tx -> {
+                    DocumentSnapshot current = tx.getAll(new DocumentReference[]{docRef}, FieldMask.of(MEDIA, FINAL_MEDIA)).get().get(0);
+                    for (String field : List.of(MEDIA, FINAL_MEDIA)) {
+                        if (!Objects.equals(doc.get(field), current.get(field))) {
+                            return false;
+                        }
+                    }
+                    tx.update(docRef, fields);
+                    return true;
+                }).get();
+                if (rewritten) {
+                    converted++;
+                } else {
+                    log.info("Media of project {} changed while moving it to the blob store; left for the next run", doc.getId());
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return converted;
+    }
+
+    @Override
+    public List<Project> findLegacyByClient(String clientId) throws ExecutionException, InterruptedException {
+        List<Project> projects = new ArrayList<>();
+        for (DocumentSnapshot doc : db.collection(LEGACY_PROJECTS).whereEqualTo("clientId", clientId).get().get().getDocuments()) {
+            projects.add(toProject(doc));
+        }
+        return projects;
+    }
+
+    @Override
+    public boolean replaceLegacy(Project project) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(LEGACY_PROJECTS).document(project.getId());
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        // Overwrite entire project; legacy documents keep the client as a plain ID
+        WriteBatch batch = db.batch();
+        batch.set(docRef, project);
+        batch.update(docRef, "clientId", project.getClientId());
+        batch.commit().get();
+        return true;
+    }
+
+    @Override
+    public String createTeam(ProjectTeam team) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(PROJECT_TEAMS).document();
+        team.setId(docRef.getId());
+        docRef.set(team).get();
+        return docRef.getId();
+    }
+
+    private CollectionReference projects() {
+        return db.collection(PROJECTS);
+    }
+
+    private Query inStage(ProjectStage stage) {
+        return projects().whereEqualTo(STAGE, stage.name());
+    }
+
+    private static boolean inStage(DocumentSnapshot doc, ProjectStage stage) {
+        return doc.exists() && stage.name().equals(doc.getString(STAGE));
+    }
+
+    /**
+     * Reads the project ({@code mask} fields only, or all of it when null) in a transaction and,
+     * if it is in {@code stage}, adds {@code write} to the same transaction; Firestore retries
+     * the lot if the document changes in between. Returns false if the project isn't in the stage.
+     */
+    private boolean writeInStage(ProjectStage stage, String projectId, FieldMask mask,
+                                 BiConsumer<Transaction, DocumentSnapshot> write) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = projects().document(projectId);
+        return db.runTransaction(tx -> {
+            DocumentSnapshot doc = mask != null
+                    ? tx.getAll(new DocumentReference[]{docRef}, mask).get().get(0)
+                    : tx.get(docRef).get();
+            if (!inStage(doc, stage)) {
+                return false;
+            }
+            write.accept(tx, doc);
+            return true;
+        }).get();
+    }
+
+    private DocumentReference clientRef(String clientId) {
+        return db.collection(USERS).document(clientId);
+    }
+
+    /**
+     * The client's user ID, whether the document holds a user reference or, in legacy projects, the plain ID.
+     */
+    private static String clientId(DocumentSnapshot doc) {
+        Object client = doc.get("clientId");
+        if (client instanceof DocumentReference ref) return ref.getId();
+        return client instanceof String id ? id : null;
+    }
+
+    private Project toProject(DocumentSnapshot doc) {
+        Project project = doc.toObject(Project.class);
+        if (project != null) {
+            project.setClientId(clientId(doc));
+        }
+        return project;
+    }
+
+    /**
+     * Runs a project query with a field mask so only summary fields cross the wire.
+     */
+    private List<ProjectSummary> summaries(Query query) throws ExecutionException, InterruptedException {
+        List<ProjectSummary> projects = new ArrayList<>();
+        QuerySnapshot snapshot = query.select(SUMMARY_FIELDS).get().get();
+
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            ProjectSummary project = doc.toObject(ProjectSummary.class);
+            if (project != null) {
+                project.setId(doc.getId());
+                project.setClientId(clientId(doc));
+                projects.add(project);
+            }
+        }
+        return projects;
+    }
+
+    /**
+     * Reads a media array. A read never writes: legacy Base64 entries ({fileName, content})
+     * are left out until the stage migration moves them into the blob store.
+     */
+    @SuppressWarnings("unchecked")
+    private List<MediaRef> readMediaRefs(DocumentSnapshot doc, String field) {
+        List<Map<String, Object>> raw = (List<Map<String, Object>>) doc.get(field);
+        List<MediaRef> refs = new ArrayList<>();
+        if (raw == null) return refs;
+
+        int inline = 0;
+        for (Map<String, Object> item : raw) {
+            if (isInline(item)) {
+                inline++;
+                continue;
+            }
+            MediaRef ref = new MediaRef();
+            ref.setId((String) item.get("id"));
+            ref.setFileName((String) item.get("fileName"));
+            ref.setContentType((String) item.get("contentType"));
+            ref.setSize(item.get("size") != null ? ((Number) item.get("size")).longValue() : 0);
+            ref.setUploadedAt((String) item.get("uploadedAt"));
+            refs.add(ref);
+        }
+        if (inline > 0) {
+            log.warn("{} of project {} still holds {} inline Base64 files; run POST /api/admin/migrations/project-stages",
+                    field, doc.getId(), inline);
+        }
+        return refs;
+    }
+
+    private static boolean isInline(Object item) {
+        return item instanceof Map<?, ?> map && map.get("content") instanceof String && map.get("id") == null;
+    }
+
+    /**
+     * Stores the legacy Base64 entries of the media arrays in {@code data} in the blob store
+     * and puts references in their place. Returns whether anything was replaced.
+     */
+    private boolean storeInlineMedia(Map<String, Object> data) throws IOException {
+        boolean replaced = false;
+        for (String field : List.of(MEDIA, FINAL_MEDIA)) {
+            if (!(data.get(field) instanceof List<?> items)) continue;
+
+            List<Object> converted = new ArrayList<>(items.size());
+            for (Object item : items) {
+                if (isInline(item)) {
+                    Map<?, ?> legacy = (Map<?, ?>) item;
+                    String base64 = (String) legacy.get("content");
+                    byte[] bytes = Base64.getDecoder().decode(base64.substring(base64.indexOf(',') + 1));
+                    MediaRef ref = mediaStorage.store(new ByteArrayInputStream(bytes), (String) legacy.get("fileName"), null);
+                    Map<String, Object> fields = new HashMap<>();
+                    fields.put("id", ref.getId());
+                    fields.put("fileName", ref.getFileName());
+                    fields.put("contentType", ref.getContentType());
+                    fields.put("size", ref.getSize());
+                    fields.put("uploadedAt", ref.getUploadedAt());
+                    converted.add(fields);
+                    replaced = true;
+                } else {
+                    converted.add(item);
+                }
+            }
+            data.put(field, converted);
+        }
+        return replaced;
+    }
+
+    /**
+     * Rough stored size of a Firestore value, after the documented size rules, to keep
+     * migration batches under the commit limit.
+     */
+    private static long storedSize(Object value) {
+        if (value instanceof String text) return text.getBytes(StandardCharsets.UTF_8).length + 1L;
+        if (value instanceof Map<?, ?> map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += storedSize(String.valueOf(entry.getKey())) + storedSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof List<?> list) {
+            long size = 0;
+            for (Object item : list) {
+                size += storedSize(item);
+            }
+            return size;
+        }
+        if (value instanceof DocumentReference ref) return storedSize(ref.getPath());
+        if (value instanceof Blob blob) return blob.toBytes().length;
+        if (value == null || value instanceof Boolean) return 1;
+        return 16; // numbers, timestamps, geo points
+    }
+
+    /**
+     * A write batch that commits before it would go over 500 writes (Firestore's limit) or
+     * {@link #MIGRATION_BATCH_BYTES}. All writes of one {@link #add} land in the same commit.
+     */
+    private final class SizedBatch {
+        private WriteBatch batch = db.batch();
+        private long bytes;
+        private int writes;
+
+        void add(long size, int count, Consumer<WriteBatch> write) throws ExecutionException, InterruptedException {
+            if (writes > 0 && (bytes + size > MIGRATION_BATCH_BYTES || writes + count > MIGRATION_BATCH_WRITES)) {
+                commit();
+            }
+            write.accept(batch);
+            bytes += size;
+            writes += count;
+        }
+
+        void commit() throws ExecutionException, InterruptedException {
+            if (writes > 0) {
+                batch.commit().get();
+            }
+            batch = db.batch();
+            bytes = 0;
+            writes = 0;
+        }
+    }
+}
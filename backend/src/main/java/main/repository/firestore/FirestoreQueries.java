@@ -0,0 +1,84 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import main.dto.Page;
+import main.util.FirestoreFutures;
+import main.util.PageCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Query helpers shared by the Firestore repositories: cursor paging, where the cursor carries
+ * only the ID of the last document on the previous page, and server-side counts.
+ */
+final class FirestoreQueries {
+
+    private FirestoreQueries() {
+    }
+
+    /**
+     * Counted by a {@code count()} aggregation, so the cost doesn't depend on how many documents match.
+     */
+    static ApiFuture<Long> count(Query query) {
+        return FirestoreFutures.map(query.count().get(), AggregateQuerySnapshot::getCount);
+    }
+
+    /**
+     * Reads one page of {@code query}, ordered by document ID. Documents the mapper turns into
+     * null are skipped, so a page can hold fewer items than {@code size}.
+     */
+    static <T> Page<T> byId(CollectionReference collection, Query query, int size, String cursor,
+                            Function<QueryDocumentSnapshot, T> mapper) throws ExecutionException, InterruptedException {
+        Query paged = query.orderBy(FieldPath.documentId());
+        String lastId = PageCursor.decode(cursor);
+        if (lastId != null) {
+            paged = paged.startAfter(collection.document(lastId));
+        }
+        return read(paged, size, mapper);
+    }
+
+    /**
+     * Like {@link #byId}, for queries with their own sort order. The last document is read back
+     * to resume after its sort values; if it no longer exists the page is empty.
+     */
+    static <T> Page<T> ordered(CollectionReference collection, Query orderedQuery, int size, String cursor,
+                               Function<QueryDocumentSnapshot, T> mapper) throws ExecutionException, InterruptedException {
+        Query paged = orderedQuery;
+        String lastId = PageCursor.decode(cursor);
+        if (lastId != null) {
+            DocumentSnapshot last = collection.document(lastId).get().get();
+            if (!last.exists()) {
+                return new Page<>(new ArrayList<>(), null);
+            }
+            paged = paged.startAfter(last);
+        }
+        return read(paged, size, mapper);
+    }
+
+    private static <T> Page<T> read(Query paged, int size, Function<QueryDocumentSnapshot, T> mapper) throws ExecutionException, InterruptedException {
+        // One extra document tells us whether another page exists
+        List<QueryDocumentSnapshot> docs = paged.limit(size + 1).get().get().getDocuments();
+        boolean hasMore = docs.size() > size;
+        if (hasMore) {
+            docs = docs.subList(0, size);
+        }
+
+        List<T> items = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            T item = mapper.apply(doc);
+            if (item != null) items.add(item);
+        }
+
+        String nextCursor = hasMore ? PageCursor.encode(docs.get(docs.size() - 1).getId()) : null;
+        return new Page<>(items, nextCursor);
+    }
+}
@@ -0,0 +1,127 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import main.dto.Page;
+import main.model.Task;
+import main.model.TaskReply;
+import main.repository.TaskRepository;
+import main.util.FirestoreFutures;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreTaskRepository implements TaskRepository {
+
+    private static final String TASKS = "tasks";
+    private static final String TASK_REPLIES = "task_replies";
+
+    private final Firestore db;
+
+    public FirestoreTaskRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Task findById(String taskId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(taskId).get();
+    }
+
+    @Override
+    public ApiFuture<Task> findByIdAsync(String taskId) {
+        return FirestoreFutures.map(db.collection(TASKS).document(taskId).get(),
+                doc -> doc.exists() ? doc.toObject(Task.class) : null);
+    }
+
+    @Override
+    public List<Task> findAll(int limit) throws ExecutionException, InterruptedException {
+        return db.collection(TASKS).limit(limit).get().get().toObjects(Task.class);
+    }
+
+    @Override
+    public Page<Task> findPage(int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference tasks = db.collection(TASKS);
+        return FirestoreQueries.byId(tasks, tasks, size, cursor, doc -> doc.toObject(Task.class));
+    }
+
+    @Override
+    public List<Task> findByUser(String userId) throws ExecutionException, InterruptedException {
+        return findBy("userId", userId);
+    }
+
+    @Override
+    public List<Task> findByProject(String projectId) throws ExecutionException, InterruptedException {
+        return findBy("projectId", projectId);
+    }
+
+    @Override
+    public List<Task> findByAssignee(String assignedToId) throws ExecutionException, InterruptedException {
+        return findBy("assignedToId", assignedToId);
+    }
+
+    @Override
+    public String create(Task task) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(TASKS).document();
+        task.setId(docRef.getId());
+        docRef.set(task).get();
+        return task.getId();
+    }
+
+    @Override
+    public boolean replace(Task task) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(TASKS).document(task.getId());
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        docRef.set(task).get();
+        return true;
+    }
+
+    @Override
+    public boolean delete(String taskId) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(TASKS).document(taskId);
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        docRef.delete().get();
+        return true;
+    }
+
+    @Override
+    public List<TaskReply> findReplies(String taskId) throws ExecutionException, InterruptedException {
+        List<TaskReply> replies = db.collection(TASK_REPLIES)
+                .whereEqualTo("taskId", taskId)
+                .get().get()
+                .toObjects(TaskReply.class);
+        // sorted here rather than with orderBy, which would need a composite index
+        replies.sort(Comparator.comparing(r -> r.getTimestamp().toDate()));
+        return replies;
+    }
+
+    @Override
+    public ApiFuture<String> addReplyAsync(TaskReply reply) {
+        DocumentReference ref = db.collection(TASK_REPLIES).document();
+        return FirestoreFutures.map(ref.set(reply), result -> ref.getId());
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync() {
+        return FirestoreQueries.count(db.collection(TASKS));
+    }
+
+    @Override
+    public ApiFuture<Long> countByStatusAsync(String status) {
+        return FirestoreQueries.count(db.collection(TASKS).whereEqualTo("status", status));
+    }
+
+    private List<Task> findBy(String field, String value) throws ExecutionException, InterruptedException {
+        return db.collection(TASKS).whereEqualTo(field, value).get().get().toObjects(Task.class);
+    }
+}
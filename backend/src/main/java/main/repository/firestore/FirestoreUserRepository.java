@@ -0,0 +1,179 @@
+package main.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QuerySnapshot;
+import main.dto.Page;
+import main.model.User;
+import main.repository.UserRepository;
+import main.util.FirestoreFutures;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreUserRepository implements UserRepository {
+
+    private static final String USERS = "users";
+    private static final int GET_ALL_BATCH = 100;
+
+    private final Firestore db;
+
+    public FirestoreUserRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public User findById(String userId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(userId).get();
+    }
+
+    @Override
+    public ApiFuture<User> findByIdAsync(String userId) {
+        return FirestoreFutures.map(db.collection(USERS).document(userId).get(),
+                doc -> doc.exists() ? toUser(doc) : null);
+    }
+
+    @Override
+    public User findByEmail(String email) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = findDocByEmail(email);
+        return doc != null ? toUser(doc) : null;
+    }
+
+    @Override
+    public String create(User user) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(USERS).document();
+        user.setId(docRef.getId());
+        docRef.set(user).get();
+        return user.getId();
+    }
+
+    @Override
+    public boolean update(String userId, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(USERS).document(userId);
+        if (!docRef.get().get().exists()) {
+            return false;
+        }
+        docRef.update(fields).get();
+        return true;
+    }
+
+    @Override
+    public User delete(String userId) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(USERS).document(userId);
+        DocumentSnapshot doc = docRef.get().get();
+        if (!doc.exists()) {
+            return null;
+        }
+        docRef.delete().get();
+        return toUser(doc);
+    }
+
+    @Override
+    public List<User> findAll(int limit) throws ExecutionException, InterruptedException {
+        return toPublicUsers(db.collection(USERS).limit(limit).get().get());
+    }
+
+    @Override
+    public Page<User> findPage(int size, String cursor) throws ExecutionException, InterruptedException {
+        CollectionReference users = db.collection(USERS);
+        return FirestoreQueries.byId(users, users, size, cursor, this::toPublicUser);
+    }
+
+    @Override
+    public List<User> findByRole(String role) throws ExecutionException, InterruptedException {
+        return toPublicUsers(db.collection(USERS).whereEqualTo("role", role).get().get());
+    }
+
+    @Override
+    public List<String> findIdsByRole(String role) throws ExecutionException, InterruptedException {
+        // Selecting a single field keeps the rest of each user document off the wire
+        QuerySnapshot snapshot = db.collection(USERS)
+                .whereEqualTo("role", role)
+                .select("role")
+                .get().get();
+
+        List<String> ids = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            ids.add(doc.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<String, String> findNames(Collection<String> userIds) throws ExecutionException, InterruptedException {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+
+        // Fire every batch first so the whole lookup costs a single round trip
+        List<ApiFuture<List<DocumentSnapshot>>> futures = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += GET_ALL_BATCH) {
+            DocumentReference[] refs = ids.subList(i, Math.min(i + GET_ALL_BATCH, ids.size())).stream()
+                    .map(id -> db.collection(USERS).document(id))
+                    .toArray(DocumentReference[]::new);
+            futures.add(db.getAll(refs, FieldMask.of("name")));
+        }
+
+        Map<String, String> names = new HashMap<>();
+        for (List<DocumentSnapshot> docs : FirestoreFutures.awaitAll(futures)) {
+            for (DocumentSnapshot doc : docs) {
+                if (doc.exists()) names.put(doc.getId(), doc.getString("name"));
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync() {
+        return FirestoreQueries.count(db.collection(USERS));
+    }
+
+    @Override
+    public ApiFuture<Long> countByRoleAsync(String role) {
+        return FirestoreQueries.count(db.collection(USERS).whereEqualTo("role", role));
+    }
+
+    private DocumentSnapshot findDocByEmail(String email) throws ExecutionException, InterruptedException {
+        QuerySnapshot snapshot = db.collection(USERS).whereEqualTo("email", email).limit(1).get().get();
+        return snapshot.isEmpty() ? null : snapshot.getDocuments().get(0);
+    }
+
+    private User toUser(DocumentSnapshot doc) {
+        User user = doc.toObject(User.class);
+        if (user != null && user.getId() == null) {
+            user.setId(doc.getId());
+        }
+        return user;
+    }
+
+    private User toPublicUser(DocumentSnapshot doc) {
+        User user = toUser(doc);
+        if (user != null) {
+            // Don't send password hash to frontend
+            user.setPassword(null);
+        }
+        return user;
+    }
+
+    private List<User> toPublicUsers(QuerySnapshot snapshot) {
+        List<User> users = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            User user = toPublicUser(doc);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+}
@@ -0,0 +1,226 @@
+package main.repository.memory;
+
+import com.google.cloud.Timestamp;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts model objects to and from the plain maps the in-memory store keeps, following the
+ * rules the Firestore client applies: bean properties become entries, {@link Date}s are stored
+ * as {@link Timestamp}s, whole numbers as {@code Long} and other numbers as {@code Double}.
+ * Reading back, a stored value that doesn't fit the property's type leaves the property unset.
+ */
+final class DocumentMapper {
+
+    private static final Object SKIP = new Object();
+    private static final Map<Class<?>, PropertyDescriptor[]> PROPERTIES = new ConcurrentHashMap<>();
+
+    private DocumentMapper() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> toDocument(Object value) {
+        Object plain = toPlain(value);
+        if (!(plain instanceof Map)) {
+            throw new IllegalArgumentException("Not a document: " + value);
+        }
+        return (Map<String, Object>) plain;
+    }
+
+    static Object toPlain(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Timestamp) {
+            return value;
+        }
+        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        if (value instanceof Date date) {
+            return Timestamp.of(date);
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            map.forEach((k, v) -> out.put(String.valueOf(k), toPlain(v)));
+            return out;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> out = new ArrayList<>(collection.size());
+            for (Object item : collection) {
+                out.add(toPlain(item));
+            }
+            return out;
+        }
+        if (value.getClass().getName().startsWith("com.google.cloud.firestore.")) {
+            throw new IllegalArgumentException("Firestore type in the in-memory store: " + value.getClass().getName());
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (PropertyDescriptor property : properties(value.getClass())) {
+            Method getter = property.getReadMethod();
+            if (getter == null) continue;
+            try {
+                out.put(property.getName(), toPlain(getter.invoke(value)));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Can't read " + property.getName() + " of " + value.getClass().getName(), e);
+            }
+        }
+        return out;
+    }
+
+    static <T> T toObject(Map<String, Object> doc, Class<T> type) {
+        if (doc == null) return null;
+        Object value = convert(doc, type);
+        return value == SKIP ? null : type.cast(value);
+    }
+
+    /**
+     * Deep copy of a stored value; maps and lists are copied, everything else is immutable.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            map.forEach((k, v) -> out.put((String) k, copy(v)));
+            return (T) out;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> out = new ArrayList<>(list.size());
+            for (Object item : list) {
+                out.add(copy(item));
+            }
+            return (T) out;
+        }
+        return value;
+    }
+
+    private static Object convert(Object value, Type type) {
+        Class<?> raw = rawClass(type);
+        if (value == null) {
+            return raw.isPrimitive() ? SKIP : null;
+        }
+        if (raw == Object.class) {
+            return copy(value);
+        }
+        if (raw == String.class) {
+            return value instanceof String ? value : SKIP;
+        }
+        if (value instanceof Number n) {
+            if (raw == int.class || raw == Integer.class) return n.intValue();
+            if (raw == long.class || raw == Long.class) return n.longValue();
+            if (raw == double.class || raw == Double.class) return n.doubleValue();
+            if (raw == float.class || raw == Float.class) return n.floatValue();
+            if (raw == Number.class) return n;
+            return SKIP;
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return value instanceof Boolean ? value : SKIP;
+        }
+        if (raw == Timestamp.class) {
+            return value instanceof Timestamp ? value : SKIP;
+        }
+        if (raw == Date.class) {
+            return value instanceof Timestamp ts ? ts.toDate() : SKIP;
+        }
+        if (raw.isEnum()) {
+            return value instanceof String name ? enumValue(raw, name) : SKIP;
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            if (!(value instanceof List<?> list)) return SKIP;
+            Type itemType = typeArgument(type, 0);
+            List<Object> out = new ArrayList<>(list.size());
+            for (Object item : list) {
+                Object converted = convert(item, itemType);
+                out.add(converted == SKIP ? null : converted);
+            }
+            return out;
+        }
+        if (!(value instanceof Map<?, ?> map)) {
+            return SKIP;
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            Type valueType = typeArgument(type, 1);
+            Map<String, Object> out = new LinkedHashMap<>();
+            map.forEach((k, v) -> {
+                Object converted = convert(v, valueType);
+                if (converted != SKIP) out.put((String) k, converted);
+            });
+            return out;
+        }
+        return toBean(map, raw);
+    }
+
+    private static Object toBean(Map<?, ?> map, Class<?> type) {
+        Object bean;
+        try {
+            bean = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return SKIP; // not a bean, same as a type mismatch
+        }
+
+        for (PropertyDescriptor property : properties(type)) {
+            Method setter = property.getWriteMethod();
+            if (setter == null || !map.containsKey(property.getName())) continue;
+
+            Object converted = convert(map.get(property.getName()), setter.getGenericParameterTypes()[0]);
+            if (converted == SKIP) continue;
+            try {
+                setter.invoke(bean, converted);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Can't set " + property.getName() + " of " + type.getName(), e);
+            }
+        }
+        return bean;
+    }
+
+    private static PropertyDescriptor[] properties(Class<?> type) {
+        return PROPERTIES.computeIfAbsent(type, t -> {
+            try {
+                BeanInfo info = Introspector.getBeanInfo(t, Object.class);
+                return info.getPropertyDescriptors();
+            } catch (IntrospectionException e) {
+                throw new IllegalArgumentException("Not a bean: " + t.getName(), e);
+            }
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> type, String name) {
+        try {
+            return Enum.valueOf((Class<? extends Enum>) type, name);
+        } catch (IllegalArgumentException e) {
+            return SKIP;
+        }
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType p) return (Class<?>) p.getRawType();
+        return Object.class; // wildcards and type variables
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType p && p.getActualTypeArguments().length > index) {
+            return p.getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+}
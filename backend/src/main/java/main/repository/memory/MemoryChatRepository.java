@@ -0,0 +1,150 @@
+package main.repository.memory;
+
+import com.google.cloud.Timestamp;
+import main.dto.Page;
+import main.model.ChatMessage;
+import main.repository.ChatRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Messages are kept per conversation; history is ordered by {@code sentAt} on read.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryChatRepository implements ChatRepository {
+
+    private static final Comparator<Map.Entry<String, Map<String, Object>>> NEWEST_FIRST =
+            Comparator.comparing((Map.Entry<String, Map<String, Object>> e) -> (Timestamp) e.getValue().get("sentAt")).reversed();
+    private static final Comparator<Map.Entry<String, Map<String, Object>>> RECENTLY_UPDATED =
+            Comparator.comparing((Map.Entry<String, Map<String, Object>> e) -> (Timestamp) e.getValue().get("updatedAt")).reversed();
+
+    private final Map<String, MemoryCollection> messages = new ConcurrentHashMap<>();
+    private final MemoryCollection conversations = new MemoryCollection("participants");
+
+    @Override
+    public String newMessageId(String conversationId) {
+        return MemoryCollection.newId();
+    }
+
+    /**
+     * Serialized, so concurrent appends to one conversation can't lose unread increments.
+     */
+    @Override
+    public synchronized void append(List<MessageWrite> writes, Map<String, String> names) {
+        Map<String, List<MessageWrite>> byConversation = new LinkedHashMap<>();
+        for (MessageWrite w : writes) {
+            messages(w.getConversationId()).set(w.getMessage().getId(), toData(w.getMessage(), w.getSentAt()));
+            byConversation.computeIfAbsent(w.getConversationId(), k -> new ArrayList<>()).add(w);
+        }
+
+        byConversation.forEach((conversationId, group) -> {
+            Map<String, Object> current = conversations.get(conversationId);
+            Map<?, ?> currentUnread = current != null && current.get("unread") instanceof Map<?, ?> map ? map : Map.of();
+
+            Map<String, Object> unread = new HashMap<>();
+            for (MessageWrite w : group) {
+                String receiverId = w.getMessage().getReceiverId();
+                long base = currentUnread.get(receiverId) instanceof Number n ? n.longValue() : 0L;
+                unread.merge(receiverId, base + 1, (a, b) -> (Long) a + 1);
+            }
+
+            MessageWrite last = group.get(group.size() - 1);
+            Map<String, Object> summary = summary(last.getMessage(), last.getSentAt(), names);
+            summary.put("unread", unread);
+            conversations.merge(conversationId, summary);
+        });
+    }
+
+    @Override
+    public Page<ChatMessage> findHistory(String conversationId, int size, String cursor) {
+        return MemoryCollection.pageInOrder(sorted(messages(conversationId).all(), NEWEST_FIRST), size, cursor,
+                this::toChatMessage);
+    }
+
+    @Override
+    public List<ChatMessage> findLatest(String conversationId, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : sorted(messages(conversationId).all(), NEWEST_FIRST)) {
+            if (result.size() >= limit) break;
+            result.add(toChatMessage(entry.getKey(), entry.getValue()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findConversations(String userId, int size, String cursor) {
+        return MemoryCollection.pageInOrder(sorted(conversations.whereArrayContains("participants", userId), RECENTLY_UPDATED),
+                size, cursor, (id, doc) -> doc);
+    }
+
+    @Override
+    public synchronized void markRead(String conversationId, String userId) {
+        conversations.merge(conversationId, Map.of("unread", Map.of(userId, 0L)));
+    }
+
+    /**
+     * Nothing to migrate: this store never had the flat layout.
+     */
+    @Override
+    public int migrateLegacyMessages(NameLookup names) {
+        return 0;
+    }
+
+    private MemoryCollection messages(String conversationId) {
+        return messages.computeIfAbsent(conversationId, id -> new MemoryCollection());
+    }
+
+    private static List<Map.Entry<String, Map<String, Object>>> sorted(Map<String, Map<String, Object>> docs,
+                                                                      Comparator<Map.Entry<String, Map<String, Object>>> order) {
+        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(docs.entrySet());
+        entries.sort(order);
+        return entries;
+    }
+
+    private static Map<String, Object> toData(ChatMessage message, Timestamp sentAt) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("senderId", message.getSenderId());
+        data.put("receiverId", message.getReceiverId());
+        data.put("content", message.getContent());
+        data.put("timestamp", message.getTimestamp());
+        data.put("sentAt", sentAt);
+        return data;
+    }
+
+    private static Map<String, Object> summary(ChatMessage last, Timestamp sentAt, Map<String, String> names) {
+        Map<String, Object> participantNames = new HashMap<>();
+        for (String id : List.of(last.getSenderId(), last.getReceiverId())) {
+            String name = names.get(id);
+            if (name != null) participantNames.put(id, name);
+        }
+
+        Map<String, Object> lastMessage = new HashMap<>();
+        lastMessage.put("senderId", last.getSenderId());
+        lastMessage.put("content", last.getContent());
+        lastMessage.put("timestamp", last.getTimestamp());
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("participants", List.of(last.getSenderId(), last.getReceiverId()));
+        summary.put("participantNames", participantNames);
+        summary.put("lastMessage", lastMessage);
+        summary.put("updatedAt", sentAt);
+        return summary;
+    }
+
+    private ChatMessage toChatMessage(String id, Map<String, Object> doc) {
+        ChatMessage m = DocumentMapper.toObject(doc, ChatMessage.class);
+        m.setId(id);
+        return m;
+    }
+}
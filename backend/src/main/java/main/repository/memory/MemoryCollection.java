@@ -0,0 +1,323 @@
+package main.repository.memory;
+
+import main.dto.Page;
+import main.util.PageCursor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * One collection of the in-memory store: documents ordered by ID, plus secondary indexes on the
+ * fields the repositories filter by.
+ *
+ * Stored documents are never modified in place. Every write replaces the snapshot and every
+ * read hands out a deep copy, so callers may change what they get back. Writes to a collection
+ * are serialized; reads never block. An index maps each value of its field (each element, for
+ * list fields) to the IDs holding it, and lookups re-check the document, so a read racing a
+ * write never returns a document that doesn't match.
+ */
+final class MemoryCollection {
+
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final ConcurrentSkipListMap<String, Map<String, Object>> docs = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<Object, Set<String>>> indexes = new HashMap<>();
+
+    MemoryCollection(String... indexedFields) {
+        for (String field : indexedFields) {
+            indexes.put(field, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Random 20-character ID, the same shape as Firestore's auto IDs.
+     */
+    static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] id = new char[20];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_CHARS.charAt(random.nextInt(ID_CHARS.length()));
+        }
+        return new String(id);
+    }
+
+    Map<String, Object> get(String id) {
+        Map<String, Object> doc = docs.get(id);
+        return doc != null ? DocumentMapper.copy(doc) : null;
+    }
+
+    boolean exists(String id) {
+        return docs.containsKey(id);
+    }
+
+    synchronized void set(String id, Object document) {
+        replace(id, DocumentMapper.toDocument(document));
+    }
+
+    /**
+     * Overwrites the given fields; a dotted name such as {@code unread.u1} reaches into nested maps.
+     * Returns false if the document doesn't exist.
+     */
+    synchronized boolean update(String id, Map<String, Object> fields) {
+        Map<String, Object> current = docs.get(id);
+        if (current == null) return false;
+
+        Map<String, Object> next = DocumentMapper.copy(current);
+        fields.forEach((path, value) -> setPath(next, path, DocumentMapper.toPlain(value)));
+        replace(id, next);
+        return true;
+    }
+
+    /**
+     * Like a Firestore merge: nested maps are merged key by key, everything else is overwritten.
+     * Creates the document if it doesn't exist.
+     */
+    synchronized void merge(String id, Map<String, Object> fields) {
+        Map<String, Object> current = docs.get(id);
+        Map<String, Object> next = current != null ? DocumentMapper.copy(current) : new LinkedHashMap<>();
+        mergeInto(next, DocumentMapper.toDocument(fields));
+        replace(id, next);
+    }
+
+    synchronized Map<String, Object> remove(String id) {
+        Map<String, Object> previous = docs.remove(id);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        return previous;
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    /**
+     * Every document, in ID order.
+     */
+    NavigableMap<String, Map<String, Object>> all() {
+        NavigableMap<String, Map<String, Object>> out = new TreeMap<>();
+        docs.forEach((id, doc) -> out.put(id, DocumentMapper.copy(doc)));
+        return out;
+    }
+
+    /**
+     * The first {@code limit} documents in ID order.
+     */
+    NavigableMap<String, Map<String, Object>> first(int limit) {
+        NavigableMap<String, Map<String, Object>> out = new TreeMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : docs.entrySet()) {
+            if (out.size() >= limit) break;
+            out.put(entry.getKey(), DocumentMapper.copy(entry.getValue()));
+        }
+        return out;
+    }
+
+    /**
+     * One page of the whole collection in ID order. Only the documents on the page are copied.
+     */
+    <T> Page<T> page(int size, String cursor, BiFunction<String, Map<String, Object>, T> mapper) {
+        String lastId = PageCursor.decode(cursor);
+        Map<String, Map<String, Object>> rest = lastId != null ? docs.tailMap(lastId, false) : docs;
+
+        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(size + 1);
+        for (Map.Entry<String, Map<String, Object>> entry : rest.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), DocumentMapper.copy(entry.getValue())));
+            if (entries.size() > size) break;
+        }
+        return page(entries, size, mapper);
+    }
+
+    /**
+     * Documents whose field equals {@code value}, in ID order.
+     */
+    NavigableMap<String, Map<String, Object>> whereEqualTo(String field, Object value) {
+        Object key = DocumentMapper.toPlain(value);
+        return matching(field, key, doc -> Objects.equals(doc.get(field), key));
+    }
+
+    /**
+     * Documents whose list field contains {@code value}, in ID order.
+     */
+    NavigableMap<String, Map<String, Object>> whereArrayContains(String field, Object value) {
+        Object key = DocumentMapper.toPlain(value);
+        return matching(field, key, doc -> doc.get(field) instanceof List<?> list && list.contains(key));
+    }
+
+    /**
+     * Full scan, for filters no index covers.
+     */
+    NavigableMap<String, Map<String, Object>> where(Predicate<Map<String, Object>> filter) {
+        NavigableMap<String, Map<String, Object>> out = new TreeMap<>();
+        docs.forEach((id, doc) -> {
+            if (filter.test(doc)) out.put(id, DocumentMapper.copy(doc));
+        });
+        return out;
+    }
+
+    long countWhereEqualTo(String field, Object value) {
+        Object key = DocumentMapper.toPlain(value);
+        return candidates(field, key).stream()
+                .map(docs::get)
+                .filter(doc -> doc != null && Objects.equals(doc.get(field), key))
+                .count();
+    }
+
+    long count(Predicate<Map<String, Object>> filter) {
+        return docs.values().stream().filter(filter).count();
+    }
+
+    /**
+     * One page of documents in ID order, resuming after the document named by {@code cursor}.
+     * Documents the mapper turns into null are skipped, so a page can hold fewer than {@code size} items.
+     */
+    static <T> Page<T> pageById(NavigableMap<String, Map<String, Object>> ordered, int size, String cursor,
+                                BiFunction<String, Map<String, Object>, T> mapper) {
+        String lastId = PageCursor.decode(cursor);
+        Map<String, Map<String, Object>> rest = lastId != null ? ordered.tailMap(lastId, false) : ordered;
+        return page(new ArrayList<>(rest.entrySet()), size, mapper);
+    }
+
+    /**
+     * Like {@link #pageById} for entries in some other order. The page is empty if the cursor's
+     * document is no longer in {@code ordered}.
+     */
+    static <T> Page<T> pageInOrder(List<Map.Entry<String, Map<String, Object>>> ordered, int size, String cursor,
+                                   BiFunction<String, Map<String, Object>, T> mapper) {
+        String lastId = PageCursor.decode(cursor);
+        int start = 0;
+        if (lastId != null) {
+            start = -1;
+            for (int i = 0; i < ordered.size(); i++) {
+                if (ordered.get(i).getKey().equals(lastId)) {
+                    start = i + 1;
+                    break;
+                }
+            }
+            if (start < 0) {
+                return new Page<>(new ArrayList<>(), null);
+            }
+        }
+        return page(ordered.subList(start, ordered.size()), size, mapper);
+    }
+
+    private static <T> Page<T> page(List<Map.Entry<String, Map<String, Object>>> entries, int size,
+                                    BiFunction<String, Map<String, Object>, T> mapper) {
+        boolean hasMore = entries.size() > size;
+        List<Map.Entry<String, Map<String, Object>>> slice = hasMore ? entries.subList(0, size) : entries;
+
+        List<T> items = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : slice) {
+            T item = mapper.apply(entry.getKey(), entry.getValue());
+            if (item != null) items.add(item);
+        }
+
+        String nextCursor = hasMore ? PageCursor.encode(slice.get(slice.size() - 1).getKey()) : null;
+        return new Page<>(items, nextCursor);
+    }
+
+    private NavigableMap<String, Map<String, Object>> matching(String field, Object key, Predicate<Map<String, Object>> filter) {
+        if (!indexes.containsKey(field)) {
+            return where(filter);
+        }
+        NavigableMap<String, Map<String, Object>> out = new TreeMap<>();
+        for (String id : candidates(field, key)) {
+            Map<String, Object> doc = docs.get(id);
+            if (doc != null && filter.test(doc)) out.put(id, DocumentMapper.copy(doc));
+        }
+        return out;
+    }
+
+    private Collection<String> candidates(String field, Object key) {
+        Map<Object, Set<String>> index = indexes.get(field);
+        if (index == null) {
+            return docs.keySet();
+        }
+        Set<String> ids = key != null ? index.get(key) : null;
+        return ids != null ? ids : Set.of();
+    }
+
+    private void replace(String id, Map<String, Object> next) {
+        // Index first: a reader that finds the ID early just fails the re-check
+        index(id, next);
+        Map<String, Object> previous = docs.put(id, next);
+        if (previous != null) {
+            unindex(id, previous, next);
+        }
+    }
+
+    private void index(String id, Map<String, Object> doc) {
+        indexes.forEach((field, index) -> {
+            for (Object key : keys(doc.get(field))) {
+                index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        });
+    }
+
+    private void unindex(String id, Map<String, Object> doc) {
+        unindex(id, doc, Map.of());
+    }
+
+    private void unindex(String id, Map<String, Object> previous, Map<String, Object> next) {
+        indexes.forEach((field, index) -> {
+            List<Object> keep = keys(next.get(field));
+            for (Object key : keys(previous.get(field))) {
+                if (keep.contains(key)) continue;
+                index.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        });
+    }
+
+    private static List<Object> keys(Object value) {
+        if (value == null) return List.of();
+        if (value instanceof List<?> list) {
+            List<Object> keys = new ArrayList<>();
+            for (Object item : list) {
+                if (item != null) keys.add(item);
+            }
+            return keys;
+        }
+        return List.of(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setPath(Map<String, Object> doc, String path, Object value) {
+        String[] parts = path.split("\\.");
+        Map<String, Object> target = doc;
+        for (int i = 0; i < parts.length - 1; i++) {
+            Object child = target.get(parts[i]);
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                target.put(parts[i], child);
+            }
+            target = (Map<String, Object>) child;
+        }
+        target.put(parts[parts.length - 1], value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mergeInto(Map<String, Object> target, Map<String, Object> fields) {
+        fields.forEach((key, value) -> {
+            if (value instanceof Map && target.get(key) instanceof Map) {
+                mergeInto((Map<String, Object>) target.get(key), (Map<String, Object>) value);
+            } else {
+                target.put(key, value);
+            }
+        });
+    }
+}
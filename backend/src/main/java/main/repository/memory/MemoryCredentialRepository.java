@@ -0,0 +1,63 @@
+package main.repository.memory;
+
+import main.model.VerificationCode;
+import main.repository.CredentialRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryCredentialRepository implements CredentialRepository {
+
+    private final Map<String, VerificationCode> resetCodes = new ConcurrentHashMap<>();
+    private final Map<String, VerificationCode> twoFactorCodes = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> rememberedDevices = new ConcurrentHashMap<>();
+
+    @Override
+    public void saveResetCode(String email, VerificationCode code) {
+        resetCodes.put(email, copy(code));
+    }
+
+    @Override
+    public VerificationCode findResetCode(String email) {
+        return copy(resetCodes.get(email));
+    }
+
+    @Override
+    public void deleteResetCode(String email) {
+        resetCodes.remove(email);
+    }
+
+    @Override
+    public void saveTwoFactorCode(String email, VerificationCode code) {
+        twoFactorCodes.put(email, copy(code));
+    }
+
+    @Override
+    public VerificationCode findTwoFactorCode(String email) {
+        return copy(twoFactorCodes.get(email));
+    }
+
+    @Override
+    public void deleteTwoFactorCode(String email) {
+        twoFactorCodes.remove(email);
+    }
+
+    @Override
+    public Long findDeviceExpiry(String email, String deviceId) {
+        Map<String, Long> devices = rememberedDevices.get(email);
+        return devices != null ? devices.get(deviceId) : null;
+    }
+
+    @Override
+    public void rememberDevice(String email, String deviceId, long expiresAt) {
+        rememberedDevices.computeIfAbsent(email, k -> new ConcurrentHashMap<>()).put(deviceId, expiresAt);
+    }
+
+    private static VerificationCode copy(VerificationCode code) {
+        return code != null ? new VerificationCode(code.getCode(), code.getExpiresAt()) : null;
+    }
+}
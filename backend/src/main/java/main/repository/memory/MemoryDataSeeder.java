@@ -0,0 +1,264 @@
+package main.repository.memory;
+
+import com.google.cloud.Timestamp;
+import jakarta.annotation.PostConstruct;
+import main.model.ChatMessage;
+import main.model.Project;
+import main.model.ProjectStage;
+import main.model.Task;
+import main.model.User;
+import main.repository.ChatRepository;
+import main.repository.ChatRepository.MessageWrite;
+import main.repository.CredentialRepository;
+import main.repository.NotificationRepository;
+import main.repository.ProjectRepository;
+import main.repository.TaskRepository;
+import main.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the in-memory datastore with a synthetic studio before the server starts taking requests,
+ * as the target for the load-test suite (profile "loadtest", see src/loadTest).
+ *
+ * Accounts are {role}-{n}@loadtest.local (client-0, manager-3, photographer-12, editor-1), all
+ * with {@code app.seed.password} and {@code app.seed.device-id} remembered, so logging in
+ * returns a token at once instead of emailing a two-factor code. Every client gets one active
+ * project with a manager, two photographers and an editor, tasks on that project, and a chat
+ * history with their manager; every account gets notifications. The same
+ * {@code app.seed.random-seed} always produces the same dataset, with timestamps relative to startup.
+ */
+@Component
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true")
+public class MemoryDataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryDataSeeder.class);
+
+    public static final String EMAIL_DOMAIN = "loadtest.local";
+
+    private static final long DEVICE_LIFETIME_MILLIS = 30L * 24 * 60 * 60 * 1000;
+    private static final String[] TASK_STATUSES = {"Pending", "In Progress", "Completed"};
+    private static final String[] TASK_PRIORITIES = {"Low", "Medium", "High"};
+    private static final String[] PROJECT_TYPES = {"wedding", "portrait", "event", "product"};
+
+    private final UserRepository users;
+    private final CredentialRepository credentials;
+    private final ProjectRepository projects;
+    private final TaskRepository tasks;
+    private final NotificationRepository notifications;
+    private final ChatRepository chats;
+    private final String datastore;
+    private final int clients;
+    private final int managers;
+    private final int photographers;
+    private final int editors;
+    private final int tasksPerProject;
+    private final int notificationsPerUser;
+    private final int messagesPerConversation;
+    private final String password;
+    private final String deviceId;
+    private final long randomSeed;
+
+    public MemoryDataSeeder(UserRepository users, CredentialRepository credentials, ProjectRepository projects,
+                            TaskRepository tasks, NotificationRepository notifications, ChatRepository chats,
+                            @Value("${app.datastore:firestore}") String datastore,
+                            @Value("${app.seed.clients:500}") int clients,
+                            @Value("${app.seed.managers:20}") int managers,
+                            @Value("${app.seed.photographers:60}") int photographers,
+                            @Value("${app.seed.editors:20}") int editors,
+                            @Value("${app.seed.tasks-per-project:5}") int tasksPerProject,
+                            @Value("${app.seed.notifications-per-user:30}") int notificationsPerUser,
+                            @Value("${app.seed.messages-per-conversation:100}") int messagesPerConversation,
+                            @Value("${app.seed.password:loadtest}") String password,
+                            @Value("${app.seed.device-id:loadtest}") String deviceId,
+                            @Value("${app.seed.random-seed:42}") long randomSeed) {
+        this.users = users;
+        this.credentials = credentials;
+        this.projects = projects;
+        this.tasks = tasks;
+        this.notifications = notifications;
+        this.chats = chats;
+        this.datastore = datastore;
+        this.clients = clients;
+        this.managers = managers;
+        this.photographers = photographers;
+        this.editors = editors;
+        this.tasksPerProject = tasksPerProject;
+        this.notificationsPerUser = notificationsPerUser;
+        this.messagesPerConversation = messagesPerConversation;
+        this.password = password;
+        this.deviceId = deviceId;
+        this.randomSeed = randomSeed;
+    }
+
+    @PostConstruct
+    public void seed() throws Exception {
+        // Never write synthetic accounts into a real database
+        if (!"memory".equals(datastore)) {
+            throw new IllegalStateException("app.seed.enabled requires app.datastore=memory");
+        }
+        if (clients > 0 && managers <= 0) {
+            throw new IllegalStateException("app.seed.managers must be at least 1 when seeding clients");
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+        String passwordHash = new BCryptPasswordEncoder().encode(password); // one hash for all: BCrypt is slow on purpose
+        Map<String, String> names = new HashMap<>();
+
+        List<String> clientIds = createUsers("client", "c", clients, passwordHash, names);
+        List<String> managerIds = createUsers("manager", "m", managers, passwordHash, names);
+        List<String> photographerIds = createUsers("photographer", "p", photographers, passwordHash, names);
+        List<String> editorIds = createUsers("editor", "e", editors, passwordHash, names);
+
+        for (int i = 0; i < clientIds.size(); i++) {
+            String clientId = clientIds.get(i);
+            String managerId = managerIds.get(i % managerIds.size());
+            List<String> crew = pick(photographerIds, 2, random);
+            List<String> editing = pick(editorIds, 1, random);
+
+            String projectId = createProject(i, clientId, managerId, crew, editing, random);
+            createTasks(projectId, managerId, crew, editing, random);
+            createConversation(clientId, managerId, names, random);
+        }
+
+        List<String> everyone = new ArrayList<>();
+        everyone.addAll(clientIds);
+        everyone.addAll(managerIds);
+        everyone.addAll(photographerIds);
+        everyone.addAll(editorIds);
+        createNotifications(everyone, random);
+
+        log.info("Seeded {} users and {} active projects in {} ms",
+                everyone.size(), clientIds.size(), System.currentTimeMillis() - start);
+    }
+
+    private List<String> createUsers(String prefix, String role, int count, String passwordHash,
+                                     Map<String, String> names) throws Exception {
+        long deviceExpiry = System.currentTimeMillis() + DEVICE_LIFETIME_MILLIS;
+        List<String> ids = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            User user = new User();
+            user.setName(capitalize(prefix));
+            user.setSurname(String.valueOf(n));
+            user.setEmail(prefix + "-" + n + "@" + EMAIL_DOMAIN);
+            user.setPhone("+355690000000");
+            user.setPassword(passwordHash);
+            user.setRole(role);
+
+            String id = users.create(user);
+            credentials.rememberDevice(user.getEmail(), deviceId, deviceExpiry);
+            names.put(id, user.getName() + " " + user.getSurname());
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private String createProject(int n, String clientId, String managerId, List<String> crew, List<String> editing,
+                                 Random random) throws Exception {
+        Instant created = Instant.parse("2025-01-01T09:00:00Z").plusSeconds(n * 3600L);
+
+        Project project = new Project();
+        project.setTitle("Project " + n);
+        project.setDescription("Synthetic load-test project");
+        project.setRequirements("Edited JPEG delivery");
+        project.setCreationDate(created.toString());
+        project.setEndDate(created.plusSeconds(30L * 24 * 3600).toString().substring(0, 10));
+        project.setPrice(String.valueOf(500 + random.nextInt(20) * 100));
+        project.setStatus("active");
+        project.setType(PROJECT_TYPES[random.nextInt(PROJECT_TYPES.length)]);
+        project.setmanagerId(managerId);
+        project.setState(random.nextInt(3));
+        project.setPhotographers(crew);
+        project.setEditors(editing);
+        project.setAssignedAt(created.plusSeconds(86_400).toString());
+        project.setMedia(new ArrayList<>());
+        project.setFinalMedia(new ArrayList<>());
+        return projects.create(ProjectStage.ACTIVE, project, clientId);
+    }
+
+    private void createTasks(String projectId, String managerId, List<String> crew, List<String> editing,
+                             Random random) throws Exception {
+        List<String> assignees = new ArrayList<>(crew);
+        assignees.addAll(editing);
+        if (assignees.isEmpty()) return;
+
+        for (int t = 0; t < tasksPerProject; t++) {
+            Date createdAt = new Date(System.currentTimeMillis() - random.nextInt(30) * 86_400_000L);
+            Task task = new Task();
+            task.setTitle("Task " + t);
+            task.setDescription("Synthetic load-test task");
+            task.setStatus(TASK_STATUSES[random.nextInt(TASK_STATUSES.length)]);
+            task.setPriority(TASK_PRIORITIES[random.nextInt(TASK_PRIORITIES.length)]);
+            task.setDueDate(new Date(createdAt.getTime() + 7 * 86_400_000L));
+            task.setAssignedToId(assignees.get(random.nextInt(assignees.size())));
+            task.setProjectId(projectId);
+            task.setUserId(managerId);
+            task.setCreatedAt(createdAt);
+            task.setUpdatedAt(createdAt);
+            tasks.create(task);
+        }
+    }
+
+    private void createConversation(String clientId, String managerId, Map<String, String> names,
+                                    Random random) throws Exception {
+        if (messagesPerConversation <= 0) return;
+
+        String pairId = ChatRepository.conversationId(clientId, managerId);
+        long sentAtMicros = (System.currentTimeMillis() - messagesPerConversation * 60_000L) * 1000;
+        List<MessageWrite> writes = new ArrayList<>(messagesPerConversation);
+        for (int m = 0; m < messagesPerConversation; m++) {
+            boolean fromClient = random.nextBoolean();
+            sentAtMicros += 1_000_000L + random.nextInt(60_000_000);
+            ChatMessage message = new ChatMessage(fromClient ? clientId : managerId, fromClient ? managerId : clientId,
+                    "Message " + m, Instant.ofEpochMilli(sentAtMicros / 1000).toString());
+            message.setId(chats.newMessageId(pairId));
+            writes.add(new MessageWrite(pairId, message, Timestamp.ofTimeMicroseconds(sentAtMicros)));
+        }
+        chats.append(writes, Map.of(clientId, names.get(clientId), managerId, names.get(managerId)));
+        chats.markRead(pairId, clientId);
+    }
+
+    private void createNotifications(List<String> recipientIds, Random random) throws Exception {
+        List<Map<String, Object>> batch = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String recipientId : recipientIds) {
+            for (int k = 0; k < notificationsPerUser; k++) {
+                Map<String, Object> notification = new HashMap<>();
+                notification.put("id", notifications.newId());
+                notification.put("recipientId", recipientId);
+                notification.put("message", "Synthetic notification " + k);
+                notification.put("type", "info");
+                notification.put("timestamp", Timestamp.ofTimeMicroseconds((now - random.nextInt(1_000_000) * 1000L) * 1000));
+                notification.put("status", random.nextInt(4) == 0 ? "unread" : "read");
+                batch.add(notification);
+            }
+        }
+        notifications.saveAll(batch);
+    }
+
+    private static List<String> pick(List<String> ids, int count, Random random) {
+        List<String> picked = new ArrayList<>();
+        for (int i = 0; i < count && i < ids.size(); i++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            if (!picked.contains(id)) picked.add(id);
+        }
+        return picked;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,53 @@
+package main.repository.memory;
+
+import main.dto.Page;
+import main.repository.FeedbackRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryFeedbackRepository implements FeedbackRepository {
+
+    private final MemoryCollection feedback = new MemoryCollection("parentId");
+
+    @Override
+    public List<Map<String, Object>> findAll(int limit) {
+        return toFeedback(feedback.first(limit));
+    }
+
+    @Override
+    public Page<Map<String, Object>> findTopLevelPage(int size, String cursor) {
+        return feedback.page(size, cursor, (id, doc) -> doc.get("parentId") != null ? null : withId(id, doc));
+    }
+
+    @Override
+    public List<Map<String, Object>> findReplies(Collection<String> parentIds) {
+        List<Map<String, Object>> replies = new ArrayList<>();
+        for (String parentId : parentIds) {
+            replies.addAll(toFeedback(feedback.whereEqualTo("parentId", parentId)));
+        }
+        return replies;
+    }
+
+    @Override
+    public void add(Map<String, Object> entry) {
+        feedback.set(MemoryCollection.newId(), entry);
+    }
+
+    private List<Map<String, Object>> toFeedback(Map<String, Map<String, Object>> docs) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        docs.forEach((id, doc) -> result.add(withId(id, doc)));
+        return result;
+    }
+
+    private Map<String, Object> withId(String id, Map<String, Object> doc) {
+        doc.put("id", id);
+        return doc;
+    }
+}
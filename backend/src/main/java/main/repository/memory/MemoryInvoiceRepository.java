@@ -0,0 +1,74 @@
+package main.repository.memory;
+
+import main.dto.Page;
+import main.repository.InvoiceRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryInvoiceRepository implements InvoiceRepository {
+
+    private final MemoryCollection invoices = new MemoryCollection("clientId");
+
+    @Override
+    public String create(Map<String, Object> invoice) {
+        String id = MemoryCollection.newId();
+        Map<String, Object> data = new HashMap<>(invoice);
+        data.put("invoiceId", id);
+        invoices.set(id, data);
+        return id;
+    }
+
+    @Override
+    public synchronized boolean replace(String invoiceId, Map<String, Object> invoice) {
+        if (!invoices.exists(invoiceId)) {
+            return false;
+        }
+        invoices.set(invoiceId, invoice);
+        return true;
+    }
+
+    @Override
+    public boolean delete(String invoiceId) {
+        return invoices.remove(invoiceId) != null;
+    }
+
+    @Override
+    public Map<String, Object> findById(String invoiceId) {
+        return toInvoice(invoiceId, invoices.get(invoiceId));
+    }
+
+    @Override
+    public List<Map<String, Object>> findAll(int limit) {
+        return toInvoices(invoices.first(limit));
+    }
+
+    @Override
+    public Page<Map<String, Object>> findPage(int size, String cursor) {
+        return invoices.page(size, cursor, this::toInvoice);
+    }
+
+    @Override
+    public List<Map<String, Object>> findByClient(String clientId) {
+        return toInvoices(invoices.whereEqualTo("clientId", clientId));
+    }
+
+    private List<Map<String, Object>> toInvoices(Map<String, Map<String, Object>> docs) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        docs.forEach((id, doc) -> result.add(toInvoice(id, doc)));
+        return result;
+    }
+
+    private Map<String, Object> toInvoice(String id, Map<String, Object> doc) {
+        if (doc != null) {
+            doc.put("invoiceId", id);
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,86 @@
+package main.repository.memory;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import main.dto.Page;
+import main.model.Meeting;
+import main.repository.MeetingRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryMeetingRepository implements MeetingRepository {
+
+    private final MemoryCollection meetings = new MemoryCollection("status", "userId", "meetingDate");
+
+    @Override
+    public ApiFuture<Meeting> createAsync(Meeting meeting) {
+        meeting.setId(MemoryCollection.newId());
+        meetings.set(meeting.getId(), meeting);
+        return ApiFutures.immediateFuture(meeting);
+    }
+
+    @Override
+    public Meeting findById(String meetingId) {
+        Map<String, Object> doc = meetings.get(meetingId);
+        return doc != null ? toMeeting(meetingId, doc) : null;
+    }
+
+    @Override
+    public List<Meeting> findAll(int limit) {
+        return toMeetings(meetings.first(limit));
+    }
+
+    @Override
+    public Page<Meeting> findPage(int size, String cursor) {
+        return meetings.page(size, cursor, this::toMeeting);
+    }
+
+    @Override
+    public List<Meeting> findByStatus(String status) {
+        return toMeetings(meetings.whereEqualTo("status", status));
+    }
+
+    @Override
+    public List<Meeting> findByUser(String userId) {
+        return toMeetings(meetings.whereEqualTo("userId", userId));
+    }
+
+    @Override
+    public List<Meeting> findByDateAndStatus(String meetingDate, String status) {
+        Map<String, Map<String, Object>> docs = meetings.whereEqualTo("meetingDate", meetingDate);
+        docs.values().removeIf(doc -> !Objects.equals(doc.get("status"), status));
+        return toMeetings(docs);
+    }
+
+    @Override
+    public void update(String meetingId, Map<String, Object> fields) {
+        if (!meetings.update(meetingId, fields)) {
+            throw new NoSuchElementException("No meeting " + meetingId);
+        }
+    }
+
+    @Override
+    public void delete(String meetingId) {
+        meetings.remove(meetingId);
+    }
+
+    private List<Meeting> toMeetings(Map<String, Map<String, Object>> docs) {
+        List<Meeting> result = new ArrayList<>();
+        docs.forEach((id, doc) -> result.add(toMeeting(id, doc)));
+        return result;
+    }
+
+    private Meeting toMeeting(String id, Map<String, Object> doc) {
+        Meeting meeting = DocumentMapper.toObject(doc, Meeting.class);
+        meeting.setId(id);
+        return meeting;
+    }
+}
@@ -0,0 +1,93 @@
+package main.repository.memory;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import main.dto.Page;
+import main.model.Notification;
+import main.repository.NotificationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryNotificationRepository implements NotificationRepository {
+
+    private final MemoryCollection notifications = new MemoryCollection("recipientId", "status");
+
+    @Override
+    public String newId() {
+        return MemoryCollection.newId();
+    }
+
+    @Override
+    public void saveAll(List<Map<String, Object>> batch) {
+        for (Map<String, Object> notification : batch) {
+            notifications.set((String) notification.get("id"), notification);
+        }
+    }
+
+    @Override
+    public List<Notification> findByRecipient(String recipientId, int limit) {
+        List<Notification> result = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : notifications.whereEqualTo("recipientId", recipientId).entrySet()) {
+            if (result.size() >= limit) break;
+            result.add(toNotification(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Notification> findByRecipientSince(String recipientId, Timestamp since, int limit) {
+        List<Notification> result = new ArrayList<>();
+        notifications.whereEqualTo("recipientId", recipientId).forEach((id, doc) -> {
+            if (doc.get("timestamp") instanceof Timestamp timestamp && timestamp.compareTo(since) > 0) {
+                result.add(toNotification(id, doc));
+            }
+        });
+        result.sort(Comparator.comparing(Notification::getTimestamp));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public Page<Notification> findPageByRecipient(String recipientId, int size, String cursor) {
+        return MemoryCollection.pageById(notifications.whereEqualTo("recipientId", recipientId), size, cursor,
+                this::toNotification);
+    }
+
+    @Override
+    public void updateStatus(String notificationId, String status) {
+        if (!notifications.update(notificationId, Map.of("status", status))) {
+            throw new NoSuchElementException("No notification " + notificationId);
+        }
+    }
+
+    @Override
+    public void delete(String notificationId) {
+        notifications.remove(notificationId);
+    }
+
+    @Override
+    public ApiFuture<Long> countByStatusAsync(String status) {
+        return ApiFutures.immediateFuture(notifications.countWhereEqualTo("status", status));
+    }
+
+    @Override
+    public ApiFuture<Long> countByRecipientAndStatusAsync(String recipientId, String status) {
+        return ApiFutures.immediateFuture(notifications.count(doc ->
+                Objects.equals(doc.get("recipientId"), recipientId) && Objects.equals(doc.get("status"), status)));
+    }
+
+    private Notification toNotification(String id, Map<String, Object> doc) {
+        Notification notification = DocumentMapper.toObject(doc, Notification.class);
+        notification.setId(id);
+        return notification;
+    }
+}
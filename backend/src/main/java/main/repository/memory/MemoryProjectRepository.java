@@ -0,0 +1,226 @@
+package main.repository.memory;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import main.dto.Page;
+import main.model.MediaRef;
+import main.model.Project;
+import main.model.ProjectStage;
+import main.model.ProjectSummary;
+import main.model.ProjectTeam;
+import main.repository.ProjectRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * One collection for every stage, indexed on the stage, client, manager, photographer and editor
+ * fields. The client is kept as the plain user ID the model carries. Writes that check the stage
+ * are synchronized with each other, so the check and the write happen as one step.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryProjectRepository implements ProjectRepository {
+
+    private final MemoryCollection projects = new MemoryCollection(STAGE, "clientId", "managerId", "photographers", "editors");
+    private final MemoryCollection legacyProjects = new MemoryCollection("clientId");
+    private final MemoryCollection teams = new MemoryCollection();
+
+    @Override
+    public Project findById(ProjectStage stage, String projectId) {
+        Map<String, Object> doc = projects.get(projectId);
+        return inStage(doc, stage) ? DocumentMapper.toObject(doc, Project.class) : null;
+    }
+
+    @Override
+    public boolean exists(ProjectStage stage, String projectId) {
+        return inStage(projects.get(projectId), stage);
+    }
+
+    @Override
+    public ProjectStage findStage(String projectId) {
+        Map<String, Object> doc = projects.get(projectId);
+        return doc != null && doc.get(STAGE) instanceof String stage ? ProjectStage.valueOf(stage) : null;
+    }
+
+    @Override
+    public String findClientId(ProjectStage stage, String projectId) {
+        Map<String, Object> doc = projects.get(projectId);
+        return inStage(doc, stage) ? (String) doc.get("clientId") : null;
+    }
+
+    @Override
+    public List<ProjectSummary> findSummaries(ProjectStage stage) {
+        return summaries(projects.whereEqualTo(STAGE, stage.name()));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByClient(ProjectStage stage, String clientId) {
+        return summaries(inStage(projects.whereEqualTo("clientId", clientId), stage));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByManager(ProjectStage stage, String managerId) {
+        return summaries(inStage(projects.whereEqualTo("managerId", managerId), stage));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByPhotographer(ProjectStage stage, String userId) {
+        return summaries(inStage(projects.whereArrayContains("photographers", userId), stage));
+    }
+
+    @Override
+    public List<ProjectSummary> findSummariesByEditor(ProjectStage stage, String userId) {
+        return summaries(inStage(projects.whereArrayContains("editors", userId), stage));
+    }
+
+    @Override
+    public List<Project> findByClient(ProjectStage stage, String clientId, int limit) {
+        List<Project> result = new ArrayList<>();
+        for (Map<String, Object> doc : inStage(projects.whereEqualTo("clientId", clientId), stage).values()) {
+            if (result.size() >= limit) break;
+            result.add(DocumentMapper.toObject(doc, Project.class));
+        }
+        return result;
+    }
+
+    @Override
+    public Page<Project> findPageByClient(ProjectStage stage, String clientId, int size, String cursor) {
+        return MemoryCollection.pageById(inStage(projects.whereEqualTo("clientId", clientId), stage), size, cursor,
+                (id, doc) -> DocumentMapper.toObject(doc, Project.class));
+    }
+
+    @Override
+    public String create(ProjectStage stage, Project project, String clientId) {
+        project.setId(MemoryCollection.newId());
+        project.setClientId(clientId);
+        project.setStage(stage);
+        projects.set(project.getId(), project);
+        return project.getId();
+    }
+
+    @Override
+    public synchronized boolean update(ProjectStage stage, String projectId, Map<String, Object> fields) {
+        return inStage(projects.get(projectId), stage) && projects.update(projectId, fields);
+    }
+
+    @Override
+    public synchronized boolean delete(ProjectStage stage, String projectId) {
+        return inStage(projects.get(projectId), stage) && projects.remove(projectId) != null;
+    }
+
+    @Override
+    public synchronized boolean transition(String projectId, ProjectStage from, ProjectStage to,
+                                           Map<String, Object> changes, Set<String> keepFields) {
+        ProjectStage.checkTransition(from, to);
+
+        Map<String, Object> doc = projects.get(projectId);
+        if (!inStage(doc, from)) {
+            return false;
+        }
+        if (keepFields != null) {
+            doc.keySet().retainAll(keepFields);
+        }
+        doc.putAll(changes);
+        doc.put(STAGE, to.name());
+        projects.set(projectId, doc);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MediaRef> findMedia(ProjectStage stage, String projectId, String field) {
+        Map<String, Object> doc = projects.get(projectId);
+        if (!inStage(doc, stage) || !(doc.get(field) instanceof List<?> raw)) {
+            return null;
+        }
+
+        List<MediaRef> refs = new ArrayList<>();
+        for (Object item : raw) {
+            if (item instanceof Map<?, ?> map) {
+                refs.add(DocumentMapper.toObject((Map<String, Object>) map, MediaRef.class));
+            }
+        }
+        return refs;
+    }
+
+    @Override
+    public synchronized boolean appendMedia(ProjectStage stage, String projectId, String field, List<MediaRef> media) {
+        Map<String, Object> doc = projects.get(projectId);
+        if (!inStage(doc, stage)) {
+            return false;
+        }
+        List<Object> items = new ArrayList<>();
+        if (doc.get(field) instanceof List<?> raw) {
+            items.addAll(raw);
+        }
+        items.addAll(media);
+        return projects.update(projectId, Map.of(field, items));
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync(ProjectStage stage) {
+        return ApiFutures.immediateFuture(projects.countWhereEqualTo(STAGE, stage.name()));
+    }
+
+    /**
+     * Nothing to migrate: this store never had a collection per stage.
+     */
+    @Override
+    public int migrateStageCollections() {
+        return 0;
+    }
+
+    @Override
+    public List<Project> findLegacyByClient(String clientId) {
+        List<Project> projects = new ArrayList<>();
+        for (Map<String, Object> doc : legacyProjects.whereEqualTo("clientId", clientId).values()) {
+            projects.add(DocumentMapper.toObject(doc, Project.class));
+        }
+        return projects;
+    }
+
+    @Override
+    public boolean replaceLegacy(Project project) {
+        if (!legacyProjects.exists(project.getId())) {
+            return false;
+        }
+        legacyProjects.set(project.getId(), project);
+        return true;
+    }
+
+    @Override
+    public String createTeam(ProjectTeam team) {
+        team.setId(MemoryCollection.newId());
+        teams.set(team.getId(), team);
+        return team.getId();
+    }
+
+    private static boolean inStage(Map<String, Object> doc, ProjectStage stage) {
+        return doc != null && stage.name().equals(doc.get(STAGE));
+    }
+
+    /**
+     * Narrows an index lookup (always a fresh copy) to the projects in {@code stage}.
+     */
+    private static NavigableMap<String, Map<String, Object>> inStage(NavigableMap<String, Map<String, Object>> docs,
+                                                                    ProjectStage stage) {
+        docs.values().removeIf(doc -> !inStage(doc, stage));
+        return docs;
+    }
+
+    private List<ProjectSummary> summaries(Map<String, Map<String, Object>> docs) {
+        List<ProjectSummary> projects = new ArrayList<>();
+        docs.forEach((id, doc) -> {
+            ProjectSummary project = DocumentMapper.toObject(doc, ProjectSummary.class);
+            project.setId(id);
+            projects.add(project);
+        });
+        return projects;
+    }
+}
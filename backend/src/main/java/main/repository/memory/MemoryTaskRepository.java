@@ -0,0 +1,114 @@
+package main.repository.memory;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import main.dto.Page;
+import main.model.Task;
+import main.model.TaskReply;
+import main.repository.TaskRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryTaskRepository implements TaskRepository {
+
+    private final MemoryCollection tasks = new MemoryCollection("userId", "projectId", "assignedToId", "status");
+    private final MemoryCollection replies = new MemoryCollection("taskId");
+
+    @Override
+    public Task findById(String taskId) {
+        return DocumentMapper.toObject(tasks.get(taskId), Task.class);
+    }
+
+    @Override
+    public ApiFuture<Task> findByIdAsync(String taskId) {
+        return ApiFutures.immediateFuture(findById(taskId));
+    }
+
+    @Override
+    public List<Task> findAll(int limit) {
+        return toTasks(tasks.first(limit));
+    }
+
+    @Override
+    public Page<Task> findPage(int size, String cursor) {
+        return tasks.page(size, cursor, (id, doc) -> DocumentMapper.toObject(doc, Task.class));
+    }
+
+    @Override
+    public List<Task> findByUser(String userId) {
+        return toTasks(tasks.whereEqualTo("userId", userId));
+    }
+
+    @Override
+    public List<Task> findByProject(String projectId) {
+        return toTasks(tasks.whereEqualTo("projectId", projectId));
+    }
+
+    @Override
+    public List<Task> findByAssignee(String assignedToId) {
+        return toTasks(tasks.whereEqualTo("assignedToId", assignedToId));
+    }
+
+    @Override
+    public String create(Task task) {
+        task.setId(MemoryCollection.newId());
+        tasks.set(task.getId(), task);
+        return task.getId();
+    }
+
+    @Override
+    public synchronized boolean replace(Task task) {
+        if (!tasks.exists(task.getId())) {
+            return false;
+        }
+        tasks.set(task.getId(), task);
+        return true;
+    }
+
+    @Override
+    public boolean delete(String taskId) {
+        return tasks.remove(taskId) != null;
+    }
+
+    @Override
+    public List<TaskReply> findReplies(String taskId) {
+        List<TaskReply> result = new ArrayList<>();
+        for (Map<String, Object> doc : replies.whereEqualTo("taskId", taskId).values()) {
+            result.add(DocumentMapper.toObject(doc, TaskReply.class));
+        }
+        result.sort(Comparator.comparing(r -> r.getTimestamp().toDate()));
+        return result;
+    }
+
+    @Override
+    public ApiFuture<String> addReplyAsync(TaskReply reply) {
+        String id = MemoryCollection.newId();
+        replies.set(id, reply);
+        return ApiFutures.immediateFuture(id);
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync() {
+        return ApiFutures.immediateFuture((long) tasks.size());
+    }
+
+    @Override
+    public ApiFuture<Long> countByStatusAsync(String status) {
+        return ApiFutures.immediateFuture(tasks.countWhereEqualTo("status", status));
+    }
+
+    private List<Task> toTasks(Map<String, Map<String, Object>> docs) {
+        List<Task> result = new ArrayList<>();
+        for (Map<String, Object> doc : docs.values()) {
+            result.add(DocumentMapper.toObject(doc, Task.class));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package main.repository.memory;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import main.dto.Page;
+import main.model.User;
+import main.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@ConditionalOnProperty(name = "app.datastore", havingValue = "memory")
+public class MemoryUserRepository implements UserRepository {
+
+    private final MemoryCollection users = new MemoryCollection("email", "role");
+
+    @Override
+    public User findById(String userId) {
+        return toUser(userId, users.get(userId));
+    }
+
+    @Override
+    public ApiFuture<User> findByIdAsync(String userId) {
+        return ApiFutures.immediateFuture(findById(userId));
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        Map.Entry<String, Map<String, Object>> first = users.whereEqualTo("email", email).firstEntry();
+        return first != null ? toUser(first.getKey(), first.getValue()) : null;
+    }
+
+    @Override
+    public String create(User user) {
+        user.setId(MemoryCollection.newId());
+        users.set(user.getId(), user);
+        return user.getId();
+    }
+
+    @Override
+    public boolean update(String userId, Map<String, Object> fields) {
+        return users.update(userId, fields);
+    }
+
+    @Override
+    public User delete(String userId) {
+        return toUser(userId, users.remove(userId));
+    }
+
+    @Override
+    public List<User> findAll(int limit) {
+        return toPublicUsers(users.first(limit));
+    }
+
+    @Override
+    public Page<User> findPage(int size, String cursor) {
+        return users.page(size, cursor, this::toPublicUser);
+    }
+
+    @Override
+    public List<User> findByRole(String role) {
+        return toPublicUsers(users.whereEqualTo("role", role));
+    }
+
+    @Override
+    public List<String> findIdsByRole(String role) {
+        return new ArrayList<>(users.whereEqualTo("role", role).keySet());
+    }
+
+    @Override
+    public Map<String, String> findNames(Collection<String> userIds) {
+        Map<String, String> names = new HashMap<>();
+        for (String id : userIds) {
+            Map<String, Object> doc = users.get(id);
+            if (doc != null) names.put(id, (String) doc.get("name"));
+        }
+        return names;
+    }
+
+    @Override
+    public ApiFuture<Long> countAsync() {
+        return ApiFutures.immediateFuture((long) users.size());
+    }
+
+    @Override
+    public ApiFuture<Long> countByRoleAsync(String role) {
+        return ApiFutures.immediateFuture(users.countWhereEqualTo("role", role));
+    }
+
+    private User toUser(String id, Map<String, Object> doc) {
+        User user = DocumentMapper.toObject(doc, User.class);
+        if (user != null && user.getId() == null) {
+            user.setId(id);
+        }
+        return user;
+    }
+
+    private User toPublicUser(String id, Map<String, Object> doc) {
+        User user = toUser(id, doc);
+        if (user != null) {
+            user.setPassword(null);
+        }
+        return user;
+    }
+
+    private List<User> toPublicUsers(Map<String, Map<String, Object>> docs) {
+        List<User> result = new ArrayList<>();
+        docs.forEach((id, doc) -> result.add(toPublicUser(id, doc)));
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package main.service;
+
+import com.google.cloud.Timestamp;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.model.ChatMessage;
+import main.repository.ChatRepository;
+import main.repository.ChatRepository.MessageWrite;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists chat messages off the STOMP thread.
+ *
+ * {@link #enqueue} assigns the message ID and its {@code sentAt} order, then returns, so the
+ * message can be delivered to both participants right away. A {@link WriteBehindQueue} hands
+ * each drained group to {@link ChatRepository#append}, which on Firestore is one batch: one
+ * write per message plus one merged summary write per conversation, with the unread counters
+ * incremented by the number of messages in the group. Failed batches are retried until they are
+ * committed, and whatever is unwritten at shutdown is spilled to
+ * {@code {file.upload-dir}/write-behind} and written on the next start.
+ *
+ * A message is readable through the history endpoints once its batch is committed, usually
+ * within a few milliseconds of being sent.
+ */
+@Service
+public class ChatMessageBuffer {
+
+    private static final int MAX_WRITES = 500; // Firestore limit per batch
+
+    private final ChatRepository chats;
+    private final UserDirectory userDirectory;
+    private final WriteBehindQueue<MessageWrite> queue;
+
+    // sentAt must be strictly increasing, otherwise messages sent in the same microsecond tie in history order
+    private final AtomicLong lastSentMicros = new AtomicLong();
+
+    public ChatMessageBuffer(ChatRepository chats, UserDirectory userDirectory,
+                             @Value("${chat.buffer.queue-capacity:10000}") int queueCapacity,
+                             @Value("${chat.buffer.batch-size:200}") int batchSize,
+                             @Value("${chat.buffer.offer-timeout-ms:2000}") long offerTimeoutMillis,
+                             @Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.chats = chats;
+        this.userDirectory = userDirectory;
+        // Worst case every message is in its own conversation: two writes each
+        this.queue = new WriteBehindQueue<>("chat-message-buffer", this::write, new SpillCodec(),
+                Paths.get(uploadDir).toAbsolutePath().normalize().resolve("write-behind"),
+                queueCapacity, Math.min(batchSize, MAX_WRITES / 2), offerTimeoutMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    /**
+     * Queues the message for persistence and fills in its ID.
+     */
+    public ChatMessage enqueue(ChatMessage message) throws InterruptedException {
+        String pairId = ChatRepository.conversationId(message.getSenderId(), message.getReceiverId());
+        message.setId(chats.newMessageId(pairId));
+
+        queue.offer(new MessageWrite(pairId, message, nextSentAt()));
+        return message;
+    }
+
+    public Map<String, Object> getStats() {
+        return queue.getStats();
+    }
+
+    private Timestamp nextSentAt() {
+        long now = System.currentTimeMillis() * 1000;
+        long micros = lastSentMicros.accumulateAndGet(now, (last, candidate) -> Math.max(last + 1, candidate));
+        return Timestamp.ofTimeMicroseconds(micros);
+    }
+
+    private void write(List<MessageWrite> pending) throws Exception {
+        chats.append(pending, names(pending));
+    }
+
+    private Map<String, String> names(List<MessageWrite> pending) {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (MessageWrite w : pending) {
+            userIds.add(w.getMessage().getSenderId());
+            userIds.add(w.getMessage().getReceiverId());
+        }
+        try {
+            return userDirectory.getNames(userIds);
+        } catch (Exception e) {
+            return Map.of(); // names are cosmetic; the next message for the conversation fills them in
+        }
+    }
+
+    private static final class SpillCodec implements WriteBehindQueue.Codec<MessageWrite> {
+        @Override
+        public Map<String, Object> encode(MessageWrite w) {
+            ChatMessage message = w.getMessage();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("conversationId", w.getConversationId());
+            fields.put("sentAtMicros", w.getSentAt().getSeconds() * 1_000_000 + w.getSentAt().getNanos() / 1_000);
+            fields.put("id", message.getId());
+            fields.put("senderId", message.getSenderId());
+            fields.put("receiverId", message.getReceiverId());
+            fields.put("content", message.getContent());
+            fields.put("timestamp", message.getTimestamp());
+            return fields;
+        }
+
+        @Override
+        public MessageWrite decode(Map<String, Object> fields) {
+            ChatMessage message = new ChatMessage((String) fields.get("senderId"), (String) fields.get("receiverId"),
+                    (String) fields.get("content"), (String) fields.get("timestamp"));
+            message.setId((String) fields.get("id"));
+            Timestamp sentAt = Timestamp.ofTimeMicroseconds(((Number) fields.get("sentAtMicros")).longValue());
+            return new MessageWrite((String) fields.get("conversationId"), message, sentAt);
+        }
+    }
+}
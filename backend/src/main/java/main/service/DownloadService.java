@@ -0,0 +1,331 @@
+package main.service;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends files and media blobs with everything browsers and video players need to avoid
+ * re-downloading: ETag and Last-Modified with 304 answers to conditional GETs, Cache-Control,
+ * and single and multi-range requests (206, multipart/byteranges for several ranges, 416 when
+ * none can be satisfied, If-Range).
+ *
+ * Bytes move with {@link FileChannel#transferTo}. For a plain file and a single range on
+ * Tomcat, the transfer is handed to Tomcat's sendfile support instead, so the file goes from
+ * the page cache to the socket without passing through the JVM at all.
+ *
+ * MIME types are looked up once per file extension and cached.
+ */
+@Service
+public class DownloadService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_RANGES = 16;
+
+    private final ServletContext servletContext;
+    private final long maxAgeSeconds;
+    private final Map<String, String> mimeTypes = new ConcurrentHashMap<>();
+
+    public DownloadService(ServletContext servletContext,
+                           @Value("${download.cache-max-age-seconds:3600}") long maxAgeSeconds) {
+        this.servletContext = servletContext;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code start} into {@code out}.
+     */
+    @FunctionalInterface
+    public interface RangeTransfer {
+        void transfer(long start, long length, WritableByteChannel out) throws IOException;
+    }
+
+    /**
+     * What to send. {@code file} is set when the bytes are one file on disk, which allows
+     * sendfile; {@code immutable} marks content-addressed data whose ETag never changes.
+     */
+    public static final class Download {
+        private final String fileName;
+        private final String contentType;
+        private final long length;
+        private final long lastModified;
+        private final String etag;
+        private final boolean immutable;
+        private final Path file;
+        private final RangeTransfer transfer;
+
+        public Download(String fileName, String contentType, long length, long lastModified, String etag,
+                        boolean immutable, Path file, RangeTransfer transfer) {
+            this.fileName = fileName;
+            this.contentType = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.immutable = immutable;
+            this.file = file;
+            this.transfer = transfer;
+        }
+    }
+
+    /**
+     * A file whose content can change: the ETag is derived from its size and modification time.
+     */
+    public Download file(Path file, String fileName) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        return new Download(fileName, mimeType(fileName), length, lastModified, etag, false, file,
+                (start, count, out) -> transferFile(file, start, count, out));
+    }
+
+    /**
+     * A file that never changes under {@code etag}, such as a rendition of a content-addressed blob.
+     */
+    public Download immutableFile(Path file, String fileName, String contentType, String etag) throws IOException {
+        return new Download(fileName, contentType, Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+                etag, true, file, (start, count, out) -> transferFile(file, start, count, out));
+    }
+
+    public String mimeType(String fileName) {
+        int lastDot = fileName != null ? fileName.lastIndexOf('.') : -1;
+        String extension = lastDot >= 0 ? fileName.substring(lastDot + 1).toLowerCase() : "";
+        return mimeTypes.computeIfAbsent(extension, ext -> {
+            String type = ext.isEmpty() ? null : servletContext.getMimeType("file." + ext);
+            return type != null ? type : DEFAULT_CONTENT_TYPE;
+        });
+    }
+
+    public void send(Download download, boolean attachment,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, download.etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, download.lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, download.immutable
+                ? "private, max-age=31536000, immutable"
+                : "private, max-age=" + maxAgeSeconds + ", must-revalidate");
+
+        if (!preconditionsHold(download, request)) {
+            response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+            return;
+        }
+        if (notModified(download, request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ContentDisposition.Builder disposition = attachment ? ContentDisposition.attachment() : ContentDisposition.inline();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                disposition.filename(download.fileName, StandardCharsets.UTF_8).build().toString());
+
+        List<long[]> ranges = ranges(download, request);
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + download.length);
+            return;
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges == null || ranges.size() == 1) {
+            long start = ranges == null ? 0 : ranges.get(0)[0];
+            long end = ranges == null ? download.length - 1 : ranges.get(0)[1];
+            long length = end - start + 1;
+            if (ranges != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + download.length);
+            }
+            response.setContentType(download.contentType);
+            response.setContentLengthLong(length);
+            if (head || length == 0) return;
+
+            if (download.file != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, download.file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            ServletOutputStream out = response.getOutputStream();
+            download.transfer.transfer(start, length, Channels.newChannel(out));
+            return;
+        }
+
+        // Several ranges: multipart/byteranges
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + "Content-Type: " + download.contentType + "\r\n"
+                    + "Content-Range: bytes " + range[0] + "-" + range[1] + "/" + download.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (range[1] - range[0] + 1);
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) return;
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            download.transfer.transfer(range[0], range[1] - range[0] + 1, channel);
+        }
+        out.write(closing);
+    }
+
+    public static void transferFile(Path file, long start, long length, WritableByteChannel out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, length, out);
+        }
+    }
+
+    /**
+     * transferTo may move fewer bytes than asked, so loop until the range is done.
+     */
+    public static void transfer(FileChannel channel, long start, long length, WritableByteChannel out) throws IOException {
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                throw new EOFException("File ended before the requested range");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private static boolean preconditionsHold(Download download, HttpServletRequest request) {
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch != null) {
+            return etagMatches(ifMatch, download.etag, false);
+        }
+        long ifUnmodifiedSince = dateHeader(request, HttpHeaders.IF_UNMODIFIED_SINCE);
+        return ifUnmodifiedSince < 0 || download.lastModified / 1000 <= ifUnmodifiedSince / 1000;
+    }
+
+    private static boolean notModified(Download download, HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, download.etag, true);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && download.lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * The requested ranges as inclusive [start, end] pairs; null to send the whole body (no
+     * Range header, a stale If-Range, or a header we ignore), empty if none is satisfiable.
+     */
+    private static List<long[]> ranges(Download download, HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(download.etag)) return null;
+            } else {
+                long date = dateHeader(request, HttpHeaders.IF_RANGE);
+                if (date < 0 || download.lastModified / 1000 != date / 1000) return null;
+            }
+        }
+
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        long length = download.length;
+        try {
+            for (String spec : specs) {
+                spec = spec.trim();
+                int dash = spec.indexOf('-');
+                if (dash < 0) return null;
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+
+                long start;
+                long end;
+                if (first.isEmpty()) {
+                    long suffix = Long.parseLong(last); // last N bytes
+                    if (suffix <= 0) continue;
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(first);
+                    end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                    if (last.length() > 0 && Long.parseLong(last) < start) return null;
+                }
+                if (start < length && start <= end) {
+                    ranges.add(new long[]{start, end});
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return ranges;
+    }
+
+    private static boolean etagMatches(String header, String etag, boolean weak) {
+        if (header.trim().equals("*")) return true;
+        String target = weak ? stripWeak(etag) : etag;
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (weak) {
+                value = stripWeak(value);
+            } else if (value.startsWith("W/")) {
+                continue; // strong comparison never matches a weak tag
+            }
+            if (value.equals(target)) return true;
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1; // not a date
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package main.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -8,6 +10,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
@@ -21,7 +25,7 @@ public class EmailService {
         message.setText(body);
 
         mailSender.send(message);
-        System.out.println("📧 Reset code sent to: " + toEmail);
+        log.info("Reset code sent to: {}", toEmail);
     }
 
     public void sendTwoFactorCode(String toEmail, String code) {
@@ -34,7 +38,7 @@ public class EmailService {
         message.setText(body);
 
         mailSender.send(message);
-        System.out.println("📧 Reset code sent to: " + toEmail);
+        log.info("Reset code sent to: {}", toEmail);
     }
 
     public void sendWelcomeEmail(String toEmail, String name) {
@@ -58,7 +62,7 @@ public class EmailService {
         message.setText(body);
 
         mailSender.send(message);
-        System.out.println("📧 Welcome email sent to: " + toEmail);
+        log.info("Welcome email sent to: {}", toEmail);
     }
 
     public void sendEmail(String toEmail, String subject, String body) {
@@ -68,7 +72,7 @@ public class EmailService {
         message.setText(body);
 
         mailSender.send(message);
-        System.out.println("📧 Custom email sent to: " + toEmail);
+        log.info("Custom email sent to: {}", toEmail);
     }
 
 
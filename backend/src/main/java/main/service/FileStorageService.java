@@ -8,6 +8,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,8 +32,16 @@ public class FileStorageService {
     }
 
     public String storeFile(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return storeFile(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
+
+    public String storeFile(InputStream in, String fileName) {
         // Normalize file name
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        String originalFileName = StringUtils.cleanPath(fileName);
         
         try {
             // Check if the file's name contains invalid characters
@@ -49,7 +58,7 @@ public class FileStorageService {
             
             // Copy file to the target location (Replacing existing file with the same name)
             Path targetLocation = this.fileStorageLocation.resolve(newFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(in, targetLocation, StandardCopyOption.REPLACE_EXISTING);
 
             return newFileName;
         } catch (IOException ex) {
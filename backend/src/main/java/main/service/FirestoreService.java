@@ -2,58 +2,116 @@ package main.service;
 
 import com.google.api.core.ApiFuture;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.*;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.cloud.FirestoreClient;
+import main.dto.Page;
 import main.dto.ProjectResponse;
 import main.model.*;
+import main.repository.ChatRepository;
+import main.repository.CredentialRepository;
+import main.repository.FeedbackRepository;
+import main.repository.InvoiceRepository;
+import main.repository.MeetingRepository;
+import main.repository.NotificationRepository;
+import main.repository.ProjectRepository;
+import main.repository.TaskRepository;
+import main.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
+/**
+ * Application-level operations over the repositories in {@code main.repository}.
+ *
+ * The datastore behind them is chosen with {@code app.datastore}: {@code firestore} (the default)
+ * or {@code memory}, an in-process store for tests, benchmarks and local runs.
+ */
 @Service
 public class FirestoreService {
 
-    private static final String USER_COLLECTION = "users";
-    private static final String TOKEN_COLLECTION = "reset_tokens";
-    private static final String PROJECT_COLLECTION = "projects";
-    private static final String TASK_COLLECTION = "tasks";
-    private static final String INVOICE_COLLECTION = "invoices";
-    private static final String PORTFOLIO_COLLECTION = "portfolios";
-    private static final String MESSAGES_COLLECTION = "messages";
-    private static final String NOTIFICATION_COLLECTION = "notifications";
-
-    private final Firestore db;
+    private static final Logger log = LoggerFactory.getLogger(FirestoreService.class);
+
+    private static final long REMEMBER_DEVICE_MILLIS = 30L * 24 * 60 * 60 * 1000; // 30 days
+
+    // What the active → finished move carries over; everything else (raw media, managerId, ...) is dropped
+    private static final Set<String> FINISHED_PROJECT_FIELDS = Set.of(
+            "title", "description", "requirements", "creationDate", "endDate", "price", "type",
+            "userId", "clientId", "projectTeamId", "photographers", "editors", "assignedAt", "finalMedia"
+    );
+
+    private final UserRepository users;
+    private final CredentialRepository credentials;
+    private final ProjectRepository projects;
+    private final TaskRepository tasks;
+    private final InvoiceRepository invoices;
+    private final NotificationRepository notifications;
+    private final MeetingRepository meetings;
+    private final FeedbackRepository feedback;
+    private final ChatRepository chats;
+    private final MediaStorageService mediaStorage;
+    private final UserDirectory userDirectory;
+    private final UserRoleIndex roleIndex;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ChatMessageBuffer chatMessageBuffer;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int unpagedCap;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    public FirestoreService(FirebaseApp firebaseApp) {
-        this.db = FirestoreClient.getFirestore(firebaseApp);
+    public FirestoreService(UserRepository users, CredentialRepository credentials,
+                            ProjectRepository projects, TaskRepository tasks,
+                            InvoiceRepository invoices, NotificationRepository notifications,
+                            MeetingRepository meetings, FeedbackRepository feedback,
+                            ChatRepository chats, MediaStorageService mediaStorage,
+                            UserDirectory userDirectory, UserRoleIndex roleIndex,
+                            NotificationDispatcher notificationDispatcher,
+                            ChatMessageBuffer chatMessageBuffer,
+                            @Value("${listing.default-page-size:50}") int defaultPageSize,
+                            @Value("${listing.max-page-size:200}") int maxPageSize,
+                            @Value("${listing.unpaged-cap:1000}") int unpagedCap) {
+        this.users = users;
+        this.credentials = credentials;
+        this.projects = projects;
+        this.tasks = tasks;
+        this.invoices = invoices;
+        this.notifications = notifications;
+        this.meetings = meetings;
+        this.feedback = feedback;
+        this.chats = chats;
+        this.mediaStorage = mediaStorage;
+        this.userDirectory = userDirectory;
+        this.roleIndex = roleIndex;
+        this.notificationDispatcher = notificationDispatcher;
+        this.chatMessageBuffer = chatMessageBuffer;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.unpagedCap = unpagedCap;
+    }
+
+    // ----------------- Paging -----------------
+
+    /**
+     * Page size for a client-supplied {@code limit}: the default when absent, clamped to [1, max].
+     */
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
     }
 
     // ----------------- User Auth & Management -----------------
 
     public boolean userExists(String email) throws ExecutionException, InterruptedException {
-        return getUserDocByEmail(email) != null;
+        return users.findByEmail(email) != null;
     }
 
     public String saveUser(User user) throws ExecutionException, InterruptedException {
@@ -63,260 +121,186 @@ public class FirestoreService {
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        DocumentReference docRef = db.collection(USER_COLLECTION).document();
-        user.setId(docRef.getId());
-
-        docRef.set(user).get();
-        System.out.println("Saving user to Firestore with ID: " + user.getId());
+        users.create(user);
+        roleIndex.invalidate(user.getRole());
+        log.info("Saving user with ID: {}", user.getId());
 
         return "User registered with ID: " + user.getId();
     }
 
     public void updateUserFields(String email, User updatedUser) throws ExecutionException, InterruptedException {
-        DocumentSnapshot userDoc = getUserDocByEmail(email);
-        if (userDoc != null) {
-            DocumentReference docRef = userDoc.getReference();
-
+        User user = users.findByEmail(email);
+        if (user != null) {
             Map<String, Object> updates = new HashMap<>();
             if (updatedUser.getName() != null) updates.put("name", updatedUser.getName());
             if (updatedUser.getSurname() != null) updates.put("surname", updatedUser.getSurname());
             if (updatedUser.getPhone() != null) updates.put("phone", updatedUser.getPhone());
 
             if (!updates.isEmpty()) {
-                docRef.update(updates).get();
-                System.out.println("✅ Updated fields for: " + email);
+                users.update(user.getId(), updates);
+                userDirectory.invalidate(user.getId());
+                log.info("Updated fields for: {}", email);
             } else {
-                System.out.println("⚠️ No updatable fields found in request.");
+                log.warn("No updatable fields found in request.");
             }
         } else {
-            System.out.println("❌ User not found: " + email);
+            log.warn("User not found: {}", email);
         }
     }
 
-
     public boolean validateUser(String email, String rawPassword) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = getUserDocByEmail(email);
-        if (doc != null) {
-            User user = doc.toObject(User.class);
-            if (user != null) {
-                System.out.println("🔍 Email: " + email);
-                System.out.println("🔍 Input password: " + rawPassword);
-                System.out.println("🔍 Stored hash: " + user.getPassword());
-                boolean match = passwordEncoder.matches(rawPassword, user.getPassword());
-                System.out.println("✅ Match result: " + match);
-                return match;
-            }
+        User user = users.findByEmail(email);
+        if (user != null) {
+            boolean match = passwordEncoder.matches(rawPassword, user.getPassword());
+            return match;
         }
         return false;
     }
 
     public User getUserByEmail(String email) throws ExecutionException, InterruptedException {
-        System.out.println("🔎 Searching for user: " + email);
-        DocumentSnapshot doc = getUserDocByEmail(email);
-        if (doc != null) {
-            System.out.println("✅ User found: " + doc.getId());
-            return doc.toObject(User.class);
+        log.debug("Searching for user: {}", email);
+        User user = users.findByEmail(email);
+        if (user != null) {
+            log.debug("User found: {}", user.getId());
         } else {
-            System.out.println("❌ No user doc found for email: " + email);
-            return null;
+            log.debug("No user doc found for email: {}", email);
         }
+        return user;
     }
 
     public User getUserById(String userId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("users").document(userId).get().get();
-        if (doc.exists()) {
-            return doc.toObject(User.class);
-        }
-        return null;
+        return users.findById(userId);
     }
 
-
-    private DocumentSnapshot getUserDocByEmail(String email) throws ExecutionException, InterruptedException {
-        CollectionReference users = db.collection(USER_COLLECTION);
-        Query query = users.whereEqualTo("email", email);
-        QuerySnapshot snapshot = query.get().get();
-
-        if (!snapshot.isEmpty()) {
-            return snapshot.getDocuments().get(0);
-        }
-        return null;
+    public ApiFuture<User> getUserByIdAsync(String userId) {
+        return users.findByIdAsync(userId);
     }
 
     public void updateUserPassword(String email, String newPassword) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = getUserDocByEmail(email);
-        if (doc != null) {
-            doc.getReference().update("password", newPassword);
-            System.out.println("✅ Updated password for: " + email);
-            System.out.println("🔐 Raw new password: " + newPassword);
+        User user = users.findByEmail(email);
+        if (user != null) {
+            users.update(user.getId(), Map.of("password", newPassword));
+            log.info("Updated password for: {}", email);
         }
 
     }
 
     public String getUserEmailById(String userId) throws Exception {
-        DocumentSnapshot snapshot = db.collection("users").document(userId).get().get();
-        if (!snapshot.exists()) return null;
-        return snapshot.getString("email");
+        User user = users.findById(userId);
+        return user != null ? user.getEmail() : null;
     }
 
     // ----------------- Password Reset Tokens -----------------
 
     public void saveResetCode(String email, String code, long expiresAt) throws ExecutionException, InterruptedException {
-        Map<String, Object> data = Map.of(
-                "email", email,
-                "code", code,
-                "expiresAt", expiresAt
-        );
-
-        db.collection("reset_codes").document(email).set(data).get();
+        credentials.saveResetCode(email, new VerificationCode(code, expiresAt));
     }
 
-    public DocumentSnapshot getResetCode(String email) throws ExecutionException, InterruptedException {
-        return db.collection("reset_codes").document(email).get().get();
+    public VerificationCode getResetCode(String email) throws ExecutionException, InterruptedException {
+        return credentials.findResetCode(email);
     }
 
     public void deleteResetCode(String email) throws ExecutionException, InterruptedException {
-        db.collection("reset_codes").document(email).delete().get();
-        System.out.println("🗑️ Reset code deleted for: " + email);
+        credentials.deleteResetCode(email);
+        log.info("Reset code deleted for: {}", email);
     }
     // ----------------- Admin Operations -----------------
 
     public List<User> getAllUsers() throws ExecutionException, InterruptedException {
-        List<User> users = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(USER_COLLECTION).get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            User user = doc.toObject(User.class);
-            if (user != null) {
-                // Don't send password hash to frontend
-                user.setPassword(null);
-                users.add(user);
-            }
-        }
+        List<User> result = users.findAll(unpagedCap);
+        log.debug("Retrieved {} users", result.size());
+        return result;
+    }
 
-        System.out.println("✅ Retrieved " + users.size() + " users");
-        return users;
+    public Page<User> getUsersPage(Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return users.findPage(pageSize(limit), cursor);
+    }
+
+    public List<User> getUsersByRole(String role) throws ExecutionException, InterruptedException {
+        return users.findByRole(role);
+    }
+
+    public List<String> getManagerIds() throws ExecutionException, InterruptedException {
+        return roleIndex.getManagerIds();
     }
 
     public boolean updateUserRole(String userId, String newRole) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(USER_COLLECTION).document(userId);
-        DocumentSnapshot doc = docRef.get().get();
+        User user = users.findById(userId);
 
-        if (doc.exists()) {
-            docRef.update("role", newRole).get();
-            System.out.println("✅ Updated role for user " + userId + " to " + newRole);
+        if (user != null && users.update(userId, Map.of("role", newRole))) {
+            roleIndex.invalidate(user.getRole());
+            roleIndex.invalidate(newRole);
+            log.info("Updated role for user {} to {}", userId, newRole);
             return true;
         } else {
-            System.out.println("❌ User not found: " + userId);
+            log.warn("User not found: {}", userId);
             return false;
         }
     }
 
     public boolean deleteUser(String userId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(USER_COLLECTION).document(userId);
-        DocumentSnapshot doc = docRef.get().get();
+        User deleted = users.delete(userId);
 
-        if (doc.exists()) {
-            docRef.delete().get();
-            System.out.println("✅ Deleted user: " + userId);
+        if (deleted != null) {
+            userDirectory.invalidate(userId);
+            roleIndex.invalidate(deleted.getRole());
+            log.info("Deleted user: {}", userId);
             return true;
         } else {
-            System.out.println("❌ User not found: " + userId);
+            log.warn("User not found: {}", userId);
             return false;
         }
     }
 
-    public Map<String, Object> getSystemStats() throws ExecutionException, InterruptedException {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Count total users
-        QuerySnapshot userSnapshot = db.collection(USER_COLLECTION).get().get();
-        long totalUsers = userSnapshot.size();
-
-        // Count admin users
-        QuerySnapshot adminSnapshot = db.collection(USER_COLLECTION)
-                .whereEqualTo("role", "a")
-                .get().get();
-        long adminUsers = adminSnapshot.size();
-
-        stats.put("totalUsers", totalUsers);
-        stats.put("adminUsers", adminUsers);
-        stats.put("regularUsers", totalUsers - adminUsers);
-
-        return stats;
-    }
-
     public User findByEmail(String email) throws ExecutionException, InterruptedException {
-        CollectionReference usersRef = db.collection("users");
-        Query query = usersRef.whereEqualTo("email", email);
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-
-        List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
-        if (documents.isEmpty()) return null;
-
-        return documents.get(0).toObject(User.class);
+        return users.findByEmail(email);
     }
 
     // ----------------- Project Operations -----------------
 
-    public List<Project> getAllPendingProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("pending_projects").get().get();
+    public Project getProject(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        return projects.findById(stage, projectId);
+    }
 
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                project.setId(doc.getId()); // ✅ THIS LINE FIXES ID
-                projects.add(project);
-            }
-        }
+    /**
+     * The user ID of the project's client, or null if the project or its client is missing.
+     */
+    public String getProjectClientId(ProjectStage stage, String projectId) throws ExecutionException, InterruptedException {
+        return projects.findClientId(stage, projectId);
+    }
 
-        return projects;
+    public List<ProjectSummary> getAllPendingProjects() throws ExecutionException, InterruptedException {
+        return projects.findSummaries(ProjectStage.PENDING);
     }
 
     public boolean deletePendingProject(String projectId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection("pending_projects").document(projectId);
-        DocumentSnapshot doc = docRef.get().get();
-
-        if (doc.exists()) {
-            docRef.delete().get();
-            System.out.println("✅ Deleted pending project: " + projectId);
+        if (projects.delete(ProjectStage.PENDING, projectId)) {
+            log.info("Deleted pending project: {}", projectId);
             return true;
         } else {
-            System.out.println("❌ Pending project not found: " + projectId);
+            log.warn("Pending project not found: {}", projectId);
             return false;
         }
     }
 
     public boolean movePendingProjectToActive(String projectId) {
         try {
-            System.out.println("🔍 Starting move for project: " + projectId);
+            log.debug("Starting move for project: {}", projectId);
 
-            DocumentReference pendingRef = db.collection("pending_projects").document(projectId);
-            DocumentSnapshot pendingSnapshot = pendingRef.get().get();
+            Map<String, Object> changes = new HashMap<>();
+            changes.put("state", 1);
+            changes.put("status", "active");
+            changes.put("assignedAt", Instant.now().toString());
 
-            if (!pendingSnapshot.exists()) {
-                System.out.println("❌ Pending project not found: " + projectId);
+            if (!projects.transition(projectId, ProjectStage.PENDING, ProjectStage.ACTIVE, changes, null)) {
+                log.warn("Pending project not found: {}", projectId);
                 return false;
             }
 
-            Map<String, Object> projectData = new HashMap<>(pendingSnapshot.getData());
-
-            projectData.put("state", 1);
-            projectData.put("status", "active");
-            projectData.put("assignedAt", Instant.now().toString());
-
-            DocumentReference activeRef = db.collection("active_projects").document(projectId);
-            WriteResult result = activeRef.set(projectData).get();
-
-            System.out.println("✅ Firestore write complete at: " + result.getUpdateTime());
-
-            pendingRef.delete().get();
-            System.out.println("✅ Deleted pending project: " + projectId);
-
+            log.info("Moved pending project to active: {}", projectId);
             return true;
         } catch (Exception e) {
-            System.out.println("❌ Exception while moving project to active:");
-            e.printStackTrace();
+            log.error("Failed to move pending project {} to active", projectId, e);
             return false;
         }
     }
@@ -324,14 +308,6 @@ public class FirestoreService {
 
     public boolean updatePendingProjectDetails(String projectId, List<String> photographers, List<String> editors, String price, String managerId) {
         try {
-            DocumentReference pendingRef = db.collection("pending_projects").document(projectId);
-            DocumentSnapshot pendingSnapshot = pendingRef.get().get();
-
-            if (!pendingSnapshot.exists()) {
-                System.out.println("❌ Pending project not found: " + projectId);
-                return false;
-            }
-
             Map<String, Object> updates = new HashMap<>();
             updates.put("photographers", photographers);
             updates.put("editors", editors);
@@ -340,470 +316,218 @@ public class FirestoreService {
             updates.put("assignedAt", Instant.now().toString());
             updates.put("state", 0);  // state 1 → photographer phase
 
+            if (!projects.update(ProjectStage.PENDING, projectId, updates)) {
+                log.warn("Pending project not found: {}", projectId);
+                return false;
+            }
 
-            pendingRef.update(updates).get();
-
-            System.out.println("✅ Pending project updated with photographers, editors, and price: " + projectId);
+            log.info("Pending project updated with photographers, editors, and price: {}", projectId);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("updatePendingProjectDetails failed", e);
             return false;
         }
     }
 
 
-    public List<Project> getAllActiveProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("active_projects").get().get();
+    public List<ProjectSummary> getAllActiveProjects() throws ExecutionException, InterruptedException {
+        List<ProjectSummary> result = projects.findSummaries(ProjectStage.ACTIVE);
+        log.debug("Retrieved {} active projects", result.size());
+        return result;
+    }
 
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                project.setId(doc.getId()); // ✅ THIS LINE FIXES ID
-                projects.add(project);
-            }
+    public List<ProjectResponse> getActiveProjectsForUser(String userId, String role) throws ExecutionException, InterruptedException {
+        return toResponsesWithNames(getProjectsByUserFromCollectionS("active_projects", userId, role));
+    }
 
+    private List<ProjectResponse> toResponsesWithNames(List<ProjectSummary> projects) throws ExecutionException, InterruptedException {
+        // Resolve every photographer/editor across all projects in one directory lookup
+        Set<String> staffIds = new HashSet<>();
+        for (ProjectSummary project : projects) {
+            if (project.getPhotographers() != null) staffIds.addAll(project.getPhotographers());
+            if (project.getEditors() != null) staffIds.addAll(project.getEditors());
         }
+        Map<String, String> names = userDirectory.getNames(staffIds);
 
-        System.out.println("✅ Retrieved " + projects.size() + " active projects");
-        return projects;
-    }
-
-    public List<ProjectResponse> getActiveProjectsForUser(String userId, String role) throws ExecutionException, InterruptedException {
         List<ProjectResponse> userProjects = new ArrayList<>();
+        for (ProjectSummary project : projects) {
+            ProjectResponse response = new ProjectResponse(project);
 
-        ApiFuture<QuerySnapshot> querySnapshot = db.collection("active_projects").get();
-        List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
-
-        for (QueryDocumentSnapshot doc : documents) {
-            Project project = doc.toObject(Project.class);
-
-            boolean isPhotographer = role.equals("p") && project.getPhotographers() != null && project.getPhotographers().contains(userId);
-            boolean isEditor = role.equals("e") && project.getEditors() != null && project.getEditors().contains(userId);
-            boolean isManager = role.equals("m") && userId.equals(project.getmanagerId());
-
-            if (isPhotographer || isEditor || isManager) {
-                ProjectResponse response = new ProjectResponse(project);
-                response.setId(project.getId());
-                response.setTitle(project.getTitle());
-                response.setDescription(project.getDescription());
-                response.setRequirements(project.getRequirements());
-                response.setCreationDate(project.getCreationDate());
-                response.setEndDate(project.getEndDate());
-                response.setPrice(project.getPrice());
-                response.setStatus(project.getStatus());
-                response.setType(project.getType());
-                response.setUserId(project.getmanagerId());
-                response.setProjectTeamId(project.getProjectTeamId());
-                response.setState(project.getState());
-                response.setAssignedAt(project.getAssignedAt());
-
-                // Replace photographer/editor IDs with names
-                List<String> photographerNames = getUserNamesByIds(project.getPhotographers());
-                List<String> editorNames = getUserNamesByIds(project.getEditors());
-
-                response.setPhotographers(photographerNames);
-                response.setEditors(editorNames);
-
-                userProjects.add(response);
-            }
+            // Replace photographer/editor IDs with names
+            response.setPhotographers(namesFor(project.getPhotographers(), names));
+            response.setEditors(namesFor(project.getEditors(), names));
+
+            userProjects.add(response);
         }
 
         return userProjects;
     }
 
 
-    private List<String> getUserNamesByIds(List<String> userIds) throws ExecutionException, InterruptedException {
-        List<String> names = new ArrayList<>();
-        if (userIds == null) return names;
+    private List<String> namesFor(List<String> userIds, Map<String, String> names) {
+        List<String> result = new ArrayList<>();
+        if (userIds == null) return result;
 
         for (String id : userIds) {
-            DocumentSnapshot userDoc = db.collection("users").document(id).get().get();
-            if (userDoc.exists()) {
-                String name = userDoc.getString("name");
-                names.add(name != null ? name : id); // fallback to ID if name is missing
+            if (names.containsKey(id)) {
+                String name = names.get(id);
+                result.add(name != null ? name : id); // fallback to ID if name is missing
             }
         }
-        return names;
+        return result;
     }
 
 
-    public List<Project> getAllFinishedProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("finished_projects").get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                project.setId(doc.getId()); // ✅ THIS LINE FIXES ID
-                projects.add(project);
-            }
-
-        }
-
-        System.out.println("✅ Retrieved " + projects.size() + " finished projects");
-        return projects;
+    public List<ProjectSummary> getAllFinishedProjects() throws ExecutionException, InterruptedException {
+        List<ProjectSummary> result = projects.findSummaries(ProjectStage.FINISHED);
+        log.debug("Retrieved {} finished projects", result.size());
+        return result;
     }
 
     public List<ProjectResponse> getFinishedProjectsForUser(String userId, String role) throws ExecutionException, InterruptedException {
-        List<ProjectResponse> userProjects = new ArrayList<>();
-
-        ApiFuture<QuerySnapshot> querySnapshot = db.collection("finished_projects").get();
-        List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
-
-        for (QueryDocumentSnapshot doc : documents) {
-            Project project = doc.toObject(Project.class);
-
-            boolean isPhotographer = role.equals("p") && project.getPhotographers() != null && project.getPhotographers().contains(userId);
-            boolean isEditor = role.equals("e") && project.getEditors() != null && project.getEditors().contains(userId);
-
-            if (isPhotographer || isEditor) {
-                ProjectResponse response = new ProjectResponse(project);
-                response.setId(project.getId());
-                response.setTitle(project.getTitle());
-                response.setDescription(project.getDescription());
-                response.setRequirements(project.getRequirements());
-                response.setCreationDate(project.getCreationDate());
-                response.setEndDate(project.getEndDate());
-                response.setPrice(project.getPrice());
-                response.setStatus(project.getStatus());
-                response.setType(project.getType());
-                response.setUserId(project.getmanagerId());
-                response.setProjectTeamId(project.getProjectTeamId());
-                response.setState(project.getState());
-                response.setAssignedAt(project.getAssignedAt());
-
-                // Replace photographer/editor IDs with names
-                List<String> photographerNames = getUserNamesByIds(project.getPhotographers());
-                List<String> editorNames = getUserNamesByIds(project.getEditors());
-
-                response.setPhotographers(photographerNames);
-                response.setEditors(editorNames);
-
-                userProjects.add(response);
-            }
+        // Finished work is only listed for the photographers and editors on it
+        if (!role.equals("p") && !role.equals("e")) {
+            return new ArrayList<>();
         }
-
-        return userProjects;
+        return toResponsesWithNames(getProjectsByUserFromCollectionS("finished_projects", userId, role));
     }
 
     public List<Project> getProjectsByUserFromCollection(String collectionName, String userId) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        CollectionReference ref = db.collection(collectionName);
-        Query query = ref.whereEqualTo("clientId", db.collection("users").document(userId));
-        QuerySnapshot snapshot = query.get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
-        }
+        return projects.findByClient(ProjectStage.fromCollection(collectionName), userId, unpagedCap);
+    }
+
+    public Page<Project> getProjectsPageByClient(String collectionName, String userId, Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return projects.findPageByClient(ProjectStage.fromCollection(collectionName), userId, pageSize(limit), cursor);
+    }
 
-        return projects;
+    public List<ProjectSummary> getProjectSummariesByClient(String collectionName, String userId) throws ExecutionException, InterruptedException {
+        return projects.findSummariesByClient(ProjectStage.fromCollection(collectionName), userId);
     }
 
-    public List<Project> getProjectsByUserFromCollectionS(String collectionName, String userId, String role) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        CollectionReference ref = db.collection(collectionName);
-        Query query;
+    public List<ProjectSummary> getProjectsByUserFromCollectionS(String collectionName, String userId, String role) throws ExecutionException, InterruptedException {
+        ProjectStage stage = ProjectStage.fromCollection(collectionName);
 
         switch (role) {
             case "m":
-                query = ref.whereEqualTo("managerId", userId);
-                break;
+                return projects.findSummariesByManager(stage, userId);
             case "p":
-                query = ref.whereArrayContains("photographers", userId);
-                break;
+                return projects.findSummariesByPhotographer(stage, userId);
             case "e":
-                query = ref.whereArrayContains("editors", userId);
-                break;
+                return projects.findSummariesByEditor(stage, userId);
             default:
                 // Fallback to avoid error if role is not one of the expected
-                return projects;
-        }
-
-        QuerySnapshot snapshot = query.get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                project.setId(doc.getId()); // include document ID
-                projects.add(project);
-            }
+                return new ArrayList<>();
         }
-
-        return projects;
     }
 
-
-    public List<Project> getPendingProjectsForClient(String clientId) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("pending_projects")
-                .whereEqualTo("clientId", db.collection("users").document(clientId))
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
-        }
-
-        return projects;
-    }
-
-    public List<Project> getActiveProjectsForClient(String clientId) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("active_projects")
-                .whereEqualTo("clientId", db.collection("users").document(clientId))
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
-        }
-
-        return projects;
-    }
-
-    public List<Project> getFinishedProjectsForClient(String clientId) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("finished_projects")
-                .whereEqualTo("clientId", db.collection("users").document(clientId))
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
-        }
-
-        return projects;
-    }
-
-    public void attachMediaToProject(String projectId, List<MultipartFile> files) throws Exception {
-        DocumentReference projectRef = db.collection("active_projects").document(projectId);
-        DocumentSnapshot projectSnap = projectRef.get().get();
-
-        if (!projectSnap.exists()) {
+    public List<MediaRef> attachMediaToProject(String projectId, List<MultipartFile> files) throws Exception {
+        if (!projects.exists(ProjectStage.ACTIVE, projectId)) {
             throw new Exception("Project not found");
         }
 
-        List<Map<String, String>> mediaList = new ArrayList<>();
+        // Bytes go to the blob store, the project only keeps small references
+        List<MediaRef> mediaList = new ArrayList<>();
         for (MultipartFile file : files) {
-            String base64 = Base64.getEncoder().encodeToString(file.getBytes());
-
-            Map<String, String> mediaItem = new HashMap<>();
-            mediaItem.put("fileName", file.getOriginalFilename());
-            mediaItem.put("content", base64);
-
-            mediaList.add(mediaItem);
+            try (InputStream in = file.getInputStream()) {
+                mediaList.add(mediaStorage.store(in, file.getOriginalFilename(), file.getContentType()));
+            }
         }
 
         // Store under a 'media' field inside the project
         Map<String, Object> updates = new HashMap<>();
-        updates.put("media", mediaList);
+        updates.put(ProjectRepository.MEDIA, mediaList);
 
-        projectRef.update(updates).get();
-        System.out.println("✅ Attached media to project: " + projectId);
-    }
-
-    public void attachFinalMediaToProject(String projectId, List<MultipartFile> files, boolean applyWatermark) throws Exception {
-        DocumentReference projectRef = db.collection("active_projects").document(projectId);
-        DocumentSnapshot projectSnap = projectRef.get().get();
-
-        if (!projectSnap.exists()) {
+        if (!projects.update(ProjectStage.ACTIVE, projectId, updates)) {
             throw new Exception("Project not found");
         }
-
-        List<Map<String, String>> finalMediaList = new ArrayList<>();
-        for (MultipartFile file : files) {
-            String originalFilename = Objects.requireNonNull(file.getOriginalFilename());
-            String extension = "";
-            int lastDot = originalFilename.lastIndexOf('.');
-            if (lastDot > 0 && lastDot < originalFilename.length() - 1) {
-                extension = originalFilename.substring(lastDot + 1).toLowerCase();
-            }
-
-            System.out.println("🔍 Processing file: " + originalFilename + " | Extension: " + extension);
-
-            byte[] fileBytes = file.getBytes();
-
-            if (applyWatermark && (extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg"))) {
-                System.out.println("💧 Applying watermark to image: " + originalFilename);
-                try {
-                    fileBytes = addWatermarkToImage(fileBytes, "Studio21", extension);
-                } catch (Exception e) {
-                    System.out.println("⚠️ Failed to watermark image: " + originalFilename + " | " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-
-            String base64 = Base64.getEncoder().encodeToString(fileBytes);
-
-            Map<String, String> mediaItem = new HashMap<>();
-            mediaItem.put("fileName", originalFilename);
-            mediaItem.put("content", base64);
-
-            finalMediaList.add(mediaItem);
-            System.out.println("✅ Added media: " + originalFilename);
-        }
-
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("finalMedia", finalMediaList);
-
-        projectRef.update(updates).get();
-        System.out.println("🎉 Final media successfully attached to project: " + projectId);
-    }
-
-
-    private byte[] addWatermarkToImage(byte[] originalImageBytes, String watermarkText, String format) throws IOException {
-        System.out.println("🖼️ Starting watermarking process");
-
-        ByteArrayInputStream inStream = new ByteArrayInputStream(originalImageBytes);
-        BufferedImage image = ImageIO.read(inStream);
-
-        if (image == null) {
-            System.out.println("❌ ImageIO.read() failed – image is null.");
-            throw new IOException("Failed to read image for watermarking.");
-        }
-
-        Graphics2D g2d = image.createGraphics();
-        AlphaComposite alphaChannel = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
-        g2d.setComposite(alphaChannel);
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 48));
-
-        FontMetrics fontMetrics = g2d.getFontMetrics();
-        int x = image.getWidth() - fontMetrics.stringWidth(watermarkText) - 20;
-        int y = image.getHeight() - fontMetrics.getHeight() + 40;
-
-        g2d.drawString(watermarkText, x, y);
-        g2d.dispose();
-
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        String outputFormat = (format != null && (format.equals("jpg") || format.equals("jpeg") || format.equals("png"))) ? format : "png";
-
-        ImageIO.write(image, outputFormat, outStream);
-        System.out.println("✅ Watermarking complete. Format used: " + outputFormat);
-
-        return outStream.toByteArray();
+        log.info("Attached media to project: {}", projectId);
+        return mediaList;
     }
 
-    public List<Map<String, String>> getFinalMediaForProject(String projectId) throws Exception {
-        DocumentSnapshot doc = db.collection("finished_projects").document(projectId).get().get();
-        if (!doc.exists() || !doc.contains("finalMedia")) {
+    public List<MediaRef> getFinalMediaForProject(String projectId) throws Exception {
+        List<MediaRef> media = projects.findMedia(ProjectStage.FINISHED, projectId, ProjectRepository.FINAL_MEDIA);
+        if (media == null) {
             throw new Exception("No final media found for project " + projectId);
         }
-
-        return (List<Map<String, String>>) doc.get("finalMedia");
+        return media;
     }
 
-    public Firestore getDb() {
-        return db;
+    /**
+     * Finds a media reference on an active or finished project, so downloads can only
+     * reach blobs that actually belong to the requested project.
+     */
+    public MediaRef findProjectMedia(String projectId, String mediaId) throws Exception {
+        ProjectStage stage = projects.findStage(projectId);
+        if (stage != ProjectStage.ACTIVE && stage != ProjectStage.FINISHED) {
+            return null;
+        }
+        for (String field : List.of(ProjectRepository.MEDIA, ProjectRepository.FINAL_MEDIA)) {
+            List<MediaRef> media = projects.findMedia(stage, projectId, field);
+            if (media == null) continue;
+            for (MediaRef ref : media) {
+                if (mediaId.equals(ref.getId())) {
+                    return ref;
+                }
+            }
+        }
+        return null;
     }
 
     public boolean moveActiveProjectToFinished(String projectId) {
         try {
-            DocumentReference activeRef = db.collection("active_projects").document(projectId);
-            DocumentSnapshot activeSnapshot = activeRef.get().get();
+            if (!projects.exists(ProjectStage.ACTIVE, projectId)) {
+                log.warn("Active project not found: {}", projectId);
+                return false;
+            }
 
-            if (!activeSnapshot.exists()) {
-                System.out.println("❌ Active project not found: " + projectId);
+            if (projects.findMedia(ProjectStage.ACTIVE, projectId, ProjectRepository.FINAL_MEDIA) == null) {
+                log.warn("No final media found for project: {}", projectId);
                 return false;
             }
 
-            Map<String, Object> activeData = activeSnapshot.getData();
+            Map<String, Object> changes = new HashMap<>();
+            changes.put("id", projectId);
+            changes.put("status", "finished");
+            changes.put("state", 3);
 
-            if (activeData == null || !activeData.containsKey("finalMedia")) {
-                System.out.println("❌ No final media found for project: " + projectId);
+            if (!projects.transition(projectId, ProjectStage.ACTIVE, ProjectStage.FINISHED, changes, FINISHED_PROJECT_FIELDS)) {
+                log.warn("Active project not found: {}", projectId);
                 return false;
             }
 
-            Map<String, Object> finishedData = new HashMap<>();
-            finishedData.put("id", projectId);
-            finishedData.put("title", activeData.get("title"));
-            finishedData.put("description", activeData.get("description"));
-            finishedData.put("requirements", activeData.get("requirements"));
-            finishedData.put("creationDate", activeData.get("creationDate"));
-            finishedData.put("endDate", activeData.get("endDate"));
-            finishedData.put("price", activeData.get("price"));
-            finishedData.put("status", "finished");
-            finishedData.put("type", activeData.get("type"));
-            finishedData.put("userId", activeData.get("userId"));
-            finishedData.put("clientId", activeData.get("clientId"));
-            finishedData.put("projectTeamId", activeData.get("projectTeamId"));
-            finishedData.put("state", 3);
-            finishedData.put("photographers", activeData.get("photographers"));
-            finishedData.put("editors", activeData.get("editors"));
-            finishedData.put("assignedAt", activeData.get("assignedAt"));
-            finishedData.put("finalMedia", activeData.get("finalMedia"));
-
-
-            // Save to finished_projects
-            DocumentReference finishedRef = db.collection("finished_projects").document(projectId);
-            finishedRef.set(finishedData).get();
-
-            // Delete from active_projects
-            activeRef.delete().get();
-
-            System.out.println("✅ Moved project " + projectId + " to finished_projects.");
+            log.info("Moved project {} to finished_projects.", projectId);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("moveActiveProjectToFinished failed", e);
             return false;
         }
     }
 
     public void revertProjectToPhotographing(String projectId) throws Exception {
-        Firestore db = FirestoreClient.getFirestore();
-        DocumentReference ref = db.collection("active_projects").document(projectId);
-        ref.update("state", 1).get();
+        updateActiveProjectState(projectId, 1);
     }
 
-    public List<Map<String, String>> getMediaForProject(String projectId) throws Exception {
-        DocumentSnapshot doc = db.collection("active_projects").document(projectId).get().get();
-        if (!doc.exists() || !doc.contains("media")) {
-            throw new Exception("No media found for project " + projectId);
+    /**
+     * Sets the workflow state of an active project. Fails if the project doesn't exist.
+     */
+    public void updateActiveProjectState(String projectId, int state) throws Exception {
+        if (!projects.update(ProjectStage.ACTIVE, projectId, Map.of("state", state))) {
+            throw new Exception("Active project not found with ID: " + projectId);
         }
-
-        return (List<Map<String, String>>) doc.get("media");
     }
 
-    public List<Project> getAllProjects() throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(PROJECT_COLLECTION).get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
+    public List<MediaRef> getMediaForProject(String projectId) throws Exception {
+        List<MediaRef> media = projects.findMedia(ProjectStage.ACTIVE, projectId, ProjectRepository.MEDIA);
+        if (media == null) {
+            throw new Exception("No media found for project " + projectId);
         }
-
-        System.out.println("✅ Retrieved " + projects.size() + " projects");
-        return projects;
+        return media;
     }
 
     public List<Project> getProjectsByUser(String userId) throws ExecutionException, InterruptedException {
-        List<Project> projects = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(PROJECT_COLLECTION)
-                .whereEqualTo("clientId", userId)
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Project project = doc.toObject(Project.class);
-            if (project != null) {
-                projects.add(project);
-            }
-        }
-
-        System.out.println("✅ Retrieved " + projects.size() + " projects for user " + userId);
-        return projects;
+        List<Project> result = projects.findLegacyByClient(userId);
+        log.debug("Retrieved {} projects for user {}", result.size(), userId);
+        return result;
     }
 
     public List<Project> getProjectsByUserId(String userId) throws ExecutionException, InterruptedException {
@@ -812,74 +536,42 @@ public class FirestoreService {
     }
 
     public String getClientIdByProjectId(String projectId) throws Exception {
-        // Step 1: Get the project document
-        DocumentReference projectRef = db.collection("active_projects").document(projectId);
-        DocumentSnapshot projectSnapshot = projectRef.get().get();
-
-        if (!projectSnapshot.exists()) {
+        if (!projects.exists(ProjectStage.ACTIVE, projectId)) {
             throw new Exception("Project not found for ID: " + projectId);
         }
 
-        // Step 2: Extract client reference
-        DocumentReference clientRef = (DocumentReference) projectSnapshot.get("clientId");
-
-
-        if (clientRef == null) {
+        String clientId = projects.findClientId(ProjectStage.ACTIVE, projectId);
+        if (clientId == null) {
             throw new Exception("Client reference is missing in the project.");
         }
 
-        // Step 3: Dereference to get the actual user document
-        DocumentSnapshot clientSnapshot = clientRef.get().get();
-
-        if (!clientSnapshot.exists()) {
+        // Make sure the client still exists
+        if (users.findById(clientId) == null) {
             throw new Exception("Client document not found.");
         }
 
-        // Step 4: Return client ID
-        return clientSnapshot.getId();
+        return clientId;
     }
 
     public void createProject(Project project, String clientId) throws ExecutionException, InterruptedException {
         project.setStatus("pending");
         project.setState(-1);
-        project.setClientId(db.collection("users").document(clientId)); // Convert to DocumentReference
         project.setCreationDate(Instant.now().toString());
 
-        DocumentReference docRef = db.collection("pending_projects").document();
-        project.setId(docRef.getId());
-
-        docRef.set(project).get();
+        projects.create(ProjectStage.PENDING, project, clientId);
     }
 
     public boolean updateProject(Project project) throws ExecutionException, InterruptedException {
         if (project.getId() == null) {
-            System.out.println("❌ Cannot update project with null ID");
+            log.warn("Cannot update project with null ID");
             return false;
         }
 
-        DocumentReference docRef = db.collection(PROJECT_COLLECTION).document(project.getId());
-        DocumentSnapshot doc = docRef.get().get();
-
-        if (doc.exists()) {
-            docRef.set(project).get();  // Overwrite entire project
-            System.out.println("✅ Updated project: " + project.getId());
-            return true;
-        } else {
-            System.out.println("❌ Project not found: " + project.getId());
-            return false;
-        }
-    }
-
-    public boolean deleteProject(String projectId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(PROJECT_COLLECTION).document(projectId);
-        DocumentSnapshot doc = docRef.get().get();
-
-        if (doc.exists()) {
-            docRef.delete().get();
-            System.out.println("✅ Deleted project: " + projectId);
+        if (projects.replaceLegacy(project)) {  // Overwrite entire project
+            log.info("Updated project: {}", project.getId());
             return true;
         } else {
-            System.out.println("❌ Project not found: " + projectId);
+            log.warn("Project not found: {}", project.getId());
             return false;
         }
     }
@@ -887,152 +579,89 @@ public class FirestoreService {
     // ----------------- Task Operations -----------------
 
     public List<Task> getAllTasks() throws ExecutionException, InterruptedException {
-        List<Task> tasks = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(TASK_COLLECTION).get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Task task = doc.toObject(Task.class);
-            if (task != null) {
-                tasks.add(task);
-            }
-        }
+        List<Task> result = tasks.findAll(unpagedCap);
+        log.debug("Retrieved {} tasks", result.size());
+        return result;
+    }
 
-        System.out.println("✅ Retrieved " + tasks.size() + " tasks");
-        return tasks;
+    public Page<Task> getTasksPage(Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return tasks.findPage(pageSize(limit), cursor);
     }
 
     public List<Task> getTasksByUser(String userId) throws ExecutionException, InterruptedException {
-        List<Task> tasks = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(TASK_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Task task = doc.toObject(Task.class);
-            if (task != null) {
-                tasks.add(task);
-            }
-        }
-
-        System.out.println("✅ Retrieved " + tasks.size() + " tasks for user " + userId);
-        return tasks;
+        List<Task> result = tasks.findByUser(userId);
+        log.debug("Retrieved {} tasks for user {}", result.size(), userId);
+        return result;
     }
 
     public List<Task> getTasksByProject(String projectId) throws ExecutionException, InterruptedException {
-        List<Task> tasks = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(TASK_COLLECTION)
-                .whereEqualTo("projectId", projectId)
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Task task = doc.toObject(Task.class);
-            if (task != null) {
-                tasks.add(task);
-            }
-        }
-
-        System.out.println("✅ Retrieved " + tasks.size() + " tasks for project " + projectId);
-        return tasks;
+        List<Task> result = tasks.findByProject(projectId);
+        log.debug("Retrieved {} tasks for project {}", result.size(), projectId);
+        return result;
     }
 
     public List<Task> getTasksAssignedToUser(String assignedToId) throws ExecutionException, InterruptedException {
-        List<Task> tasks = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(TASK_COLLECTION)
-                .whereEqualTo("assignedToId", assignedToId)
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Task task = doc.toObject(Task.class);
-            if (task != null) {
-                tasks.add(task);
-            }
-        }
-
-        System.out.println("✅ Retrieved " + tasks.size() + " tasks assigned to user " + assignedToId);
-        return tasks;
+        List<Task> result = tasks.findByAssignee(assignedToId);
+        log.debug("Retrieved {} tasks assigned to user {}", result.size(), assignedToId);
+        return result;
     }
 
     public Task getTaskById(String taskId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection(TASK_COLLECTION).document(taskId).get().get();
-        if (doc.exists()) {
-            System.out.println("✅ Retrieved task: " + taskId);
-            return doc.toObject(Task.class);
-        } else {
-            System.out.println("❌ Task not found: " + taskId);
-            return null;
-        }
+        return getTaskByIdAsync(taskId).get();
     }
 
-    public String createTask(Task task) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(TASK_COLLECTION).document();
-        task.setId(docRef.getId());
+    public ApiFuture<Task> getTaskByIdAsync(String taskId) {
+        return tasks.findByIdAsync(taskId);
+    }
 
+    public String createTask(Task task) throws ExecutionException, InterruptedException {
         // Set creation and update timestamps
         Date now = new Date();
         task.setCreatedAt(now);
         task.setUpdatedAt(now);
 
-        docRef.set(task).get();
-        System.out.println("✅ Created task: " + task.getId());
+        tasks.create(task);
+        log.info("Created task: {}", task.getId());
 
         return task.getId();
     }
 
     public boolean updateTask(Task task) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(TASK_COLLECTION).document(task.getId());
-        DocumentSnapshot doc = docRef.get().get();
+        // Update the timestamp
+        task.setUpdatedAt(new Date());
 
-        if (doc.exists()) {
-            // Update the timestamp
-            task.setUpdatedAt(new Date());
-
-            docRef.set(task).get();
-            System.out.println("✅ Updated task: " + task.getId());
+        if (tasks.replace(task)) {
+            log.info("Updated task: {}", task.getId());
             return true;
         } else {
-            System.out.println("❌ Task not found: " + task.getId());
+            log.warn("Task not found: {}", task.getId());
             return false;
         }
     }
 
-    // Collection name
-    private static final String TASK_REPLY_COLLECTION = "task_reply";
-
     // Fetch replies for a task
     public List<TaskReply> getRepliesForTask(String taskId) throws Exception {
-        List<TaskReply> replies = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection("task_replies")
-                .whereEqualTo("taskId", taskId)
-                .get()
-                .get();
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            TaskReply r = doc.toObject(TaskReply.class);
-            replies.add(r);
-        }
-        // now sort locally:
-        replies.sort(Comparator.comparing(r -> r.getTimestamp().toDate()));
-        return replies;
+        return tasks.findReplies(taskId);
     }
 
-    public void addReply(String taskId, String userId, String message) throws Exception {
-        Map<String,Object> data = new HashMap<>();
-        data.put("taskId",   taskId);
-        data.put("userId",   userId);
-        data.put("message",  message);
-        data.put("timestamp", new Date());
-        db.collection("task_replies").add(data).get();
+    /**
+     * Stores the reply and completes with its ID.
+     */
+    public ApiFuture<String> addReplyAsync(String taskId, String userId, String message) {
+        TaskReply reply = new TaskReply();
+        reply.setTaskId(taskId);
+        reply.setUserId(userId);
+        reply.setMessage(message);
+        reply.setTimestamp(Timestamp.now());
+        return tasks.addReplyAsync(reply);
     }
 
     public boolean deleteTask(String taskId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(TASK_COLLECTION).document(taskId);
-        DocumentSnapshot doc = docRef.get().get();
-
-        if (doc.exists()) {
-            docRef.delete().get();
-            System.out.println("✅ Deleted task: " + taskId);
+        if (tasks.delete(taskId)) {
+            log.info("Deleted task: {}", taskId);
             return true;
         } else {
-            System.out.println("❌ Task not found: " + taskId);
+            log.warn("Task not found: {}", taskId);
             return false;
         }
     }
@@ -1045,12 +674,7 @@ public class FirestoreService {
         invoiceData.put("amount", amountCents / 100);
         invoiceData.put("createdAt", Instant.now().toString());
 
-        // Add the invoice and get the generated reference
-        DocumentReference docRef = db.collection("invoices").add(invoiceData).get();
-
-        // Update the same document to include the invoiceId
-        db.collection("invoices").document(docRef.getId())
-                .update("invoiceId", docRef.getId());
+        invoices.create(invoiceData);
     }
 
 
@@ -1060,253 +684,126 @@ public class FirestoreService {
         invoiceData.put("amount", data.get("amount"));
         invoiceData.put("createdAt", Instant.now().toString());
 
-        // Add the invoice and get the generated document reference
-        DocumentReference docRef = db.collection(INVOICE_COLLECTION).add(invoiceData).get();
-
-        // Update the document to include the generated invoiceId field
-        db.collection(INVOICE_COLLECTION).document(docRef.getId())
-                .update("invoiceId", docRef.getId());
-
-        return docRef.getId();
+        return invoices.create(invoiceData);
     }
 
 
 
     public boolean updateInvoice(String invoiceId, Map<String, Object> updatedData) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(INVOICE_COLLECTION).document(invoiceId);
-        DocumentSnapshot snapshot = docRef.get().get();
-
-        if (snapshot.exists()) {
-            docRef.set(updatedData).get();
-            return true;
-        }
-        return false;
+        return invoices.replace(invoiceId, updatedData);
     }
 
     public boolean deleteInvoice(String invoiceId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(INVOICE_COLLECTION).document(invoiceId);
-        DocumentSnapshot snapshot = docRef.get().get();
-
-        if (snapshot.exists()) {
-            docRef.delete().get();
-            return true;
-        }
-        return false;
+        return invoices.delete(invoiceId);
     }
 
     public Map<String, Object> getInvoiceById(String invoiceId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot snapshot = db.collection(INVOICE_COLLECTION).document(invoiceId).get().get();
-        if (snapshot.exists()) {
-            Map<String, Object> data = snapshot.getData();
-            if (data != null) data.put("invoiceId", snapshot.getId());
-            return data;
-        }
-        return null;
+        return invoices.findById(invoiceId);
     }
 
     public List<Map<String, Object>> getAllInvoices() throws ExecutionException, InterruptedException {
-        List<Map<String, Object>> invoices = new ArrayList<>();
-        ApiFuture<QuerySnapshot> future = db.collection(INVOICE_COLLECTION).get();
-        for (DocumentSnapshot doc : future.get().getDocuments()) {
-            Map<String, Object> invoice = doc.getData();
-            if (invoice != null) {
-                invoice.put("invoiceId", doc.getId());
-                invoices.add(invoice);
-            }
-        }
-        return invoices;
+        return invoices.findAll(unpagedCap);
     }
 
-    public List<Map<String, Object>> getInvoicesByClientId(String clientId) throws ExecutionException, InterruptedException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        ApiFuture<QuerySnapshot> future = db.collection(INVOICE_COLLECTION)
-                .whereEqualTo("clientId", clientId)
-                .get();
-        for (DocumentSnapshot doc : future.get().getDocuments()) {
-            Map<String, Object> invoice = doc.getData();
-            if (invoice != null) {
-                invoice.put("invoiceId", doc.getId());
-                results.add(invoice);
-            }
-        }
-        return results;
+    public Page<Map<String, Object>> getInvoicesPage(Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return invoices.findPage(pageSize(limit), cursor);
     }
 
-    // Portfolio related methods
-    public List<Portfolio> getAllPortfolios() throws ExecutionException, InterruptedException {
-        List<Portfolio> portfolios = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(PORTFOLIO_COLLECTION).get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Portfolio portfolio = doc.toObject(Portfolio.class);
-            if (portfolio != null) {
-                portfolios.add(portfolio);
-            }
-        }
-
-        System.out.println("✅ Retrieved " + portfolios.size() + " portfolios");
-        return portfolios;
+    public List<Map<String, Object>> getInvoicesByClientId(String clientId) throws ExecutionException, InterruptedException {
+        return invoices.findByClient(clientId);
     }
 
-    public List<Portfolio> getPortfoliosByUser(String userId) throws ExecutionException, InterruptedException {
-        List<Portfolio> portfolios = new ArrayList<>();
-        QuerySnapshot snapshot = db.collection(PORTFOLIO_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .get().get();
-
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
-            Portfolio portfolio = doc.toObject(Portfolio.class);
-            if (portfolio != null) {
-                portfolios.add(portfolio);
-            }
-        }
+    // ----------------- Chat -----------------
 
-        System.out.println("✅ Retrieved " + portfolios.size() + " portfolios for user: " + userId);
-        return portfolios;
+    /**
+     * Hands the message to the chat write-behind buffer and returns it with its ID set.
+     */
+    public ChatMessage saveMessage(ChatMessage message) throws InterruptedException {
+        return chatMessageBuffer.enqueue(message);
     }
 
-    public Portfolio getPortfolioById(String portfolioId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection(PORTFOLIO_COLLECTION).document(portfolioId).get().get();
-        if (doc.exists()) {
-            Portfolio portfolio = doc.toObject(Portfolio.class);
-            System.out.println("✅ Retrieved portfolio: " + portfolioId);
-            return portfolio;
-        }
-        System.out.println("❌ Portfolio not found: " + portfolioId);
-        return null;
+    /**
+     * Newest-first page of the conversation between two users.
+     */
+    public Page<ChatMessage> getMessageHistory(String user1, String user2, Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return chats.findHistory(ChatRepository.conversationId(user1, user2), pageSize(limit), cursor);
     }
 
-    public String createPortfolio(Portfolio portfolio) throws ExecutionException, InterruptedException {
-        try {
-            // Validate the portfolio object
-            if (portfolio == null) {
-                throw new IllegalArgumentException("Portfolio object cannot be null");
-            }
-
-            // If no ID is provided, generate one
-            if (portfolio.getId() == null || portfolio.getId().isEmpty()) {
-                String portfolioId = UUID.randomUUID().toString();
-                portfolio.setId(portfolioId);
-            }
-
-            // Create document reference with the portfolio ID
-            DocumentReference docRef = db.collection(PORTFOLIO_COLLECTION).document(portfolio.getId());
-
-            // Save the portfolio
-            ApiFuture<WriteResult> result = docRef.set(portfolio);
-            result.get(); // Wait for completion
-
-            System.out.println("✅ Created portfolio with ID: " + portfolio.getId());
-            return portfolio.getId();
-        } catch (Exception e) {
-            System.err.println("❌ Error creating portfolio: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+    /**
+     * Oldest-first list for clients that still load a whole thread; only the newest {@code unpagedCap} messages.
+     */
+    public List<ChatMessage> getMessagesBetweenUsers(String user1, String user2) throws ExecutionException, InterruptedException {
+        return chats.findLatest(ChatRepository.conversationId(user1, user2), unpagedCap);
     }
 
-    public boolean updatePortfolio(Portfolio portfolio) throws ExecutionException, InterruptedException {
-        if (portfolio == null || portfolio.getId() == null || portfolio.getId().isEmpty()) {
-            return false;
-        }
-
-        DocumentReference docRef = db.collection(PORTFOLIO_COLLECTION).document(portfolio.getId());
-        DocumentSnapshot doc = docRef.get().get();
-
-        if (doc.exists()) {
-            docRef.set(portfolio).get();
-            System.out.println("✅ Updated portfolio: " + portfolio.getId());
-            return true;
-        }
-
-        System.out.println("❌ Portfolio not found for update: " + portfolio.getId());
-        return false;
+    /**
+     * The user's conversations, most recently active first, straight from the summary documents.
+     */
+    public Page<Map<String, Object>> getConversationsPage(String userId, Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return toConversations(chats.findConversations(userId, pageSize(limit), cursor), userId);
     }
 
-    public boolean deletePortfolio(String portfolioId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(PORTFOLIO_COLLECTION).document(portfolioId);
-        DocumentSnapshot doc = docRef.get().get();
+    /**
+     * Unpaged list for the message center; up to {@code unpagedCap} conversations.
+     */
+    public List<Map<String, Object>> getUserConversations(String userId) throws ExecutionException, InterruptedException {
+        return toConversations(chats.findConversations(userId, unpagedCap, null), userId).getItems();
+    }
 
-        if (doc.exists()) {
-            docRef.delete().get();
-            System.out.println("✅ Deleted portfolio: " + portfolioId);
-            return true;
+    private Page<Map<String, Object>> toConversations(Page<Map<String, Object>> page, String userId) {
+        List<Map<String, Object>> conversations = new ArrayList<>();
+        for (Map<String, Object> summary : page.getItems()) {
+            conversations.add(toConversation(summary, userId));
         }
-
-        System.out.println("❌ Portfolio not found for deletion: " + portfolioId);
-        return false;
+        return new Page<>(conversations, page.getNextCursor());
     }
 
-    public void saveMessage(ChatMessage message) throws ExecutionException, InterruptedException {
-        db.collection(MESSAGES_COLLECTION).add(message);
+    public void markConversationRead(String userId, String contactId) throws ExecutionException, InterruptedException {
+        chats.markRead(ChatRepository.conversationId(userId, contactId), userId);
     }
 
-    public List<ChatMessage> getMessagesBetweenUsers(String user1, String user2) throws ExecutionException, InterruptedException {
-        List<ChatMessage> result = new ArrayList<>();
-
-        // Combine messages where (sender=user1 AND receiver=user2) OR (sender=user2 AND receiver=user1)
-        CollectionReference messagesRef = db.collection("messages");
-
-        List<ApiFuture<QuerySnapshot>> futures = List.of(
-                messagesRef.whereEqualTo("senderId", user1).whereEqualTo("receiverId", user2).get(),
-                messagesRef.whereEqualTo("senderId", user2).whereEqualTo("receiverId", user1).get()
-        );
-
-        for (ApiFuture<QuerySnapshot> future : futures) {
-            for (DocumentSnapshot doc : future.get().getDocuments()) {
-                result.add(doc.toObject(ChatMessage.class));
-            }
-        }
-
-        // Sort by timestamp
-        result.sort(Comparator.comparing(ChatMessage::getTimestamp));
-        return result;
+    /**
+     * One-off move of the old flat {@code messages} collection into conversations; see
+     * {@link ChatRepository#migrateLegacyMessages}.
+     */
+    public int migrateLegacyMessages() throws Exception {
+        return chats.migrateLegacyMessages(userDirectory::getNames);
     }
 
+    /**
+     * One-off move of the per-stage project collections into the shared one; see
+     * {@link ProjectRepository#migrateStageCollections}.
+     */
+    public int migrateProjectStages() throws Exception {
+        return projects.migrateStageCollections();
+    }
 
-    public List<Map<String, Object>> getUserConversations(String userId) throws ExecutionException, InterruptedException {
-        List<Map<String, Object>> conversations = new ArrayList<>();
-        Set<String> contactIds = new HashSet<>();
-
-        List<ChatMessage> allMessages = new ArrayList<>();
-        allMessages.addAll(getMessagesByField("senderId", userId));
-        allMessages.addAll(getMessagesByField("receiverId", userId));
-
-        for (ChatMessage msg : allMessages) {
-            String contactId = msg.getSenderId().equals(userId) ? msg.getReceiverId() : msg.getSenderId();
-            contactIds.add(contactId);
-        }
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toConversation(Map<String, Object> summary, String userId) {
+        List<String> participants = (List<String>) summary.get("participants");
+        String contactId = participants == null ? null : participants.stream()
+                .filter(id -> !id.equals(userId))
+                .findFirst()
+                .orElse(userId); // a note-to-self conversation
 
-        for (String contactId : contactIds) {
-            DocumentSnapshot contactDoc = db.collection("users").document(contactId).get().get();
-            String contactName = contactDoc.exists() ? contactDoc.getString("name") : "Unknown";
-            Map<String, Object> conv = new HashMap<>();
-            conv.put("id", contactId);
-            conv.put("contactName", contactName);
-            conv.put("messages", new ArrayList<>()); // Filled later when selected
-            conversations.add(conv);
-        }
+        Map<String, Object> names = (Map<String, Object>) summary.get("participantNames");
+        Object contactName = names != null ? names.get(contactId) : null;
+        Map<String, Object> unread = (Map<String, Object>) summary.get("unread");
+        Object unreadCount = unread != null ? unread.get(userId) : null;
 
-        return conversations;
+        Map<String, Object> conv = new HashMap<>();
+        conv.put("id", contactId);
+        conv.put("contactName", contactName != null ? contactName : "Unknown");
+        conv.put("lastMessage", summary.get("lastMessage"));
+        conv.put("unread", unreadCount instanceof Number n ? n.longValue() : 0L);
+        conv.put("messages", new ArrayList<>()); // Filled later when selected
+        return conv;
     }
 
-    private List<ChatMessage> getMessagesByField(String field, String value) throws ExecutionException, InterruptedException {
-        List<ChatMessage> messages = new ArrayList<>();
-        ApiFuture<QuerySnapshot> future = db.collection("messages").whereEqualTo(field, value).get();
-        for (DocumentSnapshot doc : future.get().getDocuments()) {
-            ChatMessage m = doc.toObject(ChatMessage.class);
-            if (m != null) messages.add(m);
-        }
-        return messages;
-    }
-
-
     public String createProjectTeam(ProjectTeam team) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection("project_teams").document();
-        team.setId(docRef.getId()); // Optional: set ID in model
-        docRef.set(team).get();
-        System.out.println("✅ Created project team with ID: " + docRef.getId());
-        return docRef.getId();
+        String id = projects.createTeam(team);
+        log.info("Created project team with ID: {}", id);
+        return id;
     }
 
     public void sendPaymentNotification(String projectId, String clientId, String clientEmail, String paymentUrl) throws Exception {
@@ -1321,15 +818,12 @@ public class FirestoreService {
         notification.put("status", "unread");
 
         // Get project title for message
-        DocumentSnapshot projectSnapshot = db.collection("pending_projects").document(projectId).get().get();
-        String projectTitle = projectSnapshot.exists() ? projectSnapshot.getString("title") : "your project";
+        Project project = projects.findById(ProjectStage.PENDING, projectId);
+        String projectTitle = project != null ? project.getTitle() : "your project";
         notification.put("message", "Please complete your payment for project \"" + projectTitle + "\".");
 
-        // Add notification and retrieve its ID
-        DocumentReference ref = db.collection("notifications").add(notification).get();
-        String id = ref.getId();
-
-        ref.update("id", id).get();
+        // The dispatcher assigns the document ID up front and stores it in the "id" field
+        notificationDispatcher.enqueue(notification);
     }
 
     public void sendGeneralNotification(String recipientId, String message, String type) throws Exception {
@@ -1339,7 +833,17 @@ public class FirestoreService {
         notification.put("type", type);
         notification.put("timestamp", new Date());
         notification.put("status", "unread");
-        db.collection("notifications").add(notification).get();
+        notificationDispatcher.enqueue(notification);
+    }
+
+    /**
+     * Queues the same notification for every recipient. Returns once all of them are accepted by the dispatcher.
+     */
+    public void sendGeneralNotifications(Collection<String> recipientIds, String message, String type) throws Exception {
+        if (recipientIds == null) return;
+        for (String recipientId : recipientIds) {
+            sendGeneralNotification(recipientId, message, type);
+        }
     }
 
     public void sendSpecificNotification(String recipientId, String message, String type, String projectId) throws Exception {
@@ -1350,42 +854,34 @@ public class FirestoreService {
         notification.put("type", type);
         notification.put("timestamp", new Date());
         notification.put("status", "unread");
-        db.collection("notifications").add(notification).get();
+        notificationDispatcher.enqueue(notification);
     }
 
     public List<Notification> getNotificationsForUser(String userId) throws ExecutionException, InterruptedException {
-        List<Notification> results = new ArrayList<>();
-
-        Query query = db.collection("notifications")
-                .whereEqualTo("recipientId", userId);
-        List<QueryDocumentSnapshot> docs = query.get().get().getDocuments();
+        return notifications.findByRecipient(userId, unpagedCap);
+    }
 
-        for (QueryDocumentSnapshot doc : docs) {
-            Notification notification = doc.toObject(Notification.class);
-            notification.setId(doc.getId()); // ✅ This line is critical
-            results.add(notification);
-        }
+    /**
+     * Delta sync: notifications for the user created after {@code since}, oldest first.
+     */
+    public List<Notification> getNotificationsSince(String userId, Timestamp since) throws ExecutionException, InterruptedException {
+        return notifications.findByRecipientSince(userId, since, unpagedCap);
+    }
 
-        return results;
+    public Page<Notification> getNotificationsPage(String userId, Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        return notifications.findPageByRecipient(userId, pageSize(limit), cursor);
     }
 
     public void markNotificationAsRead(String notificationId) throws Exception {
-        db.collection("notifications")
-                .document(notificationId)
-                .update("status", "read")
-                .get();
+        notifications.updateStatus(notificationId, "read");
     }
 
     public void deleteNotification(String notificationId) throws Exception {
-        db.collection("notifications")
-                .document(notificationId)
-                .delete()
-                .get();
+        notifications.delete(notificationId);
     }
 
-    public void sendMeetingRequestNotifications(Meeting m) throws Exception {
-        // 1) look up the client’s User record
-        User client = getUserById(m.getUserId());
+    public void sendMeetingRequestNotifications(Meeting m, User client) throws Exception {
+        // 1) the caller loads the client’s User record alongside its own work
         String fullName = (client != null)
                 ? (client.getName() + " " + client.getSurname()).trim()
                 : m.getUserId();  // fallback to ID if name lookup fails
@@ -1397,35 +893,25 @@ public class FirestoreService {
                 m.getMeetingDate()
         );
 
-        // 3) fetch all managers
-        List<User> all = getAllUsers();
-        for (User u : all) {
-            if ("m".equals(u.getRole())) {
-                Map<String,Object> n = new HashMap<>();
-                n.put("recipientId", u.getId());
-                n.put("message",     notifyMsg);
-                n.put("type",        "meeting_request");
-                n.put("meetingId",   m.getId());
-                n.put("timestamp",   new Date());
-                n.put("status",      "unread");
-                db.collection("notifications").add(n).get();
-            }
+        // 3) notify every manager
+        for (String managerId : getManagerIds()) {
+            Map<String,Object> n = new HashMap<>();
+            n.put("recipientId", managerId);
+            n.put("message",     notifyMsg);
+            n.put("type",        "meeting_request");
+            n.put("meetingId",   m.getId());
+            n.put("timestamp",   new Date());
+            n.put("status",      "unread");
+            notificationDispatcher.enqueue(n);
         }
     }
 
     public List<Meeting> getAllMeetings() throws Exception {
-        List<Meeting> out = new ArrayList<>();
-        QuerySnapshot snap = db.collection("meetings")
-                .get()
-                .get();
-        for (DocumentSnapshot doc : snap.getDocuments()) {
-            Meeting m = doc.toObject(Meeting.class);
-            if (m != null) {
-                m.setId(doc.getId());
-                out.add(m);
-            }
-        }
-        return out;
+        return meetings.findAll(unpagedCap);
+    }
+
+    public Page<Meeting> getMeetingsPage(Integer limit, String cursor) throws Exception {
+        return meetings.findPage(pageSize(limit), cursor);
     }
 
     public void sendMeetingAcceptedNotification(Meeting m) throws Exception {
@@ -1436,7 +922,7 @@ public class FirestoreService {
         n.put("meetingId",   m.getId());
         n.put("timestamp",   new Date());
         n.put("status",      "unread");
-        db.collection("notifications").add(n).get();
+        notificationDispatcher.enqueue(n);
     }
 
     /**
@@ -1450,20 +936,15 @@ public class FirestoreService {
         n.put("meetingId",   m.getId());
         n.put("timestamp",   new Date());
         n.put("status",      "unread");
-        db.collection("notifications").add(n).get();
+        notificationDispatcher.enqueue(n);
     }
 
 
     public List<Map<String, Object>> getFeedbackWithReplies() throws ExecutionException, InterruptedException {
-        CollectionReference ref = db.collection("feedback");
-        List<QueryDocumentSnapshot> allDocs = ref.get().get().getDocuments();
-
         List<Map<String, Object>> feedbacks = new ArrayList<>();
         Map<String, List<Map<String, Object>>> repliesMap = new HashMap<>();
 
-        for (QueryDocumentSnapshot doc : allDocs) {
-            Map<String, Object> data = doc.getData();
-            data.put("id", doc.getId());
+        for (Map<String, Object> data : feedback.findAll(unpagedCap)) {
             String parentId = (String) data.get("parentId");
             if (parentId == null) {
                 feedbacks.add(data);
@@ -1480,75 +961,73 @@ public class FirestoreService {
         return feedbacks;
     }
 
-    public void addFeedback(Map<String, Object> feedbackData) {
-        db.collection("feedback").add(feedbackData);
+    /**
+     * Pages over feedback in ID order and returns the top-level entries among them, each with
+     * its replies attached. Replies are skipped while paging, so a page may hold fewer than {@code limit}
+     * threads; keep following {@code nextCursor} until it is null.
+     */
+    public Page<Map<String, Object>> getFeedbackPage(Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        Page<Map<String, Object>> page = feedback.findTopLevelPage(pageSize(limit), cursor);
+
+        List<String> ids = page.getItems().stream().map(fb -> (String) fb.get("id")).toList();
+        Map<String, List<Map<String, Object>>> repliesMap = new HashMap<>();
+        for (Map<String, Object> reply : feedback.findReplies(ids)) {
+            repliesMap.computeIfAbsent((String) reply.get("parentId"), k -> new ArrayList<>()).add(reply);
+        }
+
+        for (Map<String, Object> fb : page.getItems()) {
+            fb.put("replies", repliesMap.getOrDefault((String) fb.get("id"), List.of()));
+        }
+        return page;
     }
 
-    public String deleteFeedback(String id) throws ExecutionException, InterruptedException {
-        db.collection("feedback").document(id).delete().get();
-        return "Deleted feedback with ID: " + id;
+    public void addFeedback(Map<String, Object> feedbackData) {
+        feedback.add(feedbackData);
     }
 
     public String getGoogleRefreshToken(String email) throws Exception {
-        DocumentSnapshot userDoc = getUserDocByEmail(email);
-        if (userDoc != null && userDoc.contains("googleRefreshToken")) {
-            return userDoc.getString("googleRefreshToken");
-        }
-        return null;
+        User user = users.findByEmail(email);
+        return user != null ? user.getGoogleRefreshToken() : null;
     }
 
     public void attachGoogleCalendarToken(String email, String refreshToken) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = getUserDocByEmail(email);
-        if (doc != null) {
-            doc.getReference().update("googleRefreshToken", refreshToken).get();
-            System.out.println("✅ Attached Google refresh token for: " + email);
+        User user = users.findByEmail(email);
+        if (user != null) {
+            users.update(user.getId(), Map.of("googleRefreshToken", refreshToken));
+            log.info("Attached Google refresh token for: {}", email);
         } else {
-            System.out.println("❌ Could not find user: " + email);
+            log.warn("Could not find user: {}", email);
         }
     }
 
     public void saveTwoFactorCode(String email, String code, long expiresAt) {
-        Map<String, Object> data = Map.of("code", code, "expiresAt", expiresAt);
-        db.collection("two_factor_codes").document(email).set(data);
+        credentials.saveTwoFactorCode(email, new VerificationCode(code, expiresAt));
     }
 
-    public DocumentSnapshot getTwoFactorCode(String email) throws ExecutionException, InterruptedException {
-        return db.collection("two_factor_codes").document(email).get().get();
+    public VerificationCode getTwoFactorCode(String email) throws ExecutionException, InterruptedException {
+        return credentials.findTwoFactorCode(email);
     }
 
     public void deleteTwoFactorCode(String email) {
-        db.collection("two_factor_codes").document(email).delete();
+        credentials.deleteTwoFactorCode(email);
     }
 
     public boolean isDeviceRemembered(String email, String deviceId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("remembered_devices").document(email).get().get();
-        if (doc.exists()) {
-            Map<String, Object> devices = (Map<String, Object>) doc.get("devices");
-            if (devices != null && devices.containsKey(deviceId)) {
-                long expiry = ((Number) devices.get(deviceId)).longValue();
-                return System.currentTimeMillis() < expiry;
-            }
-        }
-        return false;
+        Long expiry = credentials.findDeviceExpiry(email, deviceId);
+        return expiry != null && System.currentTimeMillis() < expiry;
     }
 
     public void rememberDevice(String email, String deviceId) {
-        long expiresAt = System.currentTimeMillis() + (30L * 24 * 60 * 60 * 1000); // 30 days
-        Map<String, Object> update = new HashMap<>();
-        update.put("devices." + deviceId, expiresAt);
-        db.collection("remembered_devices")
-                .document(email)
-                .set(update, SetOptions.merge());
+        credentials.rememberDevice(email, deviceId, System.currentTimeMillis() + REMEMBER_DEVICE_MILLIS);
     }
 
     public String getManagerIdByProjectId(String projectId) throws Exception {
-        DocumentReference docRef = db.collection("active_projects").document(projectId);
-        DocumentSnapshot snapshot = docRef.get().get();
+        Project project = projects.findById(ProjectStage.ACTIVE, projectId);
 
-        if (snapshot.exists()) {
-            Object managerId = snapshot.get("managerId");
+        if (project != null) {
+            String managerId = project.getmanagerId();
             if (managerId != null) {
-                return managerId.toString();
+                return managerId;
             } else {
                 throw new Exception("Manager ID not found in active project.");
             }
@@ -1560,27 +1039,18 @@ public class FirestoreService {
     // Meetings
 
     public Meeting saveMeeting(Meeting m) throws Exception {
-        DocumentReference ref = db.collection("meetings").document();
-        m.setId(ref.getId());
-        ref.set(m).get();
-        return m;
+        return saveMeetingAsync(m).get();
+    }
+
+    public ApiFuture<Meeting> saveMeetingAsync(Meeting m) {
+        return meetings.createAsync(m);
     }
 
     /**
      * Fetch all meetings where status == "pending"
      */
     public List<Meeting> getPendingMeetings() throws Exception {
-        QuerySnapshot snap = db.collection("meetings")
-                .whereEqualTo("status", "pending")
-                .get()
-                .get();
-        return snap.getDocuments().stream()
-                .map(doc -> {
-                    Meeting m = doc.toObject(Meeting.class);
-                    m.setId(doc.getId());
-                    return m;
-                })
-                .collect(Collectors.toList());
+        return meetings.findByStatus("pending");
     }
 
     /**
@@ -1588,31 +1058,21 @@ public class FirestoreService {
      * (needed so you can read m.getUserId() & m.getMeetingDate())
      */
     public Meeting getMeetingById(String id) throws Exception {
-        DocumentSnapshot snap = db.collection("meetings").document(id).get().get();
-        if (!snap.exists()) return null;
-        Meeting m = snap.toObject(Meeting.class);
-        m.setId(snap.getId());
-        return m;
+        return meetings.findById(id);
     }
 
     /**
      * Update the `status` field for a meeting (e.g. "accepted")
      */
     public void updateMeetingStatus(String id, String newStatus) throws Exception {
-        db.collection("meetings")
-                .document(id)
-                .update("status", newStatus)
-                .get();
+        meetings.update(id, Map.of("status", newStatus));
     }
 
     /**
      * Delete a meeting document (used on reject)
      */
     public void deleteMeeting(String id) throws Exception {
-        db.collection("meetings")
-                .document(id)
-                .delete()
-                .get();
+        meetings.delete(id);
     }
 
     /**
@@ -1620,18 +1080,7 @@ public class FirestoreService {
      */
 
     public List<Meeting> getMeetingsForUser(String userId) throws Exception {
-        QuerySnapshot snap = db.collection("meetings")
-                .whereEqualTo("userId", userId)
-                .get()
-                .get();
-
-        return snap.getDocuments().stream()
-                .map(doc -> {
-                    Meeting m = doc.toObject(Meeting.class);
-                    m.setId(doc.getId());
-                    return m;
-                })
-                .collect(Collectors.toList());
+        return meetings.findByUser(userId);
     }
 
     /**
@@ -1639,18 +1088,11 @@ public class FirestoreService {
      */
     public List<Meeting> getAcceptedMeetingsByDate(String meetingDate)
             throws ExecutionException, InterruptedException {
-        QuerySnapshot snap = db.collection("meetings")
-                .whereEqualTo("meetingDate", meetingDate)
-                .whereEqualTo("status", "accepted")
-                .get()
-                .get();
-        return snap.toObjects(Meeting.class);
+        return meetings.findByDateAndStatus(meetingDate, "accepted");
     }
 
     public void rescheduleMeeting(String meetingId, String newDate)
             throws ExecutionException, InterruptedException {
-        DocumentReference ref = db.collection("meetings").document(meetingId);
-        ref.update("meetingDate", newDate).get();
+        meetings.update(meetingId, Map.of("meetingDate", newDate));
     }
-
-}
\ No newline at end of file
+}
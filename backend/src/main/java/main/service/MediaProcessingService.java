@@ -0,0 +1,265 @@
+package main.service;
+
+import jakarta.annotation.PreDestroy;
+import main.dto.MediaJob;
+import main.model.MediaRef;
+import main.model.ProjectStage;
+import main.repository.ProjectRepository;
+import main.util.ImageWatermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attaches final media to a project in the background.
+ *
+ * {@link #submit} only moves the uploaded parts into a spool directory (a rename for parts
+ * Tomcat already wrote to disk) and returns a {@link MediaJob} to poll, so a large delivery
+ * doesn't hold a request thread. A fixed pool of workers, one per core by default, then
+ * watermarks and stores the files in parallel. Images are decoded straight from the spooled
+ * file and encoded back to disk; a semaphore caps how many decoded images are in memory at
+ * once, since that is what a 50 MP photo costs (about 200 MB as a BufferedImage).
+ *
+ * When every file is done the project's finalMedia is replaced with the stored references, in
+ * upload order. Files that fail to watermark are stored unchanged, as before. Finished jobs are
+ * kept for {@code media.processing.job-retention-minutes} so clients can read the outcome.
+ */
+@Service
+public class MediaProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaProcessingService.class);
+
+    private static final String WATERMARK_TEXT = "Studio21";
+
+    private final ProjectRepository projects;
+    private final MediaStorageService mediaStorage;
+    private final RenditionService renditions;
+    private final Path spoolDir;
+    private final ExecutorService workers;
+    private final Semaphore decodedImages;
+    private final long jobRetentionMillis;
+    private final Map<String, MediaJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong threadCount = new AtomicLong();
+
+    public MediaProcessingService(ProjectRepository projects,
+                                  MediaStorageService mediaStorage,
+                                  RenditionService renditions,
+                                  @Value("${file.upload-dir:uploads}") String uploadDir,
+                                  @Value("${media.processing.threads:0}") int threads,
+                                  @Value("${media.processing.max-images-in-memory:0}") int maxImagesInMemory,
+                                  @Value("${media.processing.job-retention-minutes:60}") long jobRetentionMinutes) {
+        this.projects = projects;
+        this.mediaStorage = mediaStorage;
+        this.renditions = renditions;
+        this.spoolDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("media-jobs");
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "media-processing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.decodedImages = new Semaphore(maxImagesInMemory > 0 ? maxImagesInMemory : poolSize);
+        this.jobRetentionMillis = TimeUnit.MINUTES.toMillis(jobRetentionMinutes);
+
+        try {
+            // Spooled files of jobs cut short by a restart are never picked up again
+            FileSystemUtils.deleteRecursively(spoolDir);
+            Files.createDirectories(spoolDir);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the media job directory.", ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Spools the files and queues them for processing.
+     *
+     * @throws Exception if the project is not an active project or a file can't be spooled
+     */
+    public MediaJob submit(String projectId, List<MultipartFile> files, boolean applyWatermark, String ownerId) throws Exception {
+        if (!projects.exists(ProjectStage.ACTIVE, projectId)) {
+            throw new Exception("Project not found");
+        }
+        evictFinishedJobs();
+
+        MediaJob job = new MediaJob(UUID.randomUUID().toString(), projectId, ownerId, files.size());
+        Run run = new Run(job, spoolDir.resolve(job.getId()), applyWatermark, files.size());
+        Files.createDirectories(run.dir);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                MultipartFile file = files.get(i);
+                file.transferTo(run.dir.resolve(Integer.toString(i)));
+                run.fileNames[i] = Objects.requireNonNull(file.getOriginalFilename());
+                run.contentTypes[i] = file.getContentType();
+            }
+        } catch (Exception e) {
+            FileSystemUtils.deleteRecursively(run.dir);
+            throw e;
+        }
+
+        jobs.put(job.getId(), job);
+        if (files.isEmpty()) {
+            complete(run);
+        }
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            workers.execute(() -> process(run, index));
+        }
+        log.info("Queued {} final media files for project {} as job {}", files.size(), projectId, job.getId());
+        return job;
+    }
+
+    public MediaJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void process(Run run, int index) {
+        run.job.start();
+        String fileName = run.fileNames[index];
+        Path spooled = run.dir.resolve(Integer.toString(index));
+        try {
+            MediaRef ref = null;
+            String extension = extension(fileName);
+            if (run.applyWatermark && (extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg"))) {
+                ref = storeWatermarked(run, index, spooled, extension);
+            }
+            if (ref == null) {
+                try (InputStream in = Files.newInputStream(spooled)) {
+                    ref = mediaStorage.store(in, fileName, run.contentTypes[index]);
+                }
+            }
+            run.results[index] = ref;
+            renditions.generateAsync(ref);
+            run.job.fileProcessed();
+            log.debug("Added media: {}", fileName);
+        } catch (Exception e) {
+            log.warn("Failed to store final media {} for job {}", fileName, run.job.getId(), e);
+            run.job.fileFailed(fileName + ": " + e.getMessage());
+        } finally {
+            if (run.remaining.decrementAndGet() == 0) {
+                complete(run);
+            }
+        }
+    }
+
+    /**
+     * Returns null when the image can't be watermarked, so the original gets stored instead.
+     */
+    private MediaRef storeWatermarked(Run run, int index, Path spooled, String extension) throws IOException, InterruptedException {
+        String fileName = run.fileNames[index];
+        Path watermarked = run.dir.resolve(index + ".watermarked");
+
+        decodedImages.acquire();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(watermarked))) {
+            ImageWatermark.apply(spooled, WATERMARK_TEXT, extension, out);
+        } catch (Exception e) {
+            log.warn("Failed to watermark image: {}", fileName, e);
+            return null;
+        } finally {
+            decodedImages.release();
+        }
+
+        try (InputStream in = Files.newInputStream(watermarked)) {
+            return mediaStorage.store(in, fileName, run.contentTypes[index]);
+        } finally {
+            Files.deleteIfExists(watermarked);
+        }
+    }
+
+    private void complete(Run run) {
+        try {
+            List<MediaRef> finalMediaList = new ArrayList<>();
+            for (MediaRef ref : run.results) {
+                if (ref != null) finalMediaList.add(ref);
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(ProjectRepository.FINAL_MEDIA, finalMediaList);
+
+            if (!projects.update(ProjectStage.ACTIVE, run.job.getProjectId(), updates)) {
+                run.job.fileFailed("Project not found");
+                run.job.finish("failed");
+                return;
+            }
+            run.job.finish("completed");
+            log.info("Final media successfully attached to project: {} ({} of {} files)",
+                    run.job.getProjectId(), finalMediaList.size(), run.job.getTotal());
+        } catch (Exception e) {
+            log.error("Failed to attach final media for job {}", run.job.getId(), e);
+            run.job.finish("failed");
+        } finally {
+            try {
+                FileSystemUtils.deleteRecursively(run.dir);
+            } catch (IOException e) {
+                log.warn("Could not delete spool directory {}", run.dir, e);
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - jobRetentionMillis;
+        jobs.values().removeIf(job -> job.isFinished()
+                && Instant.parse(job.getFinishedAt()).toEpochMilli() < cutoff);
+    }
+
+    private static String extension(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        if (lastDot > 0 && lastDot < fileName.length() - 1) {
+            return fileName.substring(lastDot + 1).toLowerCase();
+        }
+        return "";
+    }
+
+    /**
+     * One submitted job's working state; results are filled in by index as workers finish.
+     */
+    private static final class Run {
+        final MediaJob job;
+        final Path dir;
+        final boolean applyWatermark;
+        final String[] fileNames;
+        final String[] contentTypes;
+        final MediaRef[] results;
+        final AtomicInteger remaining;
+
+        Run(MediaJob job, Path dir, boolean applyWatermark, int size) {
+            this.job = job;
+            this.dir = dir;
+            this.applyWatermark = applyWatermark;
+            this.fileNames = new String[size];
+            this.contentTypes = new String[size];
+            this.results = new MediaRef[size];
+            this.remaining = new AtomicInteger(size);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.model.MediaRef;
+import main.model.Rendition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Content-addressed blob store for project media.
+ *
+ * Uploads are streamed into fixed-size chunks named by their SHA-256, so the same
+ * photo uploaded twice (or moved between projects) is only kept once on disk.
+ * Each file gets a small manifest listing its chunks; the file's own SHA-256 is its media ID.
+ *
+ *   {upload-dir}/media/chunks/ab/ab12...   raw chunk bytes
+ *   {upload-dir}/media/manifests/cd34...   JSON manifest for one file
+ *   {upload-dir}/media/renditions/thumb/cd34....jpg   downscaled copies (see RenditionService)
+ *
+ * Traffic is counted in the {@code media.bytes} meter: {@code received} for uploads,
+ * {@code written} for what actually reached disk after deduplication, {@code served} for reads.
+ */
+@Service
+public class MediaStorageService {
+
+    private static final Pattern MEDIA_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path chunkDir;
+    private final Path manifestDir;
+    private final Path renditionDir;
+    private final int chunkSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter receivedBytes;
+    private final Counter writtenBytes;
+    private final Counter servedBytes;
+
+    public MediaStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                               @Value("${media.chunk-size:1048576}") int chunkSize,
+                               MeterRegistry meterRegistry) {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("media");
+        this.chunkDir = root.resolve("chunks");
+        this.manifestDir = root.resolve("manifests");
+        this.renditionDir = root.resolve("renditions");
+        this.chunkSize = chunkSize;
+        this.receivedBytes = bytesCounter(meterRegistry, "received");
+        this.writtenBytes = bytesCounter(meterRegistry, "written");
+        this.servedBytes = bytesCounter(meterRegistry, "served");
+
+        try {
+            Files.createDirectories(chunkDir);
+            Files.createDirectories(manifestDir);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the media storage directories.", ex);
+        }
+    }
+
+    /**
+     * Streams the input into the chunk store. Only one chunk is held in memory at a time.
+     */
+    public MediaRef store(InputStream in, String fileName, String contentType) throws IOException {
+        MessageDigest fileDigest = sha256();
+        CRC32 crc = new CRC32();
+        List<String> chunks = new ArrayList<>();
+        byte[] buffer = new byte[chunkSize];
+        long size = 0;
+
+        int read;
+        while ((read = in.readNBytes(buffer, 0, chunkSize)) > 0) {
+            fileDigest.update(buffer, 0, read);
+            crc.update(buffer, 0, read);
+            chunks.add(writeChunk(buffer, read));
+            size += read;
+        }
+        receivedBytes.increment(size);
+
+        String mediaId = HEX.formatHex(fileDigest.digest());
+        Path manifestPath = manifestDir.resolve(mediaId);
+        if (!Files.exists(manifestPath)) {
+            Manifest manifest = new Manifest();
+            manifest.size = size;
+            manifest.chunkSize = chunkSize;
+            manifest.chunks = chunks;
+            manifest.crc32 = crc.getValue();
+            writeAtomically(manifestPath, objectMapper.writeValueAsBytes(manifest));
+        }
+
+        String cleanName = fileName != null ? StringUtils.cleanPath(fileName) : mediaId;
+        String type = contentType != null ? contentType : "application/octet-stream";
+        return new MediaRef(mediaId, cleanName, type, size, Instant.now().toString());
+    }
+
+    public boolean exists(String mediaId) {
+        return isValidId(mediaId) && Files.exists(manifestDir.resolve(mediaId));
+    }
+
+    public long size(String mediaId) throws IOException {
+        return readManifest(mediaId).size;
+    }
+
+    public InputStream open(String mediaId) throws IOException {
+        Manifest manifest = readManifest(mediaId);
+        return openRange(manifest, 0, manifest.size);
+    }
+
+    /**
+     * Opens {@code length} bytes starting at {@code start}, touching only the chunks that overlap the range.
+     */
+    public InputStream openRange(String mediaId, long start, long length) throws IOException {
+        return openRange(readManifest(mediaId), start, length);
+    }
+
+    /**
+     * Copies a byte range into {@code out} with {@link FileChannel#transferTo}, chunk by chunk.
+     */
+    public void transferRange(String mediaId, long start, long length, WritableByteChannel out) throws IOException {
+        Manifest manifest = readManifest(mediaId);
+        if (start < 0 || length < 0 || start + length > manifest.size) {
+            throw new IllegalArgumentException("Range " + start + "+" + length + " is outside the media file");
+        }
+
+        servedBytes.increment(length);
+        int chunk = (int) (start / manifest.chunkSize);
+        long position = start % manifest.chunkSize;
+        long remaining = length;
+        while (remaining > 0) {
+            try (FileChannel channel = FileChannel.open(chunkPath(manifest.chunks.get(chunk)), StandardOpenOption.READ)) {
+                long end = Math.min(channel.size(), position + remaining);
+                while (position < end) {
+                    long sent = channel.transferTo(position, end - position, out);
+                    if (sent <= 0) {
+                        throw new EOFException("Chunk " + manifest.chunks.get(chunk) + " is shorter than its manifest says");
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+            chunk++;
+            position = 0;
+        }
+    }
+
+    /**
+     * CRC-32 of the whole file, which ZIP entries need up front. Manifests written before it
+     * was recorded get it computed once and saved.
+     */
+    public long crc32(String mediaId) throws IOException {
+        Manifest manifest = readManifest(mediaId);
+        if (manifest.crc32 == null) {
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = openRange(manifest, 0, manifest.size)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            manifest.crc32 = crc.getValue();
+            Path manifestPath = manifestDir.resolve(mediaId);
+            FileTime stored = Files.getLastModifiedTime(manifestPath); // see lastModified()
+            writeAtomically(manifestPath, objectMapper.writeValueAsBytes(manifest));
+            Files.setLastModifiedTime(manifestPath, stored);
+        }
+        return manifest.crc32;
+    }
+
+    /**
+     * Records the CRC-32 in every manifest from before it was recorded, see {@link #crc32}.
+     * Stops early when the thread is interrupted.
+     *
+     * @return how many manifests were updated
+     */
+    public int backfillCrc32() throws IOException {
+        int updated = 0;
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(manifestDir)) {
+            for (Path path : manifests) {
+                if (Thread.currentThread().isInterrupted()) break;
+                String mediaId = path.getFileName().toString();
+                if (!isValidId(mediaId)) continue; // a manifest still being written
+                if (readManifest(mediaId).crc32 == null) {
+                    crc32(mediaId);
+                    updated++;
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * When the file was stored; a media ID always stands for the same bytes.
+     */
+    public long lastModified(String mediaId) throws IOException {
+        if (!exists(mediaId)) {
+            throw new RuntimeException("Media not found " + mediaId);
+        }
+        return Files.getLastModifiedTime(manifestDir.resolve(mediaId)).toMillis();
+    }
+
+    private InputStream openRange(Manifest manifest, long start, long length) {
+        if (start < 0 || length < 0 || start + length > manifest.size) {
+            throw new IllegalArgumentException("Range " + start + "+" + length + " is outside the media file");
+        }
+
+        servedBytes.increment(length);
+        int firstChunk = (int) (start / manifest.chunkSize);
+        long skipInFirst = start % manifest.chunkSize;
+
+        List<Path> paths = new ArrayList<>();
+        for (int i = firstChunk; i < manifest.chunks.size(); i++) {
+            paths.add(chunkPath(manifest.chunks.get(i)));
+        }
+        return new ChunkInputStream(paths, skipInFirst, length);
+    }
+
+    private String writeChunk(byte[] buffer, int length) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(buffer, 0, length);
+        String hash = HEX.formatHex(digest.digest());
+
+        Path target = chunkPath(hash);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                out.write(buffer, 0, length);
+            }
+            moveIntoPlace(tmp, target);
+            writtenBytes.increment(length);
+        }
+        return hash;
+    }
+
+    public Path renditionPath(String mediaId, Rendition rendition) {
+        if (!isValidId(mediaId)) {
+            throw new IllegalArgumentException("Invalid media ID " + mediaId);
+        }
+        return renditionDir.resolve(rendition.getName()).resolve(mediaId + ".jpg");
+    }
+
+    public void storeRendition(String mediaId, Rendition rendition, byte[] jpeg) throws IOException {
+        Path target = renditionPath(mediaId, rendition);
+        Files.createDirectories(target.getParent());
+        writeAtomically(target, jpeg);
+        writtenBytes.increment(jpeg.length);
+    }
+
+    /**
+     * Marker next to the renditions for media that is not a decodable image. A media ID always
+     * stands for the same bytes, so a failed decode never needs to be tried again.
+     */
+    public Path renditionFailurePath(String mediaId) {
+        if (!isValidId(mediaId)) {
+            throw new IllegalArgumentException("Invalid media ID " + mediaId);
+        }
+        return renditionDir.resolve("failed").resolve(mediaId);
+    }
+
+    public void markRenditionFailed(String mediaId, String reason) throws IOException {
+        Path target = renditionFailurePath(mediaId);
+        Files.createDirectories(target.getParent());
+        writeAtomically(target, String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(tmp, content);
+        moveIntoPlace(tmp, target);
+    }
+
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // Another upload wrote the same content first
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Manifest readManifest(String mediaId) throws IOException {
+        if (!exists(mediaId)) {
+            throw new RuntimeException("Media not found " + mediaId);
+        }
+        return objectMapper.readValue(manifestDir.resolve(mediaId).toFile(), Manifest.class);
+    }
+
+    private static Counter bytesCounter(MeterRegistry registry, String operation) {
+        return Counter.builder("media.bytes")
+                .baseUnit("bytes")
+                .description("Project media traffic through the chunk store")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private Path chunkPath(String hash) {
+        return chunkDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static boolean isValidId(String mediaId) {
+        return mediaId != null && MEDIA_ID.matcher(mediaId).matches();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static class Manifest {
+        public long size;
+        public int chunkSize;
+        public List<String> chunks;
+        public Long crc32;          // null in manifests from before ZIP archives
+    }
+
+    /**
+     * Reads a byte range across consecutive chunk files, opening each file only when it is reached.
+     */
+    private static final class ChunkInputStream extends InputStream {
+        private final List<Path> paths;
+        private int next;
+        private long skip;
+        private long remaining;
+        private InputStream current;
+
+        ChunkInputStream(List<Path> paths, long skip, long length) {
+            this.paths = paths;
+            this.skip = skip;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (remaining > 0) {
+                if (current == null) {
+                    if (next >= paths.size()) {
+                        return -1;
+                    }
+                    current = Files.newInputStream(paths.get(next++));
+                    if (skip > 0) {
+                        current.skipNBytes(skip);
+                        skip = 0;
+                    }
+                }
+                int n = current.read(b, off, (int) Math.min(len, remaining));
+                if (n == -1) {
+                    current.close();
+                    current = null;
+                    continue;
+                }
+                remaining -= n;
+                return n;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package main.service;
+
+import com.google.cloud.Timestamp;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes notifications off the request thread.
+ *
+ * Callers hand over the notification data and get the new document ID back as soon as the
+ * queue accepts it. A {@link WriteBehindQueue} stores up to 500 notifications per
+ * {@link NotificationRepository#saveAll} call (one Firestore batch), retrying a failed batch until
+ * it is committed. Whatever is unwritten at shutdown is spilled to
+ * {@code {file.upload-dir}/write-behind} and written on the next start.
+ *
+ * Once a batch is committed, each notification is also pushed to its recipient on
+ * {@code /user/queue/notifications}, so connected clients don't need to poll.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String USER_QUEUE = "/queue/notifications";
+    private static final int MAX_BATCH = 500; // Firestore limit per batch
+
+    private final NotificationRepository notifications;
+    private final SimpMessageSendingOperations messaging;
+    private final WriteBehindQueue<Pending> queue;
+
+    private final AtomicLong pushed = new AtomicLong();
+
+    public NotificationDispatcher(NotificationRepository notifications, SimpMessageSendingOperations messaging,
+                                  @Value("${notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notifications.batch-size:500}") int batchSize,
+                                  @Value("${notifications.offer-timeout-ms:2000}") long offerTimeoutMillis,
+                                  @Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.notifications = notifications;
+        this.messaging = messaging;
+        this.queue = new WriteBehindQueue<>("notification-dispatcher", this::write, new SpillCodec(),
+                Paths.get(uploadDir).toAbsolutePath().normalize().resolve("write-behind"),
+                queueCapacity, Math.min(batchSize, MAX_BATCH), offerTimeoutMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    /**
+     * Queues one notification document and returns its ID. The ID is also stored in the
+     * document's {@code id} field, so readers never need a follow-up update.
+     */
+    public String enqueue(Map<String, Object> data) throws InterruptedException {
+        String id = notifications.newId();
+        Map<String, Object> doc = new LinkedHashMap<>(data);
+        doc.put("id", id);
+
+        queue.offer(new Pending(doc));
+        return id;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = queue.getStats();
+        stats.put("pushed", pushed.get());
+        return stats;
+    }
+
+    /**
+     * Stores one batch, then pushes it; the push happens only once the batch is committed.
+     */
+    private void write(List<Pending> pending) throws Exception {
+        List<Map<String, Object>> docs = new ArrayList<>(pending.size());
+        for (Pending p : pending) {
+            docs.add(p.data);
+        }
+        notifications.saveAll(docs);
+        push(pending);
+    }
+
+    /**
+     * Sends committed notifications to their recipients' user queues. Users without an open
+     * session simply miss the push and pick the notification up with the next delta sync.
+     */
+    private void push(List<Pending> pending) {
+        for (Pending p : pending) {
+            Object recipientId = p.data.get("recipientId");
+            if (recipientId == null) continue;
+            try {
+                messaging.convertAndSendToUser(recipientId.toString(), USER_QUEUE, toPayload(p.data));
+                pushed.incrementAndGet();
+            } catch (Exception e) {
+                // The notification is already stored; a failed push must not fail the batch
+                log.warn("Failed to push notification to {}", recipientId, e);
+            }
+        }
+    }
+
+    /**
+     * Same shape the REST endpoint returns: timestamps as {seconds, nanos}.
+     */
+    private static Map<String, Object> toPayload(Map<String, Object> data) {
+        Map<String, Object> payload = new LinkedHashMap<>(data);
+        payload.replaceAll((key, value) -> value instanceof Date date ? Timestamp.of(date) : value);
+        return payload;
+    }
+
+    private static final class Pending {
+        final Map<String, Object> data;
+
+        Pending(Map<String, Object> data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Notification fields are strings apart from Date/Timestamp values, which are spilled as
+     * microseconds and come back as Timestamps; Firestore stores both the same way.
+     */
+    private static final class SpillCodec implements WriteBehindQueue.Codec<Pending> {
+        @Override
+        public Map<String, Object> encode(Pending p) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            List<String> timestampFields = new ArrayList<>();
+            p.data.forEach((key, value) -> {
+                Timestamp timestamp = value instanceof Date date ? Timestamp.of(date)
+                        : value instanceof Timestamp ts ? ts : null;
+                if (timestamp != null) {
+                    timestampFields.add(key);
+                    doc.put(key, timestamp.getSeconds() * 1_000_000 + timestamp.getNanos() / 1_000);
+                } else {
+                    doc.put(key, value);
+                }
+            });
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("doc", doc);
+            fields.put("timestampFields", timestampFields);
+            return fields;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Pending decode(Map<String, Object> fields) {
+            Map<String, Object> doc = new LinkedHashMap<>((Map<String, Object>) fields.get("doc"));
+            for (String key : (List<String>) fields.get("timestampFields")) {
+                doc.put(key, Timestamp.ofTimeMicroseconds(((Number) doc.get(key)).longValue()));
+            }
+            return new Pending(doc);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package main.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.model.MediaRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams a finished project's final media as one ZIP file.
+ *
+ * Entries are STORED: deliverables are JPEGs and videos that don't shrink any further, and
+ * uncompressed entries make every offset in the archive known before the first byte is sent.
+ * The whole layout (headers, data, central directory) is worked out from the blob manifests,
+ * so the response has a Content-Length and any byte range of it can be produced on its own;
+ * DownloadService then handles Range and If-Range, which lets a broken download resume.
+ * Entry data is copied straight from the blob store, never buffered, so heap use only grows
+ * with the number of entries (their names and offsets), not with their size. Archives over
+ * 4 GB or 65535 entries are written as ZIP64.
+ *
+ * The bytes only depend on the media list: entry times come from {@code uploadedAt}, and the
+ * ETag is a hash of the entries, so a resumed download gets the same archive back.
+ *
+ * The layout needs every entry's CRC-32. Blobs stored before it was recorded get it computed
+ * in the background: all of them once at startup, and a project's final media again as soon
+ * as the project is finished, so a download request normally only reads manifests.
+ */
+@Service
+public class ProjectArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectArchiveService.class);
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRY_LIMIT = 0xFFFF;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_END_LENGTH = 56 + 20; // record plus locator
+
+    private final FirestoreService firestoreService;
+    private final MediaStorageService mediaStorage;
+    private final ExecutorService crcWorker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "archive-crc32");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProjectArchiveService(FirestoreService firestoreService, MediaStorageService mediaStorage) {
+        this.firestoreService = firestoreService;
+        this.mediaStorage = mediaStorage;
+    }
+
+    @PostConstruct
+    public void backfillCrc32() {
+        crcWorker.execute(() -> {
+            try {
+                int updated = mediaStorage.backfillCrc32();
+                if (updated > 0) {
+                    log.info("Recorded the CRC-32 of {} media files stored before it was kept", updated);
+                }
+            } catch (Exception e) {
+                log.warn("CRC-32 backfill failed; archives compute missing ones on download", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        crcWorker.shutdownNow();
+    }
+
+    /**
+     * Queues the CRC-32s of a project's final media, so its first archive download doesn't
+     * have to read every blob. Called when the project is finished.
+     */
+    public void prepare(String projectId) {
+        crcWorker.execute(() -> {
+            try {
+                for (MediaRef ref : firestoreService.getFinalMediaForProject(projectId)) {
+                    if (Thread.currentThread().isInterrupted()) return;
+                    if (mediaStorage.exists(ref.getId())) {
+                        mediaStorage.crc32(ref.getId());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not prepare the archive of project {}", projectId, e);
+            }
+        });
+    }
+
+    /**
+     * The archive of a finished project's final media, ready for {@link DownloadService#send};
+     * the file is named after {@code title}.
+     *
+     * @return the archive, or {@code null} if the project has no final media to put in it
+     * @throws Exception if the project isn't finished or its media can't be read
+     */
+    public DownloadService.Download finalMediaArchive(String projectId, String title) throws Exception {
+        List<MediaRef> media = firestoreService.getFinalMediaForProject(projectId);
+
+        Archive archive = layout(media);
+        if (archive.entries.isEmpty()) {
+            return null;
+        }
+        return new DownloadService.Download(archiveName(title != null ? title : projectId), "application/zip", archive.length,
+                archive.lastModified, archive.etag, false, null, archive::transfer);
+    }
+
+    private Archive layout(List<MediaRef> media) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        List<Entry> entries = new ArrayList<>(media.size());
+        Set<String> names = new HashSet<>();
+        long lastModified = 0;
+        long offset = 0;
+
+        for (MediaRef ref : media) {
+            if (!mediaStorage.exists(ref.getId())) {
+                log.warn("Leaving missing media {} out of the archive", ref.getId());
+                continue;
+            }
+            String name = uniqueName(entryName(ref), names);
+            long uploadedAt = uploadedAt(ref);
+            Entry entry = new Entry(ref.getId(), name.getBytes(StandardCharsets.UTF_8),
+                    mediaStorage.size(ref.getId()), mediaStorage.crc32(ref.getId()), uploadedAt, offset);
+            entries.add(entry);
+            offset += entry.localHeaderLength() + entry.size;
+            lastModified = Math.max(lastModified, uploadedAt);
+            digest.update((ref.getId() + "/" + name + "/" + uploadedAt + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        long centralLength = 0;
+        for (Entry entry : entries) {
+            centralLength += entry.centralHeaderLength();
+        }
+        String etag = "\"zip-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        return new Archive(entries, offset, centralLength, lastModified, etag);
+    }
+
+    private final class Archive {
+        final List<Entry> entries;
+        final long centralStart;
+        final long centralLength;
+        final boolean zip64;
+        final long length;
+        final long lastModified;
+        final String etag;
+
+        Archive(List<Entry> entries, long centralStart, long centralLength, long lastModified, String etag) {
+            this.entries = entries;
+            this.centralStart = centralStart;
+            this.centralLength = centralLength;
+            this.zip64 = entries.size() >= ZIP64_ENTRY_LIMIT || centralStart >= ZIP64_LIMIT || centralLength >= ZIP64_LIMIT;
+            this.length = centralStart + centralLength + (zip64 ? ZIP64_END_LENGTH : 0) + END_LENGTH;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+
+        /**
+         * Writes bytes [start, start + length) of the archive. Headers are built only for
+         * the parts the range touches; entry data comes straight from the blob store.
+         */
+        void transfer(long start, long length, WritableByteChannel out) throws IOException {
+            long end = start + length;
+            long position = 0;
+
+            for (Entry entry : entries) {
+                if (position >= end) return;
+                if (position + entry.localHeaderLength() + entry.size <= start) {
+                    position += entry.localHeaderLength() + entry.size;
+                    continue;
+                }
+                position = write(entry.localHeader(), position, start, end, out);
+                long from = Math.max(start, position);
+                long to = Math.min(end, position + entry.size);
+                if (from < to) {
+                    mediaStorage.transferRange(entry.mediaId, from - position, to - from, out);
+                }
+                position += entry.size;
+            }
+
+            for (Entry entry : entries) {
+                if (position >= end) return;
+                int headerLength = entry.centralHeaderLength();
+                if (position + headerLength <= start) {
+                    position += headerLength;
+                    continue;
+                }
+                position = write(entry.centralHeader(), position, start, end, out);
+            }
+
+            if (position < end) {
+                write(end(), position, start, end, out);
+            }
+        }
+
+        private byte[] end() {
+            ByteBuffer buffer = littleEndian((zip64 ? ZIP64_END_LENGTH : 0) + END_LENGTH);
+            if (zip64) {
+                long recordStart = centralStart + centralLength;
+                buffer.putInt(0x06064b50)                 // ZIP64 end of central directory record
+                        .putLong(56 - 12)
+                        .putShort((short) VERSION_ZIP64)
+                        .putShort((short) VERSION_ZIP64)
+                        .putInt(0)
+                        .putInt(0)
+                        .putLong(entries.size())
+                        .putLong(entries.size())
+                        .putLong(centralLength)
+                        .putLong(centralStart);
+                buffer.putInt(0x07064b50)                 // ZIP64 end of central directory locator
+                        .putInt(0)
+                        .putLong(recordStart)
+                        .putInt(1);
+            }
+            buffer.putInt(0x06054b50)                     // end of central directory record
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) Math.min(entries.size(), ZIP64_ENTRY_LIMIT))
+                    .putShort((short) Math.min(entries.size(), ZIP64_ENTRY_LIMIT))
+                    .putInt((int) Math.min(centralLength, ZIP64_LIMIT))
+                    .putInt((int) Math.min(centralStart, ZIP64_LIMIT))
+                    .putShort((short) 0);
+            return buffer.array();
+        }
+    }
+
+    /**
+     * One STORED entry; sizes and CRC are known up front, so no data descriptors are needed.
+     */
+    private static final class Entry {
+        final String mediaId;
+        final byte[] name;
+        final long size;
+        final long crc;
+        final int dosTime;
+        final int dosDate;
+        final long offset;
+
+        Entry(String mediaId, byte[] name, long size, long crc, long modified, long offset) {
+            this.mediaId = mediaId;
+            this.name = name;
+            this.size = size;
+            this.crc = crc;
+            this.offset = offset;
+
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(modified), ZoneOffset.UTC);
+            if (time.getYear() < 1980) {
+                this.dosTime = 0;
+                this.dosDate = (1 << 5) | 1; // 1980-01-01, the earliest DOS date
+            } else {
+                this.dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2);
+                this.dosDate = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+            }
+        }
+
+        boolean zip64Size() {
+            return size >= ZIP64_LIMIT;
+        }
+
+        boolean zip64Offset() {
+            return offset >= ZIP64_LIMIT;
+        }
+
+        int localHeaderLength() {
+            return 30 + name.length + (zip64Size() ? 20 : 0);
+        }
+
+        int centralExtraLength() {
+            int fields = (zip64Size() ? 16 : 0) + (zip64Offset() ? 8 : 0);
+            return fields > 0 ? 4 + fields : 0;
+        }
+
+        int centralHeaderLength() {
+            return 46 + name.length + centralExtraLength();
+        }
+
+        byte[] localHeader() {
+            ByteBuffer buffer = littleEndian(localHeaderLength());
+            buffer.putInt(0x04034b50)
+                    .putShort((short) (zip64Size() ? VERSION_ZIP64 : VERSION))
+                    .putShort((short) FLAG_UTF8_NAMES)
+                    .putShort((short) 0)                  // STORED
+                    .putShort((short) dosTime)
+                    .putShort((short) dosDate)
+                    .putInt((int) crc)
+                    .putInt((int) Math.min(size, ZIP64_LIMIT))
+                    .putInt((int) Math.min(size, ZIP64_LIMIT))
+                    .putShort((short) name.length)
+                    .putShort((short) (zip64Size() ? 20 : 0))
+                    .put(name);
+            if (zip64Size()) {
+                buffer.putShort((short) 0x0001).putShort((short) 16).putLong(size).putLong(size);
+            }
+            return buffer.array();
+        }
+
+        byte[] centralHeader() {
+            boolean zip64 = zip64Size() || zip64Offset();
+            ByteBuffer buffer = littleEndian(centralHeaderLength());
+            buffer.putInt(0x02014b50)
+                    .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                    .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                    .putShort((short) FLAG_UTF8_NAMES)
+                    .putShort((short) 0)
+                    .putShort((short) dosTime)
+                    .putShort((short) dosDate)
+                    .putInt((int) crc)
+                    .putInt((int) Math.min(size, ZIP64_LIMIT))
+                    .putInt((int) Math.min(size, ZIP64_LIMIT))
+                    .putShort((short) name.length)
+                    .putShort((short) centralExtraLength())
+                    .putShort((short) 0)                  // comment
+                    .putShort((short) 0)                  // disk
+                    .putShort((short) 0)                  // internal attributes
+                    .putInt(0)                            // external attributes
+                    .putInt((int) Math.min(offset, ZIP64_LIMIT))
+                    .put(name);
+            if (zip64) {
+                buffer.putShort((short) 0x0001).putShort((short) (centralExtraLength() - 4));
+                if (zip64Size()) buffer.putLong(size).putLong(size);
+                if (zip64Offset()) buffer.putLong(offset);
+            }
+            return buffer.array();
+        }
+    }
+
+    /**
+     * Writes the part of {@code bytes} (placed at {@code position} in the archive) that falls
+     * inside [start, end), and returns the position after it.
+     */
+    private static long write(byte[] bytes, long position, long start, long end, WritableByteChannel out) throws IOException {
+        long from = Math.max(start, position);
+        long to = Math.min(end, position + bytes.length);
+        if (from < to) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) (from - position), (int) (to - from));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+        return position + bytes.length;
+    }
+
+    private static ByteBuffer littleEndian(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String entryName(MediaRef ref) {
+        String name = ref.getFileName() != null ? ref.getFileName().replace('\\', '/') : "";
+        name = name.substring(name.lastIndexOf('/') + 1).trim();
+        return name.isEmpty() || name.equals(".") || name.equals("..") ? ref.getId() : name;
+    }
+
+    /**
+     * Two deliverables with the same file name become "name.jpg" and "name (2).jpg".
+     */
+    private static String uniqueName(String name, Set<String> taken) {
+        String candidate = name;
+        int lastDot = name.lastIndexOf('.');
+        String base = lastDot > 0 ? name.substring(0, lastDot) : name;
+        String extension = lastDot > 0 ? name.substring(lastDot) : "";
+        for (int i = 2; !taken.add(candidate.toLowerCase()); i++) {
+            candidate = base + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private static long uploadedAt(MediaRef ref) {
+        try {
+            return ref.getUploadedAt() != null ? Instant.parse(ref.getUploadedAt()).toEpochMilli() : 0;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static String archiveName(String title) {
+        String name = title.replaceAll("[\\\\/:*?\"<>|]", "_").trim();
+        return (name.isEmpty() ? "project" : name) + ".zip";
+    }
+}
@@ -0,0 +1,151 @@
+package main.service;
+
+import jakarta.annotation.PreDestroy;
+import main.model.MediaRef;
+import main.model.Rendition;
+import main.util.ImageResize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes the thumb and preview renditions of images in the blob store.
+ *
+ * New uploads are queued with {@link #generateAsync} and rendered by a small worker pool, one
+ * decode per image for all renditions. A rendition that is asked for before it exists (a
+ * fresh upload, or media from before renditions existed) is rendered on demand; concurrent
+ * requests for the same image share one rendering. Renditions are keyed by media ID, so
+ * identical photos in different projects share them too.
+ *
+ * Media that doesn't decode as an image gets a failure marker instead, so later requests fail
+ * straight away rather than decoding it again.
+ */
+@Service
+public class RenditionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionService.class);
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final MediaStorageService mediaStorage;
+    private final ExecutorService workers;
+    private final long waitSeconds;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong threadCount = new AtomicLong();
+
+    public RenditionService(MediaStorageService mediaStorage,
+                            @Value("${media.renditions.threads:0}") int threads,
+                            @Value("${media.renditions.wait-seconds:30}") long waitSeconds) {
+        this.mediaStorage = mediaStorage;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "media-renditions-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.waitSeconds = waitSeconds;
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    public static boolean isImage(MediaRef ref) {
+        if (ref.getContentType() != null && ref.getContentType().startsWith("image/")) {
+            return true;
+        }
+        String name = ref.getFileName();
+        int lastDot = name != null ? name.lastIndexOf('.') : -1;
+        return lastDot > 0 && IMAGE_EXTENSIONS.contains(name.substring(lastDot + 1).toLowerCase());
+    }
+
+    /**
+     * Queues the renditions of a freshly stored file; anything that is not an image is ignored.
+     */
+    public void generateAsync(MediaRef ref) {
+        if (isImage(ref)) {
+            schedule(ref.getId());
+        }
+    }
+
+    /**
+     * Returns the rendition's file, rendering it first if needed.
+     *
+     * @throws java.util.concurrent.ExecutionException if the media can't be decoded as an image
+     * @throws java.util.concurrent.TimeoutException   if rendering takes longer than the wait
+     */
+    public Path get(String mediaId, Rendition rendition) throws Exception {
+        Path path = mediaStorage.renditionPath(mediaId, rendition);
+        if (!Files.exists(path)) {
+            schedule(mediaId).get(waitSeconds, TimeUnit.SECONDS);
+        }
+        return path;
+    }
+
+    private CompletableFuture<Void> schedule(String mediaId) {
+        if (Files.exists(mediaStorage.renditionFailurePath(mediaId))) {
+            return CompletableFuture.failedFuture(new IOException("Media " + mediaId + " is not a decodable image"));
+        }
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(mediaId, created);
+        if (existing != null) {
+            return existing;
+        }
+        workers.execute(() -> {
+            try {
+                render(mediaId);
+                created.complete(null);
+            } catch (Exception e) {
+                log.warn("Failed to render media {}", mediaId, e);
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(mediaId, created);
+            }
+        });
+        return created;
+    }
+
+    private void render(String mediaId) throws Exception {
+        boolean done = true;
+        for (Rendition rendition : Rendition.values()) {
+            done &= Files.exists(mediaStorage.renditionPath(mediaId, rendition));
+        }
+        if (done) return;
+
+        // Largest first: each smaller rendition is scaled from the one before
+        BufferedImage image;
+        try (InputStream in = mediaStorage.open(mediaId)) {
+            try {
+                image = ImageResize.decode(in, Rendition.PREVIEW.getWidth());
+            } catch (IOException | RuntimeException e) {
+                mediaStorage.markRenditionFailed(mediaId, e.toString());
+                throw e;
+            }
+        }
+        for (Rendition rendition : new Rendition[]{Rendition.PREVIEW, Rendition.THUMB}) {
+            image = ImageResize.scaleToWidth(image, rendition.getWidth());
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+            ImageResize.writeJpeg(image, JPEG_QUALITY, jpeg);
+            mediaStorage.storeRendition(mediaId, rendition, jpeg.toByteArray());
+        }
+        log.debug("Rendered previews of media {}", mediaId);
+    }
+}
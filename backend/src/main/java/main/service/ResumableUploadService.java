@@ -0,0 +1,373 @@
+package main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.dto.UploadSession;
+import main.model.MediaRef;
+import main.model.ProjectStage;
+import main.repository.ProjectRepository;
+import main.util.ImageWatermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads: create a session, PUT numbered chunks in any order (and in parallel),
+ * check which ones arrived, then commit.
+ *
+ * Chunks are streamed from the request straight into files under
+ * {@code {upload-dir}/upload-sessions/{id}/chunks}, written to a temp file and renamed into
+ * place, so re-sending a chunk is harmless and a dropped connection never leaves half a chunk
+ * behind. Committing streams the chunks in order into the media blob store (or the plain file
+ * store for target "files"), so memory use doesn't depend on the file size. The session state
+ * lives on disk too and survives restarts; sessions untouched for
+ * {@code media.uploads.expiry-hours} are removed.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final Set<String> TARGETS = Set.of("media", "final", "files");
+    private static final Pattern SESSION_ID = Pattern.compile("[0-9a-f-]{36}");
+    private static final String WATERMARK_TEXT = "Studio21";
+    private static final int MAX_CHUNKS = 100_000;
+
+    private final ProjectRepository projects;
+    private final MediaStorageService mediaStorage;
+    private final FileStorageService fileStorage;
+    private final RenditionService renditions;
+    private final Path sessionDir;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final long maxFileSize;
+    private final long expiryMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ResumableUploadService(ProjectRepository projects,
+                                  MediaStorageService mediaStorage,
+                                  FileStorageService fileStorage,
+                                  RenditionService renditions,
+                                  @Value("${file.upload-dir:uploads}") String uploadDir,
+                                  @Value("${media.uploads.default-chunk-size:8388608}") int defaultChunkSize,
+                                  @Value("${media.uploads.max-chunk-size:67108864}") int maxChunkSize,
+                                  @Value("${media.uploads.max-file-size:53687091200}") long maxFileSize,
+                                  @Value("${media.uploads.expiry-hours:48}") long expiryHours) {
+        this.projects = projects;
+        this.mediaStorage = mediaStorage;
+        this.fileStorage = fileStorage;
+        this.renditions = renditions;
+        this.sessionDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("upload-sessions");
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.maxFileSize = maxFileSize;
+        this.expiryMillis = TimeUnit.HOURS.toMillis(expiryHours);
+
+        try {
+            Files.createDirectories(sessionDir);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the upload session directory.", ex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws Exception if the target project is not an active project
+     */
+    public UploadSession create(UploadSession request, String ownerId) throws Exception {
+        String target = request.getTarget() != null ? request.getTarget() : "media";
+        if (!TARGETS.contains(target)) {
+            throw new IllegalArgumentException("Unknown upload target " + target);
+        }
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new IllegalArgumentException("fileName is required");
+        }
+        if (request.getSize() < 0 || request.getSize() > maxFileSize) {
+            throw new IllegalArgumentException("size must be between 0 and " + maxFileSize);
+        }
+        int chunkSize = request.getChunkSize() > 0 ? request.getChunkSize() : defaultChunkSize;
+        if (chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("chunkSize must be at most " + maxChunkSize);
+        }
+        if ((request.getSize() + chunkSize - 1) / chunkSize > MAX_CHUNKS) {
+            throw new IllegalArgumentException("chunkSize is too small for a file of " + request.getSize() + " bytes");
+        }
+        if (!target.equals("files") && !projects.exists(ProjectStage.ACTIVE, request.getProjectId())) {
+            throw new Exception("Project not found");
+        }
+        removeExpired();
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwnerId(ownerId);
+        session.setTarget(target);
+        session.setProjectId(target.equals("files") ? null : request.getProjectId());
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setSize(request.getSize());
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) ((request.getSize() + chunkSize - 1) / chunkSize));
+        session.setSha256(request.getSha256() != null ? request.getSha256().toLowerCase() : null);
+        session.setWatermark(request.isWatermark());
+        session.setCreatedAt(Instant.now().toString());
+
+        Files.createDirectories(chunkDir(session.getId()));
+        objectMapper.writeValue(stateFile(session.getId()).toFile(), session);
+        log.debug("Created upload session {} for {} ({} bytes)", session.getId(), session.getFileName(), session.getSize());
+        return status(session);
+    }
+
+    /**
+     * The session with its received chunks filled in, or null if it doesn't exist or belongs
+     * to someone else.
+     */
+    public UploadSession find(String sessionId, String ownerId) throws IOException {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches() || !Files.exists(stateFile(sessionId))) {
+            return null;
+        }
+        UploadSession session = objectMapper.readValue(stateFile(sessionId).toFile(), UploadSession.class);
+        if (!session.getOwnerId().equals(ownerId)) {
+            return null;
+        }
+        return status(session);
+    }
+
+    /**
+     * Stores chunk {@code index}, replacing any earlier copy.
+     *
+     * @throws IllegalArgumentException if the index is out of range or the body is not exactly
+     *                                  the chunk's length
+     */
+    public void putChunk(UploadSession session, int index, InputStream body) throws IOException {
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk " + index + " is out of range 0.." + (session.getChunkCount() - 1));
+        }
+        long expected = chunkLength(session, index);
+
+        Path dir = chunkDir(session.getId());
+        Path tmp = Files.createTempFile(dir, index + "-", ".part");
+        try {
+            long written = 0;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    written += read;
+                    if (written > expected) {
+                        throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes, got " + written);
+            }
+            Files.move(tmp, dir.resolve(Integer.toString(index)),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Assembles a "media" or "final" upload into the blob store and appends it to the project.
+     *
+     * @throws IllegalStateException if chunks are missing or the checksum doesn't match
+     */
+    public MediaRef commitMedia(UploadSession session) throws Exception {
+        requireComplete(session);
+
+        MediaRef ref;
+        if (session.getTarget().equals("final") && session.isWatermark() && isWatermarkable(session.getFileName())) {
+            ref = storeWatermarked(session);
+        } else {
+            try (InputStream in = assembled(session)) {
+                ref = mediaStorage.store(in, session.getFileName(), session.getContentType());
+            }
+            checkSha256(session, ref.getId()); // the media ID is the file's SHA-256
+        }
+
+        String field = session.getTarget().equals("final") ? ProjectRepository.FINAL_MEDIA : ProjectRepository.MEDIA;
+        if (!projects.appendMedia(ProjectStage.ACTIVE, session.getProjectId(), field, List.of(ref))) {
+            throw new Exception("Project not found");
+        }
+        renditions.generateAsync(ref);
+        delete(session);
+        log.info("Attached uploaded {} to project {} ({} bytes)", ref.getFileName(), session.getProjectId(), ref.getSize());
+        return ref;
+    }
+
+    /**
+     * Assembles a "files" upload into the file store and returns its stored name.
+     */
+    public String commitFile(UploadSession session) throws IOException {
+        requireComplete(session);
+        String storedName;
+        try (InputStream in = assembled(session)) {
+            storedName = fileStorage.storeFile(in, session.getFileName());
+        }
+        delete(session);
+        return storedName;
+    }
+
+    public void delete(UploadSession session) throws IOException {
+        FileSystemUtils.deleteRecursively(sessionDir.resolve(session.getId()));
+    }
+
+    private MediaRef storeWatermarked(UploadSession session) throws Exception {
+        Path dir = sessionDir.resolve(session.getId());
+        Path original = dir.resolve("assembled");
+        Path watermarked = dir.resolve("watermarked");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(assembled(session), digest)) {
+            Files.copy(in, original, StandardCopyOption.REPLACE_EXISTING);
+        }
+        checkSha256(session, HexFormat.of().formatHex(digest.digest()));
+
+        Path stored = original;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(watermarked))) {
+            ImageWatermark.apply(original, WATERMARK_TEXT, extension(session.getFileName()), out);
+            stored = watermarked;
+        } catch (Exception e) {
+            log.warn("Failed to watermark image: {}", session.getFileName(), e);
+        }
+        try (InputStream in = Files.newInputStream(stored)) {
+            return mediaStorage.store(in, session.getFileName(), session.getContentType());
+        }
+    }
+
+    private static void checkSha256(UploadSession session, String actual) {
+        if (session.getSha256() != null && !session.getSha256().equals(actual)) {
+            throw new IllegalStateException("Checksum mismatch: expected " + session.getSha256() + ", got " + actual);
+        }
+    }
+
+    private UploadSession status(UploadSession session) throws IOException {
+        List<Integer> received = new ArrayList<>();
+        try (DirectoryStream<Path> chunks = Files.newDirectoryStream(chunkDir(session.getId()))) {
+            for (Path chunk : chunks) {
+                String name = chunk.getFileName().toString();
+                if (name.chars().allMatch(Character::isDigit)) {
+                    received.add(Integer.parseInt(name));
+                }
+            }
+        }
+        received.sort(null);
+
+        long offset = 0;
+        for (int i = 0; i < received.size() && received.get(i) == i; i++) {
+            offset += chunkLength(session, i);
+        }
+        session.setReceived(received);
+        session.setOffset(offset);
+        return session;
+    }
+
+    private void requireComplete(UploadSession session) {
+        if (session.getReceived().size() != session.getChunkCount()) {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < session.getChunkCount() && missing.size() < 20; i++) {
+                if (!session.getReceived().contains(i)) missing.add(i);
+            }
+            throw new IllegalStateException("Missing chunks " + missing);
+        }
+    }
+
+    /**
+     * The chunks in order as one stream, opening each chunk file only when it is reached.
+     */
+    private InputStream assembled(UploadSession session) {
+        Path dir = chunkDir(session.getId());
+        Enumeration<InputStream> chunks = new Enumeration<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < session.getChunkCount();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!hasMoreElements()) throw new NoSuchElementException();
+                try {
+                    return Files.newInputStream(dir.resolve(Integer.toString(next++)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return new SequenceInputStream(chunks);
+    }
+
+    private void removeExpired() {
+        long cutoff = System.currentTimeMillis() - expiryMillis;
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(sessionDir)) {
+            for (Path dir : sessions) {
+                if (lastTouched(dir) < cutoff) {
+                    FileSystemUtils.deleteRecursively(dir);
+                    log.debug("Removed expired upload session {}", dir.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up upload sessions", e);
+        }
+    }
+
+    // A session counts as active while chunks keep arriving
+    private long lastTouched(Path dir) throws IOException {
+        Path chunks = dir.resolve("chunks");
+        Path probe = Files.exists(chunks) ? chunks : dir;
+        return Files.getLastModifiedTime(probe).toMillis();
+    }
+
+    private static long chunkLength(UploadSession session, int index) {
+        long start = (long) index * session.getChunkSize();
+        return Math.min(session.getChunkSize(), session.getSize() - start);
+    }
+
+    private Path chunkDir(String sessionId) {
+        return sessionDir.resolve(sessionId).resolve("chunks");
+    }
+
+    private Path stateFile(String sessionId) {
+        return sessionDir.resolve(sessionId).resolve("session.json");
+    }
+
+    private static boolean isWatermarkable(String fileName) {
+        String extension = extension(fileName);
+        return extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg");
+    }
+
+    private static String extension(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        if (lastDot > 0 && lastDot < fileName.length() - 1) {
+            return fileName.substring(lastDot + 1).toLowerCase();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,155 @@
+package main.service;
+
+import com.google.api.core.ApiFuture;
+import main.model.ProjectStage;
+import main.repository.NotificationRepository;
+import main.repository.ProjectRepository;
+import main.repository.TaskRepository;
+import main.repository.UserRepository;
+import main.util.FirestoreFutures;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Dashboard counters built on the repositories' count queries ({@code count()} aggregations on Firestore).
+ *
+ * Each counter is computed server-side, so the cost no longer depends on how many documents
+ * match. All counters for a view are requested at once and the assembled result is cached
+ * for a short TTL, so dashboards that poll every few seconds mostly hit memory.
+ */
+@Service
+public class StatsService {
+
+    private static final String[] USER_ROLES = {"a", "m", "p", "e", "c"};
+    private static final String[] TASK_STATUSES = {"In Progress", "Completed"};
+
+    private final UserRepository users;
+    private final ProjectRepository projects;
+    private final TaskRepository tasks;
+    private final NotificationRepository notifications;
+    private final long ttlMillis;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    public StatsService(UserRepository users, ProjectRepository projects, TaskRepository tasks,
+                        NotificationRepository notifications,
+                        @Value("${stats.cache-ttl-seconds:30}") long ttlSeconds) {
+        this.users = users;
+        this.projects = projects;
+        this.tasks = tasks;
+        this.notifications = notifications;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Totals for the admin user overview: all users, admins and everyone else.
+     */
+    public Map<String, Object> getSystemStats() throws ExecutionException, InterruptedException {
+        return cached("system", () -> {
+            List<Long> counts = FirestoreFutures.awaitAll(List.of(
+                    users.countAsync(),
+                    users.countByRoleAsync("a")
+            ));
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("totalUsers", counts.get(0));
+            stats.put("adminUsers", counts.get(1));
+            stats.put("regularUsers", counts.get(0) - counts.get(1));
+            return stats;
+        });
+    }
+
+    /**
+     * Users per role, projects per lifecycle stage, tasks per status and unread notifications.
+     */
+    public Map<String, Object> getOverview() throws ExecutionException, InterruptedException {
+        return cached("overview", () -> {
+            List<ApiFuture<Long>> futures = new ArrayList<>();
+            futures.add(users.countAsync());
+            for (String role : USER_ROLES) {
+                futures.add(users.countByRoleAsync(role));
+            }
+            for (ProjectStage stage : ProjectStage.values()) {
+                futures.add(projects.countAsync(stage));
+            }
+            futures.add(tasks.countAsync());
+            for (String status : TASK_STATUSES) {
+                futures.add(tasks.countByStatusAsync(status));
+            }
+            futures.add(notifications.countByStatusAsync("unread"));
+
+            List<Long> counts = FirestoreFutures.awaitAll(futures);
+            int i = 0;
+
+            Map<String, Object> userCounts = new LinkedHashMap<>();
+            userCounts.put("total", counts.get(i++));
+            for (String role : USER_ROLES) {
+                userCounts.put(role, counts.get(i++));
+            }
+
+            Map<String, Object> projectCounts = new LinkedHashMap<>();
+            for (ProjectStage stage : ProjectStage.values()) {
+                projectCounts.put(stage.name().toLowerCase(), counts.get(i++));
+            }
+
+            Map<String, Object> taskCounts = new LinkedHashMap<>();
+            taskCounts.put("total", counts.get(i++));
+            for (String status : TASK_STATUSES) {
+                taskCounts.put(status, counts.get(i++));
+            }
+
+            Map<String, Object> notifications = new LinkedHashMap<>();
+            notifications.put("unread", counts.get(i));
+
+            Map<String, Object> overview = new LinkedHashMap<>();
+            overview.put("users", userCounts);
+            overview.put("projects", projectCounts);
+            overview.put("tasks", taskCounts);
+            overview.put("notifications", notifications);
+            return overview;
+        });
+    }
+
+    /**
+     * Unread notifications for one user. Not cached, since it has to drop as soon as the user reads one.
+     */
+    public long getUnreadNotificationCount(String userId) throws ExecutionException, InterruptedException {
+        return notifications.countByRecipientAndStatusAsync(userId, "unread").get();
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    private Map<String, Object> cached(String key, Loader loader) throws ExecutionException, InterruptedException {
+        Cached entry = cache.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.value;
+        }
+
+        Map<String, Object> value = loader.load();
+        cache.put(key, new Cached(value, System.currentTimeMillis() + ttlMillis));
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        Map<String, Object> load() throws ExecutionException, InterruptedException;
+    }
+
+    private static final class Cached {
+        final Map<String, Object> value;
+        final long expiresAt;
+
+        Cached(Map<String, Object> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
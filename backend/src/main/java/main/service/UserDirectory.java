@@ -0,0 +1,142 @@
+package main.service;
+
+import main.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves user IDs to display names.
+ *
+ * Cache misses are loaded together through {@link UserRepository#findNames}, and results are kept
+ * in a size-bounded LRU map with a TTL. Missing users are cached too, so repeated lookups of
+ * deleted accounts don't go back to the datastore. {@link #invalidate} bumps the entry's
+ * generation, and a load only stores what it read if the generation it started from is still
+ * current, so a rename that lands mid-load isn't overwritten with the old name.
+ */
+@Component
+public class UserDirectory {
+
+    private final UserRepository users;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong batchLoads = new AtomicLong();
+
+    public UserDirectory(UserRepository users,
+                         @Value("${users.directory.ttl-seconds:300}") long ttlSeconds,
+                         @Value("${users.directory.max-entries:10000}") int maxEntries) {
+        this.users = users;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDirectory.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns id → name for every ID that belongs to an existing user. The name itself
+     * may be null when the user document has no name field.
+     */
+    public Map<String, String> getNames(Collection<String> userIds) throws ExecutionException, InterruptedException {
+        Map<String, String> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) return result;
+
+        Map<String, Long> missing = new LinkedHashMap<>(); // id → generation when the load started
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            for (String id : userIds) {
+                if (id == null || id.isEmpty() || result.containsKey(id) || missing.containsKey(id)) continue;
+
+                Entry entry = cache.get(id);
+                if (entry != null && entry.expiresAt > now) {
+                    hits.incrementAndGet();
+                    if (entry.exists) result.put(id, entry.name);
+                } else {
+                    misses.incrementAndGet();
+                    missing.put(id, entry != null ? entry.generation : 0);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            load(missing, result);
+        }
+        return result;
+    }
+
+    public String getName(String userId) throws ExecutionException, InterruptedException {
+        return getNames(List.of(userId)).get(userId);
+    }
+
+    public void invalidate(String userId) {
+        synchronized (cache) {
+            Entry current = cache.get(userId);
+            cache.put(userId, new Entry(false, null, 0, current != null ? current.generation + 1 : 1));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("batchLoads", batchLoads.get());
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        return stats;
+    }
+
+    private void load(Map<String, Long> generations, Map<String, String> result) throws ExecutionException, InterruptedException {
+        Map<String, String> names = users.findNames(new ArrayList<>(generations.keySet()));
+        batchLoads.incrementAndGet();
+        result.putAll(names);
+
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        synchronized (cache) {
+            for (Map.Entry<String, Long> id : generations.entrySet()) {
+                Entry current = cache.get(id.getKey());
+                long generation = id.getValue();
+                // Invalidated while loading: what was read may already be stale
+                if (current != null && current.generation != generation) continue;
+                cache.put(id.getKey(), new Entry(names.containsKey(id.getKey()), names.get(id.getKey()), expiresAt, generation));
+            }
+        }
+    }
+
+    private static final class Entry {
+        final boolean exists;
+        final String name;
+        final long expiresAt;
+        final long generation;
+
+        Entry(boolean exists, String name, long expiresAt, long generation) {
+            this.exists = exists;
+            this.name = name;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package main.service;
+
+import main.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Role → user IDs membership index.
+ *
+ * Each role is loaded with {@link UserRepository#findIdsByRole}, which reads document IDs
+ * only, so notifying "all managers" reads the managers and nothing else. Results are
+ * cached per role and dropped whenever a user is created, deleted or has their role changed.
+ */
+@Component
+public class UserRoleIndex {
+
+    private final UserRepository users;
+    private final long ttlMillis;
+    private final Map<String, Entry> byRole = new ConcurrentHashMap<>();
+
+    public UserRoleIndex(UserRepository users,
+                         @Value("${users.role-index.ttl-seconds:600}") long ttlSeconds) {
+        this.users = users;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public List<String> getUserIds(String role) throws ExecutionException, InterruptedException {
+        if (role == null) return List.of();
+
+        Entry entry = byRole.get(role);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.userIds;
+        }
+
+        // Remember the generation so a write that lands mid-query isn't overwritten by stale data
+        long generation = entry != null ? entry.generation : 0;
+        List<String> ids = users.findIdsByRole(role);
+
+        Entry loaded = new Entry(List.copyOf(ids), System.currentTimeMillis() + ttlMillis, generation);
+        byRole.compute(role, (k, current) ->
+                current == null || current.generation == generation ? loaded : current);
+        return loaded.userIds;
+    }
+
+    public List<String> getManagerIds() throws ExecutionException, InterruptedException {
+        return getUserIds("m");
+    }
+
+    public void invalidate(String role) {
+        if (role == null) return;
+        byRole.compute(role, (k, current) ->
+                new Entry(List.of(), 0, current != null ? current.generation + 1 : 1));
+    }
+
+    public void invalidateAll() {
+        for (String role : byRole.keySet()) {
+            invalidate(role);
+        }
+    }
+
+    private static final class Entry {
+        final List<String> userIds;
+        final long expiresAt;
+        final long generation;
+
+        Entry(List<String> userIds, long expiresAt, long generation) {
+            this.userIds = userIds;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package main.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue with one worker thread that writes its items in batches; the write-behind part
+ * of {@link NotificationDispatcher} and {@link ChatMessageBuffer}.
+ *
+ * {@link #offer} returns as soon as the queue accepts the item. The worker drains up to
+ * {@code batchSize} items at a time and hands them to the sink. A failed write is retried with
+ * exponential backoff (capped at 5 s) until it succeeds, so nothing is dropped while the
+ * datastore is down: the batch stays with the worker, the queue fills up, and {@link #offer}
+ * waits up to the offer timeout and then fails, which pushes the outage back to the callers.
+ * {@link #getStats} reports a failing worker with its last error.
+ *
+ * On shutdown the worker stops retrying. Whatever is still unwritten is appended to a spill
+ * file, one JSON line per item, and written first on the next start. Items only in memory are
+ * lost if the process dies without a shutdown.
+ */
+final class WriteBehindQueue<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    /**
+     * Writes one batch, e.g. as one Firestore batch. Throwing means none of it was written.
+     */
+    @FunctionalInterface
+    interface Sink<T> {
+        void write(List<T> batch) throws Exception;
+    }
+
+    /**
+     * Turns an item into JSON-friendly fields for the spill file and back.
+     */
+    interface Codec<T> {
+        Map<String, Object> encode(T item);
+
+        T decode(Map<String, Object> fields);
+    }
+
+    private final String name;
+    private final Sink<T> sink;
+    private final Codec<T> codec;
+    private final Path spillFile;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Items spilled by the last shutdown; only the worker touches the list once it runs
+    private final List<T> replay = new ArrayList<>();
+    private final AtomicInteger replayRemaining = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong commitNanosTotal = new AtomicLong();
+    private final AtomicLong commitNanosMax = new AtomicLong();
+    private final AtomicLong lastCommitNanos = new AtomicLong();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile Instant failingSince;
+    private volatile Instant lastErrorAt;
+    private volatile String lastError;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param name     names the worker thread, the log lines and the spill file, e.g. "chat-message-buffer"
+     * @param spillDir directory of the spill file, created when something is first spilled
+     */
+    WriteBehindQueue(String name, Sink<T> sink, Codec<T> codec, Path spillDir,
+                     int queueCapacity, int batchSize, long offerTimeoutMillis) {
+        this.name = name;
+        this.sink = sink;
+        this.codec = codec;
+        this.spillFile = spillDir.resolve(name + ".jsonl");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    void start() {
+        replay.addAll(readSpill());
+        replayRemaining.set(replay.size());
+        running = true;
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Waits for the worker to write or spill what it holds. A write that is still blocked
+     * after the wait is interrupted, which makes its batch fail and be spilled.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(SHUTDOWN_WAIT_MILLIS);
+        if (worker.isAlive()) {
+            worker.interrupt();
+            worker.join(SHUTDOWN_WAIT_MILLIS);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the queue stays full for the whole offer timeout, or the
+     *                               application is shutting down
+     */
+    void offer(T item) throws InterruptedException {
+        if (!running) {
+            rejected.incrementAndGet();
+            throw new IllegalStateException("The " + name + " queue is shutting down");
+        }
+        if (!queue.offer(item, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            rejected.incrementAndGet();
+            throw new IllegalStateException("The " + name + " queue is full, try again later");
+        }
+        enqueued.incrementAndGet();
+    }
+
+    Map<String, Object> getStats() {
+        long batchCount = batches.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueRemainingCapacity", queue.remainingCapacity());
+        stats.put("enqueued", enqueued.get());
+        stats.put("rejected", rejected.get());
+        stats.put("written", written.get());
+        stats.put("batches", batchCount);
+        stats.put("retries", retries.get());
+        stats.put("failing", consecutiveFailures.get() > 0);
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("failingSince", failingSince != null ? failingSince.toString() : null);
+        stats.put("lastError", lastError);
+        stats.put("lastErrorAt", lastErrorAt != null ? lastErrorAt.toString() : null);
+        stats.put("spilled", spilled.get());
+        stats.put("replayed", replayed.get());
+        stats.put("replayRemaining", replayRemaining.get());
+        stats.put("lastCommitMs", lastCommitNanos.get() / 1_000_000.0);
+        stats.put("avgCommitMs", batchCount == 0 ? 0.0 : commitNanosTotal.get() / 1_000_000.0 / batchCount);
+        stats.put("maxCommitMs", commitNanosMax.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private void run() {
+        // What the last shutdown couldn't write goes before anything new
+        while (!replay.isEmpty()) {
+            List<T> batch = replay.subList(0, Math.min(batchSize, replay.size()));
+            int size = batch.size();
+            if (!commit(batch)) {
+                spillAndExit(new ArrayList<>(replay));
+                return;
+            }
+            batch.clear();
+            replayed.addAndGet(size);
+            replayRemaining.addAndGet(-size);
+        }
+
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            T first;
+            try {
+                first = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                continue; // stop() gave up waiting; the loop condition decides
+            }
+            if (first == null) continue;
+
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (!commit(batch)) {
+                spillAndExit(batch);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the batch, retrying until it succeeds. Returns false only when the application is
+     * shutting down and the write failed, so the caller spills it instead.
+     */
+    private boolean commit(List<T> pending) {
+        long backoffMillis = 100;
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                sink.write(pending);
+                recordCommit(System.nanoTime() - start);
+                written.addAndGet(pending.size());
+                recordRecovery(attempt);
+                return true;
+            } catch (Exception e) {
+                recordFailure(e, attempt, pending.size());
+                if (!running) {
+                    return false;
+                }
+                retries.incrementAndGet();
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    // Only stop() interrupts; the next failure sees running == false
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void spillAndExit(List<T> unwritten) {
+        List<T> items = new ArrayList<>(unwritten);
+        queue.drainTo(items);
+        try {
+            Files.createDirectories(spillFile.getParent());
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                for (T item : items) {
+                    out.write(objectMapper.writeValueAsBytes(codec.encode(item)));
+                    out.write('\n');
+                }
+                out.flush();
+                channel.force(true);
+            }
+            spilled.addAndGet(items.size());
+            log.warn("{}: spilled {} unwritten items to {}; they are written on the next start",
+                    name, items.size(), spillFile);
+        } catch (IOException e) {
+            log.error("{}: could not spill {} unwritten items to {}, they are lost", name, items.size(), spillFile, e);
+        }
+    }
+
+    private List<T> readSpill() {
+        List<T> items = new ArrayList<>();
+        if (!Files.exists(spillFile)) {
+            return items;
+        }
+        try (BufferedReader in = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    items.add(codec.decode(objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {})));
+                } catch (IOException | RuntimeException e) {
+                    log.error("{}: skipping unreadable line in {}", name, spillFile, e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("{}: could not read {}, leaving it for the next start", name, spillFile, e);
+            return new ArrayList<>();
+        }
+        try {
+            // Whatever is still unwritten at the next shutdown is spilled again
+            Files.delete(spillFile);
+        } catch (IOException e) {
+            log.error("{}: could not delete {} after reading it, skipping the replay", name, spillFile, e);
+            return new ArrayList<>();
+        }
+        log.info("{}: writing {} items spilled by the last shutdown", name, items.size());
+        return items;
+    }
+
+    private void recordCommit(long nanos) {
+        batches.incrementAndGet();
+        commitNanosTotal.addAndGet(nanos);
+        lastCommitNanos.set(nanos);
+        commitNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void recordFailure(Exception e, int attempt, int size) {
+        Instant now = Instant.now();
+        if (consecutiveFailures.getAndIncrement() == 0) {
+            failingSince = now;
+        }
+        lastErrorAt = now;
+        lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (attempt == 0) {
+            log.error("{}: writing a batch of {} failed, retrying until it succeeds", name, size, e);
+        } else {
+            log.warn("{}: retry {} of a batch of {} failed: {}", name, attempt, size, lastError);
+        }
+    }
+
+    private void recordRecovery(int attempt) {
+        if (consecutiveFailures.getAndSet(0) > 0) {
+            log.info("{}: writes recovered after {} retries, failing since {}", name, attempt, failingSince);
+            failingSince = null;
+        }
+    }
+}
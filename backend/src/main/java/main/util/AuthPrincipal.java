@@ -0,0 +1,83 @@
+package main.util;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * The caller of the current request, read once from their verified JWT.
+ *
+ * It is the principal of the {@code Authentication} in the security context, so controllers get
+ * it with {@code @AuthenticationPrincipal AuthPrincipal principal} instead of re-parsing the
+ * {@code Authorization} header. {@link #getName()} is the user ID, which is also what STOMP
+ * user destinations are resolved against.
+ */
+public final class AuthPrincipal implements Principal {
+
+    private final String userId;
+    private final String email;
+    private final String displayName;
+    private final String role;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public AuthPrincipal(String userId, String email, String displayName, String role,
+                         Instant issuedAt, Instant expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.displayName = displayName;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Same token, with the ID and role taken from the user's current record instead of the claims.
+     */
+    public AuthPrincipal withAccount(String userId, String role) {
+        return new AuthPrincipal(userId, email, displayName, role, issuedAt, expiresAt);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /** Single-letter role code: a, m, p, e or c. */
+    public String getRole() {
+        return role;
+    }
+
+    /** Null for tokens issued before the claim was added. */
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+
+    public boolean hasRole(String role) {
+        return role != null && role.equals(this.role);
+    }
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal{userId=" + userId + ", role=" + role + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package main.util;
+
+import com.google.api.core.ApiFunction;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Small helpers for composing Firestore {@link ApiFuture}s.
+ *
+ * Start every independent read first, then wait for them together, so a handler costs
+ * roughly its slowest read instead of the sum of all of them.
+ */
+public class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    /**
+     * Converts the result once it arrives. The function runs on the thread that completes the
+     * future, so keep it to cheap mapping such as {@code toObject}.
+     */
+    public static <F, T> ApiFuture<T> map(ApiFuture<F> future, ApiFunction<F, T> function) {
+        return ApiFutures.transform(future, function, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Waits for all futures and returns their results in the same order.
+     * Fails with the first error if any of them fails.
+     */
+    public static <T> List<T> awaitAll(List<? extends ApiFuture<? extends T>> futures) throws ExecutionException, InterruptedException {
+        List<T> results = new ArrayList<>(futures.size());
+        results.addAll(ApiFutures.allAsList(futures).get());
+        return results;
+    }
+
+    @SafeVarargs
+    public static <T> List<T> awaitAll(ApiFuture<? extends T>... futures) throws ExecutionException, InterruptedException {
+        return awaitAll(Arrays.asList(futures));
+    }
+}
@@ -0,0 +1,114 @@
+package main.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stamps a semi-transparent text watermark in the bottom-right corner of an image.
+ *
+ * The text is rendered once into a transparent layer and cached, so each image only costs a
+ * single blit on top of decoding and encoding. The font size is fixed, so one layer serves
+ * every resolution; only its position depends on the image size.
+ */
+public class ImageWatermark {
+
+    private static final Font FONT = new Font("Arial", Font.BOLD, 48);
+    private static final AlphaComposite HALF_TRANSPARENT = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
+    private static final Map<String, Stamp> STAMPS = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes the image, draws the text and re-encodes it. {@code format} is the file extension;
+     * anything other than jpg, jpeg or png is written as png.
+     *
+     * @throws IOException if the bytes are not an image ImageIO can read
+     */
+    public static byte[] apply(byte[] originalImageBytes, String watermarkText, String format) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(originalImageBytes));
+        if (image == null) {
+            throw new IOException("Failed to read image for watermarking.");
+        }
+
+        stamp(image, watermarkText);
+
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        ImageIO.write(image, outputFormat(format), outStream);
+        return outStream.toByteArray();
+    }
+
+    /**
+     * Same as {@link #apply(byte[], String, String)}, but decodes straight from a file and encodes
+     * into {@code out}, so the only full copy in memory is the decoded image itself.
+     */
+    public static void apply(Path source, String watermarkText, String format, OutputStream out) throws IOException {
+        BufferedImage image = read(source);
+        stamp(image, watermarkText);
+        if (!ImageIO.write(image, outputFormat(format), out)) {
+            throw new IOException("No image writer for " + format);
+        }
+    }
+
+    private static BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Failed to read image for watermarking.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true); // single pass, skip metadata
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static void stamp(BufferedImage image, String watermarkText) {
+        Stamp stamp = STAMPS.computeIfAbsent(watermarkText, ImageWatermark::render);
+        int x = image.getWidth() - stamp.layer.getWidth() - 20;
+        int baseline = image.getHeight() - stamp.layer.getHeight() + 40;
+
+        Graphics2D g2d = image.createGraphics();
+        g2d.setComposite(HALF_TRANSPARENT);
+        g2d.drawImage(stamp.layer, x, baseline - stamp.ascent, null);
+        g2d.dispose();
+    }
+
+    private static Stamp render(String watermarkText) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D measure = scratch.createGraphics();
+        FontMetrics fontMetrics = measure.getFontMetrics(FONT);
+        measure.dispose();
+
+        BufferedImage layer = new BufferedImage(Math.max(1, fontMetrics.stringWidth(watermarkText)),
+                Math.max(1, fontMetrics.getHeight()), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = layer.createGraphics();
+        g2d.setFont(FONT);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(watermarkText, 0, fontMetrics.getAscent());
+        g2d.dispose();
+        return new Stamp(layer, fontMetrics.getAscent());
+    }
+
+    private static String outputFormat(String format) {
+        return (format != null && (format.equals("jpg") || format.equals("jpeg") || format.equals("png"))) ? format : "png";
+    }
+
+    private record Stamp(BufferedImage layer, int ascent) {
+    }
+}
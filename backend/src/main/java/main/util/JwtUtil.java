@@ -1,17 +1,24 @@
 package main.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import main.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Date;
 import java.security.Key;
 
 public class JwtUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     private static final long EXPIRATION_TIME = 86400000; // 1 day
     private static final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build(); // thread-safe
 
     public static String generateToken(User user) {
         return Jwts.builder()
@@ -19,51 +26,54 @@ public class JwtUtil {
                 .claim("id", user.getId())
                 .claim("name", user.getName())            // custom claim
                 .claim("role", user.getRole())            // custom claim
+                .setIssuedAt(new Date())                  // lets role changes outrank older tokens
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SECRET_KEY)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry and reads all claims in one pass.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public static AuthPrincipal parse(String token) {
+        Claims claims = PARSER.parseClaimsJws(token).getBody();
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new AuthPrincipal(
+                claims.get("id", String.class),
+                claims.getSubject(),
+                claims.get("name", String.class),
+                claims.get("role", String.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null
+        );
+    }
+
     public static boolean validateToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(SECRET_KEY)
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getExpiration().after(new Date());
+            return !parse(token).isExpired();
         } catch (Exception e) {
-            System.out.println("❌ Token validation error: " + e.getMessage());
+            log.debug("Token validation error: {}", e.getMessage());
             return false;
         }
     }
 
-
     public static String extractEmail(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(SECRET_KEY)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
+            return parse(token).getEmail();
         } catch (Exception e) {
-            System.err.println("❌ Error extracting email from token: " + e.getMessage());
+            log.debug("Error extracting email from token: {}", e.getMessage());
             return null;
         }
     }
+
     public static String extractUserId(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .parseClaimsJws(token)
-                .getBody()
-                .get("id", String.class);  // Getting the "id" claim from your token
+        return parse(token).getUserId();
     }
+
     public static String extractRole(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+        return parse(token).getRole();
     }
 }
@@ -0,0 +1,43 @@
+package main.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes listing cursors. A cursor wraps the ID of the last document on a page, so clients
+ * can't build or edit cursors by hand and the format can change later.
+ */
+public class PageCursor {
+
+    private static final String PREFIX = "v1:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String documentId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + documentId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the document ID in the cursor, or null for the first page.
+     * A malformed cursor is answered with 400 Bad Request.
+     */
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.startsWith(PREFIX) && raw.length() > PREFIX.length() && raw.indexOf('/') < 0) {
+                return raw.substring(PREFIX.length());
+            }
+        } catch (IllegalArgumentException ignored) {
+            // fall through to the 400 below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid startAfter cursor");
+    }
+}
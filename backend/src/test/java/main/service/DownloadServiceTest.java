@@ -0,0 +1,222 @@
+package main.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownloadServiceTest {
+
+    private static final int LENGTH = 1000;
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final String ETAG = "\"v1\"";
+
+    private final DownloadService downloads = new DownloadService(new MockServletContext(), 3600);
+    private final byte[] body = body();
+    private final DownloadService.Download download = new DownloadService.Download("file.bin", null, LENGTH,
+            LAST_MODIFIED, ETAG, false, null, (start, length, out) -> {
+        ByteBuffer buffer = ByteBuffer.wrap(body, (int) start, (int) length);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    });
+
+    @Test
+    void sendsTheWholeBodyWithoutARangeHeader() throws Exception {
+        MockHttpServletResponse response = send(get(null));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentLengthLong()).isEqualTo(LENGTH);
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void closedRange() throws Exception {
+        assertPartial("bytes=0-99", 0, 99);
+        assertPartial("bytes=999-999", 999, 999);
+    }
+
+    @Test
+    void openRangeRunsToTheEnd() throws Exception {
+        assertPartial("bytes=900-", 900, 999);
+    }
+
+    @Test
+    void suffixRangeIsTheLastBytes() throws Exception {
+        assertPartial("bytes=-100", 900, 999);
+        assertPartial("bytes=-5000", 0, 999);
+    }
+
+    @Test
+    void endPastTheBodyIsClipped() throws Exception {
+        assertPartial("bytes=500-5000", 500, 999);
+    }
+
+    @Test
+    void severalRangesAreSentAsMultipartInOrder() throws Exception {
+        MockHttpServletResponse response = send(get("bytes=0-9, 20-29,-10"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+
+        String content = response.getContentAsString(StandardCharsets.ISO_8859_1);
+        int first = assertPart(content, 0, 9);
+        int second = assertPart(content, 20, 29);
+        int third = assertPart(content, 990, 999);
+        assertThat(first).isLessThan(second).isLessThan(third);
+        assertThat(content).endsWith("--\r\n");
+    }
+
+    @Test
+    void unsatisfiableRangesGet416() throws Exception {
+        MockHttpServletResponse response = send(get("bytes=1000-1100"));
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */1000");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void unsatisfiableRangesAreDroppedFromASatisfiableRequest() throws Exception {
+        assertPartial("bytes=0-9,1000-", 0, 9);
+    }
+
+    @Test
+    void malformedHeadersSendTheWholeBody() throws Exception {
+        for (String range : new String[]{"bytes=5-2", "bytes=abc-", "bytes=10", "items=0-9"}) {
+            MockHttpServletResponse response = send(get(range));
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getContentAsByteArray()).as(range).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void tooManyRangesSendTheWholeBody() throws Exception {
+        StringBuilder range = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= 16; i++) {
+            range.append(',').append(i * 10).append('-').append(i * 10);
+        }
+        assertThat(send(get(range.toString())).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void headGetsTheRangeHeadersWithoutABody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-9/1000");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void onlyGetAndHeadAreRanged() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        assertThat(send(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ifRangeWithTheCurrentEtagKeepsTheRange() throws Exception {
+        MockHttpServletRequest request = get("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        assertThat(send(request).getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void ifRangeWithAnOldEtagSendsTheWholeBody() throws Exception {
+        MockHttpServletRequest request = get("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"v0\"");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void ifRangeDateMustMatchToTheSecond() throws Exception {
+        MockHttpServletRequest current = get("bytes=0-9");
+        current.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED + 500);
+        assertThat(send(current).getStatus()).isEqualTo(206);
+
+        MockHttpServletRequest older = get("bytes=0-9");
+        older.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED - 60_000);
+        assertThat(send(older).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304() throws Exception {
+        MockHttpServletRequest request = get(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG);
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void failedIfMatchGets412() throws Exception {
+        MockHttpServletRequest request = get("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_MATCH, "\"v0\"");
+        assertThat(send(request).getStatus()).isEqualTo(412);
+    }
+
+    private void assertPartial(String range, int start, int end) throws Exception {
+        MockHttpServletResponse response = send(get(range));
+
+        assertThat(response.getStatus()).as(range).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range)
+                .isEqualTo("bytes " + start + "-" + end + "/" + LENGTH);
+        assertThat(response.getContentLengthLong()).as(range).isEqualTo(end - start + 1);
+        assertThat(response.getContentAsByteArray()).as(range)
+                .isEqualTo(Arrays.copyOfRange(body, start, end + 1));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloads.send(download, false, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    /**
+     * Checks that the part's header is followed by its bytes and returns where the part starts.
+     */
+    private int assertPart(String content, int start, int end) {
+        String header = "Content-Range: bytes " + start + "-" + end + "/" + LENGTH + "\r\n\r\n";
+        int position = content.indexOf(header);
+        assertThat(position).as(header).isPositive();
+        int from = position + header.length();
+        assertThat(content.substring(from, from + end - start + 1))
+                .isEqualTo(new String(body, start, end - start + 1, StandardCharsets.ISO_8859_1));
+        return position;
+    }
+
+    // Printable and position-dependent, so a wrong offset shows up in the comparison
+    private static byte[] body() {
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,224 @@
+package main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.model.MediaRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectArchiveServiceTest {
+
+    private static final long GB = 1L << 30;
+
+    @TempDir
+    Path uploadDir;
+
+    private final FirestoreService firestoreService = mock(FirestoreService.class);
+    private final DownloadService downloads = new DownloadService(new MockServletContext(), 3600);
+    private MediaStorageService mediaStorage;
+
+    @BeforeEach
+    void setUp() {
+        // Small chunks, so entry data spans several chunk files
+        mediaStorage = new MediaStorageService(uploadDir.toString(), 1000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void archiveReadsBackWithTheRightNamesContentAndCrcs() throws Exception {
+        byte[] first = randomBytes(2500, 1);
+        byte[] second = randomBytes(10, 2);
+        byte[] third = randomBytes(0, 3);
+        List<MediaRef> media = List.of(
+                store(first, "shots/photo.jpg"),
+                store(second, "photo.jpg"),
+                store(third, "empty.txt"));
+        when(firestoreService.getFinalMediaForProject("p1")).thenReturn(media);
+
+        byte[] archive = fetch(new ProjectArchiveService(firestoreService, mediaStorage), "p1", null).getContentAsByteArray();
+
+        Path zip = uploadDir.resolve("archive.zip");
+        Files.write(zip, archive);
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            List<String> names = Collections.list(file.entries()).stream().map(ZipEntry::getName).toList();
+            assertThat(names).containsExactly("photo.jpg", "photo (2).jpg", "empty.txt");
+            assertEntry(file, "photo.jpg", first);
+            assertEntry(file, "photo (2).jpg", second);
+            assertEntry(file, "empty.txt", third);
+        }
+    }
+
+    @Test
+    void anyRangeIsTheMatchingSliceOfTheWholeArchive() throws Exception {
+        List<MediaRef> media = List.of(
+                store(randomBytes(3000, 4), "a.jpg"),
+                store(randomBytes(1234, 5), "b.jpg"));
+        when(firestoreService.getFinalMediaForProject("p1")).thenReturn(media);
+        ProjectArchiveService archives = new ProjectArchiveService(firestoreService, mediaStorage);
+
+        MockHttpServletResponse whole = fetch(archives, "p1", null);
+        byte[] archive = whole.getContentAsByteArray();
+        assertThat(whole.getContentLengthLong()).isEqualTo(archive.length);
+
+        // Inside the first header, across header and data and chunk boundaries, inside the central directory, the tail
+        long[][] ranges = {{0, 9}, {20, 1100}, {1000, 1999}, {3000, 3100}, {archive.length - 150, archive.length - 1}};
+        for (long[] range : ranges) {
+            MockHttpServletResponse part = fetch(archives, "p1", "bytes=" + range[0] + "-" + range[1]);
+            assertThat(part.getStatus()).isEqualTo(206);
+            assertThat(part.getContentAsByteArray())
+                    .as("bytes %d-%d", range[0], range[1])
+                    .isEqualTo(Arrays.copyOfRange(archive, (int) range[0], (int) range[1] + 1));
+        }
+    }
+
+    @Test
+    void legacyManifestsGetTheirCrcBackfilled() throws Exception {
+        byte[] content = randomBytes(1500, 6);
+        MediaRef ref = store(content, "old.jpg");
+        Path manifest = uploadDir.resolve("media").resolve("manifests").resolve(ref.getId());
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode fields = (ObjectNode) objectMapper.readTree(manifest.toFile());
+        fields.remove("crc32");
+        objectMapper.writeValue(manifest.toFile(), fields);
+
+        assertThat(mediaStorage.backfillCrc32()).isEqualTo(1);
+        assertThat(mediaStorage.backfillCrc32()).isZero();
+        assertThat(objectMapper.readTree(manifest.toFile()).get("crc32").asLong()).isEqualTo(crc(content));
+    }
+
+    @Test
+    void largeArchivesUseZip64SizesAndOffsets() throws Exception {
+        // Nothing is stored: only headers are read back, so entry data is never touched
+        MediaStorageService storage = mock(MediaStorageService.class);
+        List<MediaRef> media = new ArrayList<>();
+        long[] sizes = {3 * GB, 5 * GB, 1000};
+        for (int i = 0; i < sizes.length; i++) {
+            String id = "media" + i;
+            media.add(new MediaRef(id, "f" + i + ".bin", "application/octet-stream", sizes[i], "2024-05-01T12:00:00Z"));
+            when(storage.exists(id)).thenReturn(true);
+            when(storage.size(id)).thenReturn(sizes[i]);
+            when(storage.crc32(id)).thenReturn(0x12345678L + i);
+        }
+        when(firestoreService.getFinalMediaForProject("big")).thenReturn(media);
+        ProjectArchiveService archives = new ProjectArchiveService(firestoreService, storage);
+
+        // Local header + data of each entry; the 5 GB one carries a 20-byte ZIP64 extra field
+        long[] offsets = {0, 30 + 6 + sizes[0], 30 + 6 + sizes[0] + 30 + 6 + 20 + sizes[1]};
+        long centralStart = offsets[2] + 30 + 6 + sizes[2];
+        long centralLength = (46 + 6) + (46 + 6 + 4 + 16) + (46 + 6 + 4 + 8);
+        long length = centralStart + centralLength + 56 + 20 + 22;
+
+        MockHttpServletResponse tail = fetch(archives, "big", "bytes=-98");
+        assertThat(tail.getHeader(HttpHeaders.CONTENT_RANGE)).endsWith("/" + length);
+        ByteBuffer end = littleEndian(tail.getContentAsByteArray());
+        assertThat(end.getInt(0)).isEqualTo(0x06064b50);                      // ZIP64 end record
+        assertThat(end.getLong(24)).isEqualTo(3);
+        assertThat(end.getLong(40)).isEqualTo(centralLength);
+        assertThat(end.getLong(48)).isEqualTo(centralStart);
+        assertThat(end.getInt(56)).isEqualTo(0x07064b50);                     // locator
+        assertThat(end.getLong(64)).isEqualTo(centralStart + centralLength);
+        assertThat(end.getInt(76)).isEqualTo(0x06054b50);                     // end record
+        assertThat(end.getInt(76 + 16)).isEqualTo(0xFFFFFFFF);               // offset is in the ZIP64 record
+
+        ByteBuffer central = littleEndian(fetch(archives, "big",
+                "bytes=" + centralStart + "-" + (centralStart + centralLength - 1)).getContentAsByteArray());
+        int position = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            assertThat(central.getInt(position)).isEqualTo(0x02014b50);
+            assertThat(central.getInt(position + 16)).isEqualTo(0x12345678 + i);
+            int nameLength = central.getShort(position + 28);
+            int extraLength = central.getShort(position + 30);
+            long size = Integer.toUnsignedLong(central.getInt(position + 24));
+            long offset = Integer.toUnsignedLong(central.getInt(position + 42));
+            int extra = position + 46 + nameLength;
+            if (extraLength > 0) {
+                assertThat(central.getShort(extra)).isEqualTo((short) 0x0001);
+                int field = extra + 4;
+                if (size == 0xFFFFFFFFL) {
+                    size = central.getLong(field);
+                    field += 16;
+                }
+                if (offset == 0xFFFFFFFFL) {
+                    offset = central.getLong(field);
+                }
+            }
+            assertThat(size).as("size of entry %d", i).isEqualTo(sizes[i]);
+            assertThat(offset).as("offset of entry %d", i).isEqualTo(offsets[i]);
+
+            // The offset points at the entry's local header
+            ByteBuffer local = littleEndian(fetch(archives, "big",
+                    "bytes=" + offset + "-" + (offset + 29)).getContentAsByteArray());
+            assertThat(local.getInt(0)).isEqualTo(0x04034b50);
+            assertThat(local.getInt(14)).isEqualTo(0x12345678 + i);
+            position = extra + extraLength;
+        }
+        assertThat(position).isEqualTo((int) centralLength);
+        verify(storage, never()).transferRange(anyString(), anyLong(), anyLong(), any());
+    }
+
+    private MediaRef store(byte[] content, String fileName) throws Exception {
+        return mediaStorage.store(new ByteArrayInputStream(content), fileName, null);
+    }
+
+    private MockHttpServletResponse fetch(ProjectArchiveService archives, String projectId, String range) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/archive");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloads.send(archives.finalMediaArchive(projectId, "Project"), true, request, response);
+        return response;
+    }
+
+    private static void assertEntry(ZipFile file, String name, byte[] content) throws Exception {
+        ZipEntry entry = file.getEntry(name);
+        assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+        assertThat(entry.getCrc()).isEqualTo(crc(content));
+        assertThat(file.getInputStream(entry).readAllBytes()).isEqualTo(content);
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long crc(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private static ByteBuffer littleEndian(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -135,11 +135,15 @@ const TopNavbar = ({ toggleSidebar, handleLogout }) => {
 
     // WebSocket listener
     useEffect(() => {
-        const socket = new SockJS('http://localhost:8080/ws');
+        const token = localStorage.getItem('token');
+        if (!token) return;
+
         const client = new Client({
-            webSocketFactory: () => socket,
+            webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+            connectHeaders: { Authorization: `Bearer ${token}` },
+            reconnectDelay: 5000,
             onConnect: () => {
-                client.subscribe('/topic/messages', (message) => {
+                client.subscribe('/user/queue/messages', (message) => {
                     const msg = JSON.parse(message.body);
                     if (msg.receiverId === userId.current) {
                         setHasUnreadMessages(true);
@@ -70,14 +70,13 @@ const MessageCenter = () => {
     useEffect(() => {
         const client = new Client({
             webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+            connectHeaders: { Authorization: `Bearer ${token}` },
             reconnectDelay: 5000,
             onConnect: () => {
                 console.log('✅ Connected to WebSocket');
-                client.subscribe('/topic/messages', (message) => {
-                    const msg = JSON.parse(message.body);
-                    if (msg.receiverId === user.id || msg.senderId === user.id) {
-                        updateMessageList(msg);
-                    }
+                // Only this user's conversations are delivered here
+                client.subscribe('/user/queue/messages', (message) => {
+                    updateMessageList(JSON.parse(message.body));
                 });
             },
         });
@@ -108,23 +107,29 @@ const MessageCenter = () => {
         messageEndRef.current?.scrollIntoView({ behavior: 'smooth' });
     }, [selectedConversation?.messages]);
 
+    const selectedIdRef = useRef(null);
+
     const updateMessageList = (msg) => {
-        setConversations(prev =>
-            prev.map(conv => {
-                if (conv.id === msg.senderId || conv.id === msg.receiverId) {
-                    const updatedMessages = [...(conv.messages || []), msg];
-                    return { ...conv, messages: updatedMessages };
-                }
-                return conv;
-            })
-        );
+        const contactId = msg.senderId === user.id ? msg.receiverId : msg.senderId;
+        const isOpen = selectedIdRef.current === contactId;
+
+        // Move the conversation to the top, like the server orders it
+        setConversations(prev => {
+            const conv = prev.find(c => c.id === contactId);
+            if (!conv) return prev;
+            const unreadBump = !isOpen && msg.senderId !== user.id ? 1 : 0;
+            const updated = { ...conv, lastMessage: msg, unread: (conv.unread || 0) + unreadBump };
+            return [updated, ...prev.filter(c => c.id !== contactId)];
+        });
 
         setSelectedConversation(prev => {
-            if (!prev) return prev;
-            const isInCurrent = msg.senderId === prev.id || msg.receiverId === prev.id;
-            if (!isInCurrent) return prev;
+            if (!prev || prev.id !== contactId) return prev;
             return { ...prev, messages: [...(prev.messages || []), msg] };
         });
+
+        if (isOpen && msg.senderId !== user.id) {
+            markRead(contactId);
+        }
     };
 
 
@@ -147,23 +152,51 @@ const MessageCenter = () => {
     };
 
 
-    const fetchMessages = async (contactId) => {
+    // One page of history, newest first from the server; returned oldest first for display
+    const fetchMessages = async (contactId, cursor) => {
         try {
-            const res = await axios.get(`http://localhost:8080/api/messages/${user.id}/${contactId}`, {
+            const res = await axios.get(`http://localhost:8080/api/messages/${user.id}/${contactId}/history`, {
                 headers: {
                     Authorization: `Bearer ${token}`
-                }
+                },
+                params: { limit: 50, ...(cursor ? { startAfter: cursor } : {}) }
             });
-            return res.data;
+            return { messages: [...res.data.items].reverse(), nextCursor: res.data.nextCursor };
         } catch (err) {
             console.error('❌ Failed to fetch messages:', err);
-            return [];
+            return { messages: [], nextCursor: null };
+        }
+    };
+
+    const markRead = async (contactId) => {
+        try {
+            await axios.put(`http://localhost:8080/api/messages/conversations/${user.id}/${contactId}/read`, null, {
+                headers: { Authorization: `Bearer ${token}` }
+            });
+        } catch (err) {
+            console.error('❌ Failed to mark conversation as read:', err);
         }
     };
 
     const handleSelectConversation = async (conversation) => {
-        const messages = await fetchMessages(conversation.id);
-        setSelectedConversation({ ...conversation, messages });
+        selectedIdRef.current = conversation.id;
+        const { messages, nextCursor } = await fetchMessages(conversation.id);
+        setSelectedConversation({ ...conversation, messages, nextCursor });
+
+        if (conversation.unread > 0) {
+            setConversations(prev => prev.map(c => c.id === conversation.id ? { ...c, unread: 0 } : c));
+            markRead(conversation.id);
+        }
+    };
+
+    const handleLoadEarlier = async () => {
+        if (!selectedConversation?.nextCursor) return;
+        const { messages, nextCursor } = await fetchMessages(selectedConversation.id, selectedConversation.nextCursor);
+        setSelectedConversation(prev => prev && {
+            ...prev,
+            messages: [...messages, ...(prev.messages || [])],
+            nextCursor
+        });
     };
 
     const handleNewMessageByEmail = async () => {
@@ -179,7 +212,8 @@ const MessageCenter = () => {
                     contactName: `${userData.name} ${userData.surname || ''}`,
                     messages: []
                 };
-                setConversations(prev => [...prev, newConv]);
+                setConversations(prev => [newConv, ...prev]);
+                selectedIdRef.current = newConv.id;
                 setSelectedConversation(newConv);
             } else {
                 handleSelectConversation(existing);
@@ -191,8 +225,7 @@ const MessageCenter = () => {
         setRecipientEmail('');
     };
 
-    const getUnreadCount = (conversation) =>
-        conversation.messages?.filter(m => !m.read && m.senderId !== user.id).length || 0;
+    const getUnreadCount = (conversation) => conversation.unread || 0;
 
     return (
         <Layout>
@@ -243,7 +276,7 @@ const MessageCenter = () => {
                                                     </ListItemAvatar>
                                                     <ListItemText
                                                         primary={c.contactName}
-                                                        secondary={c.messages?.slice(-1)[0]?.content}
+                                                        secondary={c.lastMessage?.content}
                                                     />
                                                 </ListItem>
                                             ))}
@@ -262,9 +295,16 @@ const MessageCenter = () => {
                                                 </Typography>
                                             </ConversationHeader>
                                             <MessageList>
+                                                {selectedConversation.nextCursor && (
+                                                    <Box sx={{ textAlign: 'center', mb: 2 }}>
+                                                        <Button size="small" onClick={handleLoadEarlier}>
+                                                            Load earlier messages
+                                                        </Button>
+                                                    </Box>
+                                                )}
                                                 {selectedConversation.messages?.map((m, i) => (
                                                     <Box
-                                                        key={i}
+                                                        key={m.id || i}
                                                         sx={{
                                                             display: 'flex',
                                                             justifyContent: m.senderId === user.id ? 'flex-end' : 'flex-start',
@@ -25,13 +25,11 @@ const MessageList = () => {
     useEffect(() => {
         const client = new Client({
             webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+            connectHeaders: { Authorization: `Bearer ${token}` },
             reconnectDelay: 5000,
             onConnect: () => {
-                client.subscribe('/topic/messages', (msg) => {
-                    const message = JSON.parse(msg.body);
-                    if (message.senderId === user.userId || message.receiverId === user.userId) {
-                        updateMessageList(message);
-                    }
+                client.subscribe('/user/queue/messages', (msg) => {
+                    updateMessageList(JSON.parse(msg.body));
                 });
             }
         });
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
     Box, Paper, Table, TableBody, TableCell, TableContainer,
     TableHead, TableRow, Typography, IconButton, Chip
@@ -11,6 +11,8 @@ import CheckIcon from '@mui/icons-material/Check';
 import ClearIcon from '@mui/icons-material/Clear';
 import { Snackbar, Alert, Dialog } from '@mui/material';
 import {jwtDecode} from "jwt-decode";
+import SockJS from 'sockjs-client/dist/sockjs';
+import { Client } from '@stomp/stompjs';
 
 
 const API_URL = 'http://localhost:8080';  // same-origin
@@ -51,6 +53,58 @@ const NotificationList = () => {
         fetchNotifications();
     }, []);
 
+    // Newest timestamp we have, used to catch up after a reconnect
+    const newestSeconds = useRef(0);
+    useEffect(() => {
+        newestSeconds.current = notifications.reduce(
+            (max, n) => Math.max(max, n.timestamp?.seconds || 0), 0
+        );
+    }, [notifications]);
+
+    // Live push on /user/queue/notifications instead of polling
+    useEffect(() => {
+        const token = localStorage.getItem('token');
+        if (!token) return;
+
+        const addNotifications = (incoming) => {
+            setNotifications(prev => {
+                const known = new Set(prev.map(n => n.id));
+                const fresh = incoming.filter(n => !known.has(n.id));
+                return [...fresh, ...prev].sort(
+                    (a, b) => (b.timestamp?.seconds || 0) - (a.timestamp?.seconds || 0)
+                );
+            });
+        };
+
+        const client = new Client({
+            webSocketFactory: () => new SockJS(`${API_URL}/ws`),
+            connectHeaders: { Authorization: `Bearer ${token}` },
+            reconnectDelay: 5000,
+            onConnect: async () => {
+                client.subscribe('/user/queue/notifications', (message) => {
+                    addNotifications([JSON.parse(message.body)]);
+                });
+
+                // Pick up anything that arrived while we were disconnected
+                if (newestSeconds.current > 0) {
+                    try {
+                        const res = await axios.get(`${API_URL}/api/notifications`, {
+                            headers: { Authorization: `Bearer ${token}` },
+                            params: { since: newestSeconds.current * 1000 }
+                        });
+                        addNotifications(res.data);
+                    } catch (error) {
+                        console.error("Error syncing notifications:", error);
+                    }
+                }
+            },
+            debug: () => {},
+        });
+
+        client.activate();
+        return () => client.deactivate();
+    }, []);
+
     const TYPE_COLOR_MAP = {
         task_assignment:   '#BBDEFB',  // light blue
         task_completed:    '#C8E6C9',  // light green
@@ -1,6 +1,5 @@
 import React, { useEffect, useState } from "react";
 import axios from "axios";
-import JSZip from "jszip";
 import { saveAs } from "file-saver";
 import {
     Card,
@@ -20,6 +19,7 @@ const PortfolioGrid = () => {
     const [projects, setProjects] = useState([]);
     const [selectedProject, setSelectedProject] = useState(null);
     const [open, setOpen] = useState(false);
+    const [imageUrls, setImageUrls] = useState({});
 
     useEffect(() => {
         const fetchProjects = async () => {
@@ -37,6 +37,38 @@ const PortfolioGrid = () => {
         fetchProjects();
     }, []);
 
+    // Final media are references now; fetch a thumbnail of each image and show it as a blob URL
+    useEffect(() => {
+        if (!selectedProject?.finalMedia?.length) return;
+
+        const token = localStorage.getItem("token");
+        const urls = {};
+        let cancelled = false;
+
+        const loadImages = async () => {
+            for (const media of selectedProject.finalMedia) {
+                try {
+                    const res = await axios.get("/api/download_media", {
+                        params: { projectId: selectedProject.id, mediaId: media.id, size: "thumb" },
+                        headers: { Authorization: `Bearer ${token}` },
+                        responseType: "blob",
+                    });
+                    urls[media.id] = URL.createObjectURL(res.data);
+                    if (!cancelled) setImageUrls({ ...urls });
+                } catch (err) {
+                    console.error("Failed to load image:", media.fileName, err);
+                }
+            }
+        };
+
+        loadImages();
+
+        return () => {
+            cancelled = true;
+            Object.values(urls).forEach((url) => URL.revokeObjectURL(url));
+        };
+    }, [selectedProject]);
+
     const handleOpen = (project) => {
         setSelectedProject(project);
         setOpen(true);
@@ -45,25 +77,41 @@ const PortfolioGrid = () => {
     const handleClose = () => {
         setOpen(false);
         setSelectedProject(null);
+        setImageUrls({});
+    };
+
+    // The grid only holds thumbnails; downloads fetch the full-size original
+    const fetchOriginal = async (mediaId) => {
+        const token = localStorage.getItem("token");
+        const res = await axios.get("/api/download_media", {
+            params: { projectId: selectedProject.id, mediaId },
+            headers: { Authorization: `Bearer ${token}` },
+            responseType: "blob",
+        });
+        return res.data;
     };
 
-    const handleDownload = (fileName, content) => {
+    const handleDownload = async (fileName, mediaId) => {
+        const url = URL.createObjectURL(await fetchOriginal(mediaId));
         const link = document.createElement("a");
-        link.href = `data:image/jpeg;base64,${content}`;
+        link.href = url;
         link.download = fileName;
         link.click();
+        URL.revokeObjectURL(url);
     };
 
+    // The server streams the whole gallery as one ZIP, so nothing is zipped in the browser
     const handleDownloadAll = async () => {
-        const zip = new JSZip();
-
-        selectedProject?.finalMedia?.forEach((media) => {
-            const base64Data = media.content.split(",").pop(); // just in case there's a prefix
-            zip.file(media.fileName, base64Data, { base64: true });
-        });
-
-        const blob = await zip.generateAsync({ type: "blob" });
-        saveAs(blob, `${selectedProject.title || "portfolio"}.zip`);
+        try {
+            const token = localStorage.getItem("token");
+            const res = await axios.get(`/api/finished_projects/${selectedProject.id}/archive.zip`, {
+                headers: { Authorization: `Bearer ${token}` },
+                responseType: "blob",
+            });
+            saveAs(res.data, `${selectedProject.title || "portfolio"}.zip`);
+        } catch (err) {
+            console.error("Failed to download archive:", err);
+        }
     };
 
 
@@ -161,12 +209,12 @@ const PortfolioGrid = () => {
                         {selectedProject?.finalMedia?.map((media, idx) => (
                             <Box key={idx} textAlign="center">
                                 <img
-                                    src={`data:image/jpeg;base64,${media.content}`}
+                                    src={imageUrls[media.id]}
                                     alt={media.fileName}
                                     style={{ width: "100%", borderRadius: "10px" }}
                                 />
                                 <Button
-                                    onClick={() => handleDownload(media.fileName, media.content)}
+                                    onClick={() => handleDownload(media.fileName, media.id)}
                                     fullWidth
                                     variant="outlined"
                                     size="small"
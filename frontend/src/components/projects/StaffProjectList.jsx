@@ -5,6 +5,10 @@ import Layout from '../Layout';
 import "../../dash.css";
 import JSZip from "jszip";
 import { saveAs } from "file-saver";
+import { resumableUpload } from "./resumableUpload";
+
+// Upload sessions by file, so pressing Upload again after a failure resumes
+const uploadSessions = {};
 
 const StaffProjectList = () => {
     const [userId, setUserId] = useState(null);
@@ -213,10 +217,14 @@ const StaffProjectList = () => {
             const mediaFiles = response.data;
 
             const zip = new JSZip();
-            mediaFiles.forEach(media => {
-                const base64 = media.content.split(",").pop(); // Strip prefix
-                zip.file(media.fileName, base64, { base64: true });
-            });
+            for (const media of mediaFiles) {
+                const file = await axios.get("/api/download_media", {
+                    params: { projectId: selectedProject.id, mediaId: media.id },
+                    headers: { Authorization: `Bearer ${token}` },
+                    responseType: "blob"
+                });
+                zip.file(media.fileName, file.data);
+            }
 
             const blob = await zip.generateAsync({ type: "blob" });
             saveAs(blob, `${selectedProject.title || "media"}.zip`);
@@ -235,17 +243,51 @@ const StaffProjectList = () => {
 
         try {
             const token = localStorage.getItem("token");
+
+            // Raw shoot media can be gigabytes; send it in resumable chunks
+            if (userRole !== "e") {
+                for (const file of selectedFiles) {
+                    await resumableUpload(file, {
+                        target: "media",
+                        projectId: selectedProject.id,
+                        token,
+                        sessions: uploadSessions,
+                    });
+                }
+                alert("Upload successful");
+                setShowUploadModal(false);
+                return;
+            }
+
             const uploadEndpoint = userRole === "e"
                 ? "/api/upload_final_media"
                 : "/api/upload_media";
 
-            await axios.post(uploadEndpoint, formData, {
+            const response = await axios.post(uploadEndpoint, formData, {
                 headers: {
                     Authorization: `Bearer ${token}`,
                     "Content-Type": "multipart/form-data"
                 }
             });
 
+            // Final media is processed in the background; wait for the job to finish
+            if (response.status === 202) {
+                setShowUploadModal(false);
+                let job = response.data;
+                while (job.status === "queued" || job.status === "running") {
+                    await new Promise(resolve => setTimeout(resolve, 2000));
+                    const res = await axios.get(`/api/media_jobs/${job.id}`, {
+                        headers: { Authorization: `Bearer ${token}` }
+                    });
+                    job = res.data;
+                }
+                if (job.status === "failed") throw new Error(job.errors.join("\n"));
+                alert(job.failed > 0
+                    ? `Upload finished: ${job.processed} of ${job.total} files stored.`
+                    : "Upload successful");
+                return;
+            }
+
             alert("Upload successful");
             setShowUploadModal(false);
         } catch (err) {
@@ -0,0 +1,65 @@
+import axios from "axios";
+
+const CHUNK_SIZE = 8 * 1024 * 1024;
+const PARALLEL_CHUNKS = 3;
+const MAX_ATTEMPTS = 5;
+
+// Uploads one file through /api/uploads: chunks that already reached the server are skipped,
+// so calling this again after a dropped connection resumes instead of starting over.
+// Pass the same sessions object across retries; it remembers the session of each file.
+export async function resumableUpload(file, { target, projectId, token, sessions = {} }) {
+    const headers = { Authorization: `Bearer ${token}` };
+    const key = `${file.name}:${file.size}:${file.lastModified}`;
+
+    let session = null;
+    if (sessions[key]) {
+        session = await axios.get(`/api/uploads/${sessions[key]}`, { headers })
+            .then(res => res.data)
+            .catch(() => null);
+    }
+    if (!session) {
+        const res = await axios.post("/api/uploads", {
+            target,
+            projectId,
+            fileName: file.name,
+            contentType: file.type,
+            size: file.size,
+            chunkSize: CHUNK_SIZE,
+        }, { headers });
+        session = res.data;
+        sessions[key] = session.id;
+    }
+
+    const received = new Set(session.received);
+    const pending = [];
+    for (let i = 0; i < session.chunkCount; i++) {
+        if (!received.has(i)) pending.push(i);
+    }
+
+    const sendChunk = async (index) => {
+        const start = index * session.chunkSize;
+        const body = file.slice(start, Math.min(start + session.chunkSize, file.size));
+        for (let attempt = 1; ; attempt++) {
+            try {
+                await axios.put(`/api/uploads/${session.id}/chunks/${index}`, body, {
+                    headers: { ...headers, "Content-Type": "application/octet-stream" },
+                });
+                return;
+            } catch (err) {
+                if (attempt >= MAX_ATTEMPTS || err.response?.status === 400) throw err;
+                await new Promise(resolve => setTimeout(resolve, 1000 * attempt));
+            }
+        }
+    };
+
+    const workers = Array.from({ length: PARALLEL_CHUNKS }, async () => {
+        while (pending.length) {
+            await sendChunk(pending.shift());
+        }
+    });
+    await Promise.all(workers);
+
+    const res = await axios.post(`/api/uploads/${session.id}/commit`, null, { headers });
+    delete sessions[key];
+    return res.data;
+}